@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 /**
  * This class is responsible for
  * First, Follow and First-NT sets for a CFG
@@ -21,15 +22,114 @@ public class CFGOperator {
 	private HashMap<String, Set<String>> grammarFollows; // the grammar follow
 	private HashMap<String, Set<String>> first; // the grammar first set
 	private HashMap<String, Set<String>> firstNT; // the grammar firstNT SET
+	private CompiledGrammar compiled; // the grammar with interned symbols
+	private SymbolTable symbols; // ids of the grammar symbols
+	private FirstSetEngine firstEngine; // computes first and firstNT
+	private SymbolSets firstSets; // the first set by non terminal id
+	private SymbolSets firstNTSets; // the firstNT set by non terminal id
+	private SymbolSets followSets; // the follow set by non terminal id
+	private IncrementalSetEngine incremental; // keeps the sets up to date, null if not incremental
+	private int version; // the version of the incremental sets the maps were built for
 	
+	/**
+	 * Constructor
+	 * Computes the first, firstNT and follow sets right away
+	 * @param g the grammar to operate on
+	 */
 	public CFGOperator(ContextFreeGrammar g) {
+		this(g, false);
+	}
+	
+	/**
+	 * Constructor
+	 * In lazy mode every set is only computed the first time
+	 * it is asked for, and then kept. Either way, the sets
+	 * are computed for the grammar as it is now
+	 * @param g the grammar to operate on
+	 * @param lazy true to compute the sets on demand
+	 */
+	public CFGOperator(ContextFreeGrammar g, boolean lazy) {
 		this.grammar = g;
 		this.vn = grammar.getVn();
 		this.vt = grammar.getVt();
-		// Initializes sets
-		setFirst();
-		setFirstNT();
-		setFollow();
+		this.compiled = g.compile();
+		this.symbols = compiled.getSymbolTable();
+		this.firstEngine = new FirstSetEngine(compiled);
+		if (!lazy) {
+			// Initializes sets
+			setFirst();
+			setFirstNT();
+			setFollow();
+		}
+	}
+	
+	/**
+	 * In incremental mode the operator listens to the grammar
+	 * and keeps the first, firstNT and follow sets up to date
+	 * after every change, instead of computing them for the grammar
+	 * as it was when the operator was created.
+	 * Added productions only make the sets grow and are propagated forward,
+	 * removed productions only recompute the sets that may depend on them
+	 * @param on true to follow the changes of the grammar
+	 */
+	public void setIncremental(boolean on) {
+		if (on && incremental == null) {
+			incremental = new IncrementalSetEngine(grammar);
+			grammar.addListener(incremental);
+			version = incremental.getVersion() - 1;
+		} else if (!on && incremental != null) {
+			grammar.removeListener(incremental);
+			incremental = null;
+		}
+	}
+	
+	/**
+	 * Compute the first and firstNT sets on a ForkJoinPool.
+	 * The dependencies between non terminals are split into strongly
+	 * connected components, and the independent components of every
+	 * layer are solved concurrently. The sets are the same as the
+	 * sequential ones. Only the sets computed after this call are
+	 * affected, so it is meant for lazy operators
+	 * @param pool the pool that runs the tasks, null to compute sequentially
+	 * @param parallelism the number of tasks every layer is split into
+	 */
+	public void setParallel(ForkJoinPool pool, int parallelism) {
+		firstEngine.setParallel(pool, parallelism);
+	}
+	
+	/**
+	 * Compute the first and firstNT sets on the common ForkJoinPool
+	 * @param parallelism the number of tasks every layer is split into,
+	 * 1 or less to compute sequentially
+	 */
+	public void setParallel(int parallelism) {
+		setParallel(parallelism > 1 ? ForkJoinPool.commonPool() : null, parallelism);
+	}
+	
+	/**
+	 * Verify if the operator follows the changes of the grammar
+	 * @return true if it is in incremental mode
+	 */
+	public boolean isIncremental() {
+		return incremental != null;
+	}
+	
+	/**
+	 * Update the maps of sets after the grammar changed, in incremental mode
+	 */
+	private void refresh() {
+		if (incremental == null || incremental.getVersion() == version) {
+			return;
+		}
+		version = incremental.getVersion();
+		compiled = null;
+		symbols = incremental.getSymbolTable();
+		firstSets = incremental.getFirst();
+		firstNTSets = incremental.getFirstNT();
+		followSets = incremental.getFollow();
+		first = getViews(firstSets);
+		firstNT = getViews(firstNTSets);
+		grammarFollows = getViews(followSets);
 	}
 	
 	/**
@@ -58,6 +158,10 @@ public class CFGOperator {
 	 * @return the first set for every string
 	 */
 	public HashMap<String, Set<String>> getFirst() {
+		refresh();
+		if (first == null) {
+			setFirst();
+		}
 		return first;
 	}
 	
@@ -70,7 +174,7 @@ public class CFGOperator {
 		if (!isVnVt(alfa)) { // if a symbol does not belong to vn vt
 			return null;
 		}
-		if(!first.containsKey(alfa)) {
+		if(!getFirst().containsKey(alfa)) {
 			Set<String> f = new HashSet<>();
 			ArrayList<String> symbols = breakSententialForm(alfa);
 			for (int i = 0; i < symbols.size(); i++) {
@@ -91,43 +195,91 @@ public class CFGOperator {
 			}
 			return f;
 		}
-		return first.get(alfa);
+		return getFirst().get(alfa);
 	}
 	
 	/**
-	 * Private function to initialize the first set
+	 * Private function to initialize the first set.
+	 * Uses the nullable symbols and the strongly connected
+	 * components of the dependencies between non terminals
 	 */
 	private void setFirst(){
-		Set<String> set, aux;
-		ArrayList<String> list;
-		first = new HashMap<>();
-		boolean wasChanged = true; // avoid infinite loop from recursion
-		
-		// Initializes first set for every non terminal from the grammar
-		for(String nonTerminal : vn) {
-			first.put(nonTerminal, new HashSet<>());
-		}
-		
-		// Construct first set to dynamically check it later
-		while(wasChanged) {
-			wasChanged = false;
-			for(String nonTerminal : vn) {
-				set = new HashSet<>();
-				aux = new HashSet<>();
-				list = new ArrayList<>();
-				// For every production of non terminal nt, get the first set of each
-				for(String prod : grammar.getGrammarProductions(nonTerminal)){
-					list = breakSententialForm(prod); // get every symbol from the production
-					aux = getProductionFirstSet(list); // first set for the current symbol
-					set.addAll(aux); // Add to the first set of nt
-				}
-				
-				// Construct the set until it is being changed
-				if (first.get(nonTerminal).addAll(set)) {
-					wasChanged = true;
-				}
+		firstSets = firstEngine.computeFirst();
+		first = getViews(firstSets);
+	}
+	
+	/**
+	 * Decode a family of sets into a map from non terminal to set.
+	 * The sets of the map are read only views over the bitsets
+	 * @param sets the sets indexed by non terminal id
+	 * @return the set of every non terminal
+	 */
+	private HashMap<String, Set<String>> getViews(SymbolSets sets) {
+		HashMap<String, Set<String>> map = new HashMap<>();
+		for (int nt = 0; nt < symbols.getNonTerminalCount(); nt++) {
+			String name = symbols.getNonTerminal(nt);
+			if (vn.contains(name)) {
+				map.put(name, sets.view(nt));
 			}
 		}
+		return map;
+	}
+	
+	/**
+	 * Get the compiled grammar the sets were computed from
+	 * @return the compiled grammar
+	 */
+	CompiledGrammar getCompiledGrammar() {
+		refresh();
+		if (compiled == null) {
+			compiled = new CompiledGrammar(grammar, symbols);
+		}
+		return compiled;
+	}
+	
+	/**
+	 * Get the symbol table used by the sets
+	 * @return the ids of the grammar symbols
+	 */
+	SymbolTable getSymbolTable() {
+		refresh();
+		return symbols;
+	}
+	
+	/**
+	 * Get the first sets as bitsets of terminal ids
+	 * @return the first set by non terminal id
+	 */
+	SymbolSets getFirstSets() {
+		refresh();
+		if (firstSets == null) {
+			setFirst();
+		}
+		return firstSets;
+	}
+	
+	/**
+	 * Get the firstNT sets as bitsets of non terminal ids
+	 * @return the firstNT set by non terminal id
+	 */
+	SymbolSets getFirstNTSets() {
+		refresh();
+		if (firstNTSets == null) {
+			setFirstNT();
+		}
+		return firstNTSets;
+	}
+	
+	/**
+	 * Get the follow sets as bitsets of terminal ids
+	 * @return the follow set by non terminal id
+	 */
+	SymbolSets getFollowSets() {
+		refresh();
+		if (followSets == null) {
+			setFollow();
+		}
+		return followSets;
 	}
 	
 	/**
@@ -182,6 +334,10 @@ public class CFGOperator {
 	 * @return the set of firstNT
 	 */
 	public HashMap<String, Set<String>> getFirstNT() {
+		refresh();
+		if (firstNT == null) {
+			setFirstNT();
+		}
 		return firstNT;
 	}
 	
@@ -198,34 +354,12 @@ public class CFGOperator {
 	}
 	
 	/**
-	 * Constructs the firstNT set for every vn from the grammar
+	 * Constructs the firstNT set for every vn from the grammar.
+	 * Uses the same engine as the first set
 	 */
 	private void setFirstNT(){
-		firstNT = new HashMap<>();
-		Set<String> set;
-		boolean wasChanged = true; // avoid infinite loop from recursion
-		
-		// Initializes firstNT set for every vn from the grammar
-		for(String nt : vn) {
-			firstNT.put(nt, new HashSet<>());			
-		}
-		
-		// Do it only while the set was changed
-		while(wasChanged){
-			wasChanged = false;
-			// for every vn from the grammar
-			for(String nt : vn) {
-				set = new HashSet<>();
-				// for every prod from the vn
-				for(String prod : grammar.getGrammarProductions(nt)) {
-					set.addAll(getProductionFirstNT(nt, breakSententialForm(prod)));
-				}
-				// if the set was changed
-				if (firstNT.get(nt).addAll(set)) {
-					wasChanged = true;
-				}
-			}
-		}
+		firstNTSets = firstEngine.computeFirstNT();
+		firstNT = getViews(firstNTSets);
 	}
 		
 	/**
@@ -273,6 +407,10 @@ public class CFGOperator {
 	 * @return the follow set for every vn
 	 */
 	public HashMap<String, Set<String>> getFollow() {
+		refresh();
+		if (grammarFollows == null) {
+			setFollow();
+		}
 		return this.grammarFollows;
 	}
 	
@@ -289,106 +427,14 @@ public class CFGOperator {
 	}
 	
 	/**
-	 * Verify if a given non terminal nt contains useless symbols
-	 * @param nt the nt from the grammar
-	 * @return true if it contains useless symbols
-	 */
-	private boolean isUselessSymbol(String nt) {
-		Set<String> productions = grammar.getGrammarProductions(nt);
-		if (productions.size() < 1) { // if nt doesn't have productions
-			return true;
-		}
-		// for every production of the nt
-		for (String s : productions) {
-			ArrayList<String> sForm = breakSententialForm(s);
-			for (String str : sForm) {
-				if (vn.contains(str)) {
-					if(grammar.getGrammarProductions(str).size() < 1) {
-						return true;
-					}
-				}
-			}
-		}	
-		return false;
-	}
-	
-	/**
-	 * Constructs the follow set for every vn from the grammar
+	 * Constructs the follow set for every vn from the grammar.
+	 * The inclusions between follow sets are collapsed into
+	 * strongly connected components and propagated in one pass.
+	 * Only needs the first sets, not the firstNT sets
 	 */
 	private void setFollow(){
-		grammarFollows = new HashMap<>();
-		ArrayList<String> production;
-		String prodSymbol;
-		boolean wasChanged = true;
-		boolean goToTheNext = true;
-		int symbolCount = 0;
-		//Initializes non terminals
-		for (String nonTerminal : vn) {
-			grammarFollows.put(nonTerminal, new HashSet<>());
-		}
-		// Add empty symbol to the initial symbol of the grammar
-		grammarFollows.get(grammar.getInitialSymbol()).add("$");
-		//for every vn from the grammar
-		for (String nonTerminal : vn) {
-			// For every production from the non terminal
-			for(String prod : grammar.getGrammarProductions(nonTerminal)) {
-				production = breakSententialForm(prod);
-				// Check every symbol from the production
-				for (int i = 0; i < production.size(); i++) {
-					prodSymbol = production.get(i);
-					if (!vt.contains(prodSymbol)) { // symbol is not a terminal
-						if (i < production.size() - 1) {
-							// Add to the set the first set of the symbol
-							grammarFollows.get(prodSymbol).addAll(
-									getProductionFirstSet(
-											production.subList(i+1, production.size())));
-						}
-					}
-				}
-			}
-		}
-		while (wasChanged) {
-			wasChanged = false;
-			// for every non terminal
-			for (String nonTerminal : vn) {
-				// for every production of the non terminal
-				for (String prod : grammar.getGrammarProductions(nonTerminal)) {
-					production = breakSententialForm(prod);
-					symbolCount = production.size() - 1; // last symbol of the production
-					goToTheNext = true;
-					while (goToTheNext) {
-						prodSymbol = production.get(symbolCount); // get the current symbol
-						if(vn.contains(prodSymbol)) { // symbol is vn
-							if (isUselessSymbol(prodSymbol)) { // verify if it is useless
-								if (grammarFollows.get(prodSymbol).add("$")) { // add empty symbol if so
-									wasChanged = true;
-								}
-							} else { // not useless symbol
-								// add to the follow set the follow set from the non terminal
-								if (grammarFollows.get(prodSymbol).addAll(grammarFollows.get(nonTerminal))) {
-									wasChanged = true;
-								}
-							}
-							// Verify if it contains epsilon
-							if (first.get(prodSymbol).contains("&")){
-								// if the whole production was traversed
-								if(--symbolCount < 0) {
-									goToTheNext = false;
-								}
-							} else { // go to the previous symbol
-								goToTheNext = false;
-							}
-						} else { // terminal
-							break;
-						}
-					}
-				}
-			}
-		}
-		// Remove epsilon productions from the follow set
-		for(String nonTerminal : vn) {
-			grammarFollows.get(nonTerminal).remove("&");
-		}
+		followSets = new FollowSetEngine(compiled, getFirstSets()).computeFollow();
+		grammarFollows = getViews(followSets);
 	}
 	
 	/**
@@ -396,9 +442,9 @@ public class CFGOperator {
 	 */
 	public void printFollowSet() {
 		System.out.println("Follow:");
-		for (String s : grammarFollows.keySet()) {
+		for (String s : getFollow().keySet()) {
 			System.out.print(s + ": ");
-			for (String c : grammarFollows.get(s)) {
+			for (String c : getFollow().get(s)) {
 				System.out.print(c + " ");
 			}
 			System.out.println();
@@ -429,27 +475,37 @@ public class CFGOperator {
 		System.out.println();
 	}
 	
+	/**
+	 * Find every cell of the LL(1) table that predicts more than one
+	 * production, without building the table
+	 * @return the conflicts, by non terminal and then lookahead; empty if the grammar is LL(1)
+	 */
+	public List<LL1Conflict> getLL1Conflicts() {
+		return new LL1ConflictFinder(this).find();
+	}
+
 	/**
 	 * Verify if the grammar is factored
 	 * @return true if it is factored
 	 */
 	public boolean isFactored() {
-		Set<String> aux, firstSet, productions;
+		CompiledGrammar compiled = getCompiledGrammar();
+		PredictSets predict = new PredictSets(this);
+		SymbolSets aux = new SymbolSets(symbols, 2, true); // the first set so far and of the production
 		// For every non terminal
-		for (String nt : this.vn) {
-			firstSet = new HashSet<String>();
-			productions = grammar.getGrammarProductions(nt);
+		for (int nt = 0; nt < compiled.getNonTerminalCount(); nt++) {
+			aux.clear(0);
 			// For every production from the vn
-			for (String prod: productions) {
-				aux = getProductionFirstSet(breakSententialForm(prod));
-				// For every symbol of the production
-				for (String prodSymbol : aux) {
-					// If the first set already contains the symbol
-					if (firstSet.contains(prodSymbol)) {
-							return false;
-					}
+			for (int p = compiled.getFirstProduction(nt); p < compiled.getEndProduction(nt); p++) {
+				aux.clear(1);
+				if (predict.addFirst(aux, 1, p)) {
+					aux.add(1, SymbolTable.EPSILON_ID); // every symbol derives epsilon
 				}
-				firstSet.addAll(aux);
+				// If the first set already contains a symbol of the production
+				if (aux.intersects(0, 1)) {
+					return false;
+				}
+				aux.union(0, 1);
 			}
 		}
 		return true;
@@ -460,10 +516,11 @@ public class CFGOperator {
 	 * @return true if it has left recursion
 	 */
 	public boolean hasLeftRecursion() {
+		SymbolSets firstNTSets = getFirstNTSets();
 		// For every vn
-		for (String nt: this.vn) {
+		for (int nt = 0; nt < getSymbolTable().getNonTerminalCount(); nt++) {
 			// If the firstNT set from the current non terminal contains itself
-			if (getFirstNT(nt).contains(nt)) {
+			if (firstNTSets.contains(nt, nt)) {
 				return true;
 			}
 		}
@@ -481,12 +538,12 @@ public class CFGOperator {
 		}
 		
 		ContextFreeGrammar previous = new ContextFreeGrammar(grammar);
-		CFGOperator newOp = new CFGOperator(previous);
+		CFGOperator newOp = new CFGOperator(previous, true);
 		int i = 1;
 		while (i <= steps) {
 			ContextFreeGrammar g = new ContextFreeGrammar(newOp.factorGrammar(previous));
 			g.setId(grammar.getId() + " [F" + i + "]");
-			newOp = new CFGOperator(g);
+			newOp = new CFGOperator(g, true);
 			attempts.add(g);
 			if (newOp.isFactored()) {
 				break;
@@ -496,10 +553,24 @@ public class CFGOperator {
 		}
 		return attempts;
 	}
-	
-	
+
 	/**
-	 * Transforms production set into an array list 
+	 * Factor the longest common prefixes of the productions of every non
+	 * terminal in one pass, with a prefix tree of the productions
+	 * (see LeftFactoring). Productions whose first non terminals derive the
+	 * same terminals are left as they are, as factorGrammar does that by
+	 * replacing the non terminals one step at a time
+	 * @return the left factored grammar
+	 */
+	public ContextFreeGrammar leftFactor() {
+		ContextFreeGrammar result = new LeftFactoring(getCompiledGrammar()).toGrammar();
+		result.setId(grammar.getId() + " [F]");
+		return result;
+	}
+
+
+	/**
+	 * Transforms production set into an array list
 	 * @param p the production set
 	 * @return the set into an array list
 	 */
@@ -768,7 +839,7 @@ public class CFGOperator {
 		
 		for (int i = 0; i < numberedVn.size(); i++) { // for every Ai
 			newG = ContextFreeGrammar.isValidCFG(newG.getDefinition()); // new grammar
-			CFGOperator newOp = new CFGOperator(newG);
+			CFGOperator newOp = new CFGOperator(newG, true);
 			
 			// Indirect Left Recursion
 			for (int j = 0; j <= i-1; j++) { // For every Aj
@@ -825,17 +896,107 @@ public class CFGOperator {
 		result.setId(grammar.getId() + " [-LR]");
 		return results.get(results.size()-1);
 	}
-	
+
+	/**
+	 * Verify if the grammar has useless symbols: non terminals that derive
+	 * no sentence or that the initial symbol does not reach, and terminals
+	 * that are only in their productions (see UsefulSymbols)
+	 * @return true if some symbol is useless
+	 */
+	public boolean hasUselessSymbols() {
+		return !new UsefulSymbols(getCompiledGrammar()).isReduced(grammar);
+	}
+
+	/**
+	 * Remove the useless symbols of the grammar, and the productions they are in.
+	 * The productions that are kept only have their blanks normalized
+	 * @return the grammar with only useful symbols
+	 */
+	public ContextFreeGrammar removeUselessSymbols() {
+		ContextFreeGrammar result = new UsefulSymbols(getCompiledGrammar()).toGrammar();
+		result.setId(grammar.getId() + " [-US]");
+		return result;
+	}
+
+	/**
+	 * Remove the & productions of the grammar, expanding the productions
+	 * with up to 4 nullable symbols (see eliminateEpsilonProductions(int))
+	 * @return the & free grammar
+	 */
+	public ContextFreeGrammar eliminateEpsilonProductions() {
+		return eliminateEpsilonProductions(4);
+	}
+
+	/**
+	 * Remove the & productions of the grammar. The nullable non terminals
+	 * are found once, and every production gets the copies without its
+	 * nullable symbols. Only the initial symbol may derive &, and then it is
+	 * on no right side. A production with more nullable symbols than the
+	 * limit is split with new non terminals instead of being copied 2^k times
+	 * (see EpsilonFreeGrammar)
+	 * @param maxExpansion the most nullable symbols of a production that are expanded in copies
+	 * @return the & free grammar
+	 */
+	public ContextFreeGrammar eliminateEpsilonProductions(int maxExpansion) {
+		ContextFreeGrammar result = new EpsilonFreeGrammar(getCompiledGrammar(), maxExpansion).toGrammar();
+		result.setId(grammar.getId() + " [-&]");
+		return result;
+	}
+
+	/**
+	 * Replace the unit productions A -> B of the grammar by the other
+	 * productions of the non terminals A derives through units, found one
+	 * strongly connected component of the units at a time (see UnitFreeGrammar).
+	 * The non terminals that are no longer reached are removed
+	 * @return the grammar with no unit production
+	 */
+	public ContextFreeGrammar eliminateUnitProductions() {
+		ContextFreeGrammar result = new UnitFreeGrammar(getCompiledGrammar()).toGrammar();
+		result.setId(grammar.getId() + " [-UP]");
+		return result;
+	}
+
+	/**
+	 * Transform the grammar into Greibach normal form:
+	 * A -> a B1 ... Bk, and S -> & if the initial symbol derives &.
+	 * The left recursion is removed with the left corner transform instead
+	 * of substituting Ai -> Aj gama in order, so the grammar grows
+	 * polynomially (see GreibachNormalForm)
+	 * @return the grammar in normal form
+	 */
+	public ContextFreeGrammar toGreibachNormalForm() {
+		ContextFreeGrammar result = new GreibachNormalForm(getCompiledGrammar()).toGrammar();
+		result.setId(grammar.getId() + " [GNF]");
+		return result;
+	}
+
+	/**
+	 * Transform the grammar into Chomsky normal form:
+	 * A -> B C | a, and S -> & if the initial symbol derives &.
+	 * The passes work on the compiled grammar (see ChomskyNormalForm),
+	 * so the time is linear in its size but for the productions UNIT copies,
+	 * and the symbols that derive no sentence or are not reached are removed
+	 * @return the grammar in normal form
+	 */
+	public ContextFreeGrammar toChomskyNormalForm() {
+		ContextFreeGrammar result = new ChomskyNormalForm(getCompiledGrammar()).toGrammar(getSymbolTable());
+		result.setId(grammar.getId() + " [CNF]");
+		return result;
+	}
+
 	/**
 	 * Verify if a given non terminal contains direct left recursion
 	 * @param ai the non terminal to verify
 	 * @return true if there is direct recursion
 	 */
 	public boolean hasDirectRecursion(String ai) {
-		for (String prod : grammar.getGrammarProductions(ai)) {
-			ArrayList<String> aiProdSymbols = breakSententialForm(prod);
-			String firstSymbolAi = aiProdSymbols.get(0);
-			if (firstSymbolAi.equals(ai)) {
+		CompiledGrammar g = grammar.compile();
+		int id = g.getSymbolTable().getNonTerminalId(ai);
+		if (id < 0) {
+			return false;
+		}
+		for (int p = g.getFirstProduction(id); p < g.getEndProduction(id); p++) {
+			if (g.getLength(p) > 0 && g.getSymbol(g.getStart(p)) == id) {
 				return true;
 			}
 		}
@@ -860,23 +1021,16 @@ public class CFGOperator {
 		newProd.put(ai, new HashSet<>());
 		newProd.put(newVn, new HashSet<>());
 		
-		for (String prod : grammar.getGrammarProductions(ai)) {
-			ArrayList<String> aiProdSymbols = breakSententialForm(prod);
-			String firstSymbolAi = aiProdSymbols.get(0);
-			if (!firstSymbolAi.equals(ai)) {
-				betaProductions.add(prod); // beta production
+		CompiledGrammar g = grammar.compile();
+		int id = g.getSymbolTable().getNonTerminalId(ai);
+		for (int p = g.getFirstProduction(id); p < g.getEndProduction(id); p++) {
+			if (g.getLength(p) == 0 || g.getSymbol(g.getStart(p)) != id) {
+				betaProductions.add(g.getProductionText(p)); // beta production
 				continue;
 			}
 			// recursive symbol
 			// Get the alfa part
-			String alfa = "";
-			for (int i = 1; i < aiProdSymbols.size(); i++) {
-				if(!aiProdSymbols.get(i).isEmpty()) {
-					alfa += aiProdSymbols.get(i) + " ";
-				}
-			}
-			alfa = alfa.trim().replaceAll(" +", " ");
-			alfaProductions.add(alfa);
+			alfaProductions.add(g.toString(p, 1));
 		}
 		
 		for (String s: betaProductions) {
@@ -0,0 +1,324 @@
+package ContextFreeLanguage;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * CYK recognizer for any CFG, on its Chomsky normal form (see
+ * ChomskyNormalForm). The distinct right sides B C of the binary
+ * productions are numbered, and every cell of the chart keeps two sets
+ * of them as long[] rows: the right sides whose B the cell derives, and
+ * the ones whose C it derives. A right side applies over a split when
+ * it is in the first set of the left cell and in the second set of the
+ * right cell, so a split is an AND of two rows ORed into the cell, and a
+ * sentence of n tokens takes O(n^3 * r / 64) word operations for r right
+ * sides. The first sets are kept by the token the cells start at and the
+ * second ones by the token they end at, so the splits of a cell read
+ * both in order. The cells of the same length only read shorter ones,
+ * so every diagonal of the chart is split into tasks on a ForkJoinPool.
+ * A recognizer only reads its tables, so it can be shared by threads
+ */
+public class CYKRecognizer {
+	private static final int MIN_GRAIN = 16; // cells of a diagonal a task fills at least
+
+	private CompiledGrammar grammar; // the grammar it operates on
+	private ForkJoinPool pool; // fills the diagonals, null to fill them in the calling thread
+	private int parallelism; // tasks every diagonal is split into
+	private int terminals; // number of terminal ids
+	private int initial; // the initial symbol of the normal form
+	private boolean acceptsEmpty; // whether the initial symbol derives &
+	private int ntWords; // longs of a set of non terminals of the normal form
+	private int words; // longs of a set of right sides
+	private int[] headStart; // first non terminal of every right side in heads
+	private int[] heads; // the non terminals that derive every right side
+	private long[] leftOf; // the right sides every non terminal is the first symbol of, words longs each
+	private long[] rightOf; // the right sides every non terminal is the second symbol of
+	private long[] termLeft; // the right sides the non terminals that derive every terminal are the first symbol of
+	private long[] termRight; // the right sides they are the second symbol of
+	private boolean[] termAccepts; // whether the initial symbol derives every terminal
+
+	/**
+	 * Constructor
+	 * Fills the chart on the common ForkJoinPool
+	 * @param g the grammar
+	 */
+	public CYKRecognizer(ContextFreeGrammar g) {
+		this(new CompiledGrammar(g), ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	/**
+	 * Constructor
+	 * @param g the compiled grammar
+	 * @param pool the pool that fills the diagonals of the chart, null to fill them in the calling thread
+	 * @param parallelism the number of tasks every diagonal is split into
+	 */
+	public CYKRecognizer(CompiledGrammar g, ForkJoinPool pool, int parallelism) {
+		this.grammar = g;
+		this.pool = pool;
+		this.parallelism = Math.max(1, parallelism);
+		this.terminals = g.getSymbolTable().getTerminalCount();
+		ChomskyNormalForm cnf = new ChomskyNormalForm(g);
+		initial = cnf.getInitialSymbol();
+		int n = cnf.getNonTerminalCount();
+		ntWords = (n + 63) >>> 6;
+
+		// Number the right sides, with their non terminals in CSR
+		int[] side = new int[cnf.getProductionCount()]; // right side of every binary production
+		long[] keys = new long[16];
+		int[] index = new int[16];
+		boolean[] used = new boolean[16];
+		int sides = 0;
+		int[] headCount = new int[16];
+		for (int p = 0; p < cnf.getProductionCount(); p++) {
+			if (cnf.getLength(p) != 2) {
+				continue;
+			}
+			long key = ((long) cnf.getSymbol(p, 0) << 32) | cnf.getSymbol(p, 1);
+			if (2 * (sides + 1) > keys.length) {
+				long[] oldKeys = keys;
+				int[] oldIndex = index;
+				boolean[] oldUsed = used;
+				keys = new long[keys.length * 2];
+				index = new int[keys.length];
+				used = new boolean[keys.length];
+				for (int s = 0; s < oldKeys.length; s++) {
+					if (oldUsed[s]) {
+						int slot = find(keys, used, oldKeys[s]);
+						used[slot] = true;
+						keys[slot] = oldKeys[s];
+						index[slot] = oldIndex[s];
+					}
+				}
+			}
+			int slot = find(keys, used, key);
+			if (!used[slot]) {
+				used[slot] = true;
+				keys[slot] = key;
+				index[slot] = sides++;
+			}
+			side[p] = index[slot];
+			headCount = IntArrays.grow(headCount, sides + 1);
+			headCount[side[p]]++;
+		}
+		words = Math.max(1, (sides + 63) >>> 6);
+		headStart = new int[sides + 1];
+		for (int s = 0; s < sides; s++) {
+			headStart[s + 1] = headStart[s] + headCount[s];
+		}
+		heads = new int[headStart[sides]];
+		int[] fill = new int[sides];
+		leftOf = new long[n * words];
+		rightOf = new long[n * words];
+		termLeft = new long[terminals * words];
+		termRight = new long[terminals * words];
+		termAccepts = new boolean[terminals];
+		for (int p = 0; p < cnf.getProductionCount(); p++) {
+			if (cnf.getLength(p) == 2) {
+				int s = side[p];
+				heads[headStart[s] + fill[s]++] = cnf.getLeftSide(p);
+				setBit(leftOf, cnf.getSymbol(p, 0) * words, s);
+				setBit(rightOf, cnf.getSymbol(p, 1) * words, s);
+			} else if (cnf.getLength(p) == 0) {
+				acceptsEmpty = true;
+			}
+		}
+		for (int p = 0; p < cnf.getProductionCount(); p++) {
+			if (cnf.getLength(p) == 1) {
+				int t = ~cnf.getSymbol(p, 0);
+				int a = cnf.getLeftSide(p);
+				for (int w = 0; w < words; w++) {
+					termLeft[t * words + w] |= leftOf[a * words + w];
+					termRight[t * words + w] |= rightOf[a * words + w];
+				}
+				termAccepts[t] |= a == initial;
+			}
+		}
+	}
+
+	private static int find(long[] keys, boolean[] used, long key) {
+		int mask = keys.length - 1;
+		long h = key * 0x9E3779B97F4A7C15L;
+		for (int slot = (int) (h >>> 40) & mask;; slot = (slot + 1) & mask) {
+			if (!used[slot] || keys[slot] == key) {
+				return slot;
+			}
+		}
+	}
+
+	private static void setBit(long[] bits, int offset, int bit) {
+		bits[offset + (bit >>> 6)] |= 1L << bit;
+	}
+
+	/**
+	 * Verify if a sentence belongs to the language of the grammar
+	 * @param tokens the terminal id of every token
+	 * @return true if the sentence is accepted
+	 */
+	public boolean recognize(int[] tokens) {
+		return recognize(tokens, 0, tokens.length);
+	}
+
+	/**
+	 * Verify if a sentence belongs to the language of the grammar
+	 * @param tokens the terminal ids, as given by encode
+	 * @param from the first token of the sentence
+	 * @param to the position after the last token of the sentence
+	 * @return true if the sentence is accepted
+	 */
+	public boolean recognize(int[] tokens, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (tokens[i] <= SymbolTable.END_ID || tokens[i] >= terminals) {
+				return false; // & and $ are not input tokens
+			}
+		}
+		int n = to - from;
+		if (n <= 1) {
+			return n == 0 ? acceptsEmpty : termAccepts[tokens[from]];
+		}
+		// The cell of d + 1 tokens from token i is at d in left[i] and in right[i + d]
+		long[][] left = new long[n][];
+		long[][] right = new long[n][];
+		for (int i = 0; i < n; i++) {
+			int t = tokens[from + i];
+			left[i] = new long[(n - i) * words];
+			right[i] = new long[(i + 1) * words];
+			System.arraycopy(termLeft, t * words, left[i], 0, words);
+			System.arraycopy(termRight, t * words, right[i], 0, words);
+		}
+		for (int d = 1; d < n - 1; d++) {
+			int cells = n - d;
+			int grain = Math.max(MIN_GRAIN, (cells + parallelism - 1) / parallelism);
+			DiagonalTask task = new DiagonalTask(left, right, d, 0, cells, grain);
+			if (pool == null || cells <= grain) {
+				task.compute(); // nothing to split
+			} else {
+				pool.invoke(task);
+			}
+		}
+		// The cell of the whole sentence only has to be checked for the initial symbol
+		long[] applied = new long[words];
+		long[] derived = new long[ntWords];
+		apply(left, right, n - 1, 0, applied);
+		derive(applied, derived);
+		return (derived[initial >>> 6] & (1L << initial)) != 0;
+	}
+
+	/**
+	 * Collect the right sides that apply to a cell over all its splits
+	 * @param left the first sets of the chart, by first token
+	 * @param right the second sets of the chart, by last token
+	 * @param d the diagonal of the cell, its tokens minus one
+	 * @param i the first token of the cell
+	 * @param applied where the right sides are put
+	 */
+	private void apply(long[][] left, long[][] right, int d, int i, long[] applied) {
+		for (int w = 0; w < words; w++) {
+			applied[w] = 0;
+		}
+		long[] l = left[i];
+		long[] r = right[i + d];
+		for (int k = 0; k < d; k++) {
+			// The left part has k + 1 tokens, the right part the rest
+			int lo = k * words;
+			int ro = (d - k - 1) * words;
+			for (int w = 0; w < words; w++) {
+				applied[w] |= l[lo + w] & r[ro + w];
+			}
+		}
+	}
+
+	/**
+	 * Put the non terminals that derive some right sides in a set
+	 * @param applied the right sides
+	 * @param derived the set, cleared first
+	 */
+	private void derive(long[] applied, long[] derived) {
+		for (int w = 0; w < ntWords; w++) {
+			derived[w] = 0;
+		}
+		for (int w = 0; w < words; w++) {
+			for (long word = applied[w]; word != 0; word &= word - 1) {
+				int s = w * 64 + Long.numberOfTrailingZeros(word);
+				for (int h = headStart[s]; h < headStart[s + 1]; h++) {
+					setBit(derived, 0, heads[h]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Fills a range of the cells of a diagonal, splitting it in halves down to the grain
+	 */
+	private class DiagonalTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private long[][] left; // the first sets of the chart, by first token
+		private long[][] right; // the second sets of the chart, by last token
+		private int d; // the diagonal
+		private int from; // first cell of the range
+		private int to; // end of the range
+		private int grain; // number of cells filled without splitting
+
+		DiagonalTask(long[][] left, long[][] right, int d, int from, int to, int grain) {
+			this.left = left;
+			this.right = right;
+			this.d = d;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > grain) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new DiagonalTask(left, right, d, from, middle, grain),
+						new DiagonalTask(left, right, d, middle, to, grain));
+				return;
+			}
+			long[] applied = new long[words];
+			long[] derived = new long[ntWords];
+			for (int i = from; i < to; i++) {
+				apply(left, right, d, i, applied);
+				derive(applied, derived);
+				// The sets of the cell are the ones of the non terminals it derives
+				long[] l = left[i];
+				long[] r = right[i + d];
+				int o = d * words;
+				for (int w = 0; w < ntWords; w++) {
+					for (long word = derived[w]; word != 0; word &= word - 1) {
+						int a = w * 64 + Long.numberOfTrailingZeros(word);
+						for (int x = 0; x < words; x++) {
+							l[o + x] |= leftOf[a * words + x];
+							r[o + x] |= rightOf[a * words + x];
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the symbol table the ids refer to
+	 * @return the ids of the grammar symbols
+	 */
+	public SymbolTable getSymbolTable() {
+		return grammar.getSymbolTable();
+	}
+
+	/**
+	 * Transform a sentence in the form "a b c" into terminal ids
+	 * @param sentence the sentence
+	 * @return the id of every token, -1 for the ones that are not terminals
+	 */
+	public int[] encode(String sentence) {
+		String[] br = sentence.trim().split("[\\s\\r]+");
+		if (br.length == 1 && br[0].isEmpty()) {
+			return new int[0];
+		}
+		int[] tokens = new int[br.length];
+		for (int i = 0; i < br.length; i++) {
+			tokens[i] = grammar.getSymbolTable().getTerminalId(br[i]);
+		}
+		return tokens;
+	}
+}
@@ -0,0 +1,485 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Chomsky normal form of a compiled grammar, in int arrays: every
+ * production is A -> B C or A -> a, and the initial symbol derives &
+ * only through a production with no symbol, and then it is on no right side.
+ * The passes run in the order START, TERM, BIN, DEL, UNIT, and then the
+ * productions that derive no sentence or that the initial symbol does
+ * not reach are removed. Splitting the long productions before removing
+ * the & ones keeps DEL linear: a production of two symbols gives at most
+ * three, where DEL first would give 2^k for k nullable symbols. UNIT can
+ * still give a non terminal the productions of every one it derives.
+ * Non terminal codes are ids as in SymbolTable, terminal codes are ~id.
+ * The ids of the grammar are kept, and the ones added come after them
+ */
+class ChomskyNormalForm {
+	private static final int NONE = Integer.MIN_VALUE; // no symbol
+
+	private int terminals; // number of terminal ids
+	private int ntCount; // non terminals, the original ones first
+	private int[] parent; // the non terminal every added non terminal was created for, -1 for the original ones
+	private int initial; // the initial symbol
+	private int count; // productions
+	private int[] lhs; // left side of every production
+	private int[] first; // first symbol of every production, NONE for &
+	private int[] second; // second symbol of every production, NONE if it has less than two
+
+	/**
+	 * Constructor
+	 * @param g the compiled grammar
+	 */
+	ChomskyNormalForm(CompiledGrammar g) {
+		terminals = g.getSymbolTable().getTerminalCount();
+		ntCount = g.getNonTerminalCount();
+		parent = new int[Math.max(16, ntCount * 2)];
+		Arrays.fill(parent, -1);
+		initial = g.getInitialSymbol();
+		lhs = new int[Math.max(16, g.getProductionCount() * 2)];
+		first = new int[lhs.length];
+		second = new int[lhs.length];
+		start(g);
+		termAndBin(g);
+		del();
+		unit();
+		clean();
+	}
+
+	/**
+	 * START: if the initial symbol is on a right side, a new one derives it
+	 * @param g the compiled grammar
+	 */
+	private void start(CompiledGrammar g) {
+		for (int p = 0; p < g.getProductionCount(); p++) {
+			for (int i = g.getStart(p); i < g.getEnd(p); i++) {
+				if (g.getSymbol(i) == initial) {
+					int s = addNonTerminal(initial);
+					add(s, initial, NONE);
+					initial = s;
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * TERM and BIN: the terminals of the productions of two or more symbols
+	 * are replaced by a non terminal that derives them, and the productions
+	 * of more than two symbols become a chain of productions of two
+	 * @param g the compiled grammar
+	 */
+	private void termAndBin(CompiledGrammar g) {
+		int[] term = new int[terminals]; // the non terminal that derives every terminal, 0 if none yet
+		int[] rhs = new int[16];
+		for (int p = 0; p < g.getProductionCount(); p++) {
+			int a = g.getLeftSide(p);
+			int k = 0;
+			for (int i = g.getStart(p); i < g.getEnd(p); i++) {
+				int symbol = g.getSymbol(i);
+				if (symbol != ~SymbolTable.EPSILON_ID) {
+					rhs = IntArrays.grow(rhs, k + 1);
+					rhs[k++] = symbol;
+				}
+			}
+			if (k < 2) {
+				add(a, k == 0 ? NONE : rhs[0], NONE);
+				continue;
+			}
+			for (int i = 0; i < k; i++) {
+				if (SymbolTable.isTerminal(rhs[i])) {
+					int t = ~rhs[i];
+					if (term[t] == 0) {
+						term[t] = addNonTerminal(a) + 1;
+						add(term[t] - 1, rhs[i], NONE);
+					}
+					rhs[i] = term[t] - 1;
+				}
+			}
+			for (int i = 0; i < k - 2; i++) {
+				int next = addNonTerminal(a);
+				add(a, rhs[i], next);
+				a = next;
+			}
+			add(a, rhs[k - 2], rhs[k - 1]);
+		}
+	}
+
+	/**
+	 * DEL: every production with a nullable symbol gets a copy without it,
+	 * and the productions with no symbol are removed, but for the initial one
+	 */
+	private void del() {
+		boolean[] nullable = closure(true);
+		int end = count;
+		int kept = 0;
+		for (int p = 0; p < end; p++) {
+			int a = lhs[p], x = first[p], y = second[p];
+			if (x == NONE) {
+				continue;
+			}
+			lhs[kept] = a;
+			first[kept] = x;
+			second[kept++] = y;
+		}
+		count = kept;
+		for (int p = 0; p < kept; p++) {
+			int a = lhs[p], x = first[p], y = second[p];
+			if (y == NONE) {
+				continue;
+			}
+			if (x >= 0 && nullable[x]) {
+				add(a, y, NONE);
+			}
+			if (y >= 0 && nullable[y]) {
+				add(a, x, NONE);
+			}
+		}
+		if (nullable[initial]) {
+			add(initial, NONE, NONE);
+		}
+	}
+
+	/**
+	 * Find the non terminals that derive & or some sentence, with a worklist:
+	 * a production marks its left side when the last of its non terminals
+	 * is marked, and for & when it has no terminal
+	 * @param empty true for the ones that derive &, false for the ones that derive a sentence
+	 * @return whether every non terminal is marked
+	 */
+	private boolean[] closure(boolean empty) {
+		boolean[] marked = new boolean[ntCount];
+		int[] missing = new int[count]; // symbols of every production not known to be marked
+		int[] occurStart = new int[ntCount + 1];
+		for (int p = 0; p < count; p++) {
+			if (first[p] >= 0) {
+				occurStart[first[p] + 1]++;
+			}
+			if (second[p] >= 0) {
+				occurStart[second[p] + 1]++;
+			}
+		}
+		for (int nt = 0; nt < ntCount; nt++) {
+			occurStart[nt + 1] += occurStart[nt];
+		}
+		int[] occur = new int[occurStart[ntCount]]; // the productions every non terminal is on the right side of
+		int[] fill = Arrays.copyOf(occurStart, ntCount);
+		int[] work = new int[ntCount];
+		int top = 0;
+		for (int p = 0; p < count; p++) {
+			for (int k = 0; k < 2; k++) {
+				int s = getSymbol(p, k);
+				if (s >= 0) {
+					occur[fill[s]++] = p;
+					missing[p]++;
+				} else if (s != NONE && empty) {
+					missing[p] += 3; // a terminal never derives &
+				}
+			}
+			if (missing[p] == 0 && !marked[lhs[p]]) {
+				marked[lhs[p]] = true;
+				work[top++] = lhs[p];
+			}
+		}
+		while (top > 0) {
+			int nt = work[--top];
+			for (int i = occurStart[nt]; i < occurStart[nt + 1]; i++) {
+				int p = occur[i];
+				if (--missing[p] == 0 && !marked[lhs[p]]) {
+					marked[lhs[p]] = true;
+					work[top++] = lhs[p];
+				}
+			}
+		}
+		return marked;
+	}
+
+	/**
+	 * UNIT: a non terminal gets the productions that are not A -> B of every
+	 * non terminal it derives through productions A -> B, which are removed.
+	 * The sets are collected one strongly connected component of the unit
+	 * productions at a time, the components reached first.
+	 * Equal productions of the same non terminal are kept once
+	 */
+	private void unit() {
+		IntGraph units = new IntGraph(ntCount);
+		int[] ownStart = new int[ntCount + 1]; // the productions of every non terminal that are not units
+		for (int p = 0; p < count; p++) {
+			if (isUnit(p)) {
+				units.addEdge(lhs[p], first[p]);
+			} else {
+				ownStart[lhs[p] + 1]++;
+			}
+		}
+		for (int nt = 0; nt < ntCount; nt++) {
+			ownStart[nt + 1] += ownStart[nt];
+		}
+		int[] own = new int[ownStart[ntCount]];
+		int[] fill = Arrays.copyOf(ownStart, ntCount);
+		for (int p = 0; p < count; p++) {
+			if (!isUnit(p)) {
+				own[fill[lhs[p]]++] = p;
+			}
+		}
+		int[][] adj = units.getAdjacency();
+		StronglyConnectedComponents scc = new StronglyConnectedComponents(adj);
+		int[][] reach = UnitFreeGrammar.closeUnits(scc, adj, ownStart, own, count); // the productions every component derives through units
+		// Every non terminal gets the productions of its component, without duplicates
+		int[] oldLhs = lhs, oldFirst = first, oldSecond = second;
+		count = 0;
+		lhs = new int[Math.max(16, oldLhs.length)];
+		first = new int[lhs.length];
+		second = new int[lhs.length];
+		ProductionSet set = new ProductionSet();
+		for (int nt = 0; nt < ntCount; nt++) {
+			set.clear();
+			for (int p : reach[scc.getComponent(nt)]) {
+				if (set.add(oldFirst[p], oldSecond[p])) {
+					add(nt, oldFirst[p], oldSecond[p]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove the productions with a non terminal that derives no sentence,
+	 * and then the ones of the non terminals the initial symbol does not reach
+	 */
+	private void clean() {
+		boolean[] productive = closure(false);
+		int kept = 0;
+		for (int p = 0; p < count; p++) {
+			if (productive[lhs[p]] && (first[p] < 0 || productive[first[p]])
+					&& (second[p] < 0 || productive[second[p]])) {
+				lhs[kept] = lhs[p];
+				first[kept] = first[p];
+				second[kept++] = second[p];
+			}
+		}
+		count = kept;
+		IntGraph uses = new IntGraph(ntCount);
+		for (int p = 0; p < count; p++) {
+			if (first[p] >= 0) {
+				uses.addEdge(lhs[p], first[p]);
+			}
+			if (second[p] >= 0) {
+				uses.addEdge(lhs[p], second[p]);
+			}
+		}
+		int[][] adj = uses.getAdjacency();
+		boolean[] reached = new boolean[ntCount];
+		int[] work = new int[ntCount];
+		int top = 0;
+		reached[initial] = true;
+		work[top++] = initial;
+		while (top > 0) {
+			for (int v : adj[work[--top]]) {
+				if (!reached[v]) {
+					reached[v] = true;
+					work[top++] = v;
+				}
+			}
+		}
+		kept = 0;
+		for (int p = 0; p < count; p++) {
+			if (reached[lhs[p]]) {
+				lhs[kept] = lhs[p];
+				first[kept] = first[p];
+				second[kept++] = second[p];
+			}
+		}
+		count = kept;
+	}
+
+	private boolean isUnit(int p) {
+		return first[p] >= 0 && second[p] == NONE;
+	}
+
+	/**
+	 * Add a non terminal
+	 * @param from the non terminal it is created for
+	 * @return its id
+	 */
+	private int addNonTerminal(int from) {
+		parent = IntArrays.grow(parent, ntCount + 1);
+		parent[ntCount] = from;
+		return ntCount++;
+	}
+
+	private void add(int a, int x, int y) {
+		lhs = IntArrays.grow(lhs, count + 1);
+		first = IntArrays.grow(first, count + 1);
+		second = IntArrays.grow(second, count + 1);
+		lhs[count] = a;
+		first[count] = x;
+		second[count++] = y;
+	}
+
+	/**
+	 * The right sides of the productions of a non terminal, an open
+	 * addressing table of the two symbols packed in a long.
+	 * Slots filled for another set are empty, so clearing is O(1)
+	 */
+	private static class ProductionSet {
+		private long[] keys = new long[16];
+		private int[] used = new int[16]; // the stamp of the set every slot was filled for
+		private int stamp = 1; // stamp of the current set
+		private int size;
+
+		void clear() {
+			stamp++;
+			size = 0;
+		}
+
+		boolean add(int x, int y) {
+			if (2 * (size + 1) > keys.length) {
+				long[] oldKeys = keys;
+				int[] oldUsed = used;
+				keys = new long[keys.length * 2];
+				used = new int[keys.length];
+				for (int s = 0; s < oldKeys.length; s++) {
+					if (oldUsed[s] == stamp) {
+						insert(oldKeys[s]);
+					}
+				}
+			}
+			if (insert(((long) x << 32) | (y & 0xFFFFFFFFL))) {
+				size++;
+				return true;
+			}
+			return false;
+		}
+
+		private boolean insert(long key) {
+			int mask = keys.length - 1;
+			long h = key * 0x9E3779B97F4A7C15L;
+			for (int slot = (int) (h >>> 40) & mask;; slot = (slot + 1) & mask) {
+				if (used[slot] != stamp) {
+					used[slot] = stamp;
+					keys[slot] = key;
+					return true;
+				}
+				if (keys[slot] == key) {
+					return false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Build the normal form as a grammar. The non terminals of the grammar
+	 * keep their names, and an added one is named after the non terminal
+	 * of the grammar it was created for, with the next number that is free
+	 * @param symbols the symbol table of the compiled grammar
+	 * @return the grammar, with no id
+	 */
+	ContextFreeGrammar toGrammar(SymbolTable symbols) {
+		int original = symbols.getNonTerminalCount();
+		String[] names = new String[ntCount];
+		for (int nt = 0; nt < original; nt++) {
+			names[nt] = symbols.getNonTerminal(nt);
+		}
+		NonTerminalNames fresh = new NonTerminalNames(symbols);
+		for (int nt = original; nt < ntCount; nt++) {
+			int root = nt;
+			while (root >= original) {
+				root = parent[root];
+			}
+			names[nt] = fresh.next(names[root]);
+		}
+		HashMap<String, HashSet<String>> productions = new HashMap<>();
+		ContextFreeGrammar g = new ContextFreeGrammar();
+		g.addVn(names[initial]);
+		for (int p = 0; p < count; p++) {
+			String left = names[lhs[p]];
+			String right;
+			if (first[p] == NONE) {
+				right = SymbolTable.EPSILON;
+			} else if (first[p] < 0) {
+				right = symbols.getTerminal(~first[p]);
+			} else {
+				right = names[first[p]] + " " + names[second[p]];
+			}
+			HashSet<String> set = productions.get(left);
+			if (set == null) {
+				set = new HashSet<>();
+				productions.put(left, set);
+				g.addVn(left);
+			}
+			set.add(right);
+			if (first[p] < 0) {
+				g.addVt(right);
+			}
+		}
+		if (!productions.containsKey(names[initial])) {
+			productions.put(names[initial], new HashSet<String>());
+		}
+		g.setProductions(productions);
+		g.setInitialSymbol(names[initial]);
+		return g;
+	}
+
+	/**
+	 * Get the number of non terminals
+	 * @return the ids of the grammar, and then the added ones
+	 */
+	int getNonTerminalCount() {
+		return ntCount;
+	}
+
+	/**
+	 * Get the non terminal an added non terminal was created for
+	 * @param nt the non terminal id
+	 * @return the id it was created for, -1 if it is a non terminal of the grammar
+	 */
+	int getParent(int nt) {
+		return parent[nt];
+	}
+
+	/**
+	 * Get the initial symbol
+	 * @return the id of the initial symbol of the grammar, or of the added one
+	 */
+	int getInitialSymbol() {
+		return initial;
+	}
+
+	/**
+	 * Get the number of productions
+	 * @return the productions, numbered from 0
+	 */
+	int getProductionCount() {
+		return count;
+	}
+
+	/**
+	 * Get the left side of a production
+	 * @param p the production
+	 * @return the non terminal id
+	 */
+	int getLeftSide(int p) {
+		return lhs[p];
+	}
+
+	/**
+	 * Get the number of symbols of a production
+	 * @param p the production
+	 * @return 2 for A -> B C, 1 for A -> a, 0 for the & of the initial symbol
+	 */
+	int getLength(int p) {
+		return first[p] == NONE ? 0 : second[p] == NONE ? 1 : 2;
+	}
+
+	/**
+	 * Get a symbol of a production
+	 * @param p the production
+	 * @param k the position, 0 or 1
+	 * @return the symbol code
+	 */
+	int getSymbol(int p, int k) {
+		return k == 0 ? first[p] : second[p];
+	}
+}
@@ -0,0 +1,252 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Compiled, read only form of a Context Free Grammar.
+ * Every symbol is interned in a SymbolTable and the productions
+ * are stored back to back in a single int[] (CSR layout):
+ * the productions of non terminal A are getFirstProduction(A) ...
+ * getEndProduction(A) - 1 and the symbols of production p are
+ * getSymbol(getStart(p)) ... getSymbol(getEnd(p) - 1).
+ * Symbol codes follow SymbolTable: a non terminal id or ~id of a terminal.
+ * Productions are kept in the iteration order of the grammar
+ */
+public class CompiledGrammar {
+	private SymbolTable symbols; // ids of the grammar symbols
+	private int[] ntOffsets; // first production of every non terminal, plus the end
+	private int[] prodOffsets; // first symbol of every production, plus the end
+	private int[] arena; // the symbols of every production, back to back
+	private int[] lhs; // the non terminal of every production
+	private String[] text; // the production as it is in the grammar
+	private int initial; // id of the initial symbol, -1 if there is none
+
+	/**
+	 * Constructor
+	 * Tokenizes every production of the grammar
+	 * @param g the grammar to compile
+	 */
+	public CompiledGrammar(ContextFreeGrammar g) {
+		this(g, new SymbolTable(g));
+	}
+
+	/**
+	 * Constructor
+	 * Tokenizes every production of the grammar, keeping the ids
+	 * of a symbol table that is shared with other compiled forms.
+	 * New symbols are added to the table
+	 * @param g the grammar to compile
+	 * @param symbols the symbol table
+	 */
+	CompiledGrammar(ContextFreeGrammar g, SymbolTable symbols) {
+		this.symbols = symbols;
+		for (String nt : g.getVn()) {
+			symbols.addNonTerminal(nt);
+		}
+		int n = symbols.getNonTerminalCount();
+		int prodCount = 0;
+		for (int nt = 0; nt < n; nt++) {
+			prodCount += g.readProductions(symbols.getNonTerminal(nt)).size();
+		}
+		int[] offsets = new int[n + 1];
+		prodOffsets = new int[prodCount + 1];
+		lhs = new int[prodCount];
+		text = new String[prodCount];
+		arena = new int[Math.max(16, prodCount * 3)];
+		int p = 0, size = 0;
+		for (int nt = 0; nt < n; nt++) {
+			offsets[nt] = p;
+			Collection<String> prods = g.readProductions(symbols.getNonTerminal(nt));
+			for (String prod : prods) {
+				int[] codes = symbols.encodeProduction(prod);
+				if (size + codes.length > arena.length) {
+					arena = Arrays.copyOf(arena, Math.max(arena.length * 2, size + codes.length));
+				}
+				System.arraycopy(codes, 0, arena, size, codes.length);
+				prodOffsets[p] = size;
+				lhs[p] = nt;
+				text[p] = prod;
+				size += codes.length;
+				p++;
+			}
+		}
+		// Non terminals first seen in a production have no productions
+		ntOffsets = Arrays.copyOf(offsets, symbols.getNonTerminalCount() + 1);
+		Arrays.fill(ntOffsets, n, ntOffsets.length, p);
+		prodOffsets[p] = size;
+		arena = Arrays.copyOf(arena, size);
+		initial = symbols.getNonTerminalId(g.getInitialSymbol());
+	}
+
+	/**
+	 * Get the symbol table of the grammar
+	 * @return the ids of the grammar symbols
+	 */
+	public SymbolTable getSymbolTable() {
+		return symbols;
+	}
+
+	/**
+	 * Get the id of the initial symbol
+	 * @return the id, -1 if the grammar has no initial symbol
+	 */
+	public int getInitialSymbol() {
+		return initial;
+	}
+
+	/**
+	 * Get the number of non terminals
+	 * @return the number of non terminals
+	 */
+	public int getNonTerminalCount() {
+		return ntOffsets.length - 1;
+	}
+
+	/**
+	 * Get the number of productions
+	 * @return the number of productions
+	 */
+	public int getProductionCount() {
+		return lhs.length;
+	}
+
+	/**
+	 * Get the first production of a non terminal
+	 * @param nt the non terminal id
+	 * @return the index of its first production
+	 */
+	public int getFirstProduction(int nt) {
+		return ntOffsets[nt];
+	}
+
+	/**
+	 * Get the index after the last production of a non terminal
+	 * @param nt the non terminal id
+	 * @return the index after its last production
+	 */
+	public int getEndProduction(int nt) {
+		return ntOffsets[nt + 1];
+	}
+
+	/**
+	 * Get the non terminal a production belongs to
+	 * @param p the production index
+	 * @return the non terminal id
+	 */
+	public int getLeftSide(int p) {
+		return lhs[p];
+	}
+
+	/**
+	 * Get the position of the first symbol of a production
+	 * @param p the production index
+	 * @return the position in the arena
+	 */
+	public int getStart(int p) {
+		return prodOffsets[p];
+	}
+
+	/**
+	 * Get the position after the last symbol of a production
+	 * @param p the production index
+	 * @return the position in the arena
+	 */
+	public int getEnd(int p) {
+		return prodOffsets[p + 1];
+	}
+
+	/**
+	 * Get the number of symbols of a production
+	 * @param p the production index
+	 * @return the length of the production
+	 */
+	public int getLength(int p) {
+		return prodOffsets[p + 1] - prodOffsets[p];
+	}
+
+	/**
+	 * Get a symbol of the arena
+	 * @param position the position in the arena
+	 * @return the symbol code
+	 */
+	public int getSymbol(int position) {
+		return arena[position];
+	}
+
+	/**
+	 * Get the production as it was written in the grammar
+	 * @param p the production index
+	 * @return the production string
+	 */
+	public String getProductionText(int p) {
+		return text[p];
+	}
+
+	/**
+	 * Get the symbols of a production separated by one blank
+	 * @param p the production index
+	 * @param from the first symbol, relative to the production
+	 * @return the production string
+	 */
+	public String toString(int p, int from) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = prodOffsets[p] + from; i < prodOffsets[p + 1]; i++) {
+			if (sb.length() > 0) {
+				sb.append(' ');
+			}
+			sb.append(symbols.decode(arena[i]));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Verify if the first and follow sets of CFGOperator are the ones of
+	 * the productions without &: no production has & next to other
+	 * symbols (it ends the first set of the rest of the production
+	 * there), and none uses a non terminal without productions (its
+	 * non terminal only gets $ in its follow set)
+	 * @return true if the sets of the operator can be used
+	 */
+	boolean hasPlainSets() {
+		for (int p = 0; p < getProductionCount(); p++) {
+			int epsilons = 0;
+			for (int i = prodOffsets[p]; i < prodOffsets[p + 1]; i++) {
+				int symbol = arena[i];
+				if (symbol == ~SymbolTable.EPSILON_ID) {
+					epsilons++;
+				} else if (symbol >= 0 && ntOffsets[symbol] == ntOffsets[symbol + 1]) {
+					return false;
+				}
+			}
+			if (epsilons > 0 && epsilons < getLength(p)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the whole arena, for tight loops inside the package
+	 * @return the symbols of every production, back to back
+	 */
+	int[] getArena() {
+		return arena;
+	}
+
+	/**
+	 * Get the production offsets, for tight loops inside the package
+	 * @return the first symbol of every production, plus the end
+	 */
+	int[] getProductionOffsets() {
+		return prodOffsets;
+	}
+
+	/**
+	 * Get the non terminal of every production, for tight loops inside the package
+	 * @return the non terminal id by production index
+	 */
+	int[] getLeftSides() {
+		return lhs;
+	}
+}
@@ -0,0 +1,335 @@
+package ContextFreeLanguage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * LL(1) predictive parse table of a CFG, compressed for big grammars.
+ * The table is never stored densely:
+ * terminals whose columns are equal share a column class,
+ * non terminals whose rows are equal (over the column classes) share
+ * a row class, and the distinct rows are overlapped in a single
+ * comb vector (row displacement). Row r starts at base[r] and cell
+ * (r, c) is valid only if check[base[r] + c] == r, so a lookup is
+ * three array reads and a comparison
+ */
+public class CompressedLL1Table extends PredictiveTable {
+	private int[][] rowLookaheads; // the terminal ids of every row, while building
+	private int[][] rowProductions; // the productions of every row, while building
+	private int[] rowClass; // the row class of every non terminal id
+	private int[] columnClass; // the column class of every terminal id
+	private int[] base; // the position of every row class in the comb vector
+	private int[] check; // the row class that owns every position, -1 if free
+	private int[] value; // the production of every position
+	private int rowClasses; // number of distinct rows
+	private int columnClasses; // number of distinct columns
+
+	/**
+	 * Constructor
+	 * Builds the table of a grammar
+	 * @param g the grammar
+	 */
+	public CompressedLL1Table(ContextFreeGrammar g) {
+		this(new CFGOperator(g, true));
+	}
+
+	/**
+	 * Constructor
+	 * Builds the table from the first and follow sets of an operator
+	 * @param op the operator of the grammar
+	 */
+	public CompressedLL1Table(CFGOperator op) {
+		super(op);
+		int n = getCompiledGrammar().getNonTerminalCount();
+		rowLookaheads = new int[n][];
+		rowProductions = new int[n][];
+		build(op);
+		int[][] rows = mergeColumns();
+		mergeRows(rows);
+		pack(rows);
+		rowLookaheads = null;
+		rowProductions = null;
+	}
+
+	@Override
+	void addRow(int nt, int[] row, int[] lookaheads, int count) {
+		int[] terminals = Arrays.copyOf(lookaheads, count);
+		Arrays.sort(terminals);
+		int[] productions = new int[count];
+		for (int i = 0; i < count; i++) {
+			productions[i] = row[terminals[i]];
+		}
+		rowLookaheads[nt] = terminals;
+		rowProductions[nt] = productions;
+	}
+
+	/**
+	 * Give the same class to the terminals whose columns are equal
+	 * @return the cells of every row over the column classes,
+	 * as pairs of column class and production sorted by class
+	 */
+	private int[][] mergeColumns() {
+		int n = rowLookaheads.length;
+		int t = getSymbolTable().getTerminalCount();
+		// The column of every terminal, as pairs of non terminal and production
+		int[] start = new int[t + 1];
+		for (int nt = 0; nt < n; nt++) {
+			for (int a : rowLookaheads[nt]) {
+				start[a + 1] += 2;
+			}
+		}
+		for (int a = 0; a < t; a++) {
+			start[a + 1] += start[a];
+		}
+		int[] cells = new int[start[t]];
+		int[] next = Arrays.copyOf(start, t);
+		for (int nt = 0; nt < n; nt++) {
+			for (int i = 0; i < rowLookaheads[nt].length; i++) {
+				int a = rowLookaheads[nt][i];
+				cells[next[a]++] = nt;
+				cells[next[a]++] = rowProductions[nt][i];
+			}
+		}
+
+		columnClass = new int[t];
+		HashMap<Integer, ArrayList<Integer>> byHash = new HashMap<>(); // terminals that start a class
+		for (int a = 0; a < t; a++) {
+			int hash = 1;
+			for (int i = start[a]; i < start[a + 1]; i++) {
+				hash = 31 * hash + cells[i];
+			}
+			ArrayList<Integer> candidates = byHash.get(hash);
+			if (candidates == null) {
+				candidates = new ArrayList<>();
+				byHash.put(hash, candidates);
+			}
+			int found = -1;
+			for (int b : candidates) {
+				if (equalRanges(cells, start[a], start[a + 1], cells, start[b], start[b + 1])) {
+					found = columnClass[b];
+					break;
+				}
+			}
+			if (found < 0) {
+				found = columnClasses++;
+				candidates.add(a);
+			}
+			columnClass[a] = found;
+		}
+
+		// Rewrite every row over the column classes
+		int[][] rows = new int[n][];
+		int[] mark = new int[columnClasses];
+		Arrays.fill(mark, -1);
+		for (int nt = 0; nt < n; nt++) {
+			int[] row = new int[2 * rowLookaheads[nt].length];
+			int size = 0;
+			for (int i = 0; i < rowLookaheads[nt].length; i++) {
+				int c = columnClass[rowLookaheads[nt][i]];
+				if (mark[c] != nt) { // equal columns have the same production
+					mark[c] = nt;
+					row[size++] = c;
+					row[size++] = rowProductions[nt][i];
+				}
+			}
+			rows[nt] = sortPairs(Arrays.copyOf(row, size));
+		}
+		return rows;
+	}
+
+	/**
+	 * Sort an array of pairs by the first element of every pair
+	 * @param pairs the pairs, one after another
+	 * @return the sorted array
+	 */
+	private static int[] sortPairs(int[] pairs) {
+		long[] packed = new long[pairs.length / 2];
+		for (int i = 0; i < packed.length; i++) {
+			packed[i] = ((long) pairs[2 * i] << 32) | (pairs[2 * i + 1] & 0xffffffffL);
+		}
+		Arrays.sort(packed);
+		for (int i = 0; i < packed.length; i++) {
+			pairs[2 * i] = (int) (packed[i] >>> 32);
+			pairs[2 * i + 1] = (int) packed[i];
+		}
+		return pairs;
+	}
+
+	/**
+	 * Verify if two ranges of arrays are equal
+	 * @return true if they have the same length and elements
+	 */
+	private static boolean equalRanges(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo) {
+		if (aTo - aFrom != bTo - bFrom) {
+			return false;
+		}
+		for (int i = 0; i < aTo - aFrom; i++) {
+			if (a[aFrom + i] != b[bFrom + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Give the same class to the non terminals whose rows are equal
+	 * @param rows the cells of every row over the column classes
+	 */
+	private void mergeRows(int[][] rows) {
+		rowClass = new int[rows.length];
+		HashMap<Integer, ArrayList<Integer>> byHash = new HashMap<>(); // non terminals that start a class
+		for (int nt = 0; nt < rows.length; nt++) {
+			int hash = Arrays.hashCode(rows[nt]);
+			ArrayList<Integer> candidates = byHash.get(hash);
+			if (candidates == null) {
+				candidates = new ArrayList<>();
+				byHash.put(hash, candidates);
+			}
+			int found = -1;
+			for (int other : candidates) {
+				if (Arrays.equals(rows[nt], rows[other])) {
+					found = rowClass[other];
+					break;
+				}
+			}
+			if (found < 0) {
+				found = rowClasses++;
+				candidates.add(nt);
+			}
+			rowClass[nt] = found;
+		}
+	}
+
+	/**
+	 * Overlap the distinct rows in the comb vector, densest rows first,
+	 * each one at the first position where all its cells are free
+	 * @param rows the cells of every row over the column classes
+	 */
+	private void pack(int[][] rows) {
+		int[][] distinct = new int[rowClasses][];
+		for (int nt = 0; nt < rows.length; nt++) {
+			distinct[rowClass[nt]] = rows[nt];
+		}
+		Integer[] order = new Integer[rowClasses];
+		for (int r = 0; r < rowClasses; r++) {
+			order[r] = r;
+		}
+		Arrays.sort(order, (r1, r2) -> distinct[r2].length - distinct[r1].length);
+
+		base = new int[rowClasses];
+		check = new int[Math.max(16, columnClasses)];
+		value = new int[check.length];
+		Arrays.fill(check, -1);
+		int size = 0; // positions in use, including the last one taken
+		int firstFree = 0; // no free position before it
+		for (int r : order) {
+			int[] row = distinct[r];
+			if (row.length == 0) {
+				continue; // base 0, no cell is valid
+			}
+			while (firstFree < check.length && check[firstFree] >= 0) {
+				firstFree++;
+			}
+			int b = Math.max(0, firstFree - row[0]);
+			while (!fits(row, b)) {
+				b++;
+			}
+			int end = b + row[row.length - 2] + 1;
+			if (end > check.length) {
+				grow(end);
+			}
+			for (int i = 0; i < row.length; i += 2) {
+				check[b + row[i]] = r;
+				value[b + row[i]] = row[i + 1];
+			}
+			base[r] = b;
+			size = Math.max(size, end);
+		}
+		// Every lookup reads at most base + columnClasses - 1
+		int length = size;
+		for (int r = 0; r < rowClasses; r++) {
+			length = Math.max(length, base[r] + columnClasses);
+		}
+		check = Arrays.copyOf(check, length);
+		value = Arrays.copyOf(value, length);
+		for (int i = size; i < length; i++) {
+			check[i] = -1;
+		}
+	}
+
+	/**
+	 * Verify if a row can be placed at a position of the comb vector
+	 * @param row the cells of the row
+	 * @param b the position
+	 * @return true if all its cells are free
+	 */
+	private boolean fits(int[] row, int b) {
+		for (int i = 0; i < row.length; i += 2) {
+			int position = b + row[i];
+			if (position < check.length && check[position] >= 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Make the comb vector longer
+	 * @param length the length needed
+	 */
+	private void grow(int length) {
+		int old = check.length;
+		int newLength = Math.max(length, old * 2);
+		check = Arrays.copyOf(check, newLength);
+		value = Arrays.copyOf(value, newLength);
+		Arrays.fill(check, old, newLength, -1);
+	}
+
+	@Override
+	public int get(int nt, int t) {
+		int r = rowClass[nt];
+		int i = base[r] + columnClass[t];
+		return check[i] == r ? value[i] : ERROR;
+	}
+
+	/**
+	 * Get the number of distinct rows
+	 * @return the number of row classes
+	 */
+	public int getRowClassCount() {
+		return rowClasses;
+	}
+
+	/**
+	 * Get the number of distinct columns
+	 * @return the number of column classes
+	 */
+	public int getColumnClassCount() {
+		return columnClasses;
+	}
+
+	/**
+	 * Get the number of ints a dense table would take
+	 * @return non terminals times terminals
+	 */
+	public long getDenseSize() {
+		return (long) rowClass.length * columnClass.length;
+	}
+
+	/**
+	 * Get the number of ints this table takes
+	 * @return the size of all its arrays
+	 */
+	public long getCompressedSize() {
+		return (long) rowClass.length + columnClass.length + base.length + check.length + value.length;
+	}
+
+	/**
+	 * Get how many times smaller this table is than a dense one
+	 * @return the dense size over the compressed size
+	 */
+	public double getCompressionRatio() {
+		return (double) getDenseSize() / getCompressedSize();
+	}
+}
@@ -1,5 +1,9 @@
 package ContextFreeLanguage;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Scanner;
@@ -19,6 +23,9 @@ public class ContextFreeGrammar {
 	private HashMap<String, HashSet<String>> productions; // production rules
 	private String s;	// initial S
 	private static Scanner prodScan;
+	private CompiledGrammar compiled; // cached compiled form, null after any change
+	private GrammarSnapshot base; // the snapshot it was created from, null if none
+	private ArrayList<GrammarListener> listeners = new ArrayList<>(); // notified of every change
 	
 	/**
 	 * Public constructor
@@ -33,33 +40,29 @@ public class ContextFreeGrammar {
 	
 	/**
 	 * Constructor
-	 * Creates a new grammar based on the parameter
+	 * Creates a new grammar based on the parameter.
+	 * The productions are shared with the parameter until they are changed
 	 * @param g the grammar to have data copied from
 	 */
 	public ContextFreeGrammar(ContextFreeGrammar g) {
-		String init = g.getInitialSymbol();
-		Set<String> newVn = new HashSet<String>();
-		Set<String> newVt = new HashSet<String>();
+		this(g.snapshot());
+	}
+	
+	/**
+	 * Constructor
+	 * Creates a new grammar from a snapshot. The production set of
+	 * a non terminal is only created when it is first asked for
+	 * @param g the snapshot to have data copied from
+	 */
+	public ContextFreeGrammar(GrammarSnapshot g) {
+		this.base = g;
+		this.s = g.getInitialSymbol();
+		this.grammar = g.getText();
+		this.vn = GrammarSnapshot.thaw(g.getVnArray());
+		this.vt = GrammarSnapshot.thaw(g.getVtArray());
 		productions = new HashMap<String, HashSet<String>>();
-		
-		String gr = g.grammar;
-		for (String s : g.getVn()) {
-			newVn.add(s);
-		}
-		for (String s : g.getVt()) {
-			newVt.add(s);
-		}
-		
-		this.s = init;
-		this.vn = (HashSet<String>) newVn;
-		this.vt = (HashSet<String>)newVt;
-		this.grammar = gr;
 		for (String pr : this.vn) {
-			productions.put(pr, new HashSet<>());
-			for (String prod : g.getGrammarProductions(pr)) {
-				this.addProduction(pr, prod);
-				
-			}
+			productions.put(pr, null); // still in the snapshot
 		}
 	}
 	
@@ -77,7 +80,12 @@ public class ContextFreeGrammar {
 	 * @param p the map of non terminals and productions
 	 */
 	public void setProductions(HashMap<String, HashSet<String>> p) {
+		this.compiled = null;
+		this.base = null;
 		this.productions = p;
+		for (GrammarListener l : listeners) {
+			l.grammarChanged();
+		}
 	}
 	
 	/**
@@ -85,9 +93,17 @@ public class ContextFreeGrammar {
 	 * @param nt the non terminal
 	 */
 	public void removeProductions(String nt) {
+		this.compiled = null;
 		if (this.vn.contains(nt) && this.productions.containsKey(nt)) {
+			HashSet<String> removed = getProductionSet(nt);
 			this.productions.remove(nt);
 			this.vn.remove(nt);
+			for (GrammarListener l : listeners) {
+				for (String prod : removed) {
+					l.productionRemoved(nt, prod);
+				}
+				l.nonTerminalRemoved(nt);
+			}
 		}
 	}
 	
@@ -96,6 +112,7 @@ public class ContextFreeGrammar {
 	 * @param t
 	 */
 	public void addVt(String t) {
+		this.compiled = null;
 		this.vt.add(t);
 	}
 	
@@ -128,7 +145,11 @@ public class ContextFreeGrammar {
 	 * @param s the initial symbol
 	 */
 	public void setInitialSymbol(String s) {
+		this.compiled = null;
 		this.s = s;
+		for (GrammarListener l : listeners) {
+			l.initialSymbolChanged(s);
+		}
 	}
 	
 	public String toString() {
@@ -140,9 +161,13 @@ public class ContextFreeGrammar {
 	 * @param nt the non terminal
 	 */
 	public void addVn(String nt) {
+		this.compiled = null;
 		if (!this.vn.contains(nt)) {
 			this.vn.add(nt);
 			this.productions.put(nt, new HashSet<String>());
+			for (GrammarListener l : listeners) {
+				l.nonTerminalAdded(nt);
+			}
 		}
 	}
 	
@@ -152,9 +177,13 @@ public class ContextFreeGrammar {
 	 * @param prod the production
 	 */
 	public void removeProduction(String nt, String prod) {
-		HashSet<String> pSet = this.productions.get(nt);
+		this.compiled = null;
+		HashSet<String> pSet = getProductionSet(nt);
 		pSet.remove(prod);
 		this.productions.put(nt, pSet);
+		for (GrammarListener l : listeners) {
+			l.productionRemoved(nt, prod);
+		}
 	}
 	
 	/**
@@ -163,13 +192,17 @@ public class ContextFreeGrammar {
 	 * @param prod the production
 	 */
 	public void addProduction(String nt, String prod) {
+		this.compiled = null;
 		if (!this.vn.contains(nt)) {
 			this.vn.add(nt);
 			this.productions.put(nt, new HashSet<String>());
 		}
-		HashSet<String> p = this.productions.get(nt);
+		HashSet<String> p = getProductionSet(nt);
 		p.add(prod);
 		this.productions.put(nt, p);
+		for (GrammarListener l : listeners) {
+			l.productionAdded(nt, prod);
+		}
 	}
 	
 	/**
@@ -194,13 +227,111 @@ public class ContextFreeGrammar {
 	 * @return production rules output set
 	 */
 	public Set<String> getGrammarProductions(String vn) {
-		Set<String> prod = productions.get(vn);
+		Set<String> prod = getProductionSet(vn);
 		if (prod == null) {
 			prod = new HashSet<String>();
 		}
 		return prod;
 	}
 	
+	/**
+	 * Register a listener to be notified of the changes to the grammar
+	 * @param l the listener
+	 */
+	public void addListener(GrammarListener l) {
+		listeners.add(l);
+	}
+	
+	/**
+	 * Stop notifying a listener
+	 * @param l the listener
+	 */
+	public void removeListener(GrammarListener l) {
+		listeners.remove(l);
+	}
+	
+	/**
+	 * Get the production set of a non terminal, creating it
+	 * from the snapshot if it was not changed or asked for yet
+	 * @param nt the non terminal
+	 * @return the production set, null if nt has none
+	 */
+	private HashSet<String> getProductionSet(String nt) {
+		HashSet<String> p = productions.get(nt);
+		if (p == null && base != null && productions.containsKey(nt)) {
+			p = GrammarSnapshot.thaw(base.getProductionArray(nt));
+			productions.put(nt, p);
+		}
+		return p;
+	}
+	
+	/**
+	 * Get the productions of a non terminal for reading only,
+	 * without creating its production set
+	 * @param nt the non terminal
+	 * @return the productions in iteration order, read only
+	 */
+	Collection<String> readProductions(String nt) {
+		HashSet<String> p = productions.get(nt);
+		if (p != null) {
+			return Collections.unmodifiableSet(p);
+		}
+		if (base != null && productions.containsKey(nt)) {
+			return Collections.unmodifiableList(Arrays.asList(base.getProductionArray(nt)));
+		}
+		return Collections.emptySet();
+	}
+	
+	/**
+	 * Take an immutable snapshot of the grammar.
+	 * Non terminals whose productions still iterate as in the
+	 * snapshot this grammar was created from are shared with it,
+	 * so the snapshot only allocates what was changed since then
+	 * @return the snapshot
+	 */
+	public GrammarSnapshot snapshot() {
+		String[] vnArray = base != null && GrammarSnapshot.sameOrder(vn, base.getVnArray())
+				? base.getVnArray() : vn.toArray(new String[0]);
+		String[] vtArray = base != null && GrammarSnapshot.sameOrder(vt, base.getVtArray())
+				? base.getVtArray() : vt.toArray(new String[0]);
+		PersistentMap<String, String[]> map = PersistentMap.empty();
+		if (base != null) {
+			map = base.getProductionMap();
+			for (String nt : base.getVnArray()) {
+				if (!vn.contains(nt)) {
+					map = map.minus(nt);
+				}
+			}
+		}
+		for (String nt : vn) {
+			HashSet<String> p = productions.get(nt);
+			if (p == null && base != null && productions.containsKey(nt)) {
+				continue; // not changed
+			}
+			String[] old = map.get(nt);
+			if (p == null) {
+				p = new HashSet<>();
+			}
+			if (!GrammarSnapshot.sameOrder(p, old)) {
+				map = map.plus(nt, p.toArray(new String[0]));
+			}
+		}
+		return new GrammarSnapshot(vnArray, vtArray, map, s, grammar);
+	}
+	
+	/**
+	 * Get the compiled form of the grammar, with interned symbols
+	 * and the productions stored back to back.
+	 * It is cached until the grammar is changed
+	 * @return the compiled grammar
+	 */
+	public CompiledGrammar compile() {
+		if (this.compiled == null) {
+			this.compiled = new CompiledGrammar(this);
+		}
+		return this.compiled;
+	}
+	
 	/**
 	 * String representation of a regular grammar
 	 * @return representation of a RG
@@ -208,10 +339,10 @@ public class ContextFreeGrammar {
 	public String getDefinition() {
 		String grammar = "";
 		String aux = "";
-		HashSet<String> prodList;
+		Collection<String> prodList;
 		
 		for (String vN : this.productions.keySet()) {
-			prodList = this.productions.get(vN);
+			prodList = readProductions(vN);
 			
 			for (String prod : prodList) {
 				aux += prod + " | ";
@@ -400,15 +531,21 @@ public class ContextFreeGrammar {
 	 * @param hashSet the set of productions
 	 */
 	public void addProduction(String nt, Set<String> hashSet) {
+		this.compiled = null;
 		HashSet<String> p;
 		if (this.vn.contains(nt)) {
-			p = productions.get(nt);
+			p = getProductionSet(nt);
 		} else {
 			addVn(nt);
 			p = new HashSet<>();
 		}
 		p.addAll(hashSet);
 		productions.put(nt, p);
+		for (GrammarListener l : listeners) {
+			for (String prod : hashSet) {
+				l.productionAdded(nt, prod);
+			}
+		}
 	}
 
 	
@@ -0,0 +1,351 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+
+/**
+ * Earley recognizer for any CFG, ambiguous or not, with & anywhere.
+ * An Earley item is an LR(0) item (see LRItems) and the set it started
+ * in, and the sets are kept back to back in int arrays.
+ * Nullable non terminals are handled as Aycock and Horspool do: when a
+ * nullable non terminal is predicted the dot also moves past it, so no
+ * completion has to look at the set being built.
+ * Right recursion is handled as Leo does: when a set has a single item
+ * waiting for a non terminal and that non terminal is its last symbol,
+ * completing the non terminal completes the whole chain of such items
+ * at once, so right recursive grammars take linear time.
+ * The arrays are kept between calls, so a recognizer is not thread safe
+ */
+public class EarleyRecognizer {
+	private static final long UNKNOWN = -1; // Leo item not computed yet
+	private static final long NO_LEO = -2; // no Leo item
+
+	private LRItems items; // the items of the augmented grammar
+	private CompiledGrammar grammar; // the grammar it operates on
+	private int terminals; // number of terminal ids
+	private boolean[] nullable; // non terminals that derive &
+	private int[] itemLeftSide; // the non terminal of the production of every item, -1 for S'
+	private boolean[] itemLast; // whether the symbol after the dot is the last one
+
+	private int[] setStart; // first item of every set
+	private int[] item; // the LR(0) item of every Earley item
+	private int[] origin; // the set every Earley item started in
+	private int size; // Earley items of all the sets
+	private int[] waitStart; // first waiting entry of every set
+	private long[] waiting; // symbol index and Earley item of the items of a set that are not complete, sorted
+	private long[] leo; // Leo item of a symbol in a set, at its first waiting entry
+	private int[] predicted; // the stamp of the last set every non terminal was predicted in
+	private long[] slots; // the Earley items of the set being built, an open addressing table
+	private int[] slotStamp; // the stamp of the set every slot was filled for
+	private int stamp; // stamp of the set being built, different for every set of every call
+	private int[] chain; // the waiting entries of a chain of Leo items
+
+	/**
+	 * Constructor
+	 * @param g the grammar
+	 */
+	public EarleyRecognizer(ContextFreeGrammar g) {
+		this(new CompiledGrammar(g));
+	}
+
+	/**
+	 * Constructor
+	 * @param g the compiled grammar
+	 */
+	public EarleyRecognizer(CompiledGrammar g) {
+		this.grammar = g;
+		this.items = new LRItems(g);
+		this.terminals = g.getSymbolTable().getTerminalCount();
+		this.nullable = items.computeNullable();
+		int count = items.getItemCount();
+		itemLeftSide = new int[count];
+		itemLast = new boolean[count];
+		for (int i = 0; i < count; i++) {
+			int p = items.getItemProduction(i);
+			itemLeftSide[i] = items.getLeftSide(p);
+			itemLast[i] = i - items.getItemBase(p) == items.getLength(p) - 1;
+		}
+		setStart = new int[17];
+		item = new int[64];
+		origin = new int[64];
+		waitStart = new int[17];
+		waiting = new long[64];
+		leo = new long[64];
+		predicted = new int[g.getNonTerminalCount()];
+		slots = new long[64];
+		slotStamp = new int[64];
+		chain = new int[16];
+	}
+
+	/**
+	 * Verify if a sentence belongs to the language of the grammar
+	 * @param tokens the terminal id of every token
+	 * @return true if the sentence is accepted
+	 */
+	public boolean recognize(int[] tokens) {
+		return recognize(tokens, 0, tokens.length);
+	}
+
+	/**
+	 * Verify if a sentence belongs to the language of the grammar
+	 * @param tokens the terminal ids, as given by encode
+	 * @param from the first token of the sentence
+	 * @param to the position after the last token of the sentence
+	 * @return true if the sentence is accepted
+	 */
+	public boolean recognize(int[] tokens, int from, int to) {
+		if (!items.canAccept()) {
+			return false;
+		}
+		for (int i = from; i < to; i++) {
+			if (tokens[i] <= SymbolTable.END_ID || tokens[i] >= terminals) {
+				return false; // & and $ are not input tokens
+			}
+		}
+		int n = to - from;
+		if (n + 2 > setStart.length) {
+			setStart = new int[n + 2];
+			waitStart = new int[n + 2];
+		}
+		if (stamp > Integer.MAX_VALUE - n - 2) {
+			Arrays.fill(predicted, 0);
+			Arrays.fill(slotStamp, 0);
+			stamp = 0;
+		}
+		size = 0;
+		setStart[0] = 0;
+		waitStart[0] = 0;
+		stamp++;
+		add(0, items.getItemBase(items.getAugmentedProduction()), 0);
+		int accept = items.getItemBase(items.getAugmentedProduction()) + 1;
+		for (int i = 0; i <= n; i++) {
+			close(i);
+			index(i);
+			setStart[i + 1] = size;
+			if (i == n) {
+				break;
+			}
+			// Scan the token, the next set starts with the items waiting for it
+			stamp++;
+			int key = items.index(~tokens[from + i]);
+			for (int w = findWaiting(i, key); w >= 0 && w < waitStart[i + 1]
+					&& (int) (waiting[w] >>> 32) == key; w++) {
+				int e = (int) waiting[w];
+				add(i + 1, item[e] + 1, origin[e]);
+			}
+			if (size == setStart[i + 1]) {
+				return false;
+			}
+		}
+		for (int e = setStart[n]; e < setStart[n + 1]; e++) {
+			if (item[e] == accept && origin[e] == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Predict and complete the items of a set until it does not grow
+	 * @param i the set
+	 */
+	private void close(int i) {
+		for (int e = setStart[i]; e < size; e++) {
+			int it = item[e];
+			int symbol = items.getItemSymbol(it);
+			if (symbol == LRItems.NONE) {
+				int o = origin[e];
+				int a = itemLeftSide[it];
+				if (o == i || a < 0) {
+					continue; // nullable, already moved past when predicted
+				}
+				int key = items.index(a);
+				int w = findWaiting(o, key);
+				if (w < 0) {
+					continue;
+				}
+				long top = leoItem(o, w);
+				if (top != NO_LEO) {
+					add(i, (int) (top >>> 32), (int) top);
+					continue;
+				}
+				for (; w < waitStart[o + 1] && (int) (waiting[w] >>> 32) == key; w++) {
+					int waiter = (int) waiting[w];
+					add(i, item[waiter] + 1, origin[waiter]);
+				}
+			} else if (symbol >= 0) {
+				if (predicted[symbol] != stamp) {
+					predicted[symbol] = stamp;
+					for (int p = grammar.getFirstProduction(symbol); p < grammar.getEndProduction(symbol); p++) {
+						if (items.isProductive(p)) {
+							add(i, items.getItemBase(p), i);
+						}
+					}
+				}
+				if (nullable[symbol]) {
+					add(i, it + 1, origin[e]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sort the items of a closed set that wait for a symbol by that symbol
+	 * @param i the set
+	 */
+	private void index(int i) {
+		int start = waitStart[i];
+		int count = start;
+		waiting = IntArrays.grow(waiting, count + size - setStart[i]);
+		for (int e = setStart[i]; e < size; e++) {
+			int symbol = items.getItemSymbol(item[e]);
+			if (symbol != LRItems.NONE) {
+				waiting[count++] = ((long) items.index(symbol) << 32) | e;
+			}
+		}
+		Arrays.sort(waiting, start, count);
+		leo = IntArrays.grow(leo, waiting.length);
+		Arrays.fill(leo, start, count, UNKNOWN);
+		waitStart[i + 1] = count;
+	}
+
+	/**
+	 * Find the first item of a closed set that waits for a symbol
+	 * @param i the set
+	 * @param key the index of the symbol, see LRItems.index
+	 * @return the waiting entry, or -1 if no item waits for the symbol
+	 */
+	private int findWaiting(int i, int key) {
+		int lo = waitStart[i], hi = waitStart[i + 1] - 1;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if ((int) (waiting[mid] >>> 32) < key) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo <= hi && (int) (waiting[lo] >>> 32) == key ? lo : -1;
+	}
+
+	/**
+	 * Get the topmost item of the deterministic chain that completing a
+	 * symbol starts: while the only item waiting for the symbol has it as
+	 * its last symbol, the item completes too, and so on for its own non terminal
+	 * @param i the set the symbol started in
+	 * @param w the first entry of the items of the set waiting for the symbol
+	 * @return the complete item and its set, packed in a long, or NO_LEO
+	 */
+	private long leoItem(int i, int w) {
+		int length = 0;
+		long top = NO_LEO;
+		// Walk down the chain until a known Leo item or the end of the chain
+		while (true) {
+			if (leo[w] != UNKNOWN) {
+				top = leo[w];
+				break;
+			}
+			int e = (int) waiting[w];
+			boolean single = w + 1 == waitStart[i + 1] || waiting[w + 1] >>> 32 != waiting[w] >>> 32;
+			if (!single || !itemLast[item[e]]) {
+				leo[w] = NO_LEO;
+				break;
+			}
+			chain = IntArrays.grow(chain, length + 1);
+			chain[length++] = w;
+			int a = itemLeftSide[item[e]];
+			int o = origin[e];
+			int next = a < 0 ? -1 : findWaiting(o, items.index(a));
+			if (next < 0) {
+				break;
+			}
+			i = o;
+			w = next;
+		}
+		// Every item of the chain has the same topmost item
+		for (int c = length - 1; c >= 0; c--) {
+			int e = (int) waiting[chain[c]];
+			if (top == NO_LEO) {
+				top = ((long) (item[e] + 1) << 32) | origin[e];
+			}
+			leo[chain[c]] = top;
+		}
+		return top;
+	}
+
+	/**
+	 * Add an Earley item to the set being built, if it is not there yet
+	 * @param i the set
+	 * @param it the LR(0) item
+	 * @param o the set it started in
+	 */
+	private void add(int i, int it, int o) {
+		int count = size - setStart[i];
+		if (2 * (count + 1) > slots.length) {
+			slots = new long[slots.length * 2];
+			slotStamp = new int[slots.length];
+			for (int e = setStart[i]; e < size; e++) {
+				insert(((long) item[e] << 32) | origin[e]);
+			}
+		}
+		if (insert(((long) it << 32) | o)) {
+			item = IntArrays.grow(item, size + 1);
+			origin = IntArrays.grow(origin, size + 1);
+			item[size] = it;
+			origin[size++] = o;
+		}
+	}
+
+	/**
+	 * Put an Earley item in the table of the set being built
+	 * @param key the item and its origin
+	 * @return true if it was not in the table
+	 */
+	private boolean insert(long key) {
+		int mask = slots.length - 1;
+		long h = key * 0x9E3779B97F4A7C15L;
+		for (int slot = (int) (h >>> 40) & mask;; slot = (slot + 1) & mask) {
+			if (slotStamp[slot] != stamp) {
+				slotStamp[slot] = stamp;
+				slots[slot] = key;
+				return true;
+			}
+			if (slots[slot] == key) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Get the number of Earley items of the last sentence recognized,
+	 * the measure of the work it took
+	 * @return the items of all its sets, up to the last set built
+	 */
+	public int getItemCount() {
+		return size;
+	}
+
+	/**
+	 * Get the symbol table the ids refer to
+	 * @return the ids of the grammar symbols
+	 */
+	public SymbolTable getSymbolTable() {
+		return grammar.getSymbolTable();
+	}
+
+	/**
+	 * Transform a sentence in the form "a b c" into terminal ids
+	 * @param sentence the sentence
+	 * @return the id of every token, -1 for the ones that are not terminals
+	 */
+	public int[] encode(String sentence) {
+		String[] br = sentence.trim().split("[\\s\\r]+");
+		if (br.length == 1 && br[0].isEmpty()) {
+			return new int[0];
+		}
+		int[] tokens = new int[br.length];
+		for (int i = 0; i < br.length; i++) {
+			tokens[i] = grammar.getSymbolTable().getTerminalId(br[i]);
+		}
+		return tokens;
+	}
+}
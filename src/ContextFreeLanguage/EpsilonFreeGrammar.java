@@ -0,0 +1,261 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * The & free form of a compiled grammar, in int arrays: no production
+ * derives & but, when the language has it, one of the initial symbol,
+ * which then is on no right side. The nullable non terminals are found
+ * once, with a worklist that counts the symbols of every production not
+ * known to be nullable. Then a production with k nullable symbols gets
+ * a copy for every subset of them that is left out, but for the empty
+ * copy, while k is at most the expansion limit. Past the limit the
+ * production is written as a chain of added non terminals, one for every
+ * suffix from the first nullable symbol, that derive the suffix but &:
+ * H -> X H' | X, when the rest is nullable, | H', when X is nullable.
+ * That takes three productions per symbol instead of 2^k copies.
+ * At the end the productions with a non terminal that derives no
+ * sentence, as one that only derived &, are removed.
+ * Non terminal codes are ids as in SymbolTable, terminal codes are ~id.
+ * The ids of the grammar are kept, and the ones added come after them
+ */
+class EpsilonFreeGrammar {
+	private static final int MAX_EXPANSION = 16; // the expansion limit is never above this
+
+	private SymbolTable symbols; // ids of the grammar symbols
+	private int ntCount; // non terminals, the original ones first
+	private int[] parent; // the non terminal every added non terminal was created for, -1 for the original ones
+	private int initial; // the initial symbol
+	private boolean[] nullable; // whether every non terminal of the grammar derives &
+	private int count; // productions
+	private int[] lhs; // left side of every production
+	private int[] offsets; // first symbol of every production in the arena, plus the end
+	private int[] arena; // the symbols of every production, back to back
+
+	/**
+	 * Constructor
+	 * @param g the compiled grammar
+	 * @param maxExpansion the most nullable symbols of a production that are
+	 * expanded in copies, the productions with more use added non terminals
+	 */
+	EpsilonFreeGrammar(CompiledGrammar g, int maxExpansion) {
+		symbols = g.getSymbolTable();
+		ntCount = g.getNonTerminalCount();
+		parent = new int[Math.max(16, ntCount * 2)];
+		Arrays.fill(parent, -1);
+		initial = g.getInitialSymbol();
+		maxExpansion = Math.max(0, Math.min(maxExpansion, MAX_EXPANSION));
+
+		// The productions without the & between their symbols
+		int n = g.getProductionCount();
+		int[] from = new int[n + 1];
+		int[] rhs = new int[Math.max(16, g.getArena().length)];
+		int size = 0;
+		for (int p = 0; p < n; p++) {
+			from[p] = size;
+			for (int i = g.getStart(p); i < g.getEnd(p); i++) {
+				if (g.getSymbol(i) != ~SymbolTable.EPSILON_ID) {
+					rhs[size++] = g.getSymbol(i);
+				}
+			}
+		}
+		from[n] = size;
+		nullable = UsefulSymbols.closure(ntCount, n, g.getLeftSides(), from, rhs, true);
+
+		count = 0;
+		lhs = new int[Math.max(16, n * 2)];
+		offsets = new int[lhs.length + 1];
+		arena = new int[Math.max(16, size * 2)];
+		int[] positions = new int[16]; // the nullable symbols of a production
+		int[] copy = new int[16];
+		boolean onRight = false; // whether the initial symbol is on some right side
+		for (int p = 0; p < n; p++) {
+			int a = g.getLeftSide(p);
+			int k = 0;
+			for (int i = from[p]; i < from[p + 1]; i++) {
+				onRight |= rhs[i] == initial;
+				if (rhs[i] >= 0 && nullable[rhs[i]]) {
+					positions = IntArrays.grow(positions, k + 1);
+					positions[k++] = i;
+				}
+			}
+			if (k <= maxExpansion) {
+				copy = IntArrays.grow(copy, from[p + 1] - from[p]);
+				for (int mask = (1 << k) - 1; mask >= 0; mask--) {
+					// The nullable symbols whose bit is off are left out
+					int length = 0;
+					for (int i = from[p], j = 0; i < from[p + 1]; i++) {
+						if (j < k && positions[j] == i) {
+							if ((mask & (1 << j++)) == 0) {
+								continue;
+							}
+						}
+						copy[length++] = rhs[i];
+					}
+					if (length > 0) {
+						add(a, copy, 0, length);
+					}
+				}
+			} else {
+				chain(a, rhs, from[p], from[p + 1], positions[0]);
+			}
+		}
+		if (initial >= 0 && nullable[initial]) {
+			if (onRight) {
+				int s = addNonTerminal(initial);
+				add(s, new int[] { initial }, 0, 1);
+				initial = s;
+			}
+			add(initial, rhs, 0, 0);
+		}
+		clean();
+	}
+
+	/**
+	 * Write a production as a chain of added non terminals, one for every
+	 * suffix from the first nullable symbol, that derive the suffix but &
+	 * @param a the left side
+	 * @param rhs the symbols of the productions
+	 * @param start the first symbol of the production
+	 * @param end the end of the production
+	 * @param first the first nullable symbol
+	 */
+	private void chain(int a, int[] rhs, int start, int end, int first) {
+		boolean[] rest = new boolean[end - first + 1]; // whether every suffix is nullable
+		rest[end - first] = true;
+		for (int i = end - 1; i >= first; i--) {
+			rest[i - first] = rest[i - first + 1] && rhs[i] >= 0 && nullable[rhs[i]];
+		}
+		int h = addNonTerminal(a);
+		int[] copy = Arrays.copyOfRange(rhs, start, first + 1);
+		copy[first - start] = h;
+		add(a, copy, 0, copy.length);
+		if (first > start && rest[0]) {
+			add(a, copy, 0, copy.length - 1);
+		}
+		for (int i = first; i < end; i++) {
+			int x = rhs[i];
+			if (i + 1 == end) {
+				add(h, new int[] { x }, 0, 1);
+				break;
+			}
+			int next = addNonTerminal(a);
+			add(h, new int[] { x, next }, 0, 2);
+			if (rest[i - first + 1]) {
+				add(h, new int[] { x }, 0, 1);
+			}
+			if (x >= 0 && nullable[x]) {
+				add(h, new int[] { next }, 0, 1);
+			}
+			h = next;
+		}
+	}
+
+	/**
+	 * Remove the productions with a non terminal that derives no sentence,
+	 * as the ones that only derived & have no production left
+	 */
+	private void clean() {
+		boolean[] productive = UsefulSymbols.closure(ntCount, count, lhs, offsets, arena, false);
+		int kept = 0, size = 0;
+		for (int p = 0; p < count; p++) {
+			boolean keep = true;
+			for (int i = offsets[p]; i < offsets[p + 1]; i++) {
+				keep &= arena[i] < 0 || productive[arena[i]];
+			}
+			if (keep) {
+				int length = offsets[p + 1] - offsets[p];
+				System.arraycopy(arena, offsets[p], arena, size, length);
+				lhs[kept] = lhs[p];
+				offsets[kept] = size;
+				size += length;
+				offsets[++kept] = size;
+			}
+		}
+		count = kept;
+	}
+
+	/**
+	 * Add a non terminal
+	 * @param from the non terminal it is created for
+	 * @return its id
+	 */
+	private int addNonTerminal(int from) {
+		parent = IntArrays.grow(parent, ntCount + 1);
+		parent[ntCount] = from;
+		return ntCount++;
+	}
+
+	private void add(int a, int[] rhs, int from, int to) {
+		lhs = IntArrays.grow(lhs, count + 1);
+		offsets = IntArrays.grow(offsets, count + 2);
+		arena = IntArrays.grow(arena, offsets[count] + to - from);
+		lhs[count] = a;
+		System.arraycopy(rhs, from, arena, offsets[count], to - from);
+		offsets[count + 1] = offsets[count] + to - from;
+		count++;
+	}
+
+	/**
+	 * Verify if a non terminal of the grammar derives &
+	 * @param nt the non terminal id
+	 * @return true if it is nullable
+	 */
+	boolean isNullable(int nt) {
+		return nullable[nt];
+	}
+
+	/**
+	 * Build the & free form as a grammar. The non terminals of the grammar
+	 * keep their names, and an added one is named after the non terminal
+	 * of the grammar it was created for (see NonTerminalNames).
+	 * Equal productions of the same non terminal are kept once
+	 * @return the grammar, with no id
+	 */
+	ContextFreeGrammar toGrammar() {
+		int original = symbols.getNonTerminalCount();
+		String[] names = new String[ntCount];
+		for (int nt = 0; nt < original; nt++) {
+			names[nt] = symbols.getNonTerminal(nt);
+		}
+		NonTerminalNames fresh = new NonTerminalNames(symbols);
+		for (int nt = original; nt < ntCount; nt++) {
+			names[nt] = fresh.next(names[parent[nt]]);
+		}
+		HashMap<String, HashSet<String>> productions = new HashMap<>();
+		ContextFreeGrammar g = new ContextFreeGrammar();
+		g.addVn(names[initial]);
+		productions.put(names[initial], new HashSet<String>());
+		for (int p = 0; p < count; p++) {
+			String left = names[lhs[p]];
+			StringBuilder sb = new StringBuilder();
+			for (int i = offsets[p]; i < offsets[p + 1]; i++) {
+				if (sb.length() > 0) {
+					sb.append(' ');
+				}
+				if (arena[i] >= 0) {
+					sb.append(names[arena[i]]);
+				} else {
+					sb.append(symbols.getTerminal(~arena[i]));
+					g.addVt(symbols.getTerminal(~arena[i]));
+				}
+			}
+			if (sb.length() == 0) {
+				sb.append(SymbolTable.EPSILON);
+				g.addVt(SymbolTable.EPSILON);
+			}
+			HashSet<String> set = productions.get(left);
+			if (set == null) {
+				set = new HashSet<>();
+				productions.put(left, set);
+				g.addVn(left);
+			}
+			set.add(sb.toString());
+		}
+		g.setProductions(productions);
+		g.setInitialSymbol(names[initial]);
+		return g;
+	}
+}
@@ -0,0 +1,206 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Engine for the nullable, first and firstNT sets of a CFG.
+ * The nullable non terminals are computed first, with a worklist, so the
+ * part of every production that contributes to the first set of its
+ * non terminal is known in advance. After that, the sets are propagated
+ * along the strongly connected components of the dependencies, in a
+ * single pass in reverse topological order (see ParallelSetSolver).
+ * It scans the compiled grammar directly, so symbols are handled
+ * by their ids and the sets are stored as bitsets
+ */
+class FirstSetEngine {
+	private SymbolTable symbols; // ids of the grammar symbols
+	private int[] lhs; // the non terminal of every production
+	private int[] offsets; // the first symbol of every production, plus the end
+	private int[] arena; // the symbols of every production, back to back
+	private boolean[] nullable; // non terminals that derive epsilon
+	private ParallelSetSolver solver; // solves the sets, one component at a time unless a pool was set
+
+	/**
+	 * Constructor
+	 * @param g the compiled grammar to compute the sets for
+	 */
+	FirstSetEngine(CompiledGrammar g) {
+		this.symbols = g.getSymbolTable();
+		this.lhs = g.getLeftSides();
+		this.offsets = g.getProductionOffsets();
+		this.arena = g.getArena();
+		this.solver = new ParallelSetSolver(null, 1);
+	}
+
+	/**
+	 * Solve the first and firstNT sets in parallel, one layer of
+	 * independent strongly connected components at a time.
+	 * The nullable non terminals are still computed sequentially,
+	 * they take a single linear pass
+	 * @param pool the pool that runs the tasks, null to solve one component at a time
+	 * @param parallelism the number of tasks every layer is split into
+	 */
+	void setParallel(ForkJoinPool pool, int parallelism) {
+		this.solver = new ParallelSetSolver(pool, parallelism);
+	}
+
+	/**
+	 * Get the nullable non terminals, computing them if needed
+	 * @return true for every non terminal id that derives epsilon
+	 */
+	boolean[] getNullable() {
+		if (nullable == null) {
+			setNullable();
+		}
+		return nullable;
+	}
+
+	/**
+	 * Computes the nullable non terminals.
+	 * Every production waits on the first symbol that is not yet known
+	 * to be nullable and is only resumed when that symbol becomes nullable
+	 */
+	private void setNullable() {
+		int n = symbols.getNonTerminalCount();
+		nullable = new boolean[n];
+		int[] position = Arrays.copyOf(offsets, lhs.length); // first symbol not known to be nullable
+		int[] waitHead = new int[n]; // linked lists of productions waiting on every non terminal
+		int[] waitNext = new int[lhs.length];
+		int[] queue = new int[n];
+		int head = 0, tail = 0;
+		Arrays.fill(waitHead, -1);
+
+		for (int p = 0; p < lhs.length; p++) {
+			int nt = advance(p, position);
+			if (nt >= 0) {
+				waitNext[p] = waitHead[nt];
+				waitHead[nt] = p;
+			} else if (nt == -1 && !nullable[lhs[p]]) {
+				nullable[lhs[p]] = true;
+				queue[tail++] = lhs[p];
+			}
+		}
+		while (head < tail) {
+			int p = waitHead[queue[head++]];
+			while (p >= 0) {
+				int next = waitNext[p];
+				position[p]++; // the symbol it waited on is now nullable
+				int nt = advance(p, position);
+				if (nt >= 0) {
+					waitNext[p] = waitHead[nt];
+					waitHead[nt] = p;
+				} else if (nt == -1 && !nullable[lhs[p]]) {
+					nullable[lhs[p]] = true;
+					queue[tail++] = lhs[p];
+				}
+				p = next;
+			}
+		}
+	}
+
+	/**
+	 * Move a production forward while its symbols are nullable
+	 * @param p the production index
+	 * @param position the current position in the arena of every production
+	 * @return the non terminal it has to wait on,
+	 * -1 if the production derives epsilon or -2 if it never does
+	 */
+	private int advance(int p, int[] position) {
+		int end = offsets[p + 1];
+		while (position[p] < end) {
+			int symbol = arena[position[p]];
+			if (SymbolTable.isTerminal(symbol)) {
+				// epsilon ends the first set of the production
+				return ~symbol == SymbolTable.EPSILON_ID ? -1 : -2;
+			}
+			if (!nullable[symbol]) {
+				return symbol;
+			}
+			position[p]++;
+		}
+		return -1;
+	}
+
+	/**
+	 * Computes the first set for every non terminal of the grammar
+	 * @return the first set of every non terminal id
+	 */
+	SymbolSets computeFirst() {
+		int n = symbols.getNonTerminalCount();
+		SymbolSets first = new SymbolSets(symbols, n, true);
+		IntGraph dependents = new IntGraph(n);
+		getNullable();
+
+		// The terminals reached by every production and the non terminals it depends on
+		for (int p = 0; p < lhs.length; p++) {
+			boolean reachedEnd = true;
+			for (int i = offsets[p]; i < offsets[p + 1]; i++) {
+				int symbol = arena[i];
+				if (SymbolTable.isTerminal(symbol)) {
+					first.add(lhs[p], ~symbol);
+					reachedEnd = false;
+					break;
+				}
+				dependents.addEdge(symbol, lhs[p]);
+				if (!nullable[symbol]) {
+					reachedEnd = false;
+					break;
+				}
+			}
+			if (reachedEnd) {
+				first.add(lhs[p], SymbolTable.EPSILON_ID);
+			}
+		}
+		solve(first, dependents, SymbolTable.EPSILON_ID);
+		return first;
+	}
+
+	/**
+	 * Computes the firstNT set for every non terminal of the grammar.
+	 * Like the first set, a production contributes every non terminal
+	 * at its beginning, moving to the next symbol as many times as the
+	 * current non terminal has productions with &
+	 * @return the firstNT set of every non terminal id
+	 */
+	SymbolSets computeFirstNT() {
+		int n = symbols.getNonTerminalCount();
+		SymbolSets firstNT = new SymbolSets(symbols, n, false);
+		IntGraph dependents = new IntGraph(n);
+		int[] epsilonProductions = new int[n];
+
+		for (int p = 0; p < lhs.length; p++) {
+			for (int i = offsets[p]; i < offsets[p + 1]; i++) {
+				if (~arena[i] == SymbolTable.EPSILON_ID) {
+					epsilonProductions[lhs[p]]++;
+					break;
+				}
+			}
+		}
+		for (int p = 0; p < lhs.length; p++) {
+			int i = offsets[p];
+			while (i < offsets[p + 1] && !SymbolTable.isTerminal(arena[i])) {
+				int symbol = arena[i];
+				firstNT.add(lhs[p], symbol);
+				dependents.addEdge(symbol, lhs[p]);
+				if (epsilonProductions[symbol] == 0) {
+					break;
+				}
+				i += epsilonProductions[symbol];
+			}
+		}
+		solve(firstNT, dependents, -1);
+		return firstNT;
+	}
+
+	/**
+	 * Propagate the sets along the dependencies until nothing changes,
+	 * in parallel if a pool was set
+	 * @param sets the sets indexed by non terminal id
+	 * @param dependents the non terminals that include the set of every non terminal
+	 * @param except a symbol id that is not propagated, -1 for none
+	 */
+	private void solve(SymbolSets sets, IntGraph dependents, int except) {
+		solver.solve(sets, dependents, except);
+	}
+}
@@ -0,0 +1,135 @@
+package ContextFreeLanguage;
+
+/**
+ * Follow set engine for a CFG.
+ * Builds the inclusion graph once, with an edge A -> B whenever
+ * Follow(B) contains Follow(A), collapses its strongly connected
+ * components (every non terminal of a component has the same follow set)
+ * and propagates the sets in a single pass in topological order
+ */
+class FollowSetEngine {
+	private CompiledGrammar grammar; // the grammar it operates on
+	private int[] arena; // the symbols of every production, back to back
+	private SymbolSets first; // the grammar first set
+
+	/**
+	 * Constructor
+	 * @param g the compiled grammar
+	 * @param first the first set of every non terminal of g
+	 */
+	FollowSetEngine(CompiledGrammar g, SymbolSets first) {
+		this.grammar = g;
+		this.arena = g.getArena();
+		this.first = first;
+	}
+
+	/**
+	 * Find the useless non terminals: the ones without productions
+	 * or with a production that uses a non terminal without productions
+	 * @return true for every useless non terminal id
+	 */
+	private boolean[] getUselessSymbols() {
+		int n = grammar.getNonTerminalCount();
+		boolean[] useless = new boolean[n];
+		for (int nt = 0; nt < n; nt++) {
+			useless[nt] = grammar.getFirstProduction(nt) == grammar.getEndProduction(nt);
+		}
+		for (int p = 0; p < grammar.getProductionCount(); p++) {
+			for (int i = grammar.getStart(p); i < grammar.getEnd(p); i++) {
+				int symbol = arena[i];
+				if (!SymbolTable.isTerminal(symbol)
+						&& grammar.getFirstProduction(symbol) == grammar.getEndProduction(symbol)) {
+					useless[grammar.getLeftSide(p)] = true;
+				}
+			}
+		}
+		return useless;
+	}
+
+	/**
+	 * Computes the follow set for every non terminal of the grammar
+	 * @return the follow set of every non terminal id
+	 */
+	SymbolSets computeFollow() {
+		int n = grammar.getNonTerminalCount();
+		boolean[] useless = getUselessSymbols();
+		SymbolSets base = new SymbolSets(grammar.getSymbolTable(), n, true);
+		IntGraph includes = new IntGraph(n);
+		if (grammar.getInitialSymbol() >= 0) {
+			base.add(grammar.getInitialSymbol(), SymbolTable.END_ID);
+		}
+
+		for (int p = 0; p < grammar.getProductionCount(); p++) {
+			int a = grammar.getLeftSide(p);
+			int start = grammar.getStart(p);
+			int end = grammar.getEnd(p);
+			// Follow(B) contains First(beta) for every A -> alfa B beta
+			for (int i = start; i < end - 1; i++) {
+				if (!SymbolTable.isTerminal(arena[i])) {
+					addFirst(base, arena[i], i + 1, end);
+				}
+			}
+			// Follow(B) contains Follow(A) for every A -> alfa B beta, beta =>* &
+			for (int i = end - 1; i >= start; i--) {
+				int b = arena[i];
+				if (SymbolTable.isTerminal(b)) {
+					break;
+				}
+				if (useless[b]) {
+					base.add(b, SymbolTable.END_ID);
+				} else {
+					includes.addEdge(a, b);
+				}
+				if (!first.contains(b, SymbolTable.EPSILON_ID)) {
+					break;
+				}
+			}
+		}
+
+		StronglyConnectedComponents scc = new StronglyConnectedComponents(includes.getAdjacency());
+		int[][] members = scc.getMembers();
+		SymbolSets sets = new SymbolSets(grammar.getSymbolTable(), scc.getCount(), true);
+		// Components are numbered in reverse topological order
+		for (int c = scc.getCount() - 1; c >= 0; c--) {
+			for (int a : members[c]) {
+				sets.union(c, base.getBits(), a * base.getWords());
+			}
+			sets.remove(c, SymbolTable.EPSILON_ID);
+			for (int a : members[c]) {
+				for (int e = includes.start(a), end = includes.end(a); e < end; e++) {
+					int target = scc.getComponent(includes.target(e));
+					if (target != c) {
+						sets.union(target, c);
+					}
+				}
+			}
+		}
+
+		SymbolSets follow = new SymbolSets(grammar.getSymbolTable(), n, true);
+		for (int a = 0; a < n; a++) {
+			follow.union(a, sets.getBits(), scc.getComponent(a) * sets.getWords());
+		}
+		return follow;
+	}
+
+	/**
+	 * Add the first set of a suffix of a production to a set
+	 * @param sets the sets to add to
+	 * @param row the set to add to
+	 * @param from the position in the arena where the suffix starts
+	 * @param end the position after the end of the production
+	 */
+	private void addFirst(SymbolSets sets, int row, int from, int end) {
+		for (int i = from; i < end; i++) {
+			int symbol = arena[i];
+			if (SymbolTable.isTerminal(symbol)) {
+				sets.add(row, ~symbol);
+				return;
+			}
+			sets.union(row, first.getBits(), symbol * first.getWords());
+			if (!first.contains(symbol, SymbolTable.EPSILON_ID)) {
+				return;
+			}
+		}
+	}
+}
@@ -0,0 +1,475 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+
+/**
+ * Generalized LR parser for any CFG, ambiguous or not, with & anywhere:
+ * the RNGLR algorithm of Scott and Johnstone, run on a RightNulledTable.
+ * Where the table has several actions every one is taken, and the stacks
+ * they lead to share their nodes in a graph structured stack: level i has
+ * at most one node per state, and an edge goes down to the node it was
+ * pushed on, labelled with the forest node of the symbol pushed.
+ * A reduction of length m follows every path of m edges down from the edge
+ * that triggered it, and all the derivations of the same non terminal over
+ * the same tokens found in a level are packed into a single forest node,
+ * so the result is a SharedPackedForest of every parse tree of the sentence.
+ * The stack and the forest are ints in arrays; a sentence of n tokens has
+ * O(n) stack nodes per level and O(n^2) forest nodes, and with k symbols in
+ * the longest production O(n^(k+1)) packed nodes, however many trees there
+ * are. The arrays of the stack are kept between calls, so a parser is not
+ * thread safe
+ */
+public class GLRParser {
+	private RightNulledTable table; // the actions
+	private LR0Automaton automaton; // the transitions
+	private LRItems items; // the items of the augmented grammar
+	private CompiledGrammar grammar; // the grammar it operates on
+	private int terminals; // number of terminal ids
+	private int acceptState; // state reached from the initial one by the initial symbol, -1 if none
+	private SharedPackedForest epsilon; // the derivations of & of every nullable non terminal
+	private int[] epsilonNode; // node of every non terminal in epsilon, -1 if it is not nullable
+
+	private int[] nodeState; // state of every stack node
+	private int[] nodeLevel; // level of every stack node
+	private int[] nodeEdge; // first edge of every stack node, -1 if none
+	private int nodeCount; // stack nodes of all the levels
+	private int[] edgeTarget; // node every edge goes down to
+	private int[] edgeLabel; // forest node of every edge
+	private int[] edgeNext; // next edge of the same node, -1 for the last
+	private int edgeCount; // edges of the stack
+	private int[] levelStart; // first stack node of every level
+	private int[] stateNode; // the node of every state in the level it was last given one
+	private int[] stateLevel; // the level stateNode refers to, -1 if none
+	private int[] pendingNode; // node the paths of every pending reduction start from
+	private int[] pendingReduction; // reduction of the table of every pending reduction
+	private int[] pendingLabel; // forest node of the first edge of every pending reduction
+	private int pendingCount; // reductions to do in the current level
+	private int[] shiftNode; // node every shift of the current level pushes on
+	private int[] shiftState; // state every shift of the current level pushes
+	private int[] nextNode; // node every pending shift pushes on
+	private int[] nextState; // state every pending shift pushes
+	private int nextCount; // shifts to do at the end of the level being built
+	private long[] slots; // non terminal and first level of the forest nodes of the current level
+	private int[] slotNode; // forest node of every slot
+	private int[] slotStamp; // the stamp of the level every slot was filled in
+	private int slotSize; // slots filled in the current level
+	private int stamp; // stamp of the current level, different for every level of every call
+	private int[] kids; // the children of the packed node being added
+	private SharedPackedForest forest; // the forest being built
+	private int level; // the level being built
+	private int lookahead; // the next token of the level being built
+
+	/**
+	 * Constructor
+	 * Runs on the LALR(1) lookaheads of a grammar
+	 * @param g the grammar
+	 */
+	public GLRParser(ContextFreeGrammar g) {
+		this(new LALRTable(g));
+	}
+
+	/**
+	 * Constructor
+	 * Runs on the lookaheads of an LALR(1) table, conflicts and all
+	 * @param lalr the table
+	 */
+	public GLRParser(LALRTable lalr) {
+		this(new RightNulledTable(lalr.getAutomaton(), lalr));
+	}
+
+	/**
+	 * Constructor
+	 * Runs on an LR(0) automaton, reducing on every terminal
+	 * @param automaton the automaton
+	 */
+	public GLRParser(LR0Automaton automaton) {
+		this(new RightNulledTable(automaton, null));
+	}
+
+	private GLRParser(RightNulledTable table) {
+		this.table = table;
+		this.automaton = table.getAutomaton();
+		this.items = automaton.getItems();
+		this.grammar = automaton.getCompiledGrammar();
+		this.terminals = grammar.getSymbolTable().getTerminalCount();
+		this.acceptState = items.canAccept() ? automaton.getTransition(0, grammar.getInitialSymbol()) : -1;
+		buildEpsilon();
+		nodeState = new int[64];
+		nodeLevel = new int[64];
+		nodeEdge = new int[64];
+		edgeTarget = new int[64];
+		edgeLabel = new int[64];
+		edgeNext = new int[64];
+		levelStart = new int[17];
+		stateNode = new int[automaton.getStateCount()];
+		stateLevel = new int[automaton.getStateCount()];
+		pendingNode = new int[16];
+		pendingReduction = new int[16];
+		pendingLabel = new int[16];
+		shiftNode = new int[16];
+		shiftState = new int[16];
+		nextNode = new int[16];
+		nextState = new int[16];
+		slots = new long[64];
+		slotNode = new int[64];
+		slotStamp = new int[64];
+		kids = new int[16];
+	}
+
+	/**
+	 * Build the forest of the derivations of & of every nullable non terminal,
+	 * a node per non terminal with a packed node per production that derives &
+	 */
+	private void buildEpsilon() {
+		boolean[] nullable = table.getNullable();
+		epsilon = new SharedPackedForest(grammar);
+		epsilonNode = new int[grammar.getNonTerminalCount()];
+		for (int nt = 0; nt < epsilonNode.length; nt++) {
+			epsilonNode[nt] = nullable[nt] ? epsilon.addNode(nt, -1, -1) : -1;
+		}
+		int[] children = new int[16];
+		for (int nt = 0; nt < epsilonNode.length; nt++) {
+			if (!nullable[nt]) {
+				continue;
+			}
+			for (int p = grammar.getFirstProduction(nt); p < grammar.getEndProduction(nt); p++) {
+				if (items.isProductive(p) && table.nullableFrom(p, 0)) {
+					int[] rhs = items.getRightSide(p);
+					children = IntArrays.grow(children, rhs.length);
+					for (int i = 0; i < rhs.length; i++) {
+						children[i] = epsilonNode[rhs[i]];
+					}
+					epsilon.addPacked(epsilonNode[nt], p, children, rhs.length);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parse a sentence
+	 * @param tokens the terminal id of every token
+	 * @return the forest of its parse trees, null if it is not accepted
+	 */
+	public SharedPackedForest parse(int[] tokens) {
+		return parse(tokens, 0, tokens.length);
+	}
+
+	/**
+	 * Parse a sentence
+	 * @param tokens the terminal ids, as given by encode
+	 * @param from the first token of the sentence
+	 * @param to the position after the last token of the sentence
+	 * @return the forest of its parse trees, with token positions counted from
+	 * the first one of the sentence, null if it is not accepted
+	 */
+	public SharedPackedForest parse(int[] tokens, int from, int to) {
+		if (acceptState < 0) {
+			return null;
+		}
+		for (int i = from; i < to; i++) {
+			if (tokens[i] <= SymbolTable.END_ID || tokens[i] >= terminals) {
+				return null; // & and $ are not input tokens
+			}
+		}
+		int n = to - from;
+		if (n + 2 > levelStart.length) {
+			levelStart = new int[n + 2];
+		}
+		if (stamp > Integer.MAX_VALUE - n - 2) {
+			Arrays.fill(slotStamp, 0);
+			stamp = 0;
+		}
+		Arrays.fill(stateLevel, -1);
+		forest = new SharedPackedForest(epsilon);
+		nodeCount = 0;
+		edgeCount = 0;
+		pendingCount = 0;
+		nextCount = 0;
+		level = 0;
+		levelStart[0] = 0;
+		lookahead = n > 0 ? tokens[from] : SymbolTable.END_ID;
+		stamp++;
+		slotSize = 0;
+		addNode(0);
+		for (int i = 0; i <= n; i++) {
+			if (levelStart[i] == nodeCount) {
+				forest = null;
+				return null; // no stack can shift the last token
+			}
+			while (pendingCount > 0) {
+				pendingCount--;
+				reduce(pendingNode[pendingCount], pendingReduction[pendingCount], pendingLabel[pendingCount]);
+			}
+			if (i < n) {
+				shift(tokens, from + i, i < n - 1 ? tokens[from + i + 1] : SymbolTable.END_ID);
+			}
+		}
+		SharedPackedForest result = forest;
+		forest = null;
+		for (int w = levelStart[n]; w < nodeCount; w++) {
+			if (nodeState[w] == acceptState) {
+				for (int e = nodeEdge[w]; e >= 0; e = edgeNext[e]) {
+					if (edgeTarget[e] == 0) {
+						result.setRoot(edgeLabel[e]);
+						return result;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Do a reduction along every path from the edge that triggered it
+	 * @param v the node the edge goes down to, or the node reducing if the reduction takes no symbol
+	 * @param r the reduction
+	 * @param y the forest node of the edge, unused if the reduction takes no symbol
+	 */
+	private void reduce(int v, int r, int y) {
+		int m = table.getLength(r);
+		if (m == 0) {
+			int nt = table.getLeftSide(r);
+			link(automaton.getTransition(nodeState[v], nt), v, epsilonNode[nt], false);
+			return;
+		}
+		kids = IntArrays.grow(kids, items.getRightSide(table.getProduction(r)).length);
+		kids[m - 1] = y;
+		walk(v, m - 1, r);
+	}
+
+	/**
+	 * Follow the paths of a reduction down the stack, collecting the forest
+	 * nodes of their edges, last symbol first
+	 * @param node the node reached
+	 * @param k the edges left to follow
+	 * @param r the reduction
+	 */
+	private void walk(int node, int k, int r) {
+		if (k == 0) {
+			finish(node, r);
+			return;
+		}
+		for (int e = nodeEdge[node]; e >= 0; e = edgeNext[e]) {
+			kids[k - 1] = edgeLabel[e];
+			walk(edgeTarget[e], k - 1, r);
+		}
+	}
+
+	/**
+	 * Push the non terminal of a reduction on the node one of its paths ends in,
+	 * and add the derivation of the path to the forest
+	 * @param u the node
+	 * @param r the reduction
+	 */
+	private void finish(int u, int r) {
+		int nt = table.getLeftSide(r);
+		int p = table.getProduction(r);
+		int z = forestNode(nt, nodeLevel[u]);
+		link(automaton.getTransition(nodeState[u], nt), u, z, true);
+		// The rest of the production derives &
+		int[] rhs = items.getRightSide(p);
+		for (int i = table.getLength(r); i < rhs.length; i++) {
+			kids[i] = epsilonNode[rhs[i]];
+		}
+		forest.addPacked(z, p, kids, rhs.length);
+	}
+
+	/**
+	 * Shift a token from every node that shifts it
+	 * @param tokens the terminal ids
+	 * @param i the position of the token
+	 * @param next the token after it, $ at the end of the sentence
+	 */
+	private void shift(int[] tokens, int i, int next) {
+		int[] swap = shiftNode;
+		shiftNode = nextNode;
+		nextNode = swap;
+		swap = shiftState;
+		shiftState = nextState;
+		nextState = swap;
+		int count = nextCount;
+		nextCount = 0;
+		level++;
+		levelStart[level] = nodeCount;
+		lookahead = next;
+		stamp++;
+		slotSize = 0;
+		int z = forest.addNode(~tokens[i], level - 1, level);
+		for (int k = 0; k < count; k++) {
+			link(shiftState[k], shiftNode[k], z, true);
+		}
+	}
+
+	/**
+	 * Add an edge from the node of a state in the current level, adding the
+	 * node if it is not there yet, and queue the actions they trigger
+	 * @param state the state
+	 * @param u the node the edge goes down to
+	 * @param z the forest node of the edge
+	 * @param spans whether the edge spans tokens, only those can start a reduction that takes symbols
+	 */
+	private void link(int state, int u, int z, boolean spans) {
+		int w;
+		if (stateLevel[state] == level) {
+			w = stateNode[state];
+			for (int e = nodeEdge[w]; e >= 0; e = edgeNext[e]) {
+				if (edgeTarget[e] == u) {
+					return;
+				}
+			}
+		} else {
+			w = addNode(state);
+		}
+		edgeTarget = IntArrays.grow(edgeTarget, edgeCount + 1);
+		edgeLabel = IntArrays.grow(edgeLabel, edgeCount + 1);
+		edgeNext = IntArrays.grow(edgeNext, edgeCount + 1);
+		edgeTarget[edgeCount] = u;
+		edgeLabel[edgeCount] = z;
+		edgeNext[edgeCount] = nodeEdge[w];
+		nodeEdge[w] = edgeCount++;
+		if (spans) {
+			for (int r = table.getReductionStart(state); r < table.getReductionEnd(state); r++) {
+				if (table.getLength(r) > 0 && table.reducesOn(r, lookahead)) {
+					addPending(u, r, z);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add a node to the current level and queue its shift and the reductions
+	 * that take no symbol
+	 * @param state the state of the node
+	 * @return the node
+	 */
+	private int addNode(int state) {
+		nodeState = IntArrays.grow(nodeState, nodeCount + 1);
+		nodeLevel = IntArrays.grow(nodeLevel, nodeCount + 1);
+		nodeEdge = IntArrays.grow(nodeEdge, nodeCount + 1);
+		int w = nodeCount++;
+		nodeState[w] = state;
+		nodeLevel[w] = level;
+		nodeEdge[w] = -1;
+		stateNode[state] = w;
+		stateLevel[state] = level;
+		if (lookahead != SymbolTable.END_ID) {
+			int target = automaton.getTransition(state, ~lookahead);
+			if (target >= 0) {
+				nextNode = IntArrays.grow(nextNode, nextCount + 1);
+				nextState = IntArrays.grow(nextState, nextCount + 1);
+				nextNode[nextCount] = w;
+				nextState[nextCount++] = target;
+			}
+		}
+		for (int r = table.getReductionStart(state); r < table.getReductionEnd(state); r++) {
+			if (table.getLength(r) == 0 && table.reducesOn(r, lookahead)) {
+				addPending(w, r, -1);
+			}
+		}
+		return w;
+	}
+
+	private void addPending(int v, int r, int y) {
+		pendingNode = IntArrays.grow(pendingNode, pendingCount + 1);
+		pendingReduction = IntArrays.grow(pendingReduction, pendingCount + 1);
+		pendingLabel = IntArrays.grow(pendingLabel, pendingCount + 1);
+		pendingNode[pendingCount] = v;
+		pendingReduction[pendingCount] = r;
+		pendingLabel[pendingCount++] = y;
+	}
+
+	/**
+	 * Find the forest node of a non terminal from a level to the current one,
+	 * adding it if it is not there yet
+	 * @param nt the non terminal
+	 * @param c the level it starts in
+	 * @return the forest node
+	 */
+	private int forestNode(int nt, int c) {
+		if (2 * (slotSize + 1) > slots.length) {
+			long[] oldSlots = slots;
+			int[] oldNode = slotNode;
+			int[] oldStamp = slotStamp;
+			slots = new long[slots.length * 2];
+			slotNode = new int[slots.length];
+			slotStamp = new int[slots.length];
+			for (int s = 0; s < oldSlots.length; s++) {
+				if (oldStamp[s] == stamp) {
+					int slot = findSlot(oldSlots[s]);
+					slotStamp[slot] = stamp;
+					slots[slot] = oldSlots[s];
+					slotNode[slot] = oldNode[s];
+				}
+			}
+		}
+		long key = ((long) nt << 32) | c;
+		int slot = findSlot(key);
+		if (slotStamp[slot] != stamp) {
+			slotStamp[slot] = stamp;
+			slots[slot] = key;
+			slotNode[slot] = forest.addNode(nt, c, level);
+			slotSize++;
+		}
+		return slotNode[slot];
+	}
+
+	/**
+	 * Find the slot of a non terminal and level in the table of the current
+	 * level, filling it with the key if it is empty
+	 * @param key the non terminal and level
+	 * @return the slot
+	 */
+	private int findSlot(long key) {
+		int mask = slots.length - 1;
+		long h = key * 0x9E3779B97F4A7C15L;
+		for (int slot = (int) (h >>> 40) & mask;; slot = (slot + 1) & mask) {
+			if (slotStamp[slot] != stamp) {
+				return slot;
+			}
+			if (slots[slot] == key) {
+				return slot;
+			}
+		}
+	}
+
+	/**
+	 * Get the number of stack nodes of the last sentence parsed
+	 * @return the nodes of all its levels, up to the last level built
+	 */
+	public int getStackNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Get the number of stack edges of the last sentence parsed
+	 * @return the edges between the nodes of all its levels
+	 */
+	public int getStackEdgeCount() {
+		return edgeCount;
+	}
+
+	/**
+	 * Get the symbol table the ids refer to
+	 * @return the ids of the grammar symbols
+	 */
+	public SymbolTable getSymbolTable() {
+		return grammar.getSymbolTable();
+	}
+
+	/**
+	 * Transform a sentence in the form "a b c" into terminal ids
+	 * @param sentence the sentence
+	 * @return the id of every token, -1 for the ones that are not terminals
+	 */
+	public int[] encode(String sentence) {
+		String[] br = sentence.trim().split("[\\s\\r]+");
+		if (br.length == 1 && br[0].isEmpty()) {
+			return new int[0];
+		}
+		int[] tokens = new int[br.length];
+		for (int i = 0; i < br.length; i++) {
+			tokens[i] = grammar.getSymbolTable().getTerminalId(br[i]);
+		}
+		return tokens;
+	}
+}
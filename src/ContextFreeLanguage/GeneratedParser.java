@@ -0,0 +1,25 @@
+package ContextFreeLanguage;
+
+/**
+ * A recognizer generated by RecursiveDescentGenerator and loaded at runtime.
+ * Tokens are terminal ids, see LoadedParser.encode.
+ * An instance is not thread safe, use one per thread
+ */
+public interface GeneratedParser {
+
+	/**
+	 * Verify if a sentence belongs to the language of the grammar
+	 * @param tokens the token ids
+	 * @param from the first token of the sentence
+	 * @param to the position after the last token of the sentence
+	 * @return true if the sentence is accepted
+	 */
+	boolean parse(int[] tokens, int from, int to);
+
+	/**
+	 * Verify if a sentence belongs to the language of the grammar
+	 * @param tokens the token ids
+	 * @return true if the sentence is accepted
+	 */
+	boolean parse(int[] tokens);
+}
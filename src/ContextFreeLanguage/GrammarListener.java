@@ -0,0 +1,46 @@
+package ContextFreeLanguage;
+
+/**
+ * Receives the changes made to a Context Free Grammar
+ * through its methods. Changes made directly on the sets returned
+ * by getGrammarProductions are not seen by the listeners
+ */
+public interface GrammarListener {
+
+	/**
+	 * A production was added. It may have been in the grammar already
+	 * @param nt the non terminal
+	 * @param prod the production
+	 */
+	void productionAdded(String nt, String prod);
+
+	/**
+	 * A production was removed. It may not have been in the grammar
+	 * @param nt the non terminal
+	 * @param prod the production
+	 */
+	void productionRemoved(String nt, String prod);
+
+	/**
+	 * A non terminal was added to vn
+	 * @param nt the non terminal
+	 */
+	void nonTerminalAdded(String nt);
+
+	/**
+	 * A non terminal was removed from vn, after all its productions were removed
+	 * @param nt the non terminal
+	 */
+	void nonTerminalRemoved(String nt);
+
+	/**
+	 * The initial symbol was changed
+	 * @param s the new initial symbol
+	 */
+	void initialSymbolChanged(String s);
+
+	/**
+	 * The grammar was changed in a way that is not described by the other events
+	 */
+	void grammarChanged();
+}
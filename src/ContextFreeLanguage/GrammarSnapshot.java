@@ -0,0 +1,149 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable copy of a Context Free Grammar.
+ * The productions are kept in a persistent map from non terminal
+ * to a frozen array of productions, so a snapshot of a grammar
+ * that was created from another snapshot shares every non terminal
+ * that was not changed in between. Symbols and productions are
+ * stored in the iteration order of the grammar they were taken from,
+ * so a grammar created from a snapshot iterates them exactly as
+ * a copy made with new ContextFreeGrammar(g) would
+ */
+public final class GrammarSnapshot {
+	private final String[] vn; // non terminal symbols
+	private final String[] vt; // terminal symbols
+	private final PersistentMap<String, String[]> productions; // production rules
+	private final String s; // initial S
+	private final String grammar; // the input grammar entered by the user
+
+	/**
+	 * Constructor
+	 * @param vn the non terminals in iteration order
+	 * @param vt the terminals in iteration order
+	 * @param productions the productions of every non terminal in iteration order
+	 * @param s the initial symbol
+	 * @param grammar the input grammar
+	 */
+	GrammarSnapshot(String[] vn, String[] vt, PersistentMap<String, String[]> productions,
+			String s, String grammar) {
+		this.vn = vn;
+		this.vt = vt;
+		this.productions = productions;
+		this.s = s;
+		this.grammar = grammar;
+	}
+
+	/**
+	 * Get the initial symbol
+	 * @return the initial symbol
+	 */
+	public String getInitialSymbol() {
+		return s;
+	}
+
+	/**
+	 * Get the non terminal symbols (Vn)
+	 * @return Vn, read only
+	 */
+	public List<String> getVn() {
+		return Collections.unmodifiableList(Arrays.asList(vn));
+	}
+
+	/**
+	 * Get the terminal symbols (Vt)
+	 * @return Vt, read only
+	 */
+	public List<String> getVt() {
+		return Collections.unmodifiableList(Arrays.asList(vt));
+	}
+
+	/**
+	 * Get the production rules of a non terminal
+	 * @param nt the non terminal
+	 * @return its productions, read only
+	 */
+	public List<String> getGrammarProductions(String nt) {
+		return Collections.unmodifiableList(Arrays.asList(getProductionArray(nt)));
+	}
+
+	/**
+	 * Get the frozen productions of a non terminal
+	 * @param nt the non terminal
+	 * @return its productions, empty if it has none
+	 */
+	String[] getProductionArray(String nt) {
+		String[] prods = productions.get(nt);
+		return prods == null ? new String[0] : prods;
+	}
+
+	/**
+	 * Get the frozen non terminals, shared by the snapshots that did not change them
+	 * @return the non terminals in iteration order
+	 */
+	String[] getVnArray() {
+		return vn;
+	}
+
+	/**
+	 * Get the frozen terminals, shared by the snapshots that did not change them
+	 * @return the terminals in iteration order
+	 */
+	String[] getVtArray() {
+		return vt;
+	}
+
+	/**
+	 * Get the persistent map of productions
+	 * @return the productions of every non terminal
+	 */
+	PersistentMap<String, String[]> getProductionMap() {
+		return productions;
+	}
+
+	/**
+	 * Get the input grammar
+	 * @return the text the grammar was created from
+	 */
+	String getText() {
+		return grammar;
+	}
+
+	/**
+	 * Create a mutable set with the symbols of an array, in order
+	 * @param symbols the symbols
+	 * @return the set
+	 */
+	static HashSet<String> thaw(String[] symbols) {
+		HashSet<String> set = new HashSet<>();
+		for (String symbol : symbols) {
+			set.add(symbol);
+		}
+		return set;
+	}
+
+	/**
+	 * Verify if a set iterates exactly over the symbols of an array
+	 * @param set the set
+	 * @param symbols the symbols
+	 * @return true if the set has the same symbols in the same order
+	 */
+	static boolean sameOrder(Set<String> set, String[] symbols) {
+		if (symbols == null || set.size() != symbols.length) {
+			return false;
+		}
+		int i = 0;
+		for (String symbol : set) {
+			if (!symbol.equals(symbols[i++])) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,393 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Greibach normal form of a compiled grammar, in int arrays: every
+ * production is a terminal followed by non terminals, and the initial
+ * symbol derives & only through a production with no symbol, and then it
+ * is on no right side. It starts from the Chomsky normal form (see
+ * ChomskyNormalForm). Substituting Ai -> Aj gama in the order of the non
+ * terminals, as when the left recursion is removed, gives a non terminal
+ * the product of the productions along every chain of first symbols, so
+ * the grammar can grow exponentially. Instead the left recursion is
+ * removed with the left corner transform, where A-B is a new non terminal
+ * for every B that starts a sentential form of A, that derives what is
+ * left of A once B is recognized: A -> a A-C for C -> a, A-B -> C A-D for
+ * D -> B C, and A-A -> &. A-A -> & is written as a copy of the productions
+ * that end in A-A. The productions A -> a A-C with the same terminal are
+ * merged into A -> a A^a, where A^a derives every A-C, so a non terminal
+ * has at most two productions for every terminal, and C is replaced by
+ * them in A-B -> C A-D. The grammar grows with the number of non terminals
+ * times the productions times the terminals, instead of exponentially.
+ * Only the initial symbol and the second symbols get the transform, and
+ * the symbols that derive no sentence or are not reached are removed at the end.
+ * Non terminal codes are ids as in SymbolTable, terminal codes are ~id.
+ * The ids of the grammar are kept, and the ones added come after them
+ */
+class GreibachNormalForm {
+	private SymbolTable symbols; // ids of the grammar symbols
+	private int ntCount; // non terminals, the ones of the Chomsky normal form first
+	private int[] parent; // the non terminal every added non terminal was created for, -1 for the original ones
+	private int initial; // the initial symbol
+	private int count; // productions
+	private int[] lhs; // left side of every production
+	private int[] offsets; // first symbol of every production in the arena, plus the end
+	private int[] arena; // the symbols of every production, back to back
+	private int[] ownStart; // the first production A -> a ... of every non terminal that gets the transform
+	private int[] ownEnd; // the end of its productions
+
+	/**
+	 * Constructor
+	 * @param g the compiled grammar
+	 */
+	GreibachNormalForm(CompiledGrammar g) {
+		ChomskyNormalForm cnf = new ChomskyNormalForm(g);
+		symbols = g.getSymbolTable();
+		int n = cnf.getNonTerminalCount();
+		ntCount = n;
+		parent = new int[Math.max(16, n * 2)];
+		for (int nt = 0; nt < n; nt++) {
+			parent[nt] = cnf.getParent(nt);
+		}
+		initial = cnf.getInitialSymbol();
+		lhs = new int[Math.max(16, cnf.getProductionCount() * 2)];
+		offsets = new int[lhs.length + 1];
+		arena = new int[lhs.length * 2];
+
+		// The productions of every non terminal of the normal form
+		int[] byLeft = new int[n + 1];
+		for (int p = 0; p < cnf.getProductionCount(); p++) {
+			byLeft[cnf.getLeftSide(p) + 1]++;
+		}
+		for (int nt = 0; nt < n; nt++) {
+			byLeft[nt + 1] += byLeft[nt];
+		}
+		int[] order = new int[cnf.getProductionCount()];
+		int[] fill = Arrays.copyOf(byLeft, n);
+		boolean[] needed = new boolean[n]; // the non terminals that get the transform
+		needed[initial] = true;
+		for (int p = 0; p < cnf.getProductionCount(); p++) {
+			order[fill[cnf.getLeftSide(p)]++] = p;
+			if (cnf.getLength(p) == 2) {
+				needed[cnf.getSymbol(p, 1)] = true;
+			}
+		}
+
+		int[] byFirst = new int[n + 1]; // the productions A -> B C by B
+		for (int p = 0; p < cnf.getProductionCount(); p++) {
+			if (cnf.getLength(p) == 2) {
+				byFirst[cnf.getSymbol(p, 0) + 1]++;
+			}
+		}
+		for (int nt = 0; nt < n; nt++) {
+			byFirst[nt + 1] += byFirst[nt];
+		}
+		int[] binary = new int[byFirst[n]];
+		fill = Arrays.copyOf(byFirst, n);
+		for (int p = 0; p < cnf.getProductionCount(); p++) {
+			if (cnf.getLength(p) == 2) {
+				binary[fill[cnf.getSymbol(p, 0)]++] = p;
+			}
+		}
+
+		int[] cornerStart = new int[n + 1]; // the left corners of every needed non terminal
+		int[] corners = new int[16];
+		int[] pairs = new int[16]; // A-B for every left corner B of A, -1 for A-A when A is not left recursive
+		int[] stamp = new int[n]; // the A + 1 every left corner of A was found for
+		int[] head = new int[symbols.getTerminalCount()]; // A^a by the terminal a, for the current A
+		int[] headStamp = new int[head.length]; // the A + 1 every A^a was created for
+		ownStart = new int[n];
+		ownEnd = new int[n];
+		int size = 0;
+		for (int a = 0; a < n; a++) {
+			cornerStart[a] = size;
+			if (!needed[a]) {
+				continue;
+			}
+			// The left corners of A, with a search over the first symbols
+			corners = IntArrays.grow(corners, size + n);
+			pairs = IntArrays.grow(pairs, size + n);
+			int end = size;
+			corners[end++] = a;
+			stamp[a] = a + 1;
+			boolean recursive = false;
+			for (int k = size; k < end; k++) {
+				for (int i = byLeft[corners[k]]; i < byLeft[corners[k] + 1]; i++) {
+					int p = order[i];
+					int x = cnf.getLength(p) == 2 ? cnf.getSymbol(p, 0) : -1;
+					recursive |= x == a;
+					if (x >= 0 && stamp[x] != a + 1) {
+						stamp[x] = a + 1;
+						corners[end++] = x;
+					}
+				}
+			}
+			for (int k = size; k < end; k++) {
+				pairs[k] = k > size || recursive ? addNonTerminal(a) : -1;
+			}
+			// A -> a A^a, where A^a derives A-C for every C -> a, and A -> a for A -> a
+			ownStart[a] = count;
+			for (int k = size; k < end; k++) {
+				for (int i = byLeft[corners[k]]; i < byLeft[corners[k] + 1]; i++) {
+					int p = order[i];
+					if (cnf.getLength(p) != 1) {
+						continue;
+					}
+					int t = ~cnf.getSymbol(p, 0);
+					if (pairs[k] >= 0 && headStamp[t] != a + 1) {
+						headStamp[t] = a + 1;
+						head[t] = addNonTerminal(a);
+						add(a, new int[] { ~t, head[t] }, 2);
+					}
+					if (k == size) {
+						add(a, new int[] { ~t }, 1);
+					}
+				}
+			}
+			ownEnd[a] = count;
+			size = end;
+		}
+		cornerStart[n] = size;
+		int[] pairStart = new int[size]; // the first production of every A-B
+		int[] pairEnd = new int[size]; // the end of its productions
+		int[] pair = new int[n]; // A-B by B, for the current A
+		for (int a = 0; a < n; a++) {
+			if (!needed[a]) {
+				continue;
+			}
+			for (int k = cornerStart[a]; k < cornerStart[a + 1]; k++) {
+				pair[corners[k]] = pairs[k];
+				stamp[corners[k]] = ~a;
+			}
+			// A-B -> C A-D for D -> B C, and A-B -> C when D is A, with C replaced by its productions
+			for (int k = cornerStart[a]; k < cornerStart[a + 1]; k++) {
+				pairStart[k] = count;
+				for (int i = byFirst[corners[k]]; i < byFirst[corners[k] + 1]; i++) {
+					int p = binary[i];
+					int d = cnf.getLeftSide(p);
+					if (stamp[d] != ~a) {
+						continue;
+					}
+					if (pair[d] >= 0) {
+						substitute(pair[corners[k]], cnf.getSymbol(p, 1), pair[d]);
+					}
+					if (d == a) {
+						substitute(pair[corners[k]], cnf.getSymbol(p, 1), -1);
+					}
+				}
+				pairEnd[k] = count;
+			}
+			// A^a gets the productions of A-C for every C -> a
+			for (int q = ownStart[a]; q < ownEnd[a]; q++) {
+				if (offsets[q + 1] - offsets[q] == 2) {
+					head[~arena[offsets[q]]] = arena[offsets[q] + 1];
+				}
+			}
+			for (int k = cornerStart[a]; k < cornerStart[a + 1]; k++) {
+				if (pairs[k] < 0) {
+					continue;
+				}
+				for (int i = byLeft[corners[k]]; i < byLeft[corners[k] + 1]; i++) {
+					int p = order[i];
+					if (cnf.getLength(p) == 1) {
+						for (int q = pairStart[k]; q < pairEnd[k]; q++) {
+							copy(head[~cnf.getSymbol(p, 0)], q);
+						}
+					}
+				}
+			}
+		}
+		for (int i = byLeft[initial]; i < byLeft[initial + 1]; i++) {
+			if (cnf.getLength(order[i]) == 0) {
+				add(initial, new int[0], 0);
+			}
+		}
+		clean();
+	}
+
+	/**
+	 * Add A-B -> C A-D with C replaced by every one of its productions
+	 * @param left the non terminal A-B
+	 * @param c the non terminal C
+	 * @param last the non terminal A-D that is added at the end, -1 for none
+	 */
+	private void substitute(int left, int c, int last) {
+		for (int q = ownStart[c]; q < ownEnd[c]; q++) {
+			int length = offsets[q + 1] - offsets[q];
+			int[] rhs = new int[length + 1];
+			System.arraycopy(arena, offsets[q], rhs, 0, length);
+			rhs[length] = last;
+			add(left, rhs, last >= 0 ? length + 1 : length);
+		}
+	}
+
+	/**
+	 * Add a copy of a production with another left side
+	 * @param left the left side
+	 * @param q the production
+	 */
+	private void copy(int left, int q) {
+		int length = offsets[q + 1] - offsets[q];
+		add(left, Arrays.copyOfRange(arena, offsets[q], offsets[q + 1]), length);
+	}
+
+	/**
+	 * Remove the productions with a non terminal that derives no sentence,
+	 * and then the ones of the non terminals the initial symbol does not reach
+	 */
+	private void clean() {
+		boolean[] productive = UsefulSymbols.closure(ntCount, count, lhs, offsets, arena, false);
+		int kept = 0, size = 0;
+		for (int p = 0; p < count; p++) {
+			boolean keep = productive[lhs[p]];
+			for (int i = offsets[p]; i < offsets[p + 1]; i++) {
+				keep &= arena[i] < 0 || productive[arena[i]];
+			}
+			if (keep) {
+				size = move(p, kept++, size);
+			}
+		}
+		count = kept;
+		int[] byLeft = new int[ntCount + 1]; // the productions of every non terminal
+		for (int p = 0; p < count; p++) {
+			byLeft[lhs[p] + 1]++;
+		}
+		for (int nt = 0; nt < ntCount; nt++) {
+			byLeft[nt + 1] += byLeft[nt];
+		}
+		int[] order = new int[count];
+		int[] fill = Arrays.copyOf(byLeft, ntCount);
+		for (int p = 0; p < count; p++) {
+			order[fill[lhs[p]]++] = p;
+		}
+		boolean[] reached = new boolean[ntCount];
+		int[] work = new int[ntCount];
+		int top = 0;
+		reached[initial] = true;
+		work[top++] = initial;
+		while (top > 0) {
+			int nt = work[--top];
+			for (int k = byLeft[nt]; k < byLeft[nt + 1]; k++) {
+				int p = order[k];
+				for (int i = offsets[p]; i < offsets[p + 1]; i++) {
+					if (arena[i] >= 0 && !reached[arena[i]]) {
+						reached[arena[i]] = true;
+						work[top++] = arena[i];
+					}
+				}
+			}
+		}
+		kept = 0;
+		size = 0;
+		for (int p = 0; p < count; p++) {
+			if (reached[lhs[p]]) {
+				size = move(p, kept++, size);
+			}
+		}
+		count = kept;
+	}
+
+	/**
+	 * Move a production to an earlier index
+	 * @param p the production
+	 * @param to its new index
+	 * @param size where its symbols go in the arena
+	 * @return the end of its symbols
+	 */
+	private int move(int p, int to, int size) {
+		int length = offsets[p + 1] - offsets[p];
+		System.arraycopy(arena, offsets[p], arena, size, length);
+		lhs[to] = lhs[p];
+		offsets[to] = size;
+		offsets[to + 1] = size + length;
+		return size + length;
+	}
+
+	/**
+	 * Add a non terminal
+	 * @param from the non terminal it is created for
+	 * @return its id
+	 */
+	private int addNonTerminal(int from) {
+		parent = IntArrays.grow(parent, ntCount + 1);
+		parent[ntCount] = from;
+		return ntCount++;
+	}
+
+	private void add(int a, int[] rhs, int length) {
+		lhs = IntArrays.grow(lhs, count + 1);
+		offsets = IntArrays.grow(offsets, count + 2);
+		arena = IntArrays.grow(arena, offsets[count] + length);
+		lhs[count] = a;
+		System.arraycopy(rhs, 0, arena, offsets[count], length);
+		offsets[count + 1] = offsets[count] + length;
+		count++;
+	}
+
+	/**
+	 * Get the number of productions
+	 * @return the productions, numbered from 0
+	 */
+	int getProductionCount() {
+		return count;
+	}
+
+	/**
+	 * Build the normal form as a grammar. The non terminals of the grammar
+	 * keep their names, and an added one is named after the non terminal
+	 * of the grammar it was created for (see NonTerminalNames).
+	 * Equal productions of the same non terminal are kept once
+	 * @return the grammar, with no id
+	 */
+	ContextFreeGrammar toGrammar() {
+		int original = symbols.getNonTerminalCount();
+		String[] names = new String[ntCount];
+		for (int nt = 0; nt < original; nt++) {
+			names[nt] = symbols.getNonTerminal(nt);
+		}
+		NonTerminalNames fresh = new NonTerminalNames(symbols);
+		for (int nt = original; nt < ntCount; nt++) {
+			int root = nt;
+			while (root >= original) {
+				root = parent[root];
+			}
+			names[nt] = fresh.next(names[root]);
+		}
+		HashMap<String, HashSet<String>> productions = new HashMap<>();
+		ContextFreeGrammar g = new ContextFreeGrammar();
+		g.addVn(names[initial]);
+		productions.put(names[initial], new HashSet<String>());
+		for (int p = 0; p < count; p++) {
+			String left = names[lhs[p]];
+			StringBuilder sb = new StringBuilder();
+			for (int i = offsets[p]; i < offsets[p + 1]; i++) {
+				if (sb.length() > 0) {
+					sb.append(' ');
+				}
+				if (arena[i] >= 0) {
+					sb.append(names[arena[i]]);
+				} else {
+					sb.append(symbols.getTerminal(~arena[i]));
+					g.addVt(symbols.getTerminal(~arena[i]));
+				}
+			}
+			if (sb.length() == 0) {
+				sb.append(SymbolTable.EPSILON);
+				g.addVt(SymbolTable.EPSILON);
+			}
+			HashSet<String> set = productions.get(left);
+			if (set == null) {
+				set = new HashSet<>();
+				productions.put(left, set);
+				g.addVn(left);
+			}
+			set.add(sb.toString());
+		}
+		g.setProductions(productions);
+		g.setInitialSymbol(names[initial]);
+		return g;
+	}
+}
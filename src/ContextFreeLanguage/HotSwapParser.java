@@ -0,0 +1,96 @@
+package ContextFreeLanguage;
+
+/**
+ * Keeps a compiled parser in step with a grammar that is being edited.
+ * Every change to the grammar marks the parser as stale, and the next
+ * call to get compiles the new one from a copy of the grammar and
+ * swaps it in. The old LoadedParser is dropped, its class loader can
+ * be collected once the parsers created from it are not used anymore.
+ * Edits and calls to get must not run at the same time, since the
+ * grammar itself is not thread safe; the parser returned by get can
+ * be used from any thread
+ */
+public class HotSwapParser implements GrammarListener {
+	private ContextFreeGrammar grammar; // the grammar being edited
+	private ParserCompiler compiler; // compiles every new version
+	private volatile LoadedParser current; // the parser of the last version compiled
+	private volatile boolean stale; // the grammar changed after current was compiled
+
+	/**
+	 * Constructor
+	 * Compiles the parser of the grammar as it is now
+	 * @param g the grammar, it is watched until close is called
+	 * @param compiler the compiler
+	 * @throws IllegalArgumentException if the grammar is not LL(1)
+	 */
+	public HotSwapParser(ContextFreeGrammar g, ParserCompiler compiler) {
+		this.grammar = g;
+		this.compiler = compiler;
+		this.current = compiler.compile(new ContextFreeGrammar(g));
+		g.addListener(this);
+	}
+
+	/**
+	 * Get the parser of the grammar, compiling it again if the grammar changed
+	 * @return the current parser
+	 * @throws IllegalArgumentException if the grammar is not LL(1) anymore,
+	 * the previous parser is kept
+	 */
+	public synchronized LoadedParser get() {
+		if (stale) {
+			stale = false;
+			try {
+				current = compiler.compile(new ContextFreeGrammar(grammar));
+			} catch (RuntimeException e) {
+				stale = true;
+				throw e;
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Verify if the grammar changed since the parser was compiled
+	 * @return true if the next call to get compiles a new parser
+	 */
+	public boolean isStale() {
+		return stale;
+	}
+
+	/**
+	 * Stop watching the grammar
+	 */
+	public void close() {
+		grammar.removeListener(this);
+	}
+
+	@Override
+	public void productionAdded(String nt, String prod) {
+		stale = true;
+	}
+
+	@Override
+	public void productionRemoved(String nt, String prod) {
+		stale = true;
+	}
+
+	@Override
+	public void nonTerminalAdded(String nt) {
+		stale = true;
+	}
+
+	@Override
+	public void nonTerminalRemoved(String nt) {
+		stale = true;
+	}
+
+	@Override
+	public void initialSymbolChanged(String s) {
+		stale = true;
+	}
+
+	@Override
+	public void grammarChanged() {
+		stale = true;
+	}
+}
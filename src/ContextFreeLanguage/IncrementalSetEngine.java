@@ -0,0 +1,738 @@
+package ContextFreeLanguage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Keeps the nullable, first, firstNT and follow sets of a grammar
+ * up to date while the grammar is changed.
+ * Added productions only make the sets grow, so they are propagated
+ * forward from the productions they affect. A removed production
+ * invalidates the non terminals that may depend on it (its cone),
+ * which are recomputed with the rest of the grammar fixed.
+ * The two exceptions, where an addition can also shrink a set, are
+ * handled as removals: a new & production changes how far firstNT
+ * looks into the productions, and a non terminal that gets or loses
+ * its only production changes which symbols are useless for follow
+ */
+class IncrementalSetEngine implements GrammarListener {
+	private ContextFreeGrammar grammar; // the grammar it listens to
+	private SymbolTable symbols; // ids of the grammar symbols, only grows
+	private ArrayList<ArrayList<Production>> productions; // the productions of every non terminal
+	private ArrayList<ArrayList<Production>> uses; // the productions where every non terminal appears
+	private ArrayList<HashMap<String, Production>> byText; // the productions of every non terminal by text
+	private boolean[] nullable; // non terminals that derive epsilon
+	private boolean[] useless; // non terminals that get $ instead of follow sets
+	private int[] epsilonProductions; // number of productions with & of every non terminal
+	private SymbolSets first; // the first set by non terminal id
+	private SymbolSets firstNT; // the firstNT set by non terminal id
+	private SymbolSets follow; // the follow set by non terminal id
+	private int initial; // id of the initial symbol, -1 if there is none
+	private int version; // incremented on every change
+
+	/**
+	 * A production of the grammar
+	 */
+	private static class Production {
+		private int lhs; // the non terminal
+		private int[] rhs; // the symbol codes
+		private String text; // the production as it is in the grammar
+
+		Production(int lhs, int[] rhs, String text) {
+			this.lhs = lhs;
+			this.rhs = rhs;
+			this.text = text;
+		}
+	}
+
+	/**
+	 * Constructor
+	 * Computes every set from scratch. The engine still has to be
+	 * registered as a listener of the grammar
+	 * @param g the grammar
+	 */
+	IncrementalSetEngine(ContextFreeGrammar g) {
+		this.grammar = g;
+		rebuild();
+	}
+
+	/**
+	 * Computes every set from scratch
+	 */
+	private void rebuild() {
+		symbols = new SymbolTable(grammar);
+		CompiledGrammar cg = new CompiledGrammar(grammar, symbols);
+		FirstSetEngine engine = new FirstSetEngine(cg);
+		first = engine.computeFirst();
+		firstNT = engine.computeFirstNT();
+		follow = new FollowSetEngine(cg, first).computeFollow();
+		int n = symbols.getNonTerminalCount();
+		nullable = Arrays.copyOf(engine.getNullable(), n);
+		useless = new boolean[n];
+		epsilonProductions = new int[n];
+		productions = new ArrayList<>();
+		uses = new ArrayList<>();
+		byText = new ArrayList<>();
+		ensureCapacity();
+		for (int p = 0; p < cg.getProductionCount(); p++) {
+			int[] rhs = new int[cg.getLength(p)];
+			for (int i = 0; i < rhs.length; i++) {
+				rhs[i] = cg.getSymbol(cg.getStart(p) + i);
+			}
+			link(new Production(cg.getLeftSide(p), rhs, cg.getProductionText(p)));
+		}
+		for (int nt = 0; nt < n; nt++) {
+			useless[nt] = isUseless(nt);
+		}
+		initial = cg.getInitialSymbol();
+		version++;
+	}
+
+	/**
+	 * Make room for the symbols added to the symbol table
+	 */
+	private void ensureCapacity() {
+		int n = symbols.getNonTerminalCount();
+		if (nullable.length < n) {
+			int capacity = Math.max(n, nullable.length * 2);
+			nullable = Arrays.copyOf(nullable, capacity);
+			useless = Arrays.copyOf(useless, capacity);
+			epsilonProductions = Arrays.copyOf(epsilonProductions, capacity);
+		}
+		while (productions.size() < n) {
+			useless[productions.size()] = true; // no productions yet
+			productions.add(new ArrayList<>());
+			uses.add(new ArrayList<>());
+			byText.add(new HashMap<>());
+		}
+		first.ensureCapacity(n);
+		firstNT.ensureCapacity(n);
+		follow.ensureCapacity(n);
+	}
+
+	/**
+	 * Add a production to the indexes
+	 * @param q the production
+	 */
+	private void link(Production q) {
+		productions.get(q.lhs).add(q);
+		byText.get(q.lhs).put(q.text, q);
+		for (int i = 0; i < q.rhs.length; i++) {
+			int symbol = q.rhs[i];
+			if (~symbol == SymbolTable.EPSILON_ID && !hasEpsilon(q, i)) {
+				epsilonProductions[q.lhs]++;
+			}
+			if (!SymbolTable.isTerminal(symbol) && indexOf(q.rhs, symbol) == i) {
+				uses.get(symbol).add(q);
+			}
+		}
+	}
+
+	/**
+	 * Remove a production from the indexes
+	 * @param q the production
+	 */
+	private void unlink(Production q) {
+		productions.get(q.lhs).remove(q);
+		byText.get(q.lhs).remove(q.text);
+		for (int i = 0; i < q.rhs.length; i++) {
+			int symbol = q.rhs[i];
+			if (~symbol == SymbolTable.EPSILON_ID && !hasEpsilon(q, i)) {
+				epsilonProductions[q.lhs]--;
+			}
+			if (!SymbolTable.isTerminal(symbol) && indexOf(q.rhs, symbol) == i) {
+				uses.get(symbol).remove(q);
+			}
+		}
+	}
+
+	/**
+	 * Verify if a production has & before a position
+	 * @param q the production
+	 * @param end the position
+	 * @return true if & appears before end
+	 */
+	private static boolean hasEpsilon(Production q, int end) {
+		for (int i = 0; i < end; i++) {
+			if (~q.rhs[i] == SymbolTable.EPSILON_ID) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the first position of a symbol
+	 * @param rhs the symbols
+	 * @param symbol the symbol to look for
+	 * @return the first position of the symbol
+	 */
+	private static int indexOf(int[] rhs, int symbol) {
+		for (int i = 0; i < rhs.length; i++) {
+			if (rhs[i] == symbol) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the symbol table, which only grows while the engine is used
+	 * @return the ids of the grammar symbols
+	 */
+	SymbolTable getSymbolTable() {
+		return symbols;
+	}
+
+	/**
+	 * Get the number of changes seen so far
+	 * @return the version of the sets
+	 */
+	int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Get the first sets
+	 * @return the first set by non terminal id
+	 */
+	SymbolSets getFirst() {
+		return first;
+	}
+
+	/**
+	 * Get the firstNT sets
+	 * @return the firstNT set by non terminal id
+	 */
+	SymbolSets getFirstNT() {
+		return firstNT;
+	}
+
+	/**
+	 * Get the follow sets
+	 * @return the follow set by non terminal id
+	 */
+	SymbolSets getFollow() {
+		return follow;
+	}
+
+	@Override
+	public void productionAdded(String nt, String prod) {
+		int a = symbols.addNonTerminal(nt);
+		ensureCapacity();
+		if (byText.get(a).containsKey(prod)) {
+			return;
+		}
+		Production q = new Production(a, symbols.encodeProduction(prod), prod);
+		ensureCapacity();
+		int epsilon = epsilonProductions[a];
+		boolean wasEmpty = productions.get(a).isEmpty();
+		link(q);
+		version++;
+		ArrayList<Integer> uselessChanged = updateUseless(a, wasEmpty);
+
+		// Nullable and first only grow
+		ArrayList<Integer> grown = new ArrayList<>();
+		ArrayList<Integer> newlyNullable = new ArrayList<>();
+		if (!nullable[a] && isNullable(q)) {
+			setNullableForward(a, newlyNullable);
+		}
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		if (scanFirst(q)) {
+			queue.add(a);
+		}
+		for (int x : newlyNullable) {
+			for (Production r : uses.get(x)) {
+				if (scanFirst(r)) {
+					queue.add(r.lhs);
+				}
+			}
+		}
+		boolean[] seen = new boolean[symbols.getNonTerminalCount()];
+		while (!queue.isEmpty()) {
+			int b = queue.poll();
+			if (!seen[b]) {
+				seen[b] = true;
+				grown.add(b);
+			}
+			for (Production r : uses.get(b)) {
+				if (scanFirst(r)) {
+					queue.add(r.lhs);
+				}
+			}
+		}
+
+		// FirstNT only grows, unless the number of & productions of a changed
+		if (epsilon != epsilonProductions[a]) {
+			recomputeCone(a, false, true);
+		} else if (scanFirstNT(q)) {
+			queue.add(a);
+			while (!queue.isEmpty()) {
+				int b = queue.poll();
+				for (Production r : uses.get(b)) {
+					if (scanFirstNT(r)) {
+						queue.add(r.lhs);
+					}
+				}
+			}
+		}
+
+		// Follow only grows, unless a symbol became useless or useful
+		if (!uselessChanged.isEmpty()) {
+			ArrayList<Integer> seeds = new ArrayList<>(uselessChanged);
+			seeds.add(a);
+			addSymbols(seeds, q);
+			for (int x : grown) {
+				for (Production r : uses.get(x)) {
+					addSymbols(seeds, r);
+				}
+			}
+			recomputeFollow(seeds);
+		} else {
+			scanFollow(q, queue);
+			for (int x : grown) {
+				for (Production r : uses.get(x)) {
+					scanFollow(r, queue);
+				}
+			}
+			propagateFollow(queue, null);
+		}
+		syncInitial();
+	}
+
+	@Override
+	public void productionRemoved(String nt, String prod) {
+		int a = symbols.getNonTerminalId(nt);
+		if (a < 0) {
+			return;
+		}
+		Production q = byText.get(a).get(prod);
+		if (q == null) {
+			return;
+		}
+		unlink(q);
+		version++;
+		ArrayList<Integer> seeds = updateUseless(a, productions.get(a).isEmpty());
+		ArrayList<Integer> changed = recomputeCone(a, true, true);
+		seeds.add(a);
+		addSymbols(seeds, q);
+		for (int x : changed) {
+			for (Production r : uses.get(x)) {
+				addSymbols(seeds, r);
+			}
+		}
+		recomputeFollow(seeds);
+		syncInitial();
+	}
+
+	@Override
+	public void nonTerminalAdded(String nt) {
+		symbols.addNonTerminal(nt);
+		ensureCapacity();
+		version++;
+		syncInitial();
+	}
+
+	@Override
+	public void nonTerminalRemoved(String nt) {
+		version++; // it keeps its id, but it is no longer in vn
+	}
+
+	@Override
+	public void initialSymbolChanged(String s) {
+		version++;
+		syncInitial();
+	}
+
+	@Override
+	public void grammarChanged() {
+		rebuild();
+	}
+
+	/**
+	 * Update the follow sets if the initial symbol changed
+	 */
+	private void syncInitial() {
+		int now = symbols.getNonTerminalId(grammar.getInitialSymbol());
+		if (now == initial) {
+			return;
+		}
+		ArrayList<Integer> seeds = new ArrayList<>();
+		if (initial >= 0) {
+			seeds.add(initial);
+		}
+		if (now >= 0) {
+			seeds.add(now);
+		}
+		initial = now;
+		recomputeFollow(seeds);
+	}
+
+	/**
+	 * Add the non terminals of a production to a list
+	 * @param list the list
+	 * @param q the production
+	 */
+	private static void addSymbols(ArrayList<Integer> list, Production q) {
+		for (int symbol : q.rhs) {
+			if (!SymbolTable.isTerminal(symbol)) {
+				list.add(symbol);
+			}
+		}
+	}
+
+	/**
+	 * Verify if a non terminal is useless: it has no productions
+	 * or a production that uses a non terminal without productions
+	 * @param nt the non terminal
+	 * @return true if it is useless
+	 */
+	private boolean isUseless(int nt) {
+		if (productions.get(nt).isEmpty()) {
+			return true;
+		}
+		for (Production q : productions.get(nt)) {
+			for (int symbol : q.rhs) {
+				if (!SymbolTable.isTerminal(symbol) && productions.get(symbol).isEmpty()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Update the useless non terminals after a production of nt changed
+	 * @param nt the non terminal
+	 * @param emptinessChanged whether nt got its first production or lost its last one
+	 * @return the non terminals that became useless or useful
+	 */
+	private ArrayList<Integer> updateUseless(int nt, boolean emptinessChanged) {
+		ArrayList<Integer> changed = new ArrayList<>();
+		ArrayList<Integer> candidates = new ArrayList<>();
+		candidates.add(nt);
+		if (emptinessChanged) {
+			for (Production r : uses.get(nt)) {
+				candidates.add(r.lhs);
+			}
+		}
+		for (int c : candidates) {
+			boolean now = isUseless(c);
+			if (now != useless[c]) {
+				useless[c] = now;
+				changed.add(c);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Verify if a production derives epsilon with the current nullable set
+	 * @param q the production
+	 * @return true if it derives epsilon
+	 */
+	private boolean isNullable(Production q) {
+		for (int symbol : q.rhs) {
+			if (SymbolTable.isTerminal(symbol)) {
+				return ~symbol == SymbolTable.EPSILON_ID;
+			}
+			if (!nullable[symbol]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Mark a non terminal as nullable and propagate it forward
+	 * @param nt the non terminal
+	 * @param marked the list of non terminals that became nullable
+	 */
+	private void setNullableForward(int nt, ArrayList<Integer> marked) {
+		nullable[nt] = true;
+		marked.add(nt);
+		for (int i = marked.size() - 1; i < marked.size(); i++) {
+			for (Production r : uses.get(marked.get(i))) {
+				if (!nullable[r.lhs] && isNullable(r)) {
+					nullable[r.lhs] = true;
+					marked.add(r.lhs);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add the first set of a production to the first set of its non terminal
+	 * @param q the production
+	 * @return true if the set was changed
+	 */
+	private boolean scanFirst(Production q) {
+		boolean changed = false;
+		for (int symbol : q.rhs) {
+			if (SymbolTable.isTerminal(symbol)) {
+				return first.add(q.lhs, ~symbol) | changed;
+			}
+			changed |= first.unionExcept(q.lhs, symbol, SymbolTable.EPSILON_ID);
+			if (!nullable[symbol]) {
+				return changed;
+			}
+		}
+		return first.add(q.lhs, SymbolTable.EPSILON_ID) | changed;
+	}
+
+	/**
+	 * Add the firstNT set of a production to the firstNT set of its non terminal
+	 * @param q the production
+	 * @return true if the set was changed
+	 */
+	private boolean scanFirstNT(Production q) {
+		boolean changed = false;
+		int i = 0;
+		while (i < q.rhs.length && !SymbolTable.isTerminal(q.rhs[i])) {
+			int symbol = q.rhs[i];
+			changed |= firstNT.add(q.lhs, symbol);
+			changed |= firstNT.union(q.lhs, symbol);
+			if (epsilonProductions[symbol] == 0) {
+				break;
+			}
+			i += epsilonProductions[symbol];
+		}
+		return changed;
+	}
+
+	/**
+	 * Get the non terminals whose sets may depend on a non terminal:
+	 * the ones with a production that uses it, and so on
+	 * @param nt the non terminal
+	 * @param inCone marks the non terminals of the cone
+	 * @return the cone of nt
+	 */
+	private ArrayList<Integer> getCone(int nt, boolean[] inCone) {
+		ArrayList<Integer> cone = new ArrayList<>();
+		cone.add(nt);
+		inCone[nt] = true;
+		for (int i = 0; i < cone.size(); i++) {
+			for (Production r : uses.get(cone.get(i))) {
+				if (!inCone[r.lhs]) {
+					inCone[r.lhs] = true;
+					cone.add(r.lhs);
+				}
+			}
+		}
+		return cone;
+	}
+
+	/**
+	 * Recompute the sets of the cone of a non terminal,
+	 * keeping the sets outside of the cone
+	 * @param nt the non terminal whose productions changed
+	 * @param firstSets whether to recompute nullable and first
+	 * @param firstNTSets whether to recompute firstNT
+	 * @return the non terminals whose nullable or first set changed
+	 */
+	private ArrayList<Integer> recomputeCone(int nt, boolean firstSets, boolean firstNTSets) {
+		boolean[] inCone = new boolean[symbols.getNonTerminalCount()];
+		ArrayList<Integer> cone = getCone(nt, inCone);
+		ArrayList<Integer> changed = new ArrayList<>();
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		if (firstSets) {
+			SymbolSets old = new SymbolSets(symbols, cone.size(), true);
+			for (int i = 0; i < cone.size(); i++) {
+				int c = cone.get(i);
+				old.union(i, first.getBits(), c * first.getWords());
+				nullable[c] = false;
+				first.clear(c);
+			}
+			// Nullable inside the cone
+			ArrayList<Integer> marked = new ArrayList<>();
+			for (int c : cone) {
+				for (Production r : productions.get(c)) {
+					if (!nullable[c] && isNullable(r)) {
+						setNullableForward(c, marked);
+					}
+				}
+			}
+			// First inside the cone
+			for (int c : cone) {
+				for (Production r : productions.get(c)) {
+					scanFirst(r);
+				}
+				queue.add(c);
+			}
+			while (!queue.isEmpty()) {
+				int b = queue.poll();
+				for (Production r : uses.get(b)) {
+					if (inCone[r.lhs] && scanFirst(r)) {
+						queue.add(r.lhs);
+					}
+				}
+			}
+			for (int i = 0; i < cone.size(); i++) {
+				int c = cone.get(i);
+				if (!first.equals(c, old.getBits(), i * old.getWords())) {
+					changed.add(c);
+				}
+			}
+		}
+		if (firstNTSets) {
+			for (int c : cone) {
+				firstNT.clear(c);
+			}
+			for (int c : cone) {
+				for (Production r : productions.get(c)) {
+					scanFirstNT(r);
+				}
+				queue.add(c);
+			}
+			while (!queue.isEmpty()) {
+				int b = queue.poll();
+				for (Production r : uses.get(b)) {
+					if (inCone[r.lhs] && scanFirstNT(r)) {
+						queue.add(r.lhs);
+					}
+				}
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Add the follow contributions of a production to the follow sets:
+	 * First(beta) to Follow(B) for every A -> alfa B beta and
+	 * Follow(A) (or $, if B is useless) to Follow(B) when beta =>* &
+	 * @param q the production
+	 * @param queue receives the non terminals whose follow set grew
+	 */
+	private void scanFollow(Production q, ArrayDeque<Integer> queue) {
+		int[] rhs = q.rhs;
+		for (int i = 0; i < rhs.length - 1; i++) {
+			if (!SymbolTable.isTerminal(rhs[i]) && addFirst(rhs[i], rhs, i + 1)) {
+				queue.add(rhs[i]);
+			}
+		}
+		for (int i = rhs.length - 1; i >= 0; i--) {
+			int b = rhs[i];
+			if (SymbolTable.isTerminal(b)) {
+				break;
+			}
+			if (useless[b] ? follow.add(b, SymbolTable.END_ID) : follow.union(b, q.lhs)) {
+				queue.add(b);
+			}
+			if (!nullable[b]) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Add the first set of a suffix of a production to a follow set, without &
+	 * @param row the non terminal
+	 * @param rhs the production
+	 * @param from where the suffix starts
+	 * @return true if the set was changed
+	 */
+	private boolean addFirst(int row, int[] rhs, int from) {
+		boolean changed = false;
+		for (int i = from; i < rhs.length; i++) {
+			int symbol = rhs[i];
+			if (SymbolTable.isTerminal(symbol)) {
+				if (~symbol != SymbolTable.EPSILON_ID) {
+					changed |= follow.add(row, ~symbol);
+				}
+				return changed;
+			}
+			changed |= follow.unionExcept(row, first.getBits(), symbol * first.getWords(),
+					SymbolTable.EPSILON_ID);
+			if (!nullable[symbol]) {
+				return changed;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Propagate the growth of follow sets down the inclusions
+	 * @param queue the non terminals whose follow set grew
+	 * @param inCone only propagate to these non terminals, null for all
+	 */
+	private void propagateFollow(ArrayDeque<Integer> queue, boolean[] inCone) {
+		while (!queue.isEmpty()) {
+			int a = queue.poll();
+			for (Production r : productions.get(a)) {
+				for (int i = r.rhs.length - 1; i >= 0; i--) {
+					int b = r.rhs[i];
+					if (SymbolTable.isTerminal(b)) {
+						break;
+					}
+					if (!useless[b] && (inCone == null || inCone[b]) && follow.union(b, a)) {
+						queue.add(b);
+					}
+					if (!nullable[b]) {
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Recompute the follow sets of the non terminals that may depend
+	 * on some seeds: the seeds, the non terminals used by their productions,
+	 * and so on. The follow sets outside of the cone are kept
+	 * @param seeds the non terminals whose follow set may have changed
+	 */
+	private void recomputeFollow(ArrayList<Integer> seeds) {
+		boolean[] inCone = new boolean[symbols.getNonTerminalCount()];
+		ArrayList<Integer> cone = new ArrayList<>();
+		for (int s : seeds) {
+			if (!inCone[s]) {
+				inCone[s] = true;
+				cone.add(s);
+			}
+		}
+		for (int i = 0; i < cone.size(); i++) {
+			for (Production r : productions.get(cone.get(i))) {
+				for (int symbol : r.rhs) {
+					if (!SymbolTable.isTerminal(symbol) && !inCone[symbol]) {
+						inCone[symbol] = true;
+						cone.add(symbol);
+					}
+				}
+			}
+		}
+		for (int c : cone) {
+			follow.clear(c);
+		}
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		for (int c : cone) {
+			if (c == initial) {
+				follow.add(c, SymbolTable.END_ID);
+			}
+			for (Production r : uses.get(c)) {
+				boolean inTail = true; // every symbol after the position derives epsilon
+				for (int i = r.rhs.length - 1; i >= 0; i--) {
+					int symbol = r.rhs[i];
+					if (symbol == c) {
+						if (i < r.rhs.length - 1) {
+							addFirst(c, r.rhs, i + 1);
+						}
+						if (inTail) {
+							if (useless[c]) {
+								follow.add(c, SymbolTable.END_ID);
+							} else {
+								follow.union(c, r.lhs);
+							}
+						}
+					}
+					if (SymbolTable.isTerminal(symbol) || !nullable[symbol]) {
+						inTail = false;
+					}
+				}
+			}
+			queue.add(c);
+		}
+		propagateFollow(queue, inCone);
+	}
+}
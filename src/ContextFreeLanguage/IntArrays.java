@@ -0,0 +1,33 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+
+/**
+ * Growth of the int and long arrays that the automata, tables and
+ * grammar transformations fill without knowing their final size.
+ * An array is at least doubled, so filling it takes amortized linear time
+ */
+final class IntArrays {
+	private IntArrays() {
+	}
+
+	/**
+	 * Make room in an array
+	 * @param array the array
+	 * @param size the length it needs
+	 * @return the array, or a longer copy if it is shorter than size
+	 */
+	static int[] grow(int[] array, int size) {
+		return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+	}
+
+	/**
+	 * Make room in an array
+	 * @param array the array
+	 * @param size the length it needs
+	 * @return the array, or a longer copy if it is shorter than size
+	 */
+	static long[] grow(long[] array, int size) {
+		return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+	}
+}
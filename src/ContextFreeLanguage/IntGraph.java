@@ -0,0 +1,118 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+
+/**
+ * Directed graph over nodes numbered from 0 to n-1.
+ * Edges are collected first and then packed, on the first query,
+ * into a compressed adjacency layout: the successors of node u
+ * are target(start(u)) ... target(end(u) - 1)
+ */
+class IntGraph {
+	private int nodes; // number of nodes
+	private int edges; // number of edges
+	private int[] from; // edge sources, in insertion order
+	private int[] to; // edge targets, in insertion order
+	private int[] offsets; // packed layout, null while edges are being added
+	private int[] targets;
+
+	/**
+	 * Constructor
+	 * @param nodes the number of nodes
+	 */
+	IntGraph(int nodes) {
+		this.nodes = nodes;
+		this.from = new int[16];
+		this.to = new int[16];
+	}
+
+	/**
+	 * Add an edge u -> v
+	 * @param u the source node
+	 * @param v the target node
+	 */
+	void addEdge(int u, int v) {
+		if (edges == from.length) {
+			from = Arrays.copyOf(from, edges * 2);
+			to = Arrays.copyOf(to, edges * 2);
+		}
+		from[edges] = u;
+		to[edges] = v;
+		edges++;
+		offsets = null;
+	}
+
+	/**
+	 * Pack the edges by source node
+	 */
+	private void pack() {
+		offsets = new int[nodes + 1];
+		targets = new int[edges];
+		for (int e = 0; e < edges; e++) {
+			offsets[from[e] + 1]++;
+		}
+		for (int u = 0; u < nodes; u++) {
+			offsets[u + 1] += offsets[u];
+		}
+		int[] fill = Arrays.copyOf(offsets, nodes);
+		for (int e = 0; e < edges; e++) {
+			targets[fill[from[e]]++] = to[e];
+		}
+	}
+
+	/**
+	 * Get the number of nodes
+	 * @return the number of nodes
+	 */
+	int getNodeCount() {
+		return nodes;
+	}
+
+	/**
+	 * Get the position of the first successor of a node
+	 * @param u the node
+	 * @return the position of its first edge
+	 */
+	int start(int u) {
+		if (offsets == null) {
+			pack();
+		}
+		return offsets[u];
+	}
+
+	/**
+	 * Get the position after the last successor of a node
+	 * @param u the node
+	 * @return the position after its last edge
+	 */
+	int end(int u) {
+		if (offsets == null) {
+			pack();
+		}
+		return offsets[u + 1];
+	}
+
+	/**
+	 * Get the target of an edge
+	 * @param e the position of the edge
+	 * @return the target node
+	 */
+	int target(int e) {
+		return targets[e];
+	}
+
+	/**
+	 * Get the successors of every node
+	 * @return the adjacency lists indexed by node
+	 */
+	int[][] getAdjacency() {
+		if (offsets == null) {
+			pack();
+		}
+		int[][] adj = new int[nodes][];
+		for (int u = 0; u < nodes; u++) {
+			adj[u] = Arrays.copyOfRange(targets, offsets[u], offsets[u + 1]);
+		}
+		return adj;
+	}
+}
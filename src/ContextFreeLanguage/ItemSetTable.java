@@ -0,0 +1,158 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+
+/**
+ * Hash consing table of item sets: every distinct sorted set of int
+ * items gets one id, and equal sets are stored only once.
+ * The sets are kept back to back in a single int pool, and the
+ * table itself is open addressing over arrays of ints, so a
+ * lookup does not allocate
+ */
+class ItemSetTable {
+	private int[] pool; // the items of every set, back to back
+	private int poolSize; // ints used in pool
+	private int[] start; // start of every set in pool, start[size] is poolSize
+	private int[] hashes; // hash of every set
+	private int[] slots; // set id + 1 by hash slot, 0 if empty
+	private int size; // number of sets
+
+	/**
+	 * Constructor
+	 */
+	ItemSetTable() {
+		pool = new int[64];
+		start = new int[17];
+		hashes = new int[16];
+		slots = new int[32];
+	}
+
+	/**
+	 * Get the id of a set, adding it if it is new
+	 * @param items the items, sorted and without repetitions
+	 * @param from the first item in the array
+	 * @param to the end of the items in the array
+	 * @return the id of the set; it is equal to size() - 1 if the set was added
+	 */
+	int intern(int[] items, int from, int to) {
+		int hash = hash(items, from, to);
+		int mask = slots.length - 1;
+		int slot = hash & mask;
+		while (slots[slot] != 0) {
+			int id = slots[slot] - 1;
+			if (hashes[id] == hash && equals(id, items, from, to)) {
+				return id;
+			}
+			slot = (slot + 1) & mask;
+		}
+		int id = size++;
+		if (size + 1 > start.length) {
+			start = Arrays.copyOf(start, start.length * 2);
+		}
+		if (size > hashes.length) {
+			hashes = Arrays.copyOf(hashes, hashes.length * 2);
+		}
+		if (poolSize + to - from > pool.length) {
+			pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + to - from));
+		}
+		System.arraycopy(items, from, pool, poolSize, to - from);
+		start[id] = poolSize;
+		poolSize += to - from;
+		start[id + 1] = poolSize;
+		hashes[id] = hash;
+		slots[slot] = id + 1;
+		if (2 * size > slots.length) {
+			rehash();
+		}
+		return id;
+	}
+
+	/**
+	 * Find the id of a set
+	 * @param items the items, sorted and without repetitions
+	 * @param from the first item in the array
+	 * @param to the end of the items in the array
+	 * @return the id of the set, or -1 if it is not in the table
+	 */
+	int find(int[] items, int from, int to) {
+		int hash = hash(items, from, to);
+		int mask = slots.length - 1;
+		for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+			int id = slots[slot] - 1;
+			if (hashes[id] == hash && equals(id, items, from, to)) {
+				return id;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Double the number of slots
+	 */
+	private void rehash() {
+		slots = new int[slots.length * 2];
+		int mask = slots.length - 1;
+		for (int id = 0; id < size; id++) {
+			int slot = hashes[id] & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = id + 1;
+		}
+	}
+
+	private boolean equals(int id, int[] items, int from, int to) {
+		if (start[id + 1] - start[id] != to - from) {
+			return false;
+		}
+		for (int i = start[id], j = from; j < to; i++, j++) {
+			if (pool[i] != items[j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int hash(int[] items, int from, int to) {
+		int hash = to - from;
+		for (int i = from; i < to; i++) {
+			hash = 31 * hash + items[i];
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Get the number of sets
+	 * @return the number of ids given
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Get the start of a set in the pool
+	 * @param id the set id
+	 * @return the position of its first item
+	 */
+	int getStart(int id) {
+		return start[id];
+	}
+
+	/**
+	 * Get the end of a set in the pool
+	 * @param id the set id
+	 * @return the position after its last item
+	 */
+	int getEnd(int id) {
+		return start[id + 1];
+	}
+
+	/**
+	 * Get the pool, for tight loops inside the package.
+	 * Adding a set may replace it
+	 * @return the items of every set, back to back
+	 */
+	int[] getPool() {
+		return pool;
+	}
+}
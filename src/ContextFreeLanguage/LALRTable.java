@@ -0,0 +1,256 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+
+/**
+ * LALR(1) parse table of a CFG, built on the LR(0) automaton with the
+ * relations of DeRemer and Pennello instead of merging LR(1) states.
+ * Every non terminal transition (p, A) gets the terminals that can follow
+ * it: Read(p, A) is what the state reached by A shifts, plus what it
+ * reads through nullable non terminals; Follow(p, A) adds the follow sets
+ * of the transitions (p, A) is included in. A reduction of A -> alfa in
+ * state q looks back to every transition (p, A) from which alfa leads to q,
+ * found by walking back from q through the predecessor states once per
+ * reduction. Both unions over the relations are done one strongly connected
+ * component at a time, so the work is linear in the size of the relations
+ */
+public class LALRTable extends LRTable {
+	private LR0Automaton automaton; // the states of the table
+	private SymbolSets lookaheads; // lookaheads of every reduction of the automaton
+
+	/**
+	 * Constructor
+	 * Builds the table of a grammar
+	 * @param g the grammar
+	 */
+	public LALRTable(ContextFreeGrammar g) {
+		this(new LR0Automaton(g));
+	}
+
+	/**
+	 * Constructor
+	 * Builds the table of the grammar of an operator
+	 * @param op the operator of the grammar
+	 */
+	public LALRTable(CFGOperator op) {
+		this(new LR0Automaton(op.getCompiledGrammar()));
+	}
+
+	/**
+	 * Constructor
+	 * Builds the table on an automaton, which can be shared with an SLRTable
+	 * @param automaton the LR(0) automaton of the grammar
+	 */
+	public LALRTable(LR0Automaton automaton) {
+		super(automaton.getItems(), automaton.getStateCount());
+		this.automaton = automaton;
+		addTransitions(automaton);
+		addReductions();
+	}
+
+	/**
+	 * Compute the lookaheads of every reduction and add them to the table
+	 */
+	private void addReductions() {
+		LRItems items = automaton.getItems();
+		CompiledGrammar grammar = automaton.getCompiledGrammar();
+		SymbolTable symbols = grammar.getSymbolTable();
+		boolean[] nullable = items.computeNullable();
+		int states = automaton.getStateCount();
+
+		// Number the non terminal transitions, they come first in every state,
+		// and list the transitions into every state
+		int[] node = new int[automaton.getTransitionCount()]; // non terminal transition of every transition, or -1
+		int[] source = new int[node.length]; // state of every transition
+		int[] from = new int[node.length]; // state of every non terminal transition
+		int[] edge = new int[node.length]; // transition of every non terminal transition
+		int[] predecessorStart = new int[states + 1];
+		int count = 0;
+		for (int s = 0; s < states; s++) {
+			for (int e = automaton.getTransitionStart(s); e < automaton.getTransitionEnd(s); e++) {
+				source[e] = s;
+				predecessorStart[automaton.getTransitionTarget(e) + 1]++;
+				if (SymbolTable.isTerminal(automaton.getTransitionSymbol(e))) {
+					node[e] = -1;
+				} else {
+					from[count] = s;
+					edge[count] = e;
+					node[e] = count++;
+				}
+			}
+		}
+		for (int s = 0; s < states; s++) {
+			predecessorStart[s + 1] += predecessorStart[s];
+		}
+		int[] predecessors = new int[node.length]; // the transitions into every state
+		int[] fill = Arrays.copyOf(predecessorStart, states);
+		for (int e = 0; e < node.length; e++) {
+			predecessors[fill[automaton.getTransitionTarget(e)]++] = e;
+		}
+
+		// Read(p, A) only depends on the state r that A leads to: what r shifts,
+		// plus what it reads through its nullable non terminals
+		SymbolSets read = new SymbolSets(symbols, states, true);
+		IntGraph reads = new IntGraph(states);
+		for (int r = 0; r < states; r++) {
+			for (int e = automaton.getTransitionStart(r); e < automaton.getTransitionEnd(r); e++) {
+				int symbol = automaton.getTransitionSymbol(e);
+				if (SymbolTable.isTerminal(symbol)) {
+					read.add(r, ~symbol);
+				} else if (nullable[symbol]) {
+					reads.addEdge(r, automaton.getTransitionTarget(e));
+				}
+			}
+		}
+		digraph(read, reads.getAdjacency());
+
+		// The includes and lookback relations, walking back from every reduction of A -> alfa through
+		// the predecessors of its state. Every state found after a suffix of alfa gets a node, which
+		// includes the nodes it leads back to, and the ones found after the whole of alfa include their
+		// transition on A. A transition (s, B) with A -> beta . B gamma and gamma nullable includes the
+		// node of s. Every state is found once per step of a walk, so no edge is added twice
+		int reductions = automaton.getReductionEnd(states - 1);
+		int[] lookback = new int[reductions]; // node of every reduction
+		int nodes = count; // the transitions, then the nodes of the walks
+		long[] includes = new long[16]; // the edges of the includes relation, source in the high half
+		int includeCount = 0;
+		int[] frontier = new int[states]; // states of the walk after the current suffix
+		int[] frontierNode = new int[states];
+		int[] previous = new int[states]; // states of the walk after one more symbol
+		int[] previousNode = new int[states];
+		int[] mark = new int[states]; // the step a state was last found at
+		int[] markNode = new int[states]; // the node it got then
+		int step = 0;
+		int augmented = automaton.getAugmentedProduction();
+		for (int q = 0; q < states; q++) {
+			for (int r = automaton.getReductionStart(q); r < automaton.getReductionEnd(q); r++) {
+				int p = automaton.getReduction(r);
+				if (p == augmented) {
+					continue;
+				}
+				int[] rhs = items.getRightSide(p);
+				int nullableFrom = rhs.length; // the symbols from here on derive &
+				while (nullableFrom > 0 && rhs[nullableFrom - 1] >= 0 && nullable[rhs[nullableFrom - 1]]) {
+					nullableFrom--;
+				}
+				int size = 1;
+				frontier[0] = q;
+				frontierNode[0] = lookback[r] = nodes++;
+				for (int i = rhs.length - 1; i >= 0; i--) {
+					step++;
+					int found = 0;
+					for (int k = 0; k < size; k++) {
+						int s = frontier[k];
+						// the transitions into s are all on rhs[i]
+						for (int j = predecessorStart[s]; j < predecessorStart[s + 1]; j++) {
+							int e = predecessors[j];
+							int t = source[e];
+							if (mark[t] != step) {
+								mark[t] = step;
+								markNode[t] = nodes++;
+								previous[found] = t;
+								previousNode[found++] = markNode[t];
+								if (node[e] >= 0 && i + 1 >= nullableFrom) {
+									includes = IntArrays.grow(includes, includeCount + 1);
+									includes[includeCount++] = (long) node[e] << 32 | markNode[t];
+								}
+							}
+							includes = IntArrays.grow(includes, includeCount + 1);
+							includes[includeCount++] = (long) frontierNode[k] << 32 | markNode[t];
+						}
+					}
+					int[] swap = frontier;
+					frontier = previous;
+					previous = swap;
+					swap = frontierNode;
+					frontierNode = previousNode;
+					previousNode = swap;
+					size = found;
+				}
+				int a = grammar.getLeftSide(p);
+				for (int k = 0; k < size; k++) {
+					int e = automaton.findTransition(frontier[k], a);
+					if (e >= 0) {
+						includes = IntArrays.grow(includes, includeCount + 1);
+						includes[includeCount++] = (long) frontierNode[k] << 32 | node[e];
+					}
+				}
+			}
+		}
+
+		// The follow set of a transition is the read set of its target, plus the follow sets it includes
+		SymbolSets follow = new SymbolSets(symbols, nodes, true);
+		for (int x = 0; x < count; x++) {
+			follow.union(x, read.getBits(), automaton.getTransitionTarget(edge[x]) * read.getWords());
+			if (from[x] == 0 && automaton.getTransitionSymbol(edge[x]) == grammar.getInitialSymbol()) {
+				follow.add(x, SymbolTable.END_ID);
+			}
+		}
+		IntGraph includesGraph = new IntGraph(nodes);
+		for (int i = 0; i < includeCount; i++) {
+			includesGraph.addEdge((int) (includes[i] >>> 32), (int) includes[i]);
+		}
+		digraph(follow, includesGraph.getAdjacency());
+
+		// The lookaheads of a reduction are the follow set of its node
+		lookaheads = new SymbolSets(symbols, reductions, true);
+		for (int s = 0; s < states; s++) {
+			for (int r = automaton.getReductionStart(s); r < automaton.getReductionEnd(s); r++) {
+				int p = automaton.getReduction(r);
+				if (p == augmented) {
+					lookaheads.add(r, SymbolTable.END_ID);
+					addReduce(s, SymbolTable.END_ID, p);
+					continue;
+				}
+				lookaheads.union(r, follow.getBits(), lookback[r] * follow.getWords());
+				for (int a = lookaheads.nextBit(r, 0); a >= 0; a = lookaheads.nextBit(r, a + 1)) {
+					addReduce(s, a, p);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Make every set the union of its own and the sets of the nodes it
+	 * reaches. The nodes of a strongly connected component share the set
+	 * @param sets the set of every node, replaced by the union
+	 * @param adj the successors of every node
+	 */
+	static void digraph(SymbolSets sets, int[][] adj) {
+		StronglyConnectedComponents scc = new StronglyConnectedComponents(adj);
+		int[][] members = scc.getMembers();
+		// Components are numbered in reverse topological order, the ones reached come first
+		for (int c = 0; c < scc.getCount(); c++) {
+			int first = members[c][0];
+			for (int u : members[c]) {
+				if (u != first) {
+					sets.union(first, u);
+				}
+				for (int v : adj[u]) {
+					if (scc.getComponent(v) != c) {
+						sets.union(first, v);
+					}
+				}
+			}
+			for (int i = 1; i < members[c].length; i++) {
+				sets.union(members[c][i], first);
+			}
+		}
+	}
+
+	/**
+	 * Get the lookaheads of the reductions, for the tables built on this one
+	 * @return the terminal set of every reduction of the automaton, by reduction index
+	 */
+	SymbolSets getReductionLookaheads() {
+		return lookaheads;
+	}
+
+	/**
+	 * Get the LR(0) automaton of the table
+	 * @return the automaton
+	 */
+	public LR0Automaton getAutomaton() {
+		return automaton;
+	}
+}
@@ -0,0 +1,121 @@
+package ContextFreeLanguage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A cell of the LL(1) table of a CFG that predicts more than one production
+ */
+public class LL1Conflict {
+	/**
+	 * The reason of a conflict
+	 */
+	public enum Kind {
+		FIRST_FIRST, // two productions start with the lookahead, or both derive &
+		FIRST_FOLLOW // a production derives & and the lookahead follows the non terminal
+	}
+
+	private Kind kind; // the reason of the conflict
+	private int nt; // the non terminal id
+	private int lookahead; // the terminal id
+	private int[] productions; // the competing production indexes, in grammar order
+	private String nonTerminal; // name of the non terminal
+	private String terminal; // name of the lookahead
+	private List<String> texts; // the competing productions
+
+	/**
+	 * Constructor
+	 * @param kind the reason of the conflict
+	 * @param g the compiled grammar the indexes refer to
+	 * @param nt the non terminal id
+	 * @param lookahead the terminal id
+	 * @param productions the competing production indexes
+	 */
+	LL1Conflict(Kind kind, CompiledGrammar g, int nt, int lookahead, int[] productions) {
+		this.kind = kind;
+		this.nt = nt;
+		this.lookahead = lookahead;
+		this.productions = productions;
+		this.nonTerminal = g.getSymbolTable().getNonTerminal(nt);
+		this.terminal = g.getSymbolTable().getTerminal(lookahead);
+		ArrayList<String> list = new ArrayList<>();
+		for (int p : productions) {
+			list.add(g.toString(p, 0));
+		}
+		this.texts = Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Get the reason of the conflict
+	 * @return FIRST_FIRST or FIRST_FOLLOW
+	 */
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Get the non terminal of the cell
+	 * @return the name of the non terminal
+	 */
+	public String getNonTerminal() {
+		return nonTerminal;
+	}
+
+	/**
+	 * Get the lookahead of the cell
+	 * @return the name of the terminal, $ for the end of the sentence
+	 */
+	public String getLookahead() {
+		return terminal;
+	}
+
+	/**
+	 * Get the productions predicted for the cell
+	 * @return the productions, symbols separated by one blank, read only
+	 */
+	public List<String> getProductions() {
+		return texts;
+	}
+
+	/**
+	 * Get the non terminal id of the cell
+	 * @return the id in the symbol table
+	 */
+	public int getNonTerminalId() {
+		return nt;
+	}
+
+	/**
+	 * Get the terminal id of the cell
+	 * @return the id in the symbol table
+	 */
+	public int getLookaheadId() {
+		return lookahead;
+	}
+
+	/**
+	 * Get the indexes of the productions predicted for the cell
+	 * @return the production indexes of the compiled grammar
+	 */
+	public int[] getProductionIndexes() {
+		return productions.clone();
+	}
+
+	/**
+	 * Describe the conflict in the form "A, a: FIRST/FIRST A -> alfa | A -> beta"
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(nonTerminal).append(", ").append(terminal).append(": ");
+		sb.append(kind == Kind.FIRST_FIRST ? "FIRST/FIRST " : "FIRST/FOLLOW ");
+		for (int i = 0; i < texts.size(); i++) {
+			if (i > 0) {
+				sb.append(" | ");
+			}
+			sb.append(nonTerminal).append(" -> ").append(texts.get(i));
+		}
+		return sb.toString();
+	}
+}
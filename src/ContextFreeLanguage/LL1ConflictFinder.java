@@ -0,0 +1,105 @@
+package ContextFreeLanguage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Finds every LL(1) conflict of a CFG in one sweep over its productions.
+ * For every non terminal it keeps two bitsets, the lookaheads predicted
+ * by some production and the ones predicted by at least two, updated
+ * with a word wise and/or per production. The same is done with the
+ * first sets alone, which tells FIRST/FIRST from FIRST/FOLLOW conflicts.
+ * Only the cells found in the second bitset are examined again.
+ * The first and follow sets are the ones of the table (see PredictSets)
+ */
+class LL1ConflictFinder {
+	private CompiledGrammar grammar; // the grammar it operates on
+	private PredictSets predict; // the sets the predictions come from
+
+	/**
+	 * Constructor
+	 * @param op the operator of the grammar
+	 */
+	LL1ConflictFinder(CFGOperator op) {
+		this.grammar = op.getCompiledGrammar();
+		this.predict = new PredictSets(op);
+	}
+
+	/**
+	 * Find the conflicts
+	 * @return every conflicting cell, by non terminal id and then terminal id
+	 */
+	ArrayList<LL1Conflict> find() {
+		ArrayList<LL1Conflict> conflicts = new ArrayList<>();
+		SymbolTable symbols = grammar.getSymbolTable();
+		int n = grammar.getNonTerminalCount();
+		int most = 0; // most productions of a non terminal
+		for (int nt = 0; nt < n; nt++) {
+			most = Math.max(most, grammar.getEndProduction(nt) - grammar.getFirstProduction(nt));
+		}
+		// Row 2i is First(p) and row 2i + 1 the lookaheads of p, for the i-th production of the non terminal
+		SymbolSets sets = new SymbolSets(symbols, 2 * most, true);
+		int words = sets.getWords();
+		long[] bits = sets.getBits();
+		SymbolSets follow = predict.getFollow();
+		long[] followBits = follow.getBits();
+		boolean[] nullable = new boolean[most];
+		long[] firstOnce = new long[words];
+		long[] firstTwice = new long[words];
+		long[] predictOnce = new long[words];
+		long[] predictTwice = new long[words];
+		int[] cell = new int[most];
+
+		for (int nt = 0; nt < n; nt++) {
+			int from = grammar.getFirstProduction(nt);
+			int count = grammar.getEndProduction(nt) - from;
+			Arrays.fill(firstOnce, 0);
+			Arrays.fill(firstTwice, 0);
+			Arrays.fill(predictOnce, 0);
+			Arrays.fill(predictTwice, 0);
+			boolean conflict = false;
+			for (int i = 0; i < count; i++) {
+				int f = 2 * i * words;
+				int l = f + words;
+				sets.clear(2 * i);
+				nullable[i] = predict.addFirst(sets, 2 * i, from + i);
+				for (int w = 0; w < words; w++) {
+					long lookaheads = bits[f + w];
+					if (nullable[i]) {
+						lookaheads |= followBits[nt * follow.getWords() + w];
+					}
+					bits[l + w] = lookaheads;
+					firstTwice[w] |= firstOnce[w] & bits[f + w];
+					firstOnce[w] |= bits[f + w];
+					predictTwice[w] |= predictOnce[w] & lookaheads;
+					predictOnce[w] |= lookaheads;
+					conflict |= predictTwice[w] != 0;
+				}
+			}
+			if (!conflict) {
+				continue;
+			}
+			for (int w = 0; w < words; w++) {
+				for (long word = predictTwice[w]; word != 0; word &= word - 1) {
+					long mask = word & -word;
+					int a = w * 64 + Long.numberOfTrailingZeros(word);
+					int size = 0;
+					int nullableInCell = 0;
+					for (int i = 0; i < count; i++) {
+						if ((bits[(2 * i + 1) * words + w] & mask) != 0) {
+							cell[size++] = from + i;
+							if (nullable[i]) {
+								nullableInCell++;
+							}
+						}
+					}
+					boolean sharedFirst = (firstTwice[w] & mask) != 0;
+					LL1Conflict.Kind kind = sharedFirst || nullableInCell > 1
+							? LL1Conflict.Kind.FIRST_FIRST : LL1Conflict.Kind.FIRST_FOLLOW;
+					conflicts.add(new LL1Conflict(kind, grammar, nt, a, Arrays.copyOf(cell, size)));
+				}
+			}
+		}
+		return conflicts;
+	}
+}
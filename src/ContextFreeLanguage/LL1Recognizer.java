@@ -0,0 +1,102 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+
+/**
+ * Table driven LL(1) recognizer.
+ * Keeps its parse stack between calls, so recognizing a sentence
+ * does not allocate once the stack has grown to the depth it needs.
+ * The stack holds symbol codes as in SymbolTable.
+ * A recognizer is not thread safe, use one per thread
+ */
+public class LL1Recognizer {
+	private PredictiveTable table; // the parse table
+	private int start; // id of the initial symbol, -1 if there is none
+	private int terminals; // number of terminal ids
+	private int[] stack; // the parse stack, reused between calls
+
+	/**
+	 * Constructor
+	 * @param table the parse table
+	 * @throws IllegalArgumentException if the table has conflicts,
+	 * a recognizer could loop forever on a left recursive grammar
+	 */
+	public LL1Recognizer(PredictiveTable table) {
+		if (!table.isLL1()) {
+			throw new IllegalArgumentException("The grammar is not LL(1): " + table.getConflicts().get(0));
+		}
+		this.table = table;
+		this.start = table.getCompiledGrammar().getInitialSymbol();
+		this.terminals = table.getSymbolTable().getTerminalCount();
+		this.stack = new int[64];
+	}
+
+	/**
+	 * Verify if a sentence belongs to the language of the grammar
+	 * @param tokens the terminal id of every token
+	 * @return true if the sentence is accepted
+	 */
+	public boolean recognize(int[] tokens) {
+		return recognize(tokens, 0, tokens.length);
+	}
+
+	/**
+	 * Verify if a sentence belongs to the language of the grammar
+	 * @param tokens the terminal ids, as given by PredictiveTable.encode
+	 * @param from the first token of the sentence
+	 * @param to the position after the last token of the sentence
+	 * @return true if the sentence is accepted
+	 */
+	public boolean recognize(int[] tokens, int from, int to) {
+		if (start < 0) {
+			return false;
+		}
+		int[] stack = this.stack;
+		int sp = 0;
+		stack[sp++] = start;
+		int pos = from;
+		int lookahead = nextToken(tokens, pos, to);
+		while (sp > 0) {
+			int top = stack[--sp];
+			if (lookahead < 0) {
+				return false;
+			}
+			if (SymbolTable.isTerminal(top)) {
+				if (~top != lookahead || lookahead == SymbolTable.END_ID) {
+					return false;
+				}
+				lookahead = nextToken(tokens, ++pos, to);
+				continue;
+			}
+			int p = table.get(top, lookahead);
+			if (p == PredictiveTable.ERROR) {
+				return false;
+			}
+			int[] push = table.getPush(p);
+			if (sp + push.length > stack.length) {
+				stack = this.stack = Arrays.copyOf(stack, Math.max(stack.length * 2, sp + push.length));
+			}
+			System.arraycopy(push, 0, stack, sp, push.length);
+			sp += push.length;
+		}
+		return lookahead == SymbolTable.END_ID;
+	}
+
+	/**
+	 * Get the lookahead at a position
+	 * @param tokens the terminal ids
+	 * @param pos the position
+	 * @param to the end of the sentence
+	 * @return the terminal id, END_ID after the sentence or -1 if it is not a valid token
+	 */
+	private int nextToken(int[] tokens, int pos, int to) {
+		if (pos >= to) {
+			return SymbolTable.END_ID;
+		}
+		int t = tokens[pos];
+		if (t <= SymbolTable.END_ID || t >= terminals) {
+			return -1; // & and $ are not input tokens
+		}
+		return t;
+	}
+}
@@ -0,0 +1,48 @@
+package ContextFreeLanguage;
+
+/**
+ * LL(1) predictive parse table of a CFG, stored as a dense int[][]
+ * indexed by non terminal id and terminal id, where every cell holds
+ * the index of the production of the compiled grammar to expand, or ERROR
+ */
+public class LL1Table extends PredictiveTable {
+	private int[][] table; // production to expand by non terminal and lookahead
+
+	/**
+	 * Constructor
+	 * Builds the table of a grammar
+	 * @param g the grammar
+	 */
+	public LL1Table(ContextFreeGrammar g) {
+		this(new CFGOperator(g, true));
+	}
+
+	/**
+	 * Constructor
+	 * Builds the table from the first and follow sets of an operator
+	 * @param op the operator of the grammar
+	 */
+	public LL1Table(CFGOperator op) {
+		super(op);
+		table = new int[getCompiledGrammar().getNonTerminalCount()][];
+		build(op);
+	}
+
+	@Override
+	void addRow(int nt, int[] row, int[] lookaheads, int count) {
+		table[nt] = row.clone();
+	}
+
+	@Override
+	public int get(int nt, int t) {
+		return table[nt][t];
+	}
+
+	/**
+	 * Get the whole table
+	 * @return the production index by non terminal id and terminal id
+	 */
+	public int[][] getTable() {
+		return table;
+	}
+}
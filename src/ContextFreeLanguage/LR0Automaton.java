@@ -0,0 +1,308 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+
+/**
+ * Canonical collection of LR(0) item sets of a CFG.
+ * Items are ints (see LRItems) and a state is identified by its kernel,
+ * a sorted array of items that is hash consed in an ItemSetTable.
+ * The closure is never stored: it is rebuilt from the left corners of
+ * the non terminals while the successors of a state are computed.
+ * Transitions and reductions are kept in compressed arrays by state
+ */
+public class LR0Automaton {
+	private LRItems items; // the items of the augmented grammar
+	private ItemSetTable kernels; // the kernel of every state
+	private int[] transStart; // first transition of every state
+	private int[] transSymbol; // symbol code of every transition, non terminals first
+	private int[] transTarget; // target state of every transition
+	private int[] reduceStart; // first reduction of every state
+	private int[] reduceProduction; // production of every reduction
+
+	/**
+	 * Constructor
+	 * Builds the automaton of a grammar
+	 * @param g the grammar
+	 */
+	public LR0Automaton(ContextFreeGrammar g) {
+		this(new CompiledGrammar(g));
+	}
+
+	/**
+	 * Constructor
+	 * Builds the automaton of a compiled grammar
+	 * @param g the compiled grammar
+	 */
+	public LR0Automaton(CompiledGrammar g) {
+		this(new LRItems(g));
+	}
+
+	/**
+	 * Constructor
+	 * @param items the items of the augmented grammar
+	 */
+	LR0Automaton(LRItems items) {
+		this.items = items;
+		build();
+	}
+
+	/**
+	 * Find every state from the initial one, in breadth first order
+	 */
+	private void build() {
+		CompiledGrammar grammar = items.getCompiledGrammar();
+		int augmented = items.getAugmentedProduction();
+		kernels = new ItemSetTable();
+		kernels.intern(new int[] { items.getItemBase(augmented) }, 0, 1);
+		transStart = new int[17];
+		transSymbol = new int[16];
+		transTarget = new int[16];
+		reduceStart = new int[17];
+		reduceProduction = new int[16];
+		int transitions = 0, reductions = 0;
+		long[] predicted = new long[items.getWords()];
+		long[] moves = new long[16]; // symbol index and item of every item moved past its symbol
+		int[] group = new int[16];
+
+		for (int s = 0; s < kernels.size(); s++) {
+			if (s + 2 > transStart.length) {
+				transStart = Arrays.copyOf(transStart, transStart.length * 2);
+				reduceStart = Arrays.copyOf(reduceStart, reduceStart.length * 2);
+			}
+			transStart[s] = transitions;
+			reduceStart[s] = reductions;
+			int moveCount = 0;
+			Arrays.fill(predicted, 0);
+			for (int i = kernels.getStart(s), end = kernels.getEnd(s); i < end; i++) {
+				int item = kernels.getPool()[i];
+				int symbol = items.getItemSymbol(item);
+				if (symbol == LRItems.NONE) {
+					if (items.getItemProduction(item) != augmented || items.canAccept()) {
+						reduceProduction = IntArrays.grow(reduceProduction, reductions + 1);
+						reduceProduction[reductions++] = items.getItemProduction(item);
+					}
+					continue;
+				}
+				if (!SymbolTable.isTerminal(symbol)) {
+					items.addCorners(predicted, symbol);
+				}
+				moves = IntArrays.grow(moves, moveCount + 1);
+				moves[moveCount++] = ((long) items.index(symbol) << 32) | (item + 1);
+			}
+			// The closure: every production of a predicted non terminal, with the dot at the start
+			for (int w = 0; w < predicted.length; w++) {
+				for (long word = predicted[w]; word != 0; word &= word - 1) {
+					int nt = w * 64 + Long.numberOfTrailingZeros(word);
+					for (int p = grammar.getFirstProduction(nt); p < grammar.getEndProduction(nt); p++) {
+						if (!items.isProductive(p)) {
+							continue;
+						}
+						if (items.getLength(p) == 0) {
+							reduceProduction = IntArrays.grow(reduceProduction, reductions + 1);
+							reduceProduction[reductions++] = p;
+						} else {
+							moves = IntArrays.grow(moves, moveCount + 1);
+							moves[moveCount++] = ((long) items.index(items.getRightSide(p)[0]) << 32)
+									| (items.getItemBase(p) + 1);
+						}
+					}
+				}
+			}
+			// Group the moved items by symbol, every group is the kernel of a successor
+			Arrays.sort(moves, 0, moveCount);
+			for (int i = 0; i < moveCount;) {
+				int symbolIndex = (int) (moves[i] >>> 32);
+				int size = 0;
+				for (; i < moveCount && (int) (moves[i] >>> 32) == symbolIndex; i++) {
+					group = IntArrays.grow(group, size + 1);
+					group[size++] = (int) moves[i];
+				}
+				int target = kernels.intern(group, 0, size);
+				transSymbol = IntArrays.grow(transSymbol, transitions + 1);
+				transTarget = IntArrays.grow(transTarget, transitions + 1);
+				transSymbol[transitions] = items.symbol(symbolIndex);
+				transTarget[transitions++] = target;
+			}
+		}
+		int states = kernels.size();
+		transStart = Arrays.copyOf(transStart, states + 1);
+		transStart[states] = transitions;
+		reduceStart = Arrays.copyOf(reduceStart, states + 1);
+		reduceStart[states] = reductions;
+		transSymbol = Arrays.copyOf(transSymbol, transitions);
+		transTarget = Arrays.copyOf(transTarget, transitions);
+		reduceProduction = Arrays.copyOf(reduceProduction, reductions);
+	}
+
+	/**
+	 * Get the number of states
+	 * @return the number of states, the initial one is 0
+	 */
+	public int getStateCount() {
+		return kernels.size();
+	}
+
+	/**
+	 * Get the state reached from a state through a symbol
+	 * @param state the state
+	 * @param symbol the symbol code, see SymbolTable
+	 * @return the target state, or -1 if there is no transition
+	 */
+	public int getTransition(int state, int symbol) {
+		int e = findTransition(state, symbol);
+		return e < 0 ? -1 : transTarget[e];
+	}
+
+	/**
+	 * Find the transition of a state through a symbol
+	 * @param state the state
+	 * @param symbol the symbol code
+	 * @return the transition index, or -1 if there is no transition
+	 */
+	int findTransition(int state, int symbol) {
+		int key = items.index(symbol);
+		int lo = transStart[state], hi = transStart[state + 1] - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int k = items.index(transSymbol[mid]);
+			if (k < key) {
+				lo = mid + 1;
+			} else if (k > key) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the first transition of a state, for tight loops inside the package
+	 * @param state the state
+	 * @return the index of the transition in getTransitionSymbol and getTransitionTarget
+	 */
+	int getTransitionStart(int state) {
+		return transStart[state];
+	}
+
+	/**
+	 * Get the end of the transitions of a state
+	 * @param state the state
+	 * @return the index after its last transition
+	 */
+	int getTransitionEnd(int state) {
+		return transStart[state + 1];
+	}
+
+	/**
+	 * Get the symbol of a transition
+	 * @param e the transition index
+	 * @return the symbol code
+	 */
+	int getTransitionSymbol(int e) {
+		return transSymbol[e];
+	}
+
+	/**
+	 * Get the target of a transition
+	 * @param e the transition index
+	 * @return the target state
+	 */
+	int getTransitionTarget(int e) {
+		return transTarget[e];
+	}
+
+	/**
+	 * Get the total number of transitions
+	 * @return the number of transitions of all the states
+	 */
+	int getTransitionCount() {
+		return transSymbol.length;
+	}
+
+	/**
+	 * Get the productions a state can reduce
+	 * @param state the state
+	 * @return the production indexes, the augmented one means accept
+	 */
+	public int[] getReductions(int state) {
+		return Arrays.copyOfRange(reduceProduction, reduceStart[state], reduceStart[state + 1]);
+	}
+
+	/**
+	 * Get the first reduction of a state, for tight loops inside the package
+	 * @param state the state
+	 * @return the index of the reduction in getReduction
+	 */
+	int getReductionStart(int state) {
+		return reduceStart[state];
+	}
+
+	/**
+	 * Get the end of the reductions of a state
+	 * @param state the state
+	 * @return the index after its last reduction
+	 */
+	int getReductionEnd(int state) {
+		return reduceStart[state + 1];
+	}
+
+	/**
+	 * Get the production of a reduction
+	 * @param r the reduction index
+	 * @return the production index
+	 */
+	int getReduction(int r) {
+		return reduceProduction[r];
+	}
+
+	/**
+	 * Get the kernel of a state
+	 * @param state the state
+	 * @return the items, sorted
+	 */
+	public int[] getKernel(int state) {
+		return Arrays.copyOfRange(kernels.getPool(), kernels.getStart(state), kernels.getEnd(state));
+	}
+
+	/**
+	 * Describe an item
+	 * @param item the item
+	 * @return the item in the form "A -> alfa . beta"
+	 */
+	public String itemToString(int item) {
+		return items.itemToString(item);
+	}
+
+	/**
+	 * Get the index of the production S' -> S
+	 * @return the production count of the compiled grammar
+	 */
+	public int getAugmentedProduction() {
+		return items.getAugmentedProduction();
+	}
+
+	/**
+	 * Get the items of the augmented grammar
+	 * @return the items
+	 */
+	LRItems getItems() {
+		return items;
+	}
+
+	/**
+	 * Get the compiled grammar the production indexes refer to
+	 * @return the compiled grammar
+	 */
+	public CompiledGrammar getCompiledGrammar() {
+		return items.getCompiledGrammar();
+	}
+
+	/**
+	 * Get the symbol table the ids refer to
+	 * @return the ids of the grammar symbols
+	 */
+	public SymbolTable getSymbolTable() {
+		return items.getCompiledGrammar().getSymbolTable();
+	}
+}
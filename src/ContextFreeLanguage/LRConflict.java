@@ -0,0 +1,129 @@
+package ContextFreeLanguage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A cell of an LR table of a CFG with more than one action
+ */
+public class LRConflict {
+	/**
+	 * The actions in the cell
+	 */
+	public enum Kind {
+		SHIFT_REDUCE, // the lookahead is shifted and some production is reduced
+		REDUCE_REDUCE // two productions are reduced, no shift
+	}
+
+	private Kind kind; // the actions in the cell
+	private int state; // the state of the cell
+	private int lookahead; // the terminal id
+	private int shift; // the target of the shift, or -1
+	private int[] productions; // the production indexes reduced, in grammar order
+	private String terminal; // name of the lookahead
+	private List<String> texts; // the productions reduced
+
+	/**
+	 * Constructor
+	 * @param g the compiled grammar the indexes refer to
+	 * @param state the state of the cell
+	 * @param lookahead the terminal id
+	 * @param shift the target of the shift, or -1 if there is no shift
+	 * @param productions the production indexes reduced, the production count means accept
+	 */
+	LRConflict(CompiledGrammar g, int state, int lookahead, int shift, int[] productions) {
+		this.kind = shift >= 0 ? Kind.SHIFT_REDUCE : Kind.REDUCE_REDUCE;
+		this.state = state;
+		this.lookahead = lookahead;
+		this.shift = shift;
+		this.productions = productions;
+		SymbolTable symbols = g.getSymbolTable();
+		this.terminal = symbols.getTerminal(lookahead);
+		ArrayList<String> list = new ArrayList<>();
+		for (int p : productions) {
+			list.add(p == g.getProductionCount() ? "accept"
+					: symbols.getNonTerminal(g.getLeftSide(p)) + " -> " + g.toString(p, 0));
+		}
+		this.texts = Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Get the actions in the cell
+	 * @return SHIFT_REDUCE or REDUCE_REDUCE
+	 */
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Get the state of the cell
+	 * @return the state of the table
+	 */
+	public int getState() {
+		return state;
+	}
+
+	/**
+	 * Get the lookahead of the cell
+	 * @return the name of the terminal, $ for the end of the sentence
+	 */
+	public String getLookahead() {
+		return terminal;
+	}
+
+	/**
+	 * Get the terminal id of the cell
+	 * @return the id in the symbol table
+	 */
+	public int getLookaheadId() {
+		return lookahead;
+	}
+
+	/**
+	 * Get the state shifted to
+	 * @return the target of the shift, or -1 for a reduce/reduce conflict
+	 */
+	public int getShiftTarget() {
+		return shift;
+	}
+
+	/**
+	 * Get the productions reduced in the cell, as written in the grammar
+	 * @return the productions in the form "A -> alfa", accept for the end of the
+	 * sentence, read only
+	 */
+	public List<String> getProductions() {
+		return texts;
+	}
+
+	/**
+	 * Get the indexes of the productions reduced in the cell
+	 * @return the production indexes of the compiled grammar, the production count means accept
+	 */
+	public int[] getProductionIndexes() {
+		return productions.clone();
+	}
+
+	/**
+	 * Describe the conflict in the form "state 3, a: shift 5 | reduce A -> alfa"
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("state ").append(state).append(", ").append(terminal).append(": ");
+		if (shift >= 0) {
+			sb.append("shift ").append(shift).append(" | ");
+		}
+		for (int i = 0; i < texts.size(); i++) {
+			if (i > 0) {
+				sb.append(" | ");
+			}
+			if (!texts.get(i).equals("accept")) {
+				sb.append("reduce ");
+			}
+			sb.append(texts.get(i));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,420 @@
+package ContextFreeLanguage;
+
+/**
+ * The LR items of a CFG, packed in ints.
+ * The grammar is augmented with a production S' -> S, whose index is
+ * the production count of the compiled grammar. An item (production p,
+ * dot d) is the int getItemBase(p) + d, where & symbols are not counted.
+ * Also keeps the left corners of every non terminal, which give the
+ * closure of an item set without storing it. Productions that use a
+ * non terminal which derives no sentence are left out of the closures:
+ * they can never be reduced, and an automaton that predicts them can
+ * reduce empty productions forever
+ */
+class LRItems {
+	static final int NONE = Integer.MIN_VALUE; // symbol after the dot of a complete item
+
+	private CompiledGrammar grammar; // the grammar it operates on
+	private SymbolTable symbols; // ids of the grammar symbols
+	private int n; // number of non terminal ids
+	private int words; // longs in a set of non terminals
+	private int[][] rhs; // symbols of every production without &, the augmented one last
+	private int[] itemBase; // item of every production with the dot at the start
+	private int[] itemProduction; // production of every item
+	private int[] itemSymbol; // symbol after the dot of every item, NONE if complete
+	private long[] corners; // the non terminals every non terminal starts with, itself included
+	private boolean[] productive; // productions whose symbols all derive a sentence
+
+	/**
+	 * Constructor
+	 * @param g the compiled grammar
+	 */
+	LRItems(CompiledGrammar g) {
+		this.grammar = g;
+		this.symbols = g.getSymbolTable();
+		this.n = g.getNonTerminalCount();
+		this.words = Math.max(1, (n + 63) >>> 6);
+		numberItems();
+		computeProductive();
+		computeCorners();
+	}
+
+	/**
+	 * Give an int to every item
+	 */
+	private void numberItems() {
+		int prods = grammar.getProductionCount();
+		rhs = new int[prods + 1][];
+		itemBase = new int[prods + 2];
+		for (int p = 0; p < prods; p++) {
+			int size = 0;
+			for (int i = grammar.getStart(p); i < grammar.getEnd(p); i++) {
+				if (~grammar.getSymbol(i) != SymbolTable.EPSILON_ID) {
+					size++;
+				}
+			}
+			rhs[p] = new int[size];
+			size = 0;
+			for (int i = grammar.getStart(p); i < grammar.getEnd(p); i++) {
+				if (~grammar.getSymbol(i) != SymbolTable.EPSILON_ID) {
+					rhs[p][size++] = grammar.getSymbol(i);
+				}
+			}
+		}
+		int start = grammar.getInitialSymbol();
+		rhs[prods] = start < 0 ? new int[0] : new int[] { start };
+		for (int p = 0; p <= prods; p++) {
+			itemBase[p + 1] = itemBase[p] + rhs[p].length + 1;
+		}
+		itemProduction = new int[itemBase[prods + 1]];
+		itemSymbol = new int[itemProduction.length];
+		for (int p = 0; p <= prods; p++) {
+			for (int d = 0; d <= rhs[p].length; d++) {
+				itemProduction[itemBase[p] + d] = p;
+				itemSymbol[itemBase[p] + d] = d < rhs[p].length ? rhs[p][d] : NONE;
+			}
+		}
+	}
+
+	/**
+	 * Find the productions whose non terminals all derive a sentence,
+	 * with the counting worklist of UsefulSymbols
+	 */
+	private void computeProductive() {
+		int prods = getAugmentedProduction();
+		boolean[] derives = UsefulSymbols.closure(n, prods, grammar.getLeftSides(),
+				grammar.getProductionOffsets(), grammar.getArena(), false); // non terminals that derive a sentence
+		productive = new boolean[prods + 1];
+		for (int p = 0; p <= prods; p++) {
+			productive[p] = true;
+			for (int symbol : rhs[p]) {
+				if (!SymbolTable.isTerminal(symbol) && !derives[symbol]) {
+					productive[p] = false;
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compute the non terminals every non terminal derives leftmost
+	 * through the first symbol of its productions, itself included.
+	 * Non terminals of the same strongly connected component share their set
+	 */
+	private void computeCorners() {
+		IntGraph graph = new IntGraph(n);
+		for (int p = 0; p < grammar.getProductionCount(); p++) {
+			if (productive[p] && rhs[p].length > 0 && !SymbolTable.isTerminal(rhs[p][0])) {
+				graph.addEdge(grammar.getLeftSide(p), rhs[p][0]);
+			}
+		}
+		int[][] adj = graph.getAdjacency();
+		StronglyConnectedComponents scc = new StronglyConnectedComponents(adj);
+		int[][] members = scc.getMembers();
+		corners = new long[n * words];
+		// Components are numbered in reverse topological order, the ones reached come first
+		for (int c = 0; c < scc.getCount(); c++) {
+			int row = members[c][0] * words;
+			for (int u : members[c]) {
+				corners[row + (u >>> 6)] |= 1L << u;
+				for (int v : adj[u]) {
+					int other = scc.getComponent(v);
+					if (other != c) {
+						int from = members[other][0] * words;
+						for (int w = 0; w < words; w++) {
+							corners[row + w] |= corners[from + w];
+						}
+					}
+				}
+			}
+			for (int i = 1; i < members[c].length; i++) {
+				System.arraycopy(corners, row, corners, members[c][i] * words, words);
+			}
+		}
+	}
+
+	/**
+	 * Compute the follow sets of the productions without &,
+	 * for the grammars where CompiledGrammar.hasPlainSets is false. The follow set
+	 * of A is included in the one of B for every A -> alfa B beta with
+	 * beta =>* &, and the sets are propagated along the components of
+	 * these inclusions in one pass (see ParallelSetSolver)
+	 * @return the follow set of every non terminal id
+	 */
+	SymbolSets computeFollow() {
+		boolean[] nullable = computeNullable();
+		return computeFollow(nullable, computeFirst(nullable));
+	}
+
+	/**
+	 * Compute the follow sets of the productions without &
+	 * from sets already computed, see computeFollow()
+	 * @param nullable the nullable non terminals, see computeNullable
+	 * @param first the first sets, see computeFirst
+	 * @return the follow set of every non terminal id
+	 */
+	SymbolSets computeFollow(boolean[] nullable, SymbolSets first) {
+		int prods = getAugmentedProduction();
+		SymbolSets follow = new SymbolSets(symbols, n, true);
+		IntGraph includes = new IntGraph(n);
+		if (grammar.getInitialSymbol() >= 0) {
+			follow.add(grammar.getInitialSymbol(), SymbolTable.END_ID);
+		}
+		for (int p = 0; p < prods; p++) {
+			if (!productive[p]) {
+				continue;
+			}
+			int a = grammar.getLeftSide(p);
+			boolean rest = true; // the symbols after i derive &
+			for (int i = rhs[p].length - 1; i >= 0; i--) {
+				int symbol = rhs[p][i];
+				if (SymbolTable.isTerminal(symbol)) {
+					rest = false;
+					continue;
+				}
+				if (rest) {
+					includes.addEdge(a, symbol);
+				}
+				for (int j = i + 1; j < rhs[p].length; j++) {
+					int next = rhs[p][j];
+					if (SymbolTable.isTerminal(next)) {
+						follow.add(symbol, ~next);
+						break;
+					}
+					follow.union(symbol, first.getBits(), next * first.getWords());
+					if (!nullable[next]) {
+						break;
+					}
+				}
+				rest &= nullable[symbol];
+			}
+		}
+		new ParallelSetSolver(null, 1).solve(follow, includes, -1);
+		return follow;
+	}
+
+	/**
+	 * Find the non terminals that derive &, ignoring the & symbols
+	 * written in the productions, with the counting worklist of UsefulSymbols
+	 * @return true for every nullable non terminal id
+	 */
+	boolean[] computeNullable() {
+		return UsefulSymbols.closure(n, getAugmentedProduction(), grammar.getLeftSides(),
+				grammar.getProductionOffsets(), grammar.getArena(), true);
+	}
+
+	/**
+	 * Compute the terminals every non terminal starts with, ignoring
+	 * the & symbols written in the productions and the productions
+	 * that derive no sentence. A non terminal includes the first set of
+	 * the non terminals its productions start with, up to the first that
+	 * is not nullable, and the sets are propagated in one pass over the
+	 * components of these inclusions (see ParallelSetSolver)
+	 * @param nullable the nullable non terminals, see computeNullable
+	 * @return the first set of every non terminal id, without &
+	 */
+	SymbolSets computeFirst(boolean[] nullable) {
+		return computeFirst(nullable, false);
+	}
+
+	/**
+	 * Compute the terminals every non terminal starts with, see computeFirst(boolean[])
+	 * @param nullable the nullable non terminals, see computeNullable
+	 * @param all true to also count the productions that derive no sentence
+	 * @return the first set of every non terminal id, without &
+	 */
+	SymbolSets computeFirst(boolean[] nullable, boolean all) {
+		SymbolSets first = new SymbolSets(symbols, n, true);
+		IntGraph dependents = new IntGraph(n);
+		for (int p = 0; p < getAugmentedProduction(); p++) {
+			if (!productive[p] && !all) {
+				continue;
+			}
+			int a = grammar.getLeftSide(p);
+			for (int symbol : rhs[p]) {
+				if (SymbolTable.isTerminal(symbol)) {
+					first.add(a, ~symbol);
+					break;
+				}
+				dependents.addEdge(symbol, a);
+				if (!nullable[symbol]) {
+					break;
+				}
+			}
+		}
+		new ParallelSetSolver(null, 1).solve(first, dependents, -1);
+		return first;
+	}
+
+	/**
+	 * Add the non terminals a non terminal starts with to a set
+	 * @param set the set, getWords() longs
+	 * @param nt the non terminal id
+	 */
+	void addCorners(long[] set, int nt) {
+		for (int w = 0, row = nt * words; w < words; w++) {
+			set[w] |= corners[row + w];
+		}
+	}
+
+	/**
+	 * Verify if a production can be reduced in some derivation of a sentence
+	 * @param p the production index
+	 * @return true if all its non terminals derive a sentence
+	 */
+	boolean isProductive(int p) {
+		return productive[p];
+	}
+
+	/**
+	 * Get the number of longs of a set of non terminals
+	 * @return the longs per set
+	 */
+	int getWords() {
+		return words;
+	}
+
+	/**
+	 * Get the index of the production S' -> S
+	 * @return the production count of the compiled grammar
+	 */
+	int getAugmentedProduction() {
+		return rhs.length - 1;
+	}
+
+	/**
+	 * Verify if the augmented production can be reduced:
+	 * it cannot when the grammar has no initial symbol
+	 * @return true if the grammar has an initial symbol
+	 */
+	boolean canAccept() {
+		return grammar.getInitialSymbol() >= 0;
+	}
+
+	/**
+	 * Get the number of items
+	 * @return the number of items of all the productions
+	 */
+	int getItemCount() {
+		return itemProduction.length;
+	}
+
+	/**
+	 * Get the item of a production with the dot at the start
+	 * @param p the production index
+	 * @return the item, the item with the dot after d symbols is this plus d
+	 */
+	int getItemBase(int p) {
+		return itemBase[p];
+	}
+
+	/**
+	 * Get the production of an item
+	 * @param item the item
+	 * @return the production index
+	 */
+	int getItemProduction(int item) {
+		return itemProduction[item];
+	}
+
+	/**
+	 * Get the symbol after the dot of an item
+	 * @param item the item
+	 * @return the symbol code, or NONE if the dot is at the end
+	 */
+	int getItemSymbol(int item) {
+		return itemSymbol[item];
+	}
+
+	/**
+	 * Get the number of symbols of a production, without &
+	 * @param p the production index
+	 * @return the number of states a reduction pops
+	 */
+	int getLength(int p) {
+		return rhs[p].length;
+	}
+
+	/**
+	 * Get the symbols of a production, without &
+	 * @param p the production index
+	 * @return the symbol codes
+	 */
+	int[] getRightSide(int p) {
+		return rhs[p];
+	}
+
+	/**
+	 * Get the non terminal a production reduces to
+	 * @param p the production index
+	 * @return the non terminal id, -1 for the augmented production
+	 */
+	int getLeftSide(int p) {
+		return p == rhs.length - 1 ? -1 : grammar.getLeftSide(p);
+	}
+
+	/**
+	 * Get the position of a symbol in the order of the transitions:
+	 * non terminals first, then terminals
+	 * @param symbol the symbol code
+	 * @return the index
+	 */
+	int index(int symbol) {
+		return symbol >= 0 ? symbol : n + ~symbol;
+	}
+
+	/**
+	 * Get the symbol at a position of the order of the transitions
+	 * @param index the index
+	 * @return the symbol code
+	 */
+	int symbol(int index) {
+		return index < n ? index : ~(index - n);
+	}
+
+	/**
+	 * Describe a production
+	 * @param p the production index
+	 * @return the production in the form "A -> alfa"
+	 */
+	String toString(int p) {
+		StringBuilder sb = new StringBuilder(p == rhs.length - 1 ? "S'" : symbols.getNonTerminal(grammar.getLeftSide(p)));
+		sb.append(" ->");
+		if (rhs[p].length == 0) {
+			sb.append(' ').append(SymbolTable.EPSILON);
+		}
+		for (int symbol : rhs[p]) {
+			sb.append(' ').append(symbols.decode(symbol));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Describe an item
+	 * @param item the item
+	 * @return the item in the form "A -> alfa . beta"
+	 */
+	String itemToString(int item) {
+		int p = itemProduction[item];
+		int dot = item - itemBase[p];
+		StringBuilder sb = new StringBuilder(p == rhs.length - 1 ? "S'" : symbols.getNonTerminal(grammar.getLeftSide(p)));
+		sb.append(" ->");
+		for (int d = 0; d <= rhs[p].length; d++) {
+			if (d == dot) {
+				sb.append(" .");
+			}
+			if (d < rhs[p].length) {
+				sb.append(' ').append(symbols.decode(rhs[p][d]));
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Get the compiled grammar
+	 * @return the compiled grammar
+	 */
+	CompiledGrammar getCompiledGrammar() {
+		return grammar;
+	}
+}
@@ -0,0 +1,114 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+
+/**
+ * Table driven shift reduce recognizer.
+ * Reads the action and goto arrays of an LRTable directly and keeps
+ * its state stack between calls, so recognizing a sentence does not
+ * allocate once the stack has grown to the depth it needs.
+ * A recognizer is not thread safe, use one per thread
+ */
+public class LRRecognizer {
+	private int[] action; // action by state and terminal id
+	private int[] gotoStart; // first goto of every state
+	private int[] gotoSymbol; // non terminal id of every goto, sorted within a state
+	private int[] gotoTarget; // target of every goto
+	private int terminals; // number of terminal ids
+	private int[] length; // states popped by the reduction of every production
+	private int[] leftSide; // non terminal of every production
+	private int accept; // the action that accepts
+	private int[] stack; // the state stack, reused between calls
+
+	/**
+	 * Constructor
+	 * @param table the parse table
+	 * @throws IllegalArgumentException if the table has conflicts
+	 */
+	public LRRecognizer(LRTable table) {
+		if (!table.isConflictFree()) {
+			throw new IllegalArgumentException("The table has conflicts: " + table.getConflicts().get(0));
+		}
+		LRItems items = table.getItems();
+		this.action = table.getActions();
+		this.gotoStart = table.getGotoStarts();
+		this.gotoSymbol = table.getGotoSymbols();
+		this.gotoTarget = table.getGotoTargets();
+		this.terminals = table.getSymbolTable().getTerminalCount();
+		int augmented = items.getAugmentedProduction();
+		this.length = new int[augmented + 1];
+		this.leftSide = new int[augmented + 1];
+		for (int p = 0; p <= augmented; p++) {
+			length[p] = items.getLength(p);
+			leftSide[p] = items.getLeftSide(p);
+		}
+		this.accept = ~augmented;
+		this.stack = new int[64];
+	}
+
+	/**
+	 * Verify if a sentence belongs to the language of the grammar
+	 * @param tokens the terminal id of every token
+	 * @return true if the sentence is accepted
+	 */
+	public boolean recognize(int[] tokens) {
+		return recognize(tokens, 0, tokens.length);
+	}
+
+	/**
+	 * Verify if a sentence belongs to the language of the grammar
+	 * @param tokens the terminal ids, as given by LRTable.encode
+	 * @param from the first token of the sentence
+	 * @param to the position after the last token of the sentence
+	 * @return true if the sentence is accepted
+	 */
+	public boolean recognize(int[] tokens, int from, int to) {
+		int[] stack = this.stack;
+		int sp = 0;
+		stack[sp++] = 0;
+		int pos = from;
+		int lookahead = nextToken(tokens, pos, to);
+		while (lookahead >= 0) {
+			int act = action[stack[sp - 1] * terminals + lookahead];
+			if (act > 0) { // shift
+				if (sp == stack.length) {
+					stack = this.stack = Arrays.copyOf(stack, stack.length * 2);
+				}
+				stack[sp++] = act - 1;
+				lookahead = nextToken(tokens, ++pos, to);
+			} else if (act < 0) { // reduce
+				if (act == accept) {
+					return true;
+				}
+				int p = ~act;
+				sp -= length[p];
+				int target = gotoTarget[LRTable.findGoto(gotoStart, gotoSymbol, stack[sp - 1], leftSide[p])];
+				if (sp == stack.length) {
+					stack = this.stack = Arrays.copyOf(stack, stack.length * 2);
+				}
+				stack[sp++] = target;
+			} else {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the lookahead at a position
+	 * @param tokens the terminal ids
+	 * @param pos the position
+	 * @param to the end of the sentence
+	 * @return the terminal id, END_ID after the sentence or -1 if it is not a valid token
+	 */
+	private int nextToken(int[] tokens, int pos, int to) {
+		if (pos >= to) {
+			return SymbolTable.END_ID;
+		}
+		int t = tokens[pos];
+		if (t <= SymbolTable.END_ID || t >= terminals) {
+			return -1; // & and $ are not input tokens
+		}
+		return t;
+	}
+}
@@ -0,0 +1,382 @@
+package ContextFreeLanguage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ACTION and GOTO tables of an LR parser. The actions are a dense int
+ * array by state and terminal; the gotos are kept by state, sorted by
+ * non terminal, since most states have few of them and a dense array
+ * grows with the states times the non terminals.
+ * An action is ERROR, a shift to state s stored as s + 1, or a reduction
+ * of production p stored as ~p; the reduction of the augmented production
+ * S' -> S is the accept action. When two actions meet in a cell the
+ * shift is kept, or else the production written first in the grammar,
+ * and the conflict is reported by getConflicts. Conflicts are recorded
+ * as ints and described only when asked for, so a table with many of
+ * them is still built quickly.
+ * Subclasses decide the states and the lookaheads of the reductions
+ */
+public abstract class LRTable {
+	public static final int ERROR = 0; // empty action cell
+
+	private LRItems items; // the items of the augmented grammar
+	private SymbolTable symbols; // ids of the grammar symbols
+	private int states; // number of states
+	private int terminals; // number of terminal ids
+	private int[] action; // action by state and terminal id
+	private int[] gotoEntries; // state, non terminal id and target of every goto set
+	private int gotoCount; // ints used in gotoEntries
+	private int[] gotoStart; // first goto of every state, null until the gotos are packed
+	private int[] gotoSymbol; // non terminal id of every goto, sorted by state
+	private int[] gotoTarget; // target of every goto
+	private int[] conflictReductions; // cell and production of every reduction added to a taken cell
+	private int conflictCount; // ints used in conflictReductions
+	private List<LRConflict> conflicts; // the conflicts by cell, built on demand
+
+	/**
+	 * Constructor
+	 * @param items the items of the augmented grammar
+	 * @param states the number of states
+	 */
+	LRTable(LRItems items, int states) {
+		this.items = items;
+		this.symbols = items.getCompiledGrammar().getSymbolTable();
+		this.states = states;
+		this.terminals = symbols.getTerminalCount();
+		this.action = new int[states * terminals];
+		this.gotoEntries = new int[48];
+		this.conflictReductions = new int[16];
+	}
+
+	/**
+	 * Add the transitions of an automaton: shifts for the terminals
+	 * and gotos for the non terminals. Called before the reductions
+	 * @param automaton the automaton with the states of the table
+	 */
+	void addTransitions(LR0Automaton automaton) {
+		for (int s = 0; s < states; s++) {
+			for (int e = automaton.getTransitionStart(s); e < automaton.getTransitionEnd(s); e++) {
+				setTransition(s, automaton.getTransitionSymbol(e), automaton.getTransitionTarget(e));
+			}
+		}
+	}
+
+	/**
+	 * Set the shift or goto of a state
+	 * @param state the state
+	 * @param symbol the symbol code
+	 * @param target the target state
+	 */
+	void setTransition(int state, int symbol, int target) {
+		if (SymbolTable.isTerminal(symbol)) {
+			action[state * terminals + ~symbol] = target + 1;
+		} else {
+			gotoEntries = IntArrays.grow(gotoEntries, gotoCount + 3);
+			gotoEntries[gotoCount++] = state;
+			gotoEntries[gotoCount++] = symbol;
+			gotoEntries[gotoCount++] = target;
+			gotoStart = null;
+		}
+	}
+
+	/**
+	 * Add a reduction to a cell, reporting a conflict if the cell is taken
+	 * @param state the state
+	 * @param t the terminal id of the lookahead
+	 * @param p the production index
+	 */
+	void addReduce(int state, int t, int p) {
+		int cell = state * terminals + t;
+		int old = action[cell];
+		if (old == ERROR) {
+			action[cell] = ~p;
+			return;
+		}
+		if (old == ~p) {
+			return;
+		}
+		conflictReductions = IntArrays.grow(conflictReductions, conflictCount + 4);
+		if (old < 0) {
+			conflictReductions[conflictCount++] = cell;
+			conflictReductions[conflictCount++] = ~old;
+			if (p < ~old) {
+				action[cell] = ~p;
+			}
+		}
+		conflictReductions[conflictCount++] = cell;
+		conflictReductions[conflictCount++] = p;
+		conflicts = null;
+	}
+
+	/**
+	 * Get an action
+	 * @param state the state
+	 * @param t the terminal id
+	 * @return ERROR, a shift or a reduction
+	 */
+	public int getAction(int state, int t) {
+		return action[state * terminals + t];
+	}
+
+	/**
+	 * Get the state reached after a reduction
+	 * @param state the state uncovered by the reduction
+	 * @param nt the non terminal id
+	 * @return the target state, or -1
+	 */
+	public int getGoto(int state, int nt) {
+		int g = findGoto(getGotoStarts(), gotoSymbol, state, nt);
+		return g < 0 ? -1 : gotoTarget[g];
+	}
+
+	/**
+	 * Find a goto in the packed arrays
+	 * @param start the first goto of every state
+	 * @param symbol the non terminal id of every goto
+	 * @param state the state
+	 * @param nt the non terminal id
+	 * @return the index of the goto, or -1 if there is none
+	 */
+	static int findGoto(int[] start, int[] symbol, int state, int nt) {
+		int lo = start[state], hi = start[state + 1] - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (symbol[mid] < nt) {
+				lo = mid + 1;
+			} else if (symbol[mid] > nt) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Sort the gotos set so far by state and non terminal, a later goto
+	 * of the same cell replacing an earlier one
+	 */
+	private void packGotos() {
+		int count = gotoCount / 3;
+		int[] start = new int[states + 1];
+		for (int i = 0; i < count; i++) {
+			start[gotoEntries[3 * i] + 1]++;
+		}
+		for (int s = 0; s < states; s++) {
+			start[s + 1] += start[s];
+		}
+		// Bucket the gotos by state, then sort every bucket by non terminal and order of setting
+		long[] keys = new long[count];
+		int[] next = Arrays.copyOf(start, states);
+		for (int i = 0; i < count; i++) {
+			keys[next[gotoEntries[3 * i]]++] = (long) gotoEntries[3 * i + 1] << 32 | i;
+		}
+		int[] symbol = new int[count];
+		int[] target = new int[count];
+		int size = 0;
+		for (int s = 0, from = 0; s < states; s++) {
+			int to = start[s + 1];
+			Arrays.sort(keys, from, to);
+			start[s] = size;
+			for (int i = from; i < to; i++) {
+				if (i + 1 < to && keys[i + 1] >>> 32 == keys[i] >>> 32) {
+					continue; // the last one set wins
+				}
+				int entry = 3 * (int) keys[i];
+				symbol[size] = gotoEntries[entry + 1];
+				target[size++] = gotoEntries[entry + 2];
+			}
+			from = to;
+		}
+		start[states] = size;
+		gotoSymbol = Arrays.copyOf(symbol, size);
+		gotoTarget = Arrays.copyOf(target, size);
+		gotoStart = start;
+	}
+
+	/**
+	 * Verify if an action is a shift
+	 * @param action the action
+	 * @return true if it shifts
+	 */
+	public static boolean isShift(int action) {
+		return action > 0;
+	}
+
+	/**
+	 * Verify if an action is a reduction
+	 * @param action the action
+	 * @return true if it reduces
+	 */
+	public static boolean isReduce(int action) {
+		return action < 0;
+	}
+
+	/**
+	 * Get the target of a shift
+	 * @param action the shift
+	 * @return the state
+	 */
+	public static int getShiftTarget(int action) {
+		return action - 1;
+	}
+
+	/**
+	 * Get the production of a reduction
+	 * @param action the reduction
+	 * @return the production index
+	 */
+	public static int getReduceProduction(int action) {
+		return ~action;
+	}
+
+	/**
+	 * Verify if an action accepts the sentence
+	 * @param action the action
+	 * @return true if it reduces the augmented production
+	 */
+	public boolean isAccept(int action) {
+		return action == ~items.getAugmentedProduction();
+	}
+
+	/**
+	 * Verify if every cell has a single action
+	 * @return true if there are no conflicts
+	 */
+	public boolean isConflictFree() {
+		return conflictCount == 0;
+	}
+
+	/**
+	 * Get the conflicting cells, in the form "state 3, a: shift 5 | reduce A -> alfa"
+	 * @return a description of every conflict by state and terminal id, read only
+	 */
+	public List<String> getConflicts() {
+		ArrayList<String> list = new ArrayList<>();
+		for (LRConflict conflict : getLRConflicts()) {
+			list.add(conflict.toString());
+		}
+		return Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Get the conflicting cells with the productions of the grammar they reduce
+	 * @return every conflict by state and terminal id, read only
+	 */
+	public List<LRConflict> getLRConflicts() {
+		if (conflicts != null) {
+			return conflicts;
+		}
+		// Sort the reductions by cell and production, every run of a cell is a conflict
+		long[] pairs = new long[conflictCount / 2];
+		for (int i = 0; i < pairs.length; i++) {
+			pairs[i] = ((long) conflictReductions[2 * i] << 32) | conflictReductions[2 * i + 1];
+		}
+		Arrays.sort(pairs);
+		ArrayList<LRConflict> list = new ArrayList<>();
+		int[] productions = new int[pairs.length];
+		for (int i = 0; i < pairs.length;) {
+			int cell = (int) (pairs[i] >>> 32);
+			int size = 0;
+			for (; i < pairs.length && (int) (pairs[i] >>> 32) == cell; i++) {
+				if (size == 0 || productions[size - 1] != (int) pairs[i]) {
+					productions[size++] = (int) pairs[i];
+				}
+			}
+			int shift = action[cell] > 0 ? action[cell] - 1 : -1;
+			list.add(new LRConflict(items.getCompiledGrammar(), cell / terminals, cell % terminals, shift,
+					Arrays.copyOf(productions, size)));
+		}
+		conflicts = Collections.unmodifiableList(list);
+		return conflicts;
+	}
+
+	/**
+	 * Get the number of states
+	 * @return the number of states, the initial one is 0
+	 */
+	public int getStateCount() {
+		return states;
+	}
+
+	/**
+	 * Get the whole action table, for tight loops inside the package
+	 * @return the action by state times the terminal count plus the terminal id
+	 */
+	int[] getActions() {
+		return action;
+	}
+
+	/**
+	 * Get the first goto of every state, for tight loops inside the package
+	 * @return the index in getGotoSymbols and getGotoTargets, by state, with the end last
+	 */
+	int[] getGotoStarts() {
+		if (gotoStart == null) {
+			packGotos();
+		}
+		return gotoStart;
+	}
+
+	/**
+	 * Get the non terminal of every goto
+	 * @return the non terminal ids, sorted within every state
+	 */
+	int[] getGotoSymbols() {
+		getGotoStarts();
+		return gotoSymbol;
+	}
+
+	/**
+	 * Get the target of every goto
+	 * @return the target states
+	 */
+	int[] getGotoTargets() {
+		getGotoStarts();
+		return gotoTarget;
+	}
+
+	/**
+	 * Get the items of the augmented grammar
+	 * @return the items
+	 */
+	LRItems getItems() {
+		return items;
+	}
+
+	/**
+	 * Get the compiled grammar the production indexes refer to
+	 * @return the compiled grammar
+	 */
+	public CompiledGrammar getCompiledGrammar() {
+		return items.getCompiledGrammar();
+	}
+
+	/**
+	 * Get the symbol table the ids refer to
+	 * @return the ids of the grammar symbols
+	 */
+	public SymbolTable getSymbolTable() {
+		return symbols;
+	}
+
+	/**
+	 * Transform a sentence in the form "a b c" into terminal ids
+	 * @param sentence the sentence
+	 * @return the id of every token, -1 for the ones that are not terminals
+	 */
+	public int[] encode(String sentence) {
+		String[] br = sentence.trim().split("[\\s\\r]+");
+		if (br.length == 1 && br[0].isEmpty()) {
+			return new int[0];
+		}
+		int[] tokens = new int[br.length];
+		for (int i = 0; i < br.length; i++) {
+			tokens[i] = symbols.getTerminalId(br[i]);
+		}
+		return tokens;
+	}
+}
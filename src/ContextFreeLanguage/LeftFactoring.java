@@ -0,0 +1,160 @@
+package ContextFreeLanguage;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * The left factored form of a compiled grammar. The productions of every
+ * non terminal are put in a prefix tree of their symbols, where the path
+ * from the root to a node is a prefix that the productions below it
+ * share. A path with no branch is the longest common prefix of its
+ * productions, so A -> alfa beta1 | alfa beta2 becomes A -> alfa A1 with
+ * A1 -> beta1 | beta2 at every node with more than one way to go on, and
+ * the whole grammar is factored in one pass over the symbols, instead of
+ * comparing the productions in pairs one step at a time. Only the
+ * productions that start with the same symbols are factored, a non
+ * terminal is not replaced by its productions to find the terminals two
+ * productions start with. The & between the symbols of a production is
+ * left out, and A -> & ends at the root
+ */
+class LeftFactoring {
+	private CompiledGrammar grammar; // the grammar it operates on
+	private int nodes; // nodes of the trees
+	private int[] symbol; // the symbol on the way to every node
+	private int[] child; // the first child of every node, -1 for none
+	private int[] sibling; // the next child of the parent of every node, -1 for none
+	private int[] last; // the last child of every node, to keep the children in order
+	private boolean[] end; // whether a production ends at every node
+	private int[] root; // the tree of every non terminal
+	private HashMap<Long, Integer> edges; // the child of a node by the node and the symbol
+
+	/**
+	 * Constructor
+	 * @param g the compiled grammar
+	 */
+	LeftFactoring(CompiledGrammar g) {
+		this.grammar = g;
+		int n = g.getNonTerminalCount();
+		int size = Math.max(16, n + g.getArena().length);
+		symbol = new int[size];
+		child = new int[size];
+		sibling = new int[size];
+		last = new int[size];
+		end = new boolean[size];
+		edges = new HashMap<>();
+		root = new int[n];
+		for (int nt = 0; nt < n; nt++) {
+			root[nt] = addNode(0);
+			for (int p = g.getFirstProduction(nt); p < g.getEndProduction(nt); p++) {
+				int node = root[nt];
+				for (int i = g.getStart(p); i < g.getEnd(p); i++) {
+					if (g.getSymbol(i) != ~SymbolTable.EPSILON_ID) {
+						node = getChild(node, g.getSymbol(i));
+					}
+				}
+				end[node] = true;
+			}
+		}
+	}
+
+	private int addNode(int s) {
+		symbol[nodes] = s;
+		child[nodes] = -1;
+		sibling[nodes] = -1;
+		last[nodes] = -1;
+		return nodes++;
+	}
+
+	/**
+	 * Get the child of a node on a symbol, and add it if there is none
+	 * @param node the node
+	 * @param s the symbol code
+	 * @return the child
+	 */
+	private int getChild(int node, int s) {
+		long key = (long) node << 32 | (s & 0xffffffffL);
+		Integer next = edges.get(key);
+		if (next != null) {
+			return next;
+		}
+		int added = addNode(s);
+		if (last[node] < 0) {
+			child[node] = added;
+		} else {
+			sibling[last[node]] = added;
+		}
+		last[node] = added;
+		edges.put(key, added);
+		return added;
+	}
+
+	/**
+	 * Build the factored grammar. The non terminals of the grammar keep
+	 * their names and an added one is named after the non terminal it was
+	 * created for (see NonTerminalNames). The non terminals with no
+	 * production are kept with none
+	 * @return the grammar, with no id
+	 */
+	ContextFreeGrammar toGrammar() {
+		SymbolTable symbols = grammar.getSymbolTable();
+		NonTerminalNames fresh = new NonTerminalNames(symbols);
+		HashMap<String, HashSet<String>> productions = new HashMap<>();
+		ContextFreeGrammar g = new ContextFreeGrammar();
+		for (int nt = 0; nt < root.length; nt++) {
+			g.addVn(symbols.getNonTerminal(nt));
+		}
+		for (int nt = 0; nt < root.length; nt++) {
+			if (grammar.getFirstProduction(nt) < grammar.getEndProduction(nt) || nt == grammar.getInitialSymbol()) {
+				emit(g, productions, fresh, symbols.getNonTerminal(nt), root[nt]);
+			}
+		}
+		g.setProductions(productions);
+		g.setInitialSymbol(symbols.getNonTerminal(grammar.getInitialSymbol()));
+		return g;
+	}
+
+	/**
+	 * Add the productions of the paths below a node. A path goes on while
+	 * it has one child and no production ends on it, and then it gets a
+	 * new non terminal for the productions below it
+	 * @param g the grammar, for the added non terminals
+	 * @param productions the productions of every non terminal
+	 * @param fresh the names for the added non terminals
+	 * @param left the non terminal the productions are for
+	 * @param node the node
+	 */
+	private void emit(ContextFreeGrammar g, HashMap<String, HashSet<String>> productions,
+			NonTerminalNames fresh, String left, int node) {
+		SymbolTable symbols = grammar.getSymbolTable();
+		HashSet<String> set = new HashSet<>();
+		productions.put(left, set);
+		if (end[node]) {
+			set.add(SymbolTable.EPSILON);
+			g.addVt(SymbolTable.EPSILON);
+		}
+		for (int c = child[node]; c >= 0; c = sibling[c]) {
+			StringBuilder sb = new StringBuilder();
+			int m = c;
+			while (true) {
+				if (sb.length() > 0) {
+					sb.append(' ');
+				}
+				sb.append(symbols.decode(symbol[m]));
+				if (SymbolTable.isTerminal(symbol[m])) {
+					g.addVt(symbols.getTerminal(~symbol[m]));
+				}
+				if (end[m] || child[m] < 0 || sibling[child[m]] >= 0) {
+					break;
+				}
+				m = child[m];
+			}
+			if (child[m] >= 0) {
+				String added = fresh.next(left);
+				g.addVn(added);
+				sb.append(' ').append(added);
+				emit(g, productions, fresh, added, m);
+			}
+			set.add(sb.toString());
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package ContextFreeLanguage;
+
+import java.util.HashMap;
+
+/**
+ * A parser class compiled by ParserCompiler, with the names of its tokens.
+ * Every LoadedParser has its own class loader, so the class is unloaded
+ * once the LoadedParser and the parsers it created are not referenced
+ */
+public class LoadedParser {
+	private Class<? extends GeneratedParser> type; // the compiled class
+	private String source; // the Java source of the class
+	private HashMap<String, Integer> ids; // the token id of every terminal
+
+	/**
+	 * Constructor
+	 * @param type the compiled class
+	 * @param source the Java source of the class
+	 * @param symbols the symbol table of the grammar
+	 */
+	LoadedParser(Class<? extends GeneratedParser> type, String source, SymbolTable symbols) {
+		this.type = type;
+		this.source = source;
+		this.ids = new HashMap<>();
+		for (int a = SymbolTable.END_ID + 1; a < symbols.getTerminalCount(); a++) {
+			ids.put(symbols.getTerminal(a), a);
+		}
+	}
+
+	/**
+	 * Create a parser
+	 * @return a new instance of the compiled class
+	 */
+	public GeneratedParser newParser() {
+		try {
+			return type.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Transform a sentence in the form "a b c" into token ids
+	 * @param sentence the sentence
+	 * @return the id of every token, -1 for the ones that are not terminals
+	 */
+	public int[] encode(String sentence) {
+		String[] br = sentence.trim().split("[\\s\\r]+");
+		if (br.length == 1 && br[0].isEmpty()) {
+			return new int[0];
+		}
+		int[] tokens = new int[br.length];
+		for (int i = 0; i < br.length; i++) {
+			Integer id = ids.get(br[i]);
+			tokens[i] = id == null ? -1 : id;
+		}
+		return tokens;
+	}
+
+	/**
+	 * Get the compiled class
+	 * @return the class, defined by a class loader of its own
+	 */
+	public Class<? extends GeneratedParser> getParserClass() {
+		return type;
+	}
+
+	/**
+	 * Get the source the class was compiled from
+	 * @return the Java source
+	 */
+	public String getSource() {
+		return source;
+	}
+}
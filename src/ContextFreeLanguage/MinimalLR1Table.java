@@ -0,0 +1,83 @@
+package ContextFreeLanguage;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * LR(1) parse table of a CFG with the states merged by Pager's weak
+ * compatibility (see PagerAutomaton). It has no conflict that canonical
+ * LR(1) does not have, where LALR(1) can add reduce/reduce conflicts,
+ * and it has as many states as LALR(1) for the grammars where those
+ * do not appear. The same grammar gives the same table whatever the
+ * pool and the parallelism
+ */
+public class MinimalLR1Table extends LRTable {
+	private PagerAutomaton automaton; // the states of the table
+
+	/**
+	 * Constructor
+	 * Builds the table of a grammar on the common ForkJoinPool
+	 * @param g the grammar
+	 */
+	public MinimalLR1Table(ContextFreeGrammar g) {
+		this(new CompiledGrammar(g), ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	/**
+	 * Constructor
+	 * Builds the table of the grammar of an operator on the common ForkJoinPool
+	 * @param op the operator of the grammar
+	 */
+	public MinimalLR1Table(CFGOperator op) {
+		this(op.getCompiledGrammar(), ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	/**
+	 * Constructor
+	 * @param g the compiled grammar
+	 * @param pool the pool that discovers the states, null to build the table in the calling thread
+	 * @param parallelism the number of tasks every frontier of states is split into
+	 */
+	public MinimalLR1Table(CompiledGrammar g, ForkJoinPool pool, int parallelism) {
+		this(new PagerAutomaton(new LRItems(g), pool, parallelism));
+	}
+
+	private MinimalLR1Table(PagerAutomaton automaton) {
+		super(automaton.getItems(), automaton.getStateCount());
+		this.automaton = automaton;
+		int words = automaton.getWords();
+		for (int s = 0; s < automaton.getStateCount(); s++) {
+			int[] symbols = automaton.getSymbols(s);
+			int[] targets = automaton.getTargets(s);
+			for (int k = 0; k < symbols.length; k++) {
+				setTransition(s, symbols[k], targets[k]);
+			}
+			int[] prods = automaton.getReductions(s);
+			long[] lookaheads = automaton.getReductionLookaheads(s);
+			for (int r = 0; r < prods.length; r++) {
+				for (int w = 0; w < words; w++) {
+					for (long word = lookaheads[r * words + w]; word != 0; word &= word - 1) {
+						addReduce(s, w * 64 + Long.numberOfTrailingZeros(word), prods[r]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the kernel of a state
+	 * @param state the state
+	 * @return the LR(0) items, sorted
+	 */
+	public int[] getKernel(int state) {
+		return automaton.getKernel(state);
+	}
+
+	/**
+	 * Describe an item
+	 * @param item the item
+	 * @return the item in the form "A -> alfa . beta"
+	 */
+	public String itemToString(int item) {
+		return getItems().itemToString(item);
+	}
+}
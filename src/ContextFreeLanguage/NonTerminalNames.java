@@ -0,0 +1,43 @@
+package ContextFreeLanguage;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Names for the non terminals a transformation adds to a grammar:
+ * the letter of the non terminal one is created for and the next
+ * number that no non terminal of the grammar has, as in S1, S2...
+ */
+class NonTerminalNames {
+	private HashSet<String> used; // the names that are taken
+	private HashMap<Character, Integer> numbers; // the last number given to every letter
+
+	/**
+	 * Constructor
+	 * @param symbols the symbol table with the non terminals of the grammar
+	 */
+	NonTerminalNames(SymbolTable symbols) {
+		used = new HashSet<>();
+		numbers = new HashMap<>();
+		for (int nt = 0; nt < symbols.getNonTerminalCount(); nt++) {
+			used.add(symbols.getNonTerminal(nt));
+		}
+	}
+
+	/**
+	 * Create the name of a new non terminal
+	 * @param from the non terminal it is created for
+	 * @return a name that was not taken
+	 */
+	String next(String from) {
+		char letter = from.charAt(0);
+		int number = numbers.getOrDefault(letter, 0);
+		String name;
+		do {
+			name = letter + "" + ++number;
+		} while (used.contains(name));
+		numbers.put(letter, number);
+		used.add(name);
+		return name;
+	}
+}
@@ -0,0 +1,671 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * LR(1) automaton with the states merged by Pager's weak compatibility.
+ * A state is a kernel of LR(0) items (its core) with a lookahead set for
+ * every kernel item. A successor with the core of an existing state is
+ * merged into it when the union cannot create a reduce/reduce conflict
+ * that the two states did not have: for every two items i and j, the
+ * lookaheads of i in one state and of j in the other are disjoint, or
+ * one of the states already has a common lookahead for i and j.
+ * Otherwise it becomes a new state, so the automaton has the power of
+ * canonical LR(1) with about the states of LALR(1).
+ *
+ * The states are discovered one frontier at a time. The closures and
+ * the successors of the frontier are computed concurrently on a
+ * ForkJoinPool, and their cores are found in a concurrent table shared
+ * by the tasks. The merges are then applied in the order of the
+ * frontier, so the automaton does not depend on the scheduling of the
+ * tasks. A state whose lookaheads grow is visited again. At the end
+ * the states are numbered in breadth first order from the initial one,
+ * dropping the ones no longer reached
+ */
+class PagerAutomaton {
+	private static final int MIN_GRAIN = 8; // states of the frontier a task handles at least
+
+	private LRItems items; // the items of the augmented grammar
+	private CompiledGrammar grammar; // the grammar it operates on
+	private int n; // number of non terminal ids
+	private int words; // longs in a set of terminals
+	private long[] restFirst; // first set of the symbols after the one after the dot, by item
+	private boolean[] restNullable; // whether the symbols after the one after the dot derive &, by item
+	private ForkJoinPool pool; // runs the tasks, null to run them in the caller
+	private int parallelism; // number of tasks a frontier is split into
+	private ConcurrentHashMap<Core, Core> cores; // the core of every state, shared by the tasks
+	private ThreadLocal<Closure> closures; // the scratch arrays of every thread
+
+	private Core[] stateCore; // core of every state
+	private long[][] stateLookahead; // lookahead set of every kernel item, back to back, by state
+	private int[] nextVariant; // next state with the same core, -1 for the last
+	private int[][] stateSymbols; // symbols of the transitions of every state
+	private int[][] stateTargets; // targets of the transitions of every state
+	private int states; // number of states
+	private boolean changed; // whether the last merge grew the lookaheads of a state
+
+	private int[][] reductions; // productions reduced by every state, after the numbering
+	private long[][] reductionLookahead; // their lookahead sets, back to back
+
+	/**
+	 * A kernel of LR(0) items, shared by the states with the same items
+	 */
+	private static final class Core {
+		private final int[] items; // the items, sorted
+		private final int hash; // hash of the items
+		private int first = -1; // first state with this core
+		private int last = -1; // last state with this core
+
+		Core(int[] items) {
+			this.items = items;
+			this.hash = Arrays.hashCode(items);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Core && ((Core) o).hash == hash && Arrays.equals(((Core) o).items, items);
+		}
+	}
+
+	/**
+	 * The successors of a state, computed by a task
+	 */
+	private static final class Successors {
+		private int[] symbols; // the symbol of every transition, in transition order
+		private Core[] cores; // the core of every successor
+		private long[][] lookaheads; // the lookaheads of the kernel of every successor
+	}
+
+	/**
+	 * Constructor
+	 * Builds the automaton
+	 * @param items the items of the augmented grammar
+	 * @param pool the pool that runs the tasks, null to build it in the calling thread
+	 * @param parallelism the number of tasks every frontier is split into
+	 */
+	PagerAutomaton(LRItems items, ForkJoinPool pool, int parallelism) {
+		this.items = items;
+		this.grammar = items.getCompiledGrammar();
+		this.n = grammar.getNonTerminalCount();
+		this.pool = pool;
+		this.parallelism = Math.max(1, parallelism);
+		this.cores = new ConcurrentHashMap<>();
+		computeRestFirst();
+		this.closures = new ThreadLocal<Closure>() {
+			@Override
+			protected Closure initialValue() {
+				return new Closure();
+			}
+		};
+		build();
+		number();
+	}
+
+	/**
+	 * Compute the first set of the rest of every item, after the symbol after the dot
+	 */
+	private void computeRestFirst() {
+		boolean[] nullable = items.computeNullable();
+		SymbolSets first = items.computeFirst(nullable);
+		long[] firstBits = first.getBits();
+		words = first.getWords();
+		restFirst = new long[items.getItemCount() * words];
+		restNullable = new boolean[items.getItemCount()];
+		for (int p = 0; p <= items.getAugmentedProduction(); p++) {
+			int[] rhs = items.getRightSide(p);
+			int base = items.getItemBase(p);
+			restNullable[base + rhs.length] = true;
+			for (int d = rhs.length - 1; d >= 0; d--) {
+				int item = base + d;
+				restNullable[item] = true;
+				if (d + 1 < rhs.length) {
+					int next = rhs[d + 1];
+					if (SymbolTable.isTerminal(next)) {
+						restFirst[item * words + (~next >>> 6)] |= 1L << ~next;
+						restNullable[item] = false;
+					} else {
+						for (int w = 0; w < words; w++) {
+							restFirst[item * words + w] = firstBits[next * words + w];
+						}
+						if (nullable[next]) {
+							for (int w = 0; w < words; w++) {
+								restFirst[item * words + w] |= restFirst[(item + 1) * words + w];
+							}
+						}
+						restNullable[item] = nullable[next] && restNullable[item + 1];
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Discover the states, one frontier at a time
+	 */
+	private void build() {
+		stateCore = new Core[16];
+		stateLookahead = new long[16][];
+		nextVariant = new int[16];
+		stateSymbols = new int[16][];
+		stateTargets = new int[16][];
+		boolean[] pending = new boolean[16]; // states in the next frontier
+		long[] start = new long[words];
+		start[SymbolTable.END_ID >>> 6] |= 1L << SymbolTable.END_ID;
+		int[] frontier = new int[] { addState(intern(new int[] { items.getItemBase(items.getAugmentedProduction()) }), start) };
+		int size = 1;
+
+		while (size > 0) {
+			Successors[] results = new Successors[size];
+			run(frontier, size, results, false);
+			int[] next = new int[16];
+			int nextSize = 0;
+			for (int f = 0; f < size; f++) {
+				pending[frontier[f]] = false;
+			}
+			for (int f = 0; f < size; f++) {
+				Successors result = results[f];
+				int[] targets = new int[result.cores.length];
+				for (int k = 0; k < targets.length; k++) {
+					int before = states;
+					int target = merge(result.cores[k], result.lookaheads[k]);
+					if (target >= before || changed) { // a new state, or one whose lookaheads grew
+						if (states > pending.length) {
+							pending = Arrays.copyOf(pending, pending.length * 2);
+						}
+						if (!pending[target]) {
+							pending[target] = true;
+							next = IntArrays.grow(next, nextSize + 1);
+							next[nextSize++] = target;
+						}
+					}
+					targets[k] = target;
+				}
+				stateSymbols[frontier[f]] = result.symbols;
+				stateTargets[frontier[f]] = targets;
+			}
+			frontier = next;
+			size = nextSize;
+		}
+	}
+
+	/**
+	 * Find the state a successor goes to, merging it into a compatible state
+	 * with its core or adding a new state
+	 * @param core the core of the successor
+	 * @param lookahead the lookaheads of its kernel
+	 * @return the state
+	 */
+	private int merge(Core core, long[] lookahead) {
+		changed = false;
+		for (int v = core.first; v >= 0; v = nextVariant[v]) {
+			if (isSubset(lookahead, stateLookahead[v])) {
+				return v;
+			}
+		}
+		int m = core.items.length;
+		for (int v = core.first; v >= 0; v = nextVariant[v]) {
+			if (isWeaklyCompatible(stateLookahead[v], lookahead, m)) {
+				long[] old = stateLookahead[v];
+				for (int i = 0; i < old.length; i++) {
+					old[i] |= lookahead[i];
+				}
+				changed = true;
+				return v;
+			}
+		}
+		return addState(core, lookahead);
+	}
+
+	private boolean isSubset(long[] a, long[] b) {
+		for (int i = 0; i < a.length; i++) {
+			if ((a[i] & ~b[i]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Verify if two states with the same core can be merged without a new
+	 * reduce/reduce conflict
+	 * @param a the lookaheads of one state
+	 * @param b the lookaheads of the other state
+	 * @param m the number of kernel items
+	 * @return true if for every two items the merge adds no common lookahead,
+	 * or one of the states already has one
+	 */
+	private boolean isWeaklyCompatible(long[] a, long[] b, int m) {
+		for (int i = 0; i < m; i++) {
+			for (int j = i + 1; j < m; j++) {
+				if ((intersects(a, i, b, j) || intersects(a, j, b, i))
+						&& !intersects(a, i, a, j) && !intersects(b, i, b, j)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private boolean intersects(long[] a, int i, long[] b, int j) {
+		for (int w = 0; w < words; w++) {
+			if ((a[i * words + w] & b[j * words + w]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int addState(Core core, long[] lookahead) {
+		if (states == stateCore.length) {
+			int capacity = states * 2;
+			stateCore = Arrays.copyOf(stateCore, capacity);
+			stateLookahead = Arrays.copyOf(stateLookahead, capacity);
+			nextVariant = Arrays.copyOf(nextVariant, capacity);
+			stateSymbols = Arrays.copyOf(stateSymbols, capacity);
+			stateTargets = Arrays.copyOf(stateTargets, capacity);
+		}
+		int s = states++;
+		stateCore[s] = core;
+		stateLookahead[s] = lookahead;
+		nextVariant[s] = -1;
+		if (core.last < 0) {
+			core.first = s;
+		} else {
+			nextVariant[core.last] = s;
+		}
+		core.last = s;
+		return s;
+	}
+
+	/**
+	 * Get the shared core of a kernel
+	 * @param kernel the items, sorted
+	 * @return the core in the table
+	 */
+	private Core intern(int[] kernel) {
+		Core core = new Core(kernel);
+		Core old = cores.putIfAbsent(core, core);
+		return old == null ? core : old;
+	}
+
+	/**
+	 * Compute the successors or the reductions of some states,
+	 * on the pool if there are enough of them
+	 * @param list the states
+	 * @param size the number of states in list
+	 * @param results where the successors of every state are put, or null
+	 * @param reduce true to compute the reductions instead of the successors
+	 */
+	private void run(int[] list, int size, Successors[] results, boolean reduce) {
+		int grain = Math.max(MIN_GRAIN, (size + parallelism - 1) / parallelism);
+		StateTask task = new StateTask(list, results, 0, size, grain, reduce);
+		if (pool == null || size <= grain) {
+			task.compute(); // nothing to split
+		} else {
+			pool.invoke(task);
+		}
+	}
+
+	/**
+	 * Computes a range of the states of a list, splitting it in halves down to the grain
+	 */
+	private class StateTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private int[] list; // the states
+		private Successors[] results; // the successors of every state of the list
+		private int from; // first state of the range
+		private int to; // end of the range
+		private int grain; // number of states computed without splitting
+		private boolean reduce; // true to compute the reductions
+
+		StateTask(int[] list, Successors[] results, int from, int to, int grain, boolean reduce) {
+			this.list = list;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+			this.reduce = reduce;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > grain) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new StateTask(list, results, from, middle, grain, reduce),
+						new StateTask(list, results, middle, to, grain, reduce));
+				return;
+			}
+			Closure closure = closures.get();
+			for (int i = from; i < to; i++) {
+				closure.close(list[i]);
+				if (reduce) {
+					closure.reduce(list[i]);
+				} else {
+					results[i] = closure.successors(list[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The closure of a state with the lookaheads of its predicted non terminals.
+	 * Every thread has its own, it reads the states but only writes itself
+	 */
+	private class Closure {
+		private long[] lookahead = new long[Math.max(1, n * words)]; // lookaheads of every predicted non terminal
+		private int[] stamp = new int[n]; // the closure a non terminal was last predicted in
+		private int current; // the stamp of this closure
+		private int[] predicted = new int[n]; // the predicted non terminals
+		private int predictedCount; // non terminals in predicted
+		private boolean[] queued = new boolean[n]; // non terminals whose lookaheads have to be passed on
+		private int[] queue = new int[Math.max(1, n)]; // the queued non terminals, a ring
+		private int head; // position of the first queued non terminal
+		private int queueSize; // number of queued non terminals
+		private long[] moves = new long[16]; // symbol index and item of every item moved past its symbol
+		private int[] kernel = new int[16]; // the kernel of a successor
+
+		/**
+		 * Predict the non terminals of a state and compute their lookaheads
+		 * @param s the state
+		 */
+		void close(int s) {
+			current++;
+			predictedCount = 0;
+			int[] k = stateCore[s].items;
+			long[] la = stateLookahead[s];
+			for (int i = 0; i < k.length; i++) {
+				int symbol = items.getItemSymbol(k[i]);
+				if (symbol >= 0) {
+					predict(symbol);
+					add(symbol, restFirst, k[i] * words);
+					if (restNullable[k[i]]) {
+						add(symbol, la, i * words);
+					}
+				}
+			}
+			while (queueSize > 0) {
+				int b = queue[head];
+				head = head + 1 == queue.length ? 0 : head + 1;
+				queueSize--;
+				queued[b] = false;
+				for (int p = grammar.getFirstProduction(b); p < grammar.getEndProduction(b); p++) {
+					if (!items.isProductive(p) || items.getLength(p) == 0) {
+						continue;
+					}
+					int c = items.getRightSide(p)[0];
+					if (c < 0) {
+						continue;
+					}
+					int item = items.getItemBase(p);
+					predict(c);
+					add(c, restFirst, item * words);
+					if (restNullable[item]) {
+						add(c, lookahead, b * words);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Predict a non terminal, with no lookaheads yet
+		 * @param nt the non terminal id
+		 */
+		private void predict(int nt) {
+			if (stamp[nt] != current) {
+				stamp[nt] = current;
+				Arrays.fill(lookahead, nt * words, (nt + 1) * words, 0);
+				predicted[predictedCount++] = nt;
+				enqueue(nt);
+			}
+		}
+
+		/**
+		 * Add lookaheads to a predicted non terminal, queuing it if they grow
+		 * @param nt the non terminal id
+		 * @param src the array with the lookaheads
+		 * @param offset where they start in src
+		 */
+		private void add(int nt, long[] src, int offset) {
+			long grown = 0;
+			for (int w = 0, t = nt * words; w < words; w++, t++) {
+				long old = lookahead[t];
+				lookahead[t] = old | src[offset + w];
+				grown |= lookahead[t] ^ old;
+			}
+			if (grown != 0) {
+				enqueue(nt);
+			}
+		}
+
+		private void enqueue(int nt) {
+			if (!queued[nt]) {
+				queued[nt] = true;
+				queue[(head + queueSize++) % queue.length] = nt;
+			}
+		}
+
+		/**
+		 * Compute the successors of a closed state
+		 * @param s the state
+		 * @return the kernel and lookaheads of the successor through every symbol
+		 */
+		Successors successors(int s) {
+			int[] k = stateCore[s].items;
+			long[] la = stateLookahead[s];
+			int augmented = items.getAugmentedProduction();
+			int moveCount = 0;
+			for (int item : k) {
+				int symbol = items.getItemSymbol(item);
+				if (symbol != LRItems.NONE) {
+					moves = IntArrays.grow(moves, moveCount + 1);
+					moves[moveCount++] = ((long) items.index(symbol) << 32) | (item + 1);
+				}
+			}
+			for (int i = 0; i < predictedCount; i++) {
+				int b = predicted[i];
+				for (int p = grammar.getFirstProduction(b); p < grammar.getEndProduction(b); p++) {
+					if (items.isProductive(p) && items.getLength(p) > 0) {
+						moves = IntArrays.grow(moves, moveCount + 1);
+						moves[moveCount++] = ((long) items.index(items.getRightSide(p)[0]) << 32)
+								| (items.getItemBase(p) + 1);
+					}
+				}
+			}
+			Arrays.sort(moves, 0, moveCount);
+			int groups = 0;
+			for (int i = 0; i < moveCount; i++) {
+				if (i == 0 || (int) (moves[i] >>> 32) != (int) (moves[i - 1] >>> 32)) {
+					groups++;
+				}
+			}
+			Successors result = new Successors();
+			result.symbols = new int[groups];
+			result.cores = new Core[groups];
+			result.lookaheads = new long[groups][];
+			for (int i = 0, g = 0; i < moveCount; g++) {
+				int symbolIndex = (int) (moves[i] >>> 32);
+				int size = 0;
+				for (; i < moveCount && (int) (moves[i] >>> 32) == symbolIndex; i++) {
+					kernel = IntArrays.grow(kernel, size + 1);
+					kernel[size++] = (int) moves[i];
+				}
+				long[] next = new long[size * words];
+				for (int j = 0; j < size; j++) {
+					// The item before the dot moved is a kernel item, or the start of a predicted production
+					int before = kernel[j] - 1;
+					int p = items.getItemProduction(before);
+					if (before == items.getItemBase(p) && p != augmented) {
+						System.arraycopy(lookahead, grammar.getLeftSide(p) * words, next, j * words, words);
+					} else {
+						System.arraycopy(la, Arrays.binarySearch(k, before) * words, next, j * words, words);
+					}
+				}
+				result.symbols[g] = items.symbol(symbolIndex);
+				result.cores[g] = intern(Arrays.copyOf(kernel, size));
+				result.lookaheads[g] = next;
+			}
+			return result;
+		}
+
+		/**
+		 * Find the reductions of a closed state
+		 * @param s the state
+		 */
+		void reduce(int s) {
+			int[] k = stateCore[s].items;
+			long[] la = stateLookahead[s];
+			int count = 0;
+			int[] prods = new int[k.length + predictedCount];
+			long[] looks = new long[prods.length * words];
+			for (int i = 0; i < k.length; i++) {
+				if (items.getItemSymbol(k[i]) == LRItems.NONE) {
+					int p = items.getItemProduction(k[i]);
+					if (p != items.getAugmentedProduction() || items.canAccept()) {
+						System.arraycopy(la, i * words, looks, count * words, words);
+						prods[count++] = p;
+					}
+				}
+			}
+			for (int i = 0; i < predictedCount; i++) {
+				int b = predicted[i];
+				for (int p = grammar.getFirstProduction(b); p < grammar.getEndProduction(b); p++) {
+					if (items.isProductive(p) && items.getLength(p) == 0) {
+						prods = IntArrays.grow(prods, count + 1);
+						looks = IntArrays.grow(looks, (count + 1) * words);
+						System.arraycopy(lookahead, b * words, looks, count * words, words);
+						prods[count++] = p;
+					}
+				}
+			}
+			reductions[s] = Arrays.copyOf(prods, count);
+			reductionLookahead[s] = Arrays.copyOf(looks, count * words);
+		}
+	}
+
+	/**
+	 * Number the states reached from the initial one in breadth first order,
+	 * then find their reductions
+	 */
+	private void number() {
+		int[] id = new int[states];
+		Arrays.fill(id, -1);
+		int[] order = new int[states];
+		int count = 0;
+		id[0] = 0;
+		order[count++] = 0;
+		for (int i = 0; i < count; i++) {
+			for (int target : stateTargets[order[i]]) {
+				if (id[target] < 0) {
+					id[target] = count;
+					order[count++] = target;
+				}
+			}
+		}
+		Core[] core = new Core[count];
+		long[][] lookahead = new long[count][];
+		int[][] symbols = new int[count][];
+		int[][] targets = new int[count][];
+		for (int i = 0; i < count; i++) {
+			int s = order[i];
+			core[i] = stateCore[s];
+			lookahead[i] = stateLookahead[s];
+			symbols[i] = stateSymbols[s];
+			targets[i] = stateTargets[s];
+			for (int k = 0; k < targets[i].length; k++) {
+				targets[i][k] = id[targets[i][k]];
+			}
+		}
+		stateCore = core;
+		stateLookahead = lookahead;
+		stateSymbols = symbols;
+		stateTargets = targets;
+		states = count;
+		nextVariant = null;
+		cores = null;
+		reductions = new int[count][];
+		reductionLookahead = new long[count][];
+		int[] all = new int[count];
+		for (int i = 0; i < count; i++) {
+			all[i] = i;
+		}
+		run(all, count, null, true);
+		closures = null;
+	}
+
+	/**
+	 * Get the number of states
+	 * @return the number of states, the initial one is 0
+	 */
+	int getStateCount() {
+		return states;
+	}
+
+	/**
+	 * Get the symbols of the transitions of a state
+	 * @param state the state
+	 * @return the symbol codes, non terminals first
+	 */
+	int[] getSymbols(int state) {
+		return stateSymbols[state];
+	}
+
+	/**
+	 * Get the targets of the transitions of a state
+	 * @param state the state
+	 * @return the target of the transition through every symbol of getSymbols
+	 */
+	int[] getTargets(int state) {
+		return stateTargets[state];
+	}
+
+	/**
+	 * Get the productions a state reduces
+	 * @param state the state
+	 * @return the production indexes
+	 */
+	int[] getReductions(int state) {
+		return reductions[state];
+	}
+
+	/**
+	 * Get the lookaheads of the reductions of a state
+	 * @param state the state
+	 * @return the terminal set of every reduction, getWords() longs each
+	 */
+	long[] getReductionLookaheads(int state) {
+		return reductionLookahead[state];
+	}
+
+	/**
+	 * Get the kernel of a state
+	 * @param state the state
+	 * @return the items, sorted
+	 */
+	int[] getKernel(int state) {
+		return stateCore[state].items.clone();
+	}
+
+	/**
+	 * Get the number of longs of a set of terminals
+	 * @return the longs per set
+	 */
+	int getWords() {
+		return words;
+	}
+
+	/**
+	 * Get the items of the augmented grammar
+	 * @return the items
+	 */
+	LRItems getItems() {
+		return items;
+	}
+}
@@ -0,0 +1,171 @@
+package ContextFreeLanguage;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel fixpoint for a family of sets where some sets include others.
+ * The inclusion graph is split into strongly connected components,
+ * which are grouped in layers: a component only includes sets of
+ * components in earlier layers, or of itself. The components of a layer
+ * are independent, so they are solved concurrently on a ForkJoinPool,
+ * and the layers are solved one after another.
+ * Every component only writes its own rows of the sets, so the tasks
+ * do not need any locking. Without a pool the components are solved one
+ * after another in reverse topological order, in a single pass.
+ * The result is the least fixpoint either way
+ */
+class ParallelSetSolver {
+	private ForkJoinPool pool; // runs the tasks
+	private int parallelism; // number of tasks every layer is split into
+
+	/**
+	 * Constructor
+	 * @param pool the pool that runs the tasks, null to solve the components in order
+	 * @param parallelism the number of tasks every layer is split into
+	 */
+	ParallelSetSolver(ForkJoinPool pool, int parallelism) {
+		this.pool = pool;
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * Propagate the sets along the dependencies until nothing changes
+	 * @param sets the sets indexed by node
+	 * @param dependents the nodes that include the set of every node
+	 * @param except a symbol id that is not propagated, -1 for none
+	 */
+	void solve(SymbolSets sets, IntGraph dependents, int except) {
+		int n = dependents.getNodeCount();
+		int[][] adj = dependents.getAdjacency(); // packs the graph before the tasks read it
+		IntGraph sources = new IntGraph(n); // the nodes every node includes
+		for (int u = 0; u < n; u++) {
+			for (int v : adj[u]) {
+				sources.addEdge(v, u);
+			}
+		}
+		sources.getAdjacency();
+
+		StronglyConnectedComponents scc = new StronglyConnectedComponents(adj);
+		int[][] members = scc.getMembers();
+		int count = scc.getCount();
+		if (pool == null) {
+			for (int c = count - 1; c >= 0; c--) {
+				solveComponent(sets, sources, members[c], except);
+			}
+			return;
+		}
+		// Components are numbered in reverse topological order, so the
+		// components a component depends on have greater numbers
+		int[] layer = new int[count];
+		int layers = 0;
+		for (int c = count - 1; c >= 0; c--) {
+			for (int u : members[c]) {
+				for (int v : adj[u]) {
+					int target = scc.getComponent(v);
+					if (target != c && layer[target] <= layer[c]) {
+						layer[target] = layer[c] + 1;
+					}
+				}
+			}
+			layers = Math.max(layers, layer[c] + 1);
+		}
+
+		// Group the components by layer
+		int[] start = new int[layers + 1];
+		for (int c = 0; c < count; c++) {
+			start[layer[c] + 1]++;
+		}
+		for (int l = 0; l < layers; l++) {
+			start[l + 1] += start[l];
+		}
+		int[] byLayer = new int[count];
+		int[] next = start.clone();
+		for (int c = 0; c < count; c++) {
+			byLayer[next[layer[c]]++] = c;
+		}
+
+		for (int l = 0; l < layers; l++) {
+			int size = start[l + 1] - start[l];
+			int grain = Math.max(1, (size + parallelism - 1) / parallelism);
+			LayerTask task = new LayerTask(sets, sources, members,
+					byLayer, start[l], start[l + 1], grain, except);
+			if (size <= grain) {
+				task.compute(); // nothing to split
+			} else {
+				pool.invoke(task);
+			}
+		}
+	}
+
+	/**
+	 * Solve the sets of a component. The components it depends on are
+	 * already solved. Every node of the component includes the sets of
+	 * all the others, so they are merged into the first node and copied
+	 * back, instead of going around the cycles until nothing changes
+	 * @param sets the sets being solved
+	 * @param sources the nodes every node includes
+	 * @param nodes the nodes of the component
+	 * @param except a symbol id that is not propagated, -1 for none
+	 */
+	private static void solveComponent(SymbolSets sets, IntGraph sources, int[] nodes, int except) {
+		for (int v : nodes) {
+			for (int e = sources.start(v), end = sources.end(v); e < end; e++) {
+				union(sets, v, sources.target(e), except);
+			}
+		}
+		for (int i = 1; i < nodes.length; i++) {
+			union(sets, nodes[0], nodes[i], except);
+		}
+		for (int i = 1; i < nodes.length; i++) {
+			union(sets, nodes[i], nodes[0], except);
+		}
+	}
+
+	private static boolean union(SymbolSets sets, int to, int from, int except) {
+		return except < 0 ? sets.union(to, from) : sets.unionExcept(to, from, except);
+	}
+
+	/**
+	 * Solves a range of the components of a layer,
+	 * splitting it in halves down to the grain
+	 */
+	private static class LayerTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private SymbolSets sets; // the sets being solved
+		private IntGraph sources; // the nodes every node includes
+		private int[][] members; // the nodes of every component
+		private int[] components; // the components, grouped by layer
+		private int from; // first component of the range
+		private int to; // end of the range
+		private int grain; // number of components solved without splitting
+		private int except; // a symbol id that is not propagated, -1 for none
+
+		LayerTask(SymbolSets sets, IntGraph sources, int[][] members, int[] components,
+				int from, int to, int grain, int except) {
+			this.sets = sets;
+			this.sources = sources;
+			this.members = members;
+			this.components = components;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+			this.except = except;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > grain) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new LayerTask(sets, sources, members, components,
+								from, middle, grain, except),
+						new LayerTask(sets, sources, members, components,
+								middle, to, grain, except));
+				return;
+			}
+			for (int i = from; i < to; i++) {
+				solveComponent(sets, sources, members[components[i]], except);
+			}
+		}
+	}
+}
@@ -0,0 +1,236 @@
+package ContextFreeLanguage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles the recognizer RecursiveDescentGenerator writes for a grammar
+ * and loads it, without touching the disk: the source is given to the
+ * system Java compiler from memory, the class files are kept in memory
+ * and defined by a class loader made for that one class.
+ * Nothing keeps a reference to that class loader, so the class is
+ * unloaded once the LoadedParser is not used anymore.
+ * Needs a JDK, the compiler is not part of a plain JRE.
+ * The file manager that reads the class path is kept open between
+ * compilations, call close when no more parsers are compiled
+ */
+public class ParserCompiler implements AutoCloseable {
+	private static final String PACKAGE = "ContextFreeLanguage.generated"; // package of the generated classes
+	private static final AtomicLong counter = new AtomicLong(); // makes every class name unique
+
+	private JavaCompiler compiler; // the system Java compiler
+	private StandardJavaFileManager files; // reads the class path, shared between compilations
+	private List<String> options; // the compiler options
+	private boolean closed; // close was called
+
+	/**
+	 * Constructor
+	 * @throws IllegalStateException if there is no Java compiler
+	 */
+	public ParserCompiler() {
+		compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null) {
+			throw new IllegalStateException("No Java compiler, a JDK is needed");
+		}
+		files = compiler.getStandardFileManager(null, null, null);
+		options = new ArrayList<>(Arrays.asList("-proc:none", "-g:none", "-nowarn"));
+		String classPath = getClassPath();
+		if (classPath != null) {
+			options.add("-classpath");
+			options.add(classPath);
+		}
+	}
+
+	/**
+	 * Compile the recognizer of a grammar
+	 * @param g the grammar
+	 * @return the loaded parser
+	 * @throws IllegalArgumentException if the grammar is not LL(1)
+	 */
+	public LoadedParser compile(ContextFreeGrammar g) {
+		return compile(new CFGOperator(g, true));
+	}
+
+	/**
+	 * Compile the recognizer of a grammar
+	 * @param op the operator of the grammar
+	 * @return the loaded parser
+	 * @throws IllegalArgumentException if the grammar is not LL(1)
+	 * @throws IllegalStateException if the generated source does not compile,
+	 * or the compiler is closed
+	 */
+	public LoadedParser compile(CFGOperator op) {
+		RecursiveDescentGenerator generator = new RecursiveDescentGenerator(op);
+		String className = "Parser" + counter.incrementAndGet();
+		String qualifiedName = PACKAGE + "." + className;
+		StringBuilder source = new StringBuilder();
+		try {
+			generator.generate(PACKAGE, className, GeneratedParser.class.getName(), source);
+		} catch (IOException e) {
+			throw new IllegalStateException(e); // a StringBuilder does not fail
+		}
+
+		MemoryFileManager memory = new MemoryFileManager(files);
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		JavaFileObject unit = new SourceFile(qualifiedName, source.toString());
+		boolean compiled;
+		synchronized (files) { // the file manager is not thread safe
+			if (closed) {
+				throw new IllegalStateException("The compiler is closed");
+			}
+			compiled = compiler.getTask(null, memory, diagnostics, options, null, Arrays.asList(unit)).call();
+		}
+		if (!compiled) {
+			StringBuilder sb = new StringBuilder("The generated parser does not compile:");
+			for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+				sb.append('\n').append(d.getMessage(null));
+			}
+			throw new IllegalStateException(sb.toString());
+		}
+
+		MemoryClassLoader loader = new MemoryClassLoader(GeneratedParser.class.getClassLoader(), memory.classes);
+		try {
+			Class<? extends GeneratedParser> type = loader.loadClass(qualifiedName).asSubclass(GeneratedParser.class);
+			return new LoadedParser(type, source.toString(), generator.getSymbolTable());
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Close the file manager. The parsers already compiled can still be used
+	 * @throws IOException if the file manager fails to close
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (files) {
+			if (!closed) {
+				closed = true;
+				files.close();
+			}
+		}
+	}
+
+	/**
+	 * Get the class path the generated classes are compiled against:
+	 * the one of the JVM and the location of this package,
+	 * which may have been loaded from somewhere else
+	 * @return the class path, or null to use the default one
+	 */
+	private static String getClassPath() {
+		String classPath = System.getProperty("java.class.path");
+		CodeSource code = GeneratedParser.class.getProtectionDomain().getCodeSource();
+		if (code == null || code.getLocation() == null) {
+			return classPath;
+		}
+		try {
+			String location = new File(code.getLocation().toURI()).getPath();
+			return classPath == null || classPath.isEmpty() ? location : classPath + File.pathSeparator + location;
+		} catch (URISyntaxException | IllegalArgumentException e) {
+			return classPath;
+		}
+	}
+
+	/**
+	 * A source file held in a string
+	 */
+	private static class SourceFile extends SimpleJavaFileObject {
+		private String code; // the source
+
+		SourceFile(String qualifiedName, String code) {
+			super(URI.create("string:///" + qualifiedName.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+			this.code = code;
+		}
+
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+			return code;
+		}
+	}
+
+	/**
+	 * A class file written to memory
+	 */
+	private static class ClassFile extends SimpleJavaFileObject {
+		private ByteArrayOutputStream bytes = new ByteArrayOutputStream(); // the class file
+
+		ClassFile(String qualifiedName) {
+			super(URI.create("bytes:///" + qualifiedName.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+		}
+
+		@Override
+		public OutputStream openOutputStream() {
+			return bytes;
+		}
+	}
+
+	/**
+	 * Reads the class path as usual but writes the class files to memory
+	 */
+	private static class MemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+		private HashMap<String, ClassFile> classes = new HashMap<>(); // written class files by class name
+
+		MemoryFileManager(JavaFileManager files) {
+			super(files);
+		}
+
+		@Override
+		public JavaFileObject getJavaFileForOutput(Location location, String className,
+				JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+			if (kind != JavaFileObject.Kind.CLASS) {
+				return super.getJavaFileForOutput(location, className, kind, sibling);
+			}
+			ClassFile file = new ClassFile(className);
+			classes.put(className, file);
+			return file;
+		}
+
+		@Override
+		public void close() {
+			// the standard file manager is shared between compilations
+		}
+	}
+
+	/**
+	 * Defines the classes of one compilation
+	 */
+	private static class MemoryClassLoader extends ClassLoader {
+		private HashMap<String, ClassFile> classes; // class files by class name
+
+		MemoryClassLoader(ClassLoader parent, HashMap<String, ClassFile> classes) {
+			super(parent);
+			this.classes = classes;
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			ClassFile file = classes.remove(name); // the bytes are not needed once defined
+			if (file == null) {
+				throw new ClassNotFoundException(name);
+			}
+			byte[] bytes = file.bytes.toByteArray();
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+}
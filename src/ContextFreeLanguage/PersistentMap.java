@@ -0,0 +1,301 @@
+package ContextFreeLanguage;
+
+/**
+ * Immutable hash map with structural sharing (hash array mapped trie).
+ * Every node branches on 5 bits of the key hash and only stores
+ * the branches it uses, indexed by a bitmap. plus and minus return
+ * a new map that copies the path from the root to the changed entry
+ * and shares every other node with the original map
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+class PersistentMap<K, V> {
+	private static final PersistentMap<Object, Object> EMPTY = new PersistentMap<>(null, 0);
+	private static final int BITS = 5; // hash bits used by every level
+	private static final int MASK = (1 << BITS) - 1;
+
+	private final Node root; // null for the empty map
+	private final int size; // number of entries
+
+	private PersistentMap(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Get the empty map
+	 * @return a map without entries
+	 */
+	@SuppressWarnings("unchecked")
+	static <K, V> PersistentMap<K, V> empty() {
+		return (PersistentMap<K, V>) EMPTY;
+	}
+
+	/**
+	 * Get the number of entries
+	 * @return the size of the map
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Get the value of a key
+	 * @param key the key
+	 * @return the value, null if the key is not in the map
+	 */
+	@SuppressWarnings("unchecked")
+	V get(Object key) {
+		return root == null ? null : (V) root.find(0, hash(key), key);
+	}
+
+	/**
+	 * Get a map with a new value for a key
+	 * @param key the key
+	 * @param value the value
+	 * @return the new map, or this map if it already had the value
+	 */
+	PersistentMap<K, V> plus(K key, V value) {
+		boolean[] added = new boolean[1];
+		Node node = root == null ? BitmapNode.EMPTY : root;
+		Node newRoot = node.assoc(0, hash(key), key, value, added);
+		if (newRoot == root) {
+			return this;
+		}
+		return new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+	}
+
+	/**
+	 * Get a map without a key
+	 * @param key the key
+	 * @return the new map, or this map if it did not have the key
+	 */
+	PersistentMap<K, V> minus(Object key) {
+		if (root == null) {
+			return this;
+		}
+		Node newRoot = root.without(0, hash(key), key);
+		if (newRoot == root) {
+			return this;
+		}
+		return newRoot == null ? empty() : new PersistentMap<>(newRoot, size - 1);
+	}
+
+	/**
+	 * Spread the hash of a key
+	 * @param key the key
+	 * @return the hash used by the trie
+	 */
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * A node of the trie
+	 */
+	private interface Node {
+		/**
+		 * Find the value of a key
+		 * @param shift the hash bits used by the levels above
+		 * @param hash the hash of the key
+		 * @param key the key
+		 * @return the value, null if not found
+		 */
+		Object find(int shift, int hash, Object key);
+
+		/**
+		 * Get a node with a new value for a key
+		 * @param shift the hash bits used by the levels above
+		 * @param hash the hash of the key
+		 * @param key the key
+		 * @param value the value
+		 * @param added set to true if the key was not in the node
+		 * @return the new node, or this node if nothing changed
+		 */
+		Node assoc(int shift, int hash, Object key, Object value, boolean[] added);
+
+		/**
+		 * Get a node without a key
+		 * @param shift the hash bits used by the levels above
+		 * @param hash the hash of the key
+		 * @param key the key
+		 * @return the new node, this node if nothing changed or null if it became empty
+		 */
+		Node without(int shift, int hash, Object key);
+	}
+
+	/**
+	 * Node that stores up to 32 branches. For every used branch,
+	 * array has a key and its value, or null and a child node
+	 */
+	private static final class BitmapNode implements Node {
+		private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+		private final int bitmap; // the used branches
+		private final Object[] array; // key and value, or null and child, of every used branch
+
+		BitmapNode(int bitmap, Object[] array) {
+			this.bitmap = bitmap;
+			this.array = array;
+		}
+
+		private int index(int bit) {
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+
+		@Override
+		public Object find(int shift, int hash, Object key) {
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((bitmap & bit) == 0) {
+				return null;
+			}
+			int i = 2 * index(bit);
+			Object k = array[i];
+			if (k == null) {
+				return ((Node) array[i + 1]).find(shift + BITS, hash, key);
+			}
+			return key.equals(k) ? array[i + 1] : null;
+		}
+
+		@Override
+		public Node assoc(int shift, int hash, Object key, Object value, boolean[] added) {
+			int bit = 1 << ((hash >>> shift) & MASK);
+			int i = 2 * index(bit);
+			if ((bitmap & bit) == 0) {
+				Object[] newArray = new Object[array.length + 2];
+				System.arraycopy(array, 0, newArray, 0, i);
+				newArray[i] = key;
+				newArray[i + 1] = value;
+				System.arraycopy(array, i, newArray, i + 2, array.length - i);
+				added[0] = true;
+				return new BitmapNode(bitmap | bit, newArray);
+			}
+			Object k = array[i];
+			Object v = array[i + 1];
+			if (k == null) {
+				Node child = ((Node) v).assoc(shift + BITS, hash, key, value, added);
+				return child == v ? this : copyWith(i, null, child);
+			}
+			if (key.equals(k)) {
+				return v == value ? this : copyWith(i, k, value);
+			}
+			added[0] = true;
+			return copyWith(i, null, pair(shift + BITS, hash(k), k, v, hash, key, value));
+		}
+
+		@Override
+		public Node without(int shift, int hash, Object key) {
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((bitmap & bit) == 0) {
+				return this;
+			}
+			int i = 2 * index(bit);
+			Object k = array[i];
+			if (k == null) {
+				Node child = (Node) array[i + 1];
+				Node newChild = child.without(shift + BITS, hash, key);
+				if (newChild == child) {
+					return this;
+				}
+				if (newChild != null) {
+					return copyWith(i, null, newChild);
+				}
+			} else if (!key.equals(k)) {
+				return this;
+			}
+			if (bitmap == bit) {
+				return null;
+			}
+			Object[] newArray = new Object[array.length - 2];
+			System.arraycopy(array, 0, newArray, 0, i);
+			System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+			return new BitmapNode(bitmap ^ bit, newArray);
+		}
+
+		private BitmapNode copyWith(int i, Object key, Object value) {
+			Object[] newArray = array.clone();
+			newArray[i] = key;
+			newArray[i + 1] = value;
+			return new BitmapNode(bitmap, newArray);
+		}
+
+		/**
+		 * Create a node with two entries whose hashes agree on the levels above
+		 */
+		private static Node pair(int shift, int h1, Object k1, Object v1, int h2, Object k2, Object v2) {
+			if (h1 == h2) {
+				return new CollisionNode(h1, new Object[] { k1, v1, k2, v2 });
+			}
+			boolean[] added = new boolean[1];
+			return EMPTY.assoc(shift, h1, k1, v1, added).assoc(shift, h2, k2, v2, added);
+		}
+	}
+
+	/**
+	 * Node for keys that have the same hash
+	 */
+	private static final class CollisionNode implements Node {
+		private final int hash; // the hash of every key
+		private final Object[] array; // key and value of every entry
+
+		CollisionNode(int hash, Object[] array) {
+			this.hash = hash;
+			this.array = array;
+		}
+
+		private int indexOf(Object key) {
+			for (int i = 0; i < array.length; i += 2) {
+				if (key.equals(array[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public Object find(int shift, int hash, Object key) {
+			int i = indexOf(key);
+			return i < 0 ? null : array[i + 1];
+		}
+
+		@Override
+		public Node assoc(int shift, int hash, Object key, Object value, boolean[] added) {
+			if (hash != this.hash) {
+				// Push this node one level down, next to the new key
+				Node node = new BitmapNode(1 << ((this.hash >>> shift) & MASK), new Object[] { null, this });
+				return node.assoc(shift, hash, key, value, added);
+			}
+			int i = indexOf(key);
+			if (i >= 0) {
+				if (array[i + 1] == value) {
+					return this;
+				}
+				Object[] newArray = array.clone();
+				newArray[i + 1] = value;
+				return new CollisionNode(hash, newArray);
+			}
+			Object[] newArray = new Object[array.length + 2];
+			System.arraycopy(array, 0, newArray, 0, array.length);
+			newArray[array.length] = key;
+			newArray[array.length + 1] = value;
+			added[0] = true;
+			return new CollisionNode(hash, newArray);
+		}
+
+		@Override
+		public Node without(int shift, int hash, Object key) {
+			int i = indexOf(key);
+			if (i < 0) {
+				return this;
+			}
+			if (array.length == 2) {
+				return null;
+			}
+			Object[] newArray = new Object[array.length - 2];
+			System.arraycopy(array, 0, newArray, 0, i);
+			System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+			return new CollisionNode(hash, newArray);
+		}
+	}
+}
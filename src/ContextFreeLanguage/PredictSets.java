@@ -0,0 +1,78 @@
+package ContextFreeLanguage;
+
+/**
+ * The sets the LL(1) predictions of a CFG are computed from: whether
+ * every non terminal derives &, its first set and its follow set.
+ * The & written next to other symbols is skipped, as in the LR items,
+ * so a production derives & when every symbol is & or a nullable non
+ * terminal. The sets of CFGOperator are used when they are the same
+ * (see CompiledGrammar.hasPlainSets), and the ones of the LR items
+ * otherwise. The first sets count every production, as the ones of
+ * CFGOperator do, so the productions that derive no sentence are
+ * still predicted
+ */
+class PredictSets {
+	private CFGOperator op; // the operator of the grammar
+	private CompiledGrammar grammar; // the grammar it operates on
+	private LRItems items; // the items the sets come from, null if they come from the operator
+	private boolean[] nullable; // the non terminals that derive &
+	private SymbolSets first; // the first set of every non terminal, & is ignored
+	private SymbolSets follow; // the follow set of every non terminal, null until needed
+
+	/**
+	 * Constructor
+	 * @param op the operator of the grammar
+	 */
+	PredictSets(CFGOperator op) {
+		this.op = op;
+		this.grammar = op.getCompiledGrammar();
+		int n = grammar.getNonTerminalCount();
+		if (grammar.hasPlainSets()) {
+			first = op.getFirstSets();
+			nullable = new boolean[n];
+			for (int nt = 0; nt < n; nt++) {
+				nullable[nt] = first.contains(nt, SymbolTable.EPSILON_ID);
+			}
+		} else {
+			items = new LRItems(grammar);
+			nullable = items.computeNullable();
+			first = items.computeFirst(nullable, true);
+		}
+	}
+
+	/**
+	 * Add the first set of a production to a set, without &
+	 * @param sets the sets to add to
+	 * @param row the set to add to
+	 * @param p the production index
+	 * @return true if the production derives &
+	 */
+	boolean addFirst(SymbolSets sets, int row, int p) {
+		for (int i = grammar.getStart(p); i < grammar.getEnd(p); i++) {
+			int symbol = grammar.getSymbol(i);
+			if (SymbolTable.isTerminal(symbol)) {
+				if (~symbol == SymbolTable.EPSILON_ID) {
+					continue;
+				}
+				sets.add(row, ~symbol);
+				return false;
+			}
+			sets.unionExcept(row, first.getBits(), symbol * first.getWords(), SymbolTable.EPSILON_ID);
+			if (!nullable[symbol]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the follow sets, computed the first time
+	 * @return the follow set of every non terminal id
+	 */
+	SymbolSets getFollow() {
+		if (follow == null) {
+			follow = items == null ? op.getFollowSets() : items.computeFollow(nullable, first);
+		}
+		return follow;
+	}
+}
@@ -0,0 +1,274 @@
+package ContextFreeLanguage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Predictive parse table of a CFG: the production to expand for
+ * every non terminal id and terminal id of the lookahead (see SymbolTable).
+ * Production p of A is predicted for every terminal of First(p) and,
+ * when p derives epsilon, for every terminal of Follow(A).
+ * When two productions are predicted for the same cell, the cell keeps
+ * the first one and the conflict is reported by getConflicts.
+ * Subclasses decide how the cells are stored
+ */
+public abstract class PredictiveTable {
+	public static final int ERROR = -1; // empty cell
+
+	private CompiledGrammar grammar; // the grammar the table was built for
+	private SymbolTable symbols; // ids of the grammar symbols
+	private int[][] rhs; // symbols to push for every production, last symbol first
+	private ArrayList<String> conflicts; // description of every conflicting cell
+
+	/**
+	 * Constructor
+	 * @param op the operator of the grammar
+	 */
+	PredictiveTable(CFGOperator op) {
+		grammar = op.getCompiledGrammar();
+		symbols = grammar.getSymbolTable();
+		rhs = new int[grammar.getProductionCount()][];
+		conflicts = new ArrayList<>();
+	}
+
+	/**
+	 * Compute the predictions of every non terminal from the first
+	 * and follow sets of the grammar (see PredictSets), and give them
+	 * to addRow one row at a time. Called once by the constructor of the subclass
+	 * @param op the operator of the grammar
+	 */
+	void build(CFGOperator op) {
+		PredictSets sets = new PredictSets(op);
+		SymbolSets follow = sets.getFollow();
+		int n = grammar.getNonTerminalCount();
+		int t = symbols.getTerminalCount();
+		int[] row = new int[t]; // the row being built
+		int[] lookaheads = new int[t]; // the cells of the row that are not ERROR
+		int[] cells = new int[16]; // non terminal and production of every cell, for findLoops
+		int[] cellTerminals = new int[8]; // the lookahead of every cell
+		int cellCount = 0;
+		SymbolSets predict = new SymbolSets(symbols, 1, true);
+		Arrays.fill(row, ERROR);
+
+		for (int nt = 0; nt < n; nt++) {
+			int count = 0;
+			for (int p = grammar.getFirstProduction(nt); p < grammar.getEndProduction(nt); p++) {
+				rhs[p] = getPushOrder(p);
+				predict.clear(0);
+				if (sets.addFirst(predict, 0, p)) {
+					predict.union(0, follow.getBits(), nt * follow.getWords());
+				}
+				for (int a = predict.nextBit(0, 0); a >= 0; a = predict.nextBit(0, a + 1)) {
+					if (row[a] == ERROR) {
+						row[a] = p;
+						lookaheads[count++] = a;
+					} else if (row[a] != p) {
+						conflicts.add(symbols.getNonTerminal(nt) + ", " + symbols.getTerminal(a) + ": "
+								+ symbols.getNonTerminal(nt) + " -> " + grammar.toString(row[a], 0) + " | "
+								+ symbols.getNonTerminal(nt) + " -> " + grammar.toString(p, 0));
+					}
+				}
+			}
+			addRow(nt, row, lookaheads, count);
+			cellTerminals = IntArrays.grow(cellTerminals, cellCount + count);
+			cells = IntArrays.grow(cells, 2 * (cellCount + count));
+			for (int i = 0; i < count; i++) {
+				cellTerminals[cellCount] = lookaheads[i];
+				cells[2 * cellCount] = nt;
+				cells[2 * cellCount + 1] = row[lookaheads[i]];
+				cellCount++;
+				row[lookaheads[i]] = ERROR;
+			}
+		}
+		if (!conflicts.isEmpty()) {
+			findLoops(cells, cellTerminals, cellCount);
+		}
+	}
+
+	/**
+	 * Store the row of a non terminal
+	 * @param nt the non terminal id
+	 * @param row the production of every terminal id, or ERROR
+	 * @param lookaheads the terminal ids whose cell is not ERROR
+	 * @param count the number of lookaheads
+	 */
+	abstract void addRow(int nt, int[] row, int[] lookaheads, int count);
+
+	/**
+	 * Get the production to expand
+	 * @param nt the non terminal id
+	 * @param t the terminal id of the lookahead
+	 * @return the production index, or ERROR
+	 */
+	public abstract int get(int nt, int t);
+
+	/**
+	 * Report the cells that expand forever without reading a token.
+	 * A conflicting cell keeps the first production, which can be one
+	 * that expands its non terminal again first, like A -> A b or
+	 * A -> & A b. For every lookahead, it follows the expansions of
+	 * every non terminal until one reads a terminal, fails or derives
+	 * the empty sentence, and reports the non terminals found again
+	 * while they are still being expanded. It reads the cells as build
+	 * found them, before the subclass stores them
+	 * @param cells the non terminal and production of every cell
+	 * @param cellTerminals the lookahead of every cell
+	 * @param count the number of cells
+	 */
+	private void findLoops(int[] cells, int[] cellTerminals, int count) {
+		int n = grammar.getNonTerminalCount();
+		int[] state = new int[n]; // 0 not visited, 1 being expanded, 2 derives &, 3 reads or fails
+		int[] frameNt = new int[n]; // the simulated call stack
+		int[] frameNext = new int[n]; // next symbol to expand, in the push array
+		int t = symbols.getTerminalCount();
+		// The cells of every lookahead, as in CompressedLL1Table.mergeColumns
+		int[] start = new int[t + 1];
+		for (int i = 0; i < count; i++) {
+			start[cellTerminals[i] + 1]++;
+		}
+		for (int a = 0; a < t; a++) {
+			start[a + 1] += start[a];
+		}
+		int[] byTerminal = new int[count];
+		int[] next = Arrays.copyOf(start, t);
+		for (int i = 0; i < count; i++) {
+			byTerminal[next[cellTerminals[i]]++] = i;
+		}
+		int[] column = new int[n]; // the production of every non terminal for the lookahead
+		Arrays.fill(column, ERROR);
+		for (int a = 0; a < t; a++) {
+			for (int i = start[a]; i < start[a + 1]; i++) {
+				column[cells[2 * byTerminal[i]]] = cells[2 * byTerminal[i] + 1];
+			}
+			Arrays.fill(state, 0);
+			for (int root = 0; root < n; root++) {
+				if (state[root] != 0) {
+					continue;
+				}
+				int depth = 0;
+				frameNt[0] = root;
+				frameNext[0] = 0;
+				state[root] = 1;
+				while (depth >= 0) {
+					int nt = frameNt[depth];
+					int p = column[nt];
+					int[] push = p == ERROR ? null : rhs[p];
+					int result = p == ERROR ? 3 : 0;
+					// the push array has the last symbol first
+					while (result == 0 && frameNext[depth] < push.length) {
+						int symbol = push[push.length - 1 - frameNext[depth]];
+						if (SymbolTable.isTerminal(symbol) || state[symbol] == 3) {
+							result = 3;
+						} else if (state[symbol] == 2) {
+							frameNext[depth]++;
+						} else if (state[symbol] == 1) {
+							conflicts.add(symbols.getNonTerminal(nt) + ", " + symbols.getTerminal(a) + ": "
+									+ symbols.getNonTerminal(nt) + " -> " + grammar.toString(p, 0)
+									+ " expands forever without reading a token");
+							result = 3;
+						} else {
+							break; // expand it first
+						}
+					}
+					if (result == 0 && frameNext[depth] < push.length) {
+						int symbol = push[push.length - 1 - frameNext[depth]];
+						depth++;
+						frameNt[depth] = symbol;
+						frameNext[depth] = 0;
+						state[symbol] = 1;
+						continue;
+					}
+					state[nt] = result == 0 ? 2 : 3;
+					depth--;
+				}
+			}
+			for (int i = start[a]; i < start[a + 1]; i++) {
+				column[cells[2 * byTerminal[i]]] = ERROR;
+			}
+		}
+	}
+
+	/**
+	 * Get the symbols a production pushes on the parse stack,
+	 * last symbol first and without &
+	 * @param p the production index
+	 * @return the symbol codes
+	 */
+	private int[] getPushOrder(int p) {
+		int size = 0;
+		for (int i = grammar.getStart(p); i < grammar.getEnd(p); i++) {
+			if (~grammar.getSymbol(i) != SymbolTable.EPSILON_ID) {
+				size++;
+			}
+		}
+		int[] push = new int[size];
+		size = 0;
+		for (int i = grammar.getEnd(p) - 1; i >= grammar.getStart(p); i--) {
+			int symbol = grammar.getSymbol(i);
+			if (~symbol != SymbolTable.EPSILON_ID) {
+				push[size++] = symbol;
+			}
+		}
+		return push;
+	}
+
+	/**
+	 * Verify if the grammar is LL(1)
+	 * @return true if no cell has more than one production
+	 */
+	public boolean isLL1() {
+		return conflicts.isEmpty();
+	}
+
+	/**
+	 * Get the conflicting cells, in the form "A, a: A -> alfa | A -> beta"
+	 * @return a description of every conflict, read only
+	 */
+	public List<String> getConflicts() {
+		return Collections.unmodifiableList(conflicts);
+	}
+
+	/**
+	 * Get the compiled grammar the production indexes refer to
+	 * @return the compiled grammar
+	 */
+	public CompiledGrammar getCompiledGrammar() {
+		return grammar;
+	}
+
+	/**
+	 * Get the symbol table the ids refer to
+	 * @return the ids of the grammar symbols
+	 */
+	public SymbolTable getSymbolTable() {
+		return symbols;
+	}
+
+	/**
+	 * Get the symbols a production pushes on the parse stack
+	 * @param p the production index
+	 * @return the symbol codes, last symbol of the production first, without &
+	 */
+	int[] getPush(int p) {
+		return rhs[p];
+	}
+
+	/**
+	 * Transform a sentence in the form "a b c" into terminal ids
+	 * @param sentence the sentence
+	 * @return the id of every token, -1 for the ones that are not terminals
+	 */
+	public int[] encode(String sentence) {
+		String[] br = sentence.trim().split("[\\s\\r]+");
+		if (br.length == 1 && br[0].isEmpty()) {
+			return new int[0];
+		}
+		int[] tokens = new int[br.length];
+		for (int i = 0; i < br.length; i++) {
+			tokens[i] = symbols.getTerminalId(br[i]);
+		}
+		return tokens;
+	}
+}
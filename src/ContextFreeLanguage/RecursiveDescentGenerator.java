@@ -0,0 +1,316 @@
+package ContextFreeLanguage;
+
+import java.io.IOException;
+
+/**
+ * Writes the Java source of a recursive descent recognizer for an LL(1) CFG.
+ * The generated class does not depend on this package: it has one method
+ * per non terminal that switches on the int lookahead, with the cases
+ * taken from the LL(1) table (first and follow sets), so there is no
+ * table to interpret at runtime. A production that ends with its own
+ * non terminal, like E1 -> + T E1, becomes a loop instead of a call.
+ * Tokens are the terminal ids of the SymbolTable, which the generated
+ * class lists in its TERMINALS array
+ */
+public class RecursiveDescentGenerator {
+	private LL1Table table; // the branch of every non terminal and lookahead
+	private CompiledGrammar grammar; // the grammar it operates on
+	private SymbolTable symbols; // ids of the grammar symbols
+
+	/**
+	 * Constructor
+	 * @param g the grammar
+	 * @throws IllegalArgumentException if the grammar is not LL(1)
+	 */
+	public RecursiveDescentGenerator(ContextFreeGrammar g) {
+		this(new CFGOperator(g, true));
+	}
+
+	/**
+	 * Constructor
+	 * @param op the operator of the grammar, its first and follow sets are used
+	 * @throws IllegalArgumentException if the grammar is not LL(1)
+	 */
+	public RecursiveDescentGenerator(CFGOperator op) {
+		table = new LL1Table(op);
+		if (!table.isLL1()) {
+			throw new IllegalArgumentException("The grammar is not LL(1): " + table.getConflicts().get(0));
+		}
+		grammar = table.getCompiledGrammar();
+		symbols = table.getSymbolTable();
+	}
+
+	/**
+	 * Write the source of the recognizer
+	 * @param packageName the package of the class, empty for the default package
+	 * @param className the simple name of the class
+	 * @param out where the source is written
+	 * @throws IOException if out fails
+	 */
+	public void generate(String packageName, String className, Appendable out) throws IOException {
+		generate(packageName, className, null, out);
+	}
+
+	/**
+	 * Write the source of the recognizer
+	 * @param packageName the package of the class, empty for the default package
+	 * @param className the simple name of the class
+	 * @param superType an interface the class implements, or null
+	 * @param out where the source is written
+	 * @throws IOException if out fails
+	 */
+	void generate(String packageName, String className, String superType, Appendable out) throws IOException {
+		if (!isQualifiedName(className) || className.indexOf('.') >= 0) {
+			throw new IllegalArgumentException("Invalid class name: " + className);
+		}
+		if (!packageName.isEmpty() && !isQualifiedName(packageName)) {
+			throw new IllegalArgumentException("Invalid package name: " + packageName);
+		}
+		int t = symbols.getTerminalCount();
+		if (!packageName.isEmpty()) {
+			out.append("package ").append(packageName).append(";\n\n");
+		}
+		out.append("/**\n");
+		out.append(" * Recursive descent recognizer, generated from the grammar\n");
+		for (String line : getDefinition().split("\n")) {
+			out.append(" * ").append(comment(line).replace("*/", "*&#47;")).append('\n');
+		}
+		out.append(" * Not thread safe, use one instance per thread\n");
+		out.append(" */\n");
+		out.append("public final class ").append(className);
+		if (superType != null) {
+			out.append(" implements ").append(superType);
+		}
+		out.append(" {\n");
+		out.append("\tpublic static final String[] TERMINALS = {");
+		for (int a = 0; a < t; a++) {
+			out.append(a > 0 ? ", " : "").append(literal(symbols.getTerminal(a)));
+		}
+		out.append("}; // the name of every token id\n");
+		out.append("\tprivate static final int END = ").append(String.valueOf(SymbolTable.END_ID)).append(";\n\n");
+		out.append("\tprivate int[] tokens; // the sentence\n");
+		out.append("\tprivate int pos; // position after the lookahead\n");
+		out.append("\tprivate int end; // end of the sentence\n");
+		out.append("\tprivate int lookahead; // current token id, END after the sentence, -1 if invalid\n\n");
+
+		out.append("\t/**\n");
+		out.append("\t * Verify if a sentence belongs to the language of the grammar\n");
+		out.append("\t * @param tokens the token ids\n");
+		out.append("\t * @return true if the sentence is accepted\n");
+		out.append("\t */\n");
+		if (superType != null) {
+			out.append("\t@Override\n");
+		}
+		out.append("\tpublic boolean parse(int[] tokens) {\n");
+		out.append("\t\treturn parse(tokens, 0, tokens.length);\n");
+		out.append("\t}\n\n");
+		out.append("\t/**\n");
+		out.append("\t * Verify if a sentence belongs to the language of the grammar\n");
+		out.append("\t * @param tokens the token ids\n");
+		out.append("\t * @param from the first token of the sentence\n");
+		out.append("\t * @param to the position after the last token of the sentence\n");
+		out.append("\t * @return true if the sentence is accepted\n");
+		out.append("\t */\n");
+		if (superType != null) {
+			out.append("\t@Override\n");
+		}
+		out.append("\tpublic boolean parse(int[] tokens, int from, int to) {\n");
+		out.append("\t\tthis.tokens = tokens;\n");
+		out.append("\t\tthis.pos = from;\n");
+		out.append("\t\tthis.end = to;\n");
+		out.append("\t\tnext();\n");
+		int start = grammar.getInitialSymbol();
+		if (start < 0) {
+			out.append("\t\treturn false; // the grammar has no initial symbol\n");
+		} else {
+			out.append("\t\tboolean accepted = ").append(method(start)).append("() && lookahead == END;\n");
+			out.append("\t\tthis.tokens = null;\n");
+			out.append("\t\treturn accepted;\n");
+		}
+		out.append("\t}\n\n");
+
+		out.append("\tprivate void next() {\n");
+		out.append("\t\tif (pos >= end) {\n");
+		out.append("\t\t\tlookahead = END;\n");
+		out.append("\t\t\treturn;\n");
+		out.append("\t\t}\n");
+		out.append("\t\tint token = tokens[pos++];\n");
+		out.append("\t\tlookahead = token > END && token < ").append(String.valueOf(t)).append(" ? token : -1;\n");
+		out.append("\t}\n");
+
+		for (int nt = 0; nt < grammar.getNonTerminalCount(); nt++) {
+			out.append('\n');
+			generateMethod(nt, out);
+		}
+		out.append("}\n");
+	}
+
+	/**
+	 * Write the method of a non terminal
+	 * @param nt the non terminal id
+	 * @param out where the source is written
+	 * @throws IOException if out fails
+	 */
+	private void generateMethod(int nt, Appendable out) throws IOException {
+		int t = symbols.getTerminalCount();
+		boolean loop = false; // a production ends with nt, & left out
+		for (int p = grammar.getFirstProduction(nt); p < grammar.getEndProduction(nt); p++) {
+			int[] push = table.getPush(p);
+			loop |= push.length > 0 && push[0] == nt;
+		}
+		String indent = loop ? "\t\t\t" : "\t\t";
+		out.append("\t// ").append(comment(symbols.getNonTerminal(nt))).append('\n');
+		out.append("\tprivate boolean ").append(method(nt)).append("() {\n");
+		if (loop) {
+			out.append("\t\twhile (true) {\n");
+		}
+		out.append(indent).append("switch (lookahead) {\n");
+		for (int p = grammar.getFirstProduction(nt); p < grammar.getEndProduction(nt); p++) {
+			boolean predicted = false;
+			for (int a = 0; a < t; a++) {
+				if (table.get(nt, a) == p) {
+					out.append(indent).append("case ").append(String.valueOf(a)).append(": // ")
+							.append(comment(symbols.getTerminal(a))).append('\n');
+					predicted = true;
+				}
+			}
+			if (predicted) {
+				generateProduction(nt, p, loop, indent + "\t", out);
+			}
+		}
+		out.append(indent).append("default:\n");
+		out.append(indent).append("\treturn false;\n");
+		out.append(indent).append("}\n");
+		if (loop) {
+			out.append("\t\t}\n");
+		}
+		out.append("\t}\n");
+	}
+
+	/**
+	 * Write the statements that recognize a production
+	 * @param nt the non terminal id
+	 * @param p the production index
+	 * @param loop true if the method is a loop
+	 * @param indent the indentation of the statements
+	 * @param out where the source is written
+	 * @throws IOException if out fails
+	 */
+	private void generateProduction(int nt, int p, boolean loop, String indent, Appendable out) throws IOException {
+		out.append(indent).append("// ").append(comment(symbols.getNonTerminal(nt) + " -> " + grammar.toString(p, 0))).append('\n');
+		int[] push = table.getPush(p); // last symbol first, without &
+		for (int i = push.length - 1; i >= 0; i--) {
+			int symbol = push[i];
+			boolean last = i == 0;
+			if (SymbolTable.isTerminal(symbol)) {
+				if (i < push.length - 1) {
+					// a leading terminal is the lookahead already, even after an &
+					out.append(indent).append("if (lookahead != ").append(String.valueOf(~symbol)).append(") {\n");
+					out.append(indent).append("\treturn false;\n");
+					out.append(indent).append("}\n");
+				}
+				out.append(indent).append("next();\n");
+				if (last) {
+					out.append(indent).append("return true;\n");
+				}
+			} else if (last && symbol == nt && loop) {
+				out.append(indent).append("continue;\n");
+			} else if (last) {
+				out.append(indent).append("return ").append(method(symbol)).append("();\n");
+			} else {
+				out.append(indent).append("if (!").append(method(symbol)).append("()) {\n");
+				out.append(indent).append("\treturn false;\n");
+				out.append(indent).append("}\n");
+			}
+		}
+		if (push.length == 0) {
+			out.append(indent).append("return true;\n");
+		}
+	}
+
+	/**
+	 * Get the symbol table the token ids refer to
+	 * @return the ids of the grammar symbols
+	 */
+	SymbolTable getSymbolTable() {
+		return symbols;
+	}
+
+	/**
+	 * Get the grammar in the form "A -> alfa | beta", one non terminal per line
+	 * @return the productions of every non terminal
+	 */
+	private String getDefinition() {
+		StringBuilder sb = new StringBuilder();
+		for (int nt = 0; nt < grammar.getNonTerminalCount(); nt++) {
+			if (grammar.getFirstProduction(nt) == grammar.getEndProduction(nt)) {
+				continue;
+			}
+			sb.append(symbols.getNonTerminal(nt)).append(" ->");
+			for (int p = grammar.getFirstProduction(nt); p < grammar.getEndProduction(nt); p++) {
+				sb.append(p > grammar.getFirstProduction(nt) ? " | " : " ").append(grammar.toString(p, 0));
+			}
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Get the name of the method of a non terminal
+	 * @param nt the non terminal id
+	 * @return the method name
+	 */
+	private static String method(int nt) {
+		return "parse" + nt;
+	}
+
+	/**
+	 * Make a text safe inside a line comment, a backslash could start a unicode escape
+	 * @param s the text
+	 * @return the text with every backslash doubled
+	 */
+	private static String comment(String s) {
+		return s.replace("\\", "\\\\");
+	}
+
+	/**
+	 * Get the Java string literal of a text
+	 * @param s the text
+	 * @return the literal, with quotes
+	 */
+	private static String literal(String s) {
+		StringBuilder sb = new StringBuilder("\"");
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c < ' ') {
+				sb.append(String.format("\\%03o", (int) c)); // a unicode escape could end the line
+			} else if (c > '~') {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	/**
+	 * Verify if a name is a valid package or class name
+	 * @param name the name
+	 * @return true if every part of it is a Java identifier
+	 */
+	private static boolean isQualifiedName(String name) {
+		for (String part : name.split("\\.", -1)) {
+			if (part.isEmpty() || !Character.isJavaIdentifierStart(part.charAt(0))) {
+				return false;
+			}
+			for (int i = 1; i < part.length(); i++) {
+				if (!Character.isJavaIdentifierPart(part.charAt(i))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+}
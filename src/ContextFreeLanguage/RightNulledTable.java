@@ -0,0 +1,210 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+
+/**
+ * Right nulled parse table of Scott and Johnstone, the table a GLRParser
+ * runs on. It has the transitions of the LR(0) automaton, and besides the
+ * reductions of the complete items it reduces every item A -> alfa . beta
+ * where beta derives &, with the m = |alfa| symbols already on the stack;
+ * the rest of the production is added to the forest as the derivations of &.
+ * An item with alfa = & reduces as the non terminal alone, with m = 0.
+ * The lookaheads come from an LALRTable, or are every terminal for LR(0)
+ */
+class RightNulledTable {
+	private LR0Automaton automaton; // the states and transitions
+	private LRItems items; // the items of the augmented grammar
+	private boolean[] nullable; // non terminals that derive &
+	private int words; // longs of a set of terminals
+	private int[] start; // first reduction of every state
+	private int[] leftSide; // non terminal of every reduction
+	private int[] production; // production of every reduction, -1 for the ones with m = 0
+	private int[] length; // symbols taken from the stack by every reduction
+	private long[] lookahead; // terminals every reduction is done on, words longs each
+
+	/**
+	 * Constructor
+	 * @param automaton the LR(0) automaton of the grammar
+	 * @param lalr the LALR(1) table of the automaton, null to reduce on every terminal
+	 */
+	RightNulledTable(LR0Automaton automaton, LALRTable lalr) {
+		this.automaton = automaton;
+		this.items = automaton.getItems();
+		this.nullable = items.computeNullable();
+		CompiledGrammar grammar = automaton.getCompiledGrammar();
+		SymbolSets lookaheads = lalr == null ? null : lalr.getReductionLookaheads();
+		SymbolSets scratch = new SymbolSets(grammar.getSymbolTable(), 1, true);
+		words = scratch.getWords();
+		int augmented = automaton.getAugmentedProduction();
+		int states = automaton.getStateCount();
+		start = new int[states + 1];
+		leftSide = new int[16];
+		production = new int[16];
+		length = new int[16];
+		lookahead = new long[16 * words];
+		long[] predicted = new long[items.getWords()];
+		int count = 0;
+		for (int s = 0; s < states; s++) {
+			start[s] = count;
+			Arrays.fill(predicted, 0);
+			for (int item : automaton.getKernel(s)) {
+				int p = items.getItemProduction(item);
+				int m = item - items.getItemBase(p);
+				int symbol = items.getItemSymbol(item);
+				if (symbol >= 0) {
+					items.addCorners(predicted, symbol);
+				}
+				if (p == augmented || !nullableFrom(p, m)) {
+					continue;
+				}
+				scratch.clear(0);
+				addLookaheads(scratch, lookaheads, s, p, m);
+				count = add(count, items.getLeftSide(p), p, m, scratch);
+			}
+			// A predicted non terminal that derives & reduces before anything is shifted
+			for (int w = 0; w < predicted.length; w++) {
+				for (long word = predicted[w]; word != 0; word &= word - 1) {
+					int nt = w * 64 + Long.numberOfTrailingZeros(word);
+					if (!nullable[nt]) {
+						continue;
+					}
+					scratch.clear(0);
+					for (int p = grammar.getFirstProduction(nt); p < grammar.getEndProduction(nt); p++) {
+						if (items.isProductive(p) && nullableFrom(p, 0)) {
+							addLookaheads(scratch, lookaheads, s, p, 0);
+						}
+					}
+					count = add(count, nt, -1, 0, scratch);
+				}
+			}
+		}
+		start[states] = count;
+	}
+
+	/**
+	 * Verify if the symbols of a production from a position on derive &
+	 * @param p the production
+	 * @param m the position
+	 * @return true if they are all nullable non terminals
+	 */
+	boolean nullableFrom(int p, int m) {
+		int[] rhs = items.getRightSide(p);
+		for (int i = m; i < rhs.length; i++) {
+			if (rhs[i] < 0 || !nullable[rhs[i]]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Add the lookaheads of an item that derives & after the dot: the ones of
+	 * its production in the state the rest of the production leads to
+	 * @param set the set to add to, row 0
+	 * @param lookaheads the lookaheads of the LALR(1) reductions, null for every terminal
+	 * @param state the state of the item
+	 * @param p the production
+	 * @param m the position of the dot
+	 */
+	private void addLookaheads(SymbolSets set, SymbolSets lookaheads, int state, int p, int m) {
+		if (lookaheads == null) {
+			for (int t = SymbolTable.END_ID; t < automaton.getSymbolTable().getTerminalCount(); t++) {
+				set.add(0, t);
+			}
+			return;
+		}
+		int[] rhs = items.getRightSide(p);
+		for (int i = m; i < rhs.length; i++) {
+			state = automaton.getTransition(state, rhs[i]);
+		}
+		for (int r = automaton.getReductionStart(state); r < automaton.getReductionEnd(state); r++) {
+			if (automaton.getReduction(r) == p) {
+				set.union(0, lookaheads.getBits(), r * words);
+				return;
+			}
+		}
+	}
+
+	private int add(int count, int nt, int p, int m, SymbolSets set) {
+		leftSide = IntArrays.grow(leftSide, count + 1);
+		production = IntArrays.grow(production, count + 1);
+		length = IntArrays.grow(length, count + 1);
+		lookahead = IntArrays.grow(lookahead, (count + 1) * words);
+		leftSide[count] = nt;
+		production[count] = p;
+		length[count] = m;
+		System.arraycopy(set.getBits(), 0, lookahead, count * words, words);
+		return count + 1;
+	}
+
+	/**
+	 * Get the first reduction of a state
+	 * @param state the state
+	 * @return the reduction index
+	 */
+	int getReductionStart(int state) {
+		return start[state];
+	}
+
+	/**
+	 * Get the end of the reductions of a state
+	 * @param state the state
+	 * @return the index after its last reduction
+	 */
+	int getReductionEnd(int state) {
+		return start[state + 1];
+	}
+
+	/**
+	 * Verify if a reduction is done on a terminal
+	 * @param r the reduction
+	 * @param t the terminal id
+	 * @return true if t is one of its lookaheads
+	 */
+	boolean reducesOn(int r, int t) {
+		return (lookahead[r * words + (t >>> 6)] & (1L << t)) != 0;
+	}
+
+	/**
+	 * Get the non terminal a reduction goes to
+	 * @param r the reduction
+	 * @return the non terminal id
+	 */
+	int getLeftSide(int r) {
+		return leftSide[r];
+	}
+
+	/**
+	 * Get the production of a reduction
+	 * @param r the reduction
+	 * @return the production index, -1 if it takes no symbol from the stack
+	 */
+	int getProduction(int r) {
+		return production[r];
+	}
+
+	/**
+	 * Get the symbols a reduction takes from the stack
+	 * @param r the reduction
+	 * @return m, the position of the dot of its item
+	 */
+	int getLength(int r) {
+		return length[r];
+	}
+
+	/**
+	 * Get the nullable non terminals
+	 * @return whether every non terminal derives &
+	 */
+	boolean[] getNullable() {
+		return nullable;
+	}
+
+	/**
+	 * Get the LR(0) automaton
+	 * @return the automaton
+	 */
+	LR0Automaton getAutomaton() {
+		return automaton;
+	}
+}
@@ -0,0 +1,71 @@
+package ContextFreeLanguage;
+
+/**
+ * SLR(1) parse table of a CFG: the states are the LR(0) automaton,
+ * and a state reduces production A -> alfa on every terminal of Follow(A).
+ * The follow sets are the ones of CFGOperator, except for grammars
+ * where & appears next to other symbols or a production uses a non
+ * terminal without productions: there the operator follow sets are
+ * smaller than the real ones, so they are computed again from the items
+ */
+public class SLRTable extends LRTable {
+	private LR0Automaton automaton; // the states of the table
+
+	/**
+	 * Constructor
+	 * Builds the table of a grammar
+	 * @param g the grammar
+	 */
+	public SLRTable(ContextFreeGrammar g) {
+		this(new CFGOperator(g, true));
+	}
+
+	/**
+	 * Constructor
+	 * Builds the table from the follow sets of an operator
+	 * @param op the operator of the grammar
+	 */
+	public SLRTable(CFGOperator op) {
+		this(new LR0Automaton(op.getCompiledGrammar()), op);
+	}
+
+	private SLRTable(LR0Automaton automaton, CFGOperator op) {
+		this(automaton, op.getCompiledGrammar().hasPlainSets()
+				? op.getFollowSets() : automaton.getItems().computeFollow());
+	}
+
+	/**
+	 * Constructor
+	 * @param automaton the LR(0) automaton of the grammar
+	 * @param follow the follow sets of the grammar
+	 */
+	SLRTable(LR0Automaton automaton, SymbolSets follow) {
+		super(automaton.getItems(), automaton.getStateCount());
+		this.automaton = automaton;
+		addTransitions(automaton);
+		int augmented = automaton.getAugmentedProduction();
+		for (int s = 0; s < automaton.getStateCount(); s++) {
+			for (int r = automaton.getReductionStart(s); r < automaton.getReductionEnd(s); r++) {
+				int p = automaton.getReduction(r);
+				if (p == augmented) {
+					addReduce(s, SymbolTable.END_ID, p);
+					continue;
+				}
+				int nt = automaton.getCompiledGrammar().getLeftSide(p);
+				for (int a = follow.nextBit(nt, 0); a >= 0; a = follow.nextBit(nt, a + 1)) {
+					if (a != SymbolTable.EPSILON_ID) {
+						addReduce(s, a, p);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the LR(0) automaton of the table
+	 * @return the automaton
+	 */
+	public LR0Automaton getAutomaton() {
+		return automaton;
+	}
+}
@@ -0,0 +1,356 @@
+package ContextFreeLanguage;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Shared packed parse forest of a sentence, as built by a GLRParser.
+ * A symbol node is a terminal or non terminal and the tokens it spans;
+ * every way a non terminal node derives its tokens is a packed node,
+ * which has the production and one child node per symbol of its right
+ * side. Subtrees common to several derivations are a single node, so the
+ * forest of a sentence with exponentially many trees has polynomial size.
+ * The nodes are ints in arrays that grow as the forest is built, and the
+ * forest is walked through them: nodes are 0 to getNodeCount() - 1, and
+ * the packed nodes of a node are a list ending in -1.
+ * The derivations of & do not depend on the position, so they are nodes
+ * built once per parser, shared by every forest and with no extent
+ */
+public class SharedPackedForest {
+	private CompiledGrammar grammar; // the grammar the productions belong to
+	private int[] symbol; // symbol code of every node
+	private int[] left; // first token of every node, -1 for the derivations of &
+	private int[] right; // position after the last token of every node
+	private int[] firstPacked; // first packed node of every node, -1 for terminals
+	private int nodeCount; // nodes in the arrays
+	private int[] owner; // node of every packed node
+	private int[] nextPacked; // next packed node of the same node, -1 for the last
+	private int[] production; // production of every packed node
+	private int[] childStart; // first child of every packed node
+	private int[] children; // the child nodes of the packed nodes, back to back
+	private int packedCount; // packed nodes in the arrays
+	private int childCount; // child nodes in the arrays
+	private int[] packedSlots; // the packed nodes plus one by the hash of their node, production and children, 0 if empty
+	private int root = -1; // the node of the initial symbol over the whole sentence
+
+	/**
+	 * Constructor
+	 * @param grammar the grammar of the forest
+	 */
+	SharedPackedForest(CompiledGrammar grammar) {
+		this.grammar = grammar;
+		symbol = new int[64];
+		left = new int[64];
+		right = new int[64];
+		firstPacked = new int[64];
+		owner = new int[64];
+		nextPacked = new int[64];
+		production = new int[64];
+		childStart = new int[65];
+		children = new int[128];
+		packedSlots = new int[128];
+	}
+
+	/**
+	 * Constructor
+	 * Starts a forest with the nodes of another one, the derivations of &
+	 * @param shared the forest to copy
+	 */
+	SharedPackedForest(SharedPackedForest shared) {
+		this.grammar = shared.grammar;
+		symbol = Arrays.copyOf(shared.symbol, Math.max(64, shared.nodeCount * 2));
+		left = Arrays.copyOf(shared.left, symbol.length);
+		right = Arrays.copyOf(shared.right, symbol.length);
+		firstPacked = Arrays.copyOf(shared.firstPacked, symbol.length);
+		owner = Arrays.copyOf(shared.owner, Math.max(64, shared.packedCount * 2));
+		nextPacked = Arrays.copyOf(shared.nextPacked, owner.length);
+		production = Arrays.copyOf(shared.production, nextPacked.length);
+		childStart = Arrays.copyOf(shared.childStart, nextPacked.length + 1);
+		children = Arrays.copyOf(shared.children, Math.max(128, shared.childCount * 2));
+		packedSlots = shared.packedSlots.clone();
+		nodeCount = shared.nodeCount;
+		packedCount = shared.packedCount;
+		childCount = shared.childCount;
+	}
+
+	/**
+	 * Add a symbol node with no packed node
+	 * @param code the symbol code
+	 * @param from the first token, -1 for a derivation of &
+	 * @param to the position after the last token
+	 * @return the node
+	 */
+	int addNode(int code, int from, int to) {
+		symbol = IntArrays.grow(symbol, nodeCount + 1);
+		left = IntArrays.grow(left, nodeCount + 1);
+		right = IntArrays.grow(right, nodeCount + 1);
+		firstPacked = IntArrays.grow(firstPacked, nodeCount + 1);
+		symbol[nodeCount] = code;
+		left[nodeCount] = from;
+		right[nodeCount] = to;
+		firstPacked[nodeCount] = -1;
+		return nodeCount++;
+	}
+
+	/**
+	 * Add a derivation to a non terminal node, if it does not have it yet
+	 * @param node the node
+	 * @param p the production
+	 * @param kids the child nodes, in the order of the right side
+	 * @param count the number of children
+	 */
+	void addPacked(int node, int p, int[] kids, int count) {
+		if (2 * (packedCount + 1) > packedSlots.length) {
+			packedSlots = new int[packedSlots.length * 2];
+			for (int k = 0; k < packedCount; k++) {
+				packedSlots[findSlot(owner[k], production[k], children, childStart[k], childStart[k + 1] - childStart[k])] = k + 1;
+			}
+		}
+		int slot = findSlot(node, p, kids, 0, count);
+		if (packedSlots[slot] != 0) {
+			return;
+		}
+		packedSlots[slot] = packedCount + 1;
+		owner = IntArrays.grow(owner, packedCount + 1);
+		nextPacked = IntArrays.grow(nextPacked, packedCount + 1);
+		production = IntArrays.grow(production, packedCount + 1);
+		childStart = IntArrays.grow(childStart, packedCount + 2);
+		children = IntArrays.grow(children, childCount + count);
+		System.arraycopy(kids, 0, children, childCount, count);
+		childStart[packedCount] = childCount;
+		childCount += count;
+		childStart[packedCount + 1] = childCount;
+		production[packedCount] = p;
+		owner[packedCount] = node;
+		nextPacked[packedCount] = firstPacked[node];
+		firstPacked[node] = packedCount++;
+	}
+
+	/**
+	 * Find the slot of a packed node in the hash table of the packed nodes
+	 * @param node the node it belongs to
+	 * @param p the production
+	 * @param kids the array of the children
+	 * @param from the first child
+	 * @param count the number of children
+	 * @return the slot of the equal packed node, or the empty slot it goes in
+	 */
+	private int findSlot(int node, int p, int[] kids, int from, int count) {
+		long h = node * 0x9E3779B97F4A7C15L + p;
+		for (int c = from; c < from + count; c++) {
+			h = (h + kids[c]) * 0x9E3779B97F4A7C15L;
+		}
+		int mask = packedSlots.length - 1;
+		for (int slot = (int) (h >>> 32) & mask;; slot = (slot + 1) & mask) {
+			int k = packedSlots[slot] - 1;
+			if (k < 0) {
+				return slot;
+			}
+			if (owner[k] == node && production[k] == p && childStart[k + 1] - childStart[k] == count) {
+				int c = 0;
+				while (c < count && children[childStart[k] + c] == kids[from + c]) {
+					c++;
+				}
+				if (c == count) {
+					return slot;
+				}
+			}
+		}
+	}
+
+	void setRoot(int root) {
+		this.root = root;
+	}
+
+	/**
+	 * Get the root of the forest
+	 * @return the node of the initial symbol over the whole sentence
+	 */
+	public int getRoot() {
+		return root;
+	}
+
+	/**
+	 * Get the number of symbol nodes, the derivations of & included
+	 * @return the nodes, numbered from 0
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Get the number of packed nodes, the derivations of & included
+	 * @return the packed nodes, numbered from 0
+	 */
+	public int getPackedCount() {
+		return packedCount;
+	}
+
+	/**
+	 * Get the symbol of a node
+	 * @param node the node
+	 * @return the symbol code, see SymbolTable
+	 */
+	public int getSymbol(int node) {
+		return symbol[node];
+	}
+
+	/**
+	 * Get the name of the symbol of a node
+	 * @param node the node
+	 * @return the terminal or non terminal
+	 */
+	public String getSymbolName(int node) {
+		return grammar.getSymbolTable().decode(symbol[node]);
+	}
+
+	/**
+	 * Verify if a node is a token of the sentence
+	 * @param node the node
+	 * @return true if its symbol is a terminal
+	 */
+	public boolean isTerminal(int node) {
+		return SymbolTable.isTerminal(symbol[node]);
+	}
+
+	/**
+	 * Get the first token a node spans
+	 * @param node the node
+	 * @return the token position, -1 if the node derives &
+	 */
+	public int getStart(int node) {
+		return left[node];
+	}
+
+	/**
+	 * Get the end of the tokens a node spans
+	 * @param node the node
+	 * @return the position after its last token, -1 if the node derives &
+	 */
+	public int getEnd(int node) {
+		return right[node];
+	}
+
+	/**
+	 * Verify if a node derives its tokens in more than one way
+	 * @param node the node
+	 * @return true if it has several packed nodes
+	 */
+	public boolean isAmbiguous(int node) {
+		return firstPacked[node] >= 0 && nextPacked[firstPacked[node]] >= 0;
+	}
+
+	/**
+	 * Get the first derivation of a node
+	 * @param node the node
+	 * @return the packed node, -1 for a terminal
+	 */
+	public int getFirstPacked(int node) {
+		return firstPacked[node];
+	}
+
+	/**
+	 * Get the next derivation of the node of a packed node
+	 * @param packed the packed node
+	 * @return the next packed node, -1 if it is the last one
+	 */
+	public int getNextPacked(int packed) {
+		return nextPacked[packed];
+	}
+
+	/**
+	 * Get the production of a packed node
+	 * @param packed the packed node
+	 * @return the production index in the compiled grammar
+	 */
+	public int getProduction(int packed) {
+		return production[packed];
+	}
+
+	/**
+	 * Get the number of children of a packed node
+	 * @param packed the packed node
+	 * @return the symbols of the right side of its production, & excluded
+	 */
+	public int getChildCount(int packed) {
+		return childStart[packed + 1] - childStart[packed];
+	}
+
+	/**
+	 * Get a child of a packed node
+	 * @param packed the packed node
+	 * @param k the position of the child in the right side
+	 * @return the child node
+	 */
+	public int getChild(int packed, int k) {
+		return children[childStart[packed] + k];
+	}
+
+	/**
+	 * Count the parse trees of the forest without building them: the trees
+	 * of a node are the sum over its packed nodes of the product of the
+	 * trees of their children
+	 * @return the number of trees, 0 if there is no root, null if a cycle makes them infinite
+	 */
+	public BigInteger countTrees() {
+		if (root < 0) {
+			return BigInteger.ZERO;
+		}
+		BigInteger[] count = new BigInteger[nodeCount];
+		boolean[] open = new boolean[nodeCount];
+		int[] stack = new int[64];
+		int top = 0;
+		stack[top++] = root;
+		// A node is pushed as itself to open it and as ~node to count it once its children are counted
+		while (top > 0) {
+			int node = stack[--top];
+			if (node >= 0) {
+				if (count[node] != null) {
+					continue;
+				}
+				if (open[node]) {
+					return null;
+				}
+				open[node] = true;
+				stack = IntArrays.grow(stack, top + 1);
+				stack[top++] = ~node;
+				for (int k = firstPacked[node]; k >= 0; k = nextPacked[k]) {
+					for (int c = childStart[k]; c < childStart[k + 1]; c++) {
+						int child = children[c];
+						if (open[child] && count[child] == null) {
+							return null;
+						}
+						if (count[child] == null) {
+							stack = IntArrays.grow(stack, top + 1);
+							stack[top++] = child;
+						}
+					}
+				}
+			} else {
+				node = ~node;
+				if (count[node] != null) {
+					continue;
+				}
+				BigInteger sum = isTerminal(node) ? BigInteger.ONE : BigInteger.ZERO;
+				for (int k = firstPacked[node]; k >= 0; k = nextPacked[k]) {
+					BigInteger product = BigInteger.ONE;
+					for (int c = childStart[k]; c < childStart[k + 1]; c++) {
+						product = product.multiply(count[children[c]]);
+					}
+					sum = sum.add(product);
+				}
+				count[node] = sum;
+			}
+		}
+		return count[root];
+	}
+
+	/**
+	 * Describe a node
+	 * @param node the node
+	 * @return the node in the form "A 0..3", or "A &" if it derives &
+	 */
+	public String toString(int node) {
+		return getSymbolName(node) + (left[node] < 0 ? " &" : " " + left[node] + ".." + right[node]);
+	}
+}
@@ -0,0 +1,119 @@
+package ContextFreeLanguage;
+
+/**
+ * Strongly connected components of a directed graph
+ * whose nodes are numbered from 0 to n-1.
+ * Uses an iterative version of Tarjan's algorithm, so deep
+ * graphs from big grammars do not overflow the call stack.
+ * Components are numbered in reverse topological order:
+ * if there is an edge u -> v between different components,
+ * then component(u) > component(v)
+ */
+class StronglyConnectedComponents {
+	private int[] component; // the component of every node
+	private int count; // number of components
+
+	/**
+	 * Constructor
+	 * @param adj the successors of every node
+	 */
+	StronglyConnectedComponents(int[][] adj) {
+		int n = adj.length;
+		component = new int[n];
+		int[] index = new int[n]; // discovery index + 1, 0 if not visited
+		int[] low = new int[n];
+		int[] stack = new int[n]; // Tarjan's stack
+		int[] callNode = new int[n]; // the simulated call stack
+		int[] callEdge = new int[n];
+		boolean[] onStack = new boolean[n];
+		int sp = 0, next = 1;
+
+		for (int root = 0; root < n; root++) {
+			if (index[root] != 0) {
+				continue;
+			}
+			int depth = 0;
+			callNode[0] = root;
+			callEdge[0] = 0;
+			index[root] = low[root] = next++;
+			stack[sp++] = root;
+			onStack[root] = true;
+			while (depth >= 0) {
+				int u = callNode[depth];
+				if (callEdge[depth] < adj[u].length) {
+					int v = adj[u][callEdge[depth]++];
+					if (index[v] == 0) { // visit v
+						index[v] = low[v] = next++;
+						stack[sp++] = v;
+						onStack[v] = true;
+						depth++;
+						callNode[depth] = v;
+						callEdge[depth] = 0;
+					} else if (onStack[v] && index[v] < low[u]) {
+						low[u] = index[v];
+					}
+					continue;
+				}
+				if (low[u] == index[u]) { // u is the root of a component
+					int w;
+					do {
+						w = stack[--sp];
+						onStack[w] = false;
+						component[w] = count;
+					} while (w != u);
+					count++;
+				}
+				depth--;
+				if (depth >= 0 && low[u] < low[callNode[depth]]) {
+					low[callNode[depth]] = low[u];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the component of a node
+	 * @param node the node
+	 * @return the component number
+	 */
+	int getComponent(int node) {
+		return component[node];
+	}
+
+	/**
+	 * Get the component of every node
+	 * @return the components indexed by node
+	 */
+	int[] getComponents() {
+		return component;
+	}
+
+	/**
+	 * Get the number of components
+	 * @return the number of components
+	 */
+	int getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the nodes of every component
+	 * @return the members indexed by component
+	 */
+	int[][] getMembers() {
+		int[] size = new int[count];
+		for (int c : component) {
+			size[c]++;
+		}
+		int[][] members = new int[count][];
+		for (int c = 0; c < count; c++) {
+			members[c] = new int[size[c]];
+			size[c] = 0;
+		}
+		for (int node = 0; node < component.length; node++) {
+			int c = component[node];
+			members[c][size[c]++] = node;
+		}
+		return members;
+	}
+}
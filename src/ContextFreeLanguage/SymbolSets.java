@@ -0,0 +1,329 @@
+package ContextFreeLanguage;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A family of sets of symbols, one set per non terminal,
+ * stored as dense bitsets keyed by symbol id.
+ * All the rows share a single long[], so the union of
+ * two sets is a word-wise OR
+ */
+class SymbolSets {
+	private SymbolTable symbols; // decodes the ids
+	private boolean ofTerminals; // whether bits are terminal or non terminal ids
+	private int size; // number of bits in every set
+	private int words; // number of longs in every set
+	private int capacity; // number of sets that fit in bits
+	private long[] bits; // the sets, one after another
+
+	/**
+	 * Constructor
+	 * @param symbols the symbol table of the grammar
+	 * @param rows the number of sets
+	 * @param ofTerminals true for sets of terminals, false for sets of non terminals
+	 */
+	SymbolSets(SymbolTable symbols, int rows, boolean ofTerminals) {
+		this.symbols = symbols;
+		this.ofTerminals = ofTerminals;
+		this.size = ofTerminals ? symbols.getTerminalCount() : symbols.getNonTerminalCount();
+		this.words = (size + 63) >>> 6;
+		this.capacity = rows;
+		this.bits = new long[Math.max(1, rows * words)];
+	}
+
+	/**
+	 * Make room for more sets and for the symbols added to
+	 * the symbol table since the sets were created.
+	 * The new sets are empty
+	 * @param rows the number of sets needed
+	 */
+	void ensureCapacity(int rows) {
+		size = ofTerminals ? symbols.getTerminalCount() : symbols.getNonTerminalCount();
+		int newWords = (size + 63) >>> 6;
+		if (newWords == words && rows <= capacity) {
+			return;
+		}
+		int newCapacity = Math.max(rows, capacity * 2);
+		long[] newBits = new long[Math.max(1, newCapacity * newWords)];
+		for (int r = 0; r < capacity; r++) {
+			System.arraycopy(bits, r * words, newBits, r * newWords, words);
+		}
+		bits = newBits;
+		words = newWords;
+		capacity = newCapacity;
+	}
+
+	/**
+	 * Get the number of longs used by every set
+	 * @return the words per set
+	 */
+	int getWords() {
+		return words;
+	}
+
+	/**
+	 * Get the number of bits of every set
+	 * @return the size of the universe
+	 */
+	int getSize() {
+		return size;
+	}
+
+	/**
+	 * Get the backing array, with set r starting at r * getWords()
+	 * @return the bits of all the sets
+	 */
+	long[] getBits() {
+		return bits;
+	}
+
+	/**
+	 * Add a symbol to a set
+	 * @param row the set
+	 * @param bit the symbol id
+	 * @return true if the set was changed
+	 */
+	boolean add(int row, int bit) {
+		int w = row * words + (bit >>> 6);
+		long old = bits[w];
+		bits[w] = old | (1L << bit);
+		return bits[w] != old;
+	}
+
+	/**
+	 * Remove a symbol from a set
+	 * @param row the set
+	 * @param bit the symbol id
+	 */
+	void remove(int row, int bit) {
+		bits[row * words + (bit >>> 6)] &= ~(1L << bit);
+	}
+
+	/**
+	 * Remove every symbol of a set
+	 * @param row the set
+	 */
+	void clear(int row) {
+		Arrays.fill(bits, row * words, (row + 1) * words, 0L);
+	}
+
+	/**
+	 * Verify if a set contains a symbol
+	 * @param row the set
+	 * @param bit the symbol id
+	 * @return true if the symbol belongs to the set
+	 */
+	boolean contains(int row, int bit) {
+		return bit >= 0 && bit < size && (bits[row * words + (bit >>> 6)] & (1L << bit)) != 0;
+	}
+
+	/**
+	 * Add every symbol of a set to another set
+	 * @param to the set to add to
+	 * @param from the set to add from
+	 * @return true if the set was changed
+	 */
+	boolean union(int to, int from) {
+		return union(to, bits, from * words);
+	}
+
+	/**
+	 * Add every symbol of a bitset to a set
+	 * @param to the set to add to
+	 * @param src the array with the bitset
+	 * @param offset where the bitset starts in src
+	 * @return true if the set was changed
+	 */
+	boolean union(int to, long[] src, int offset) {
+		long changed = 0;
+		int t = to * words;
+		for (int i = 0; i < words; i++) {
+			long old = bits[t + i];
+			long now = old | src[offset + i];
+			changed |= now ^ old;
+			bits[t + i] = now;
+		}
+		return changed != 0;
+	}
+
+	/**
+	 * Add every symbol of a set but one to another set
+	 * @param to the set to add to
+	 * @param from the set to add from
+	 * @param except the symbol id that is not added
+	 * @return true if the set was changed
+	 */
+	boolean unionExcept(int to, int from, int except) {
+		return unionExcept(to, bits, from * words, except);
+	}
+
+	/**
+	 * Add every symbol of a bitset but one to a set
+	 * @param to the set to add to
+	 * @param src the array with the bitset
+	 * @param offset where the bitset starts in src
+	 * @param except the symbol id that is not added
+	 * @return true if the set was changed
+	 */
+	boolean unionExcept(int to, long[] src, int offset, int except) {
+		long changed = 0;
+		int t = to * words;
+		int skipWord = except >>> 6;
+		for (int i = 0; i < words; i++) {
+			long old = bits[t + i];
+			long add = src[offset + i];
+			if (i == skipWord) {
+				add &= ~(1L << except);
+			}
+			long now = old | add;
+			changed |= now ^ old;
+			bits[t + i] = now;
+		}
+		return changed != 0;
+	}
+
+	/**
+	 * Verify if a set is equal to a set of another bitset with the same layout
+	 * @param row the set
+	 * @param src the bits of the other bitset
+	 * @param offset the position of the other set in src
+	 * @return true if both sets have the same symbols
+	 */
+	boolean equals(int row, long[] src, int offset) {
+		int t = row * words;
+		for (int i = 0; i < words; i++) {
+			if (bits[t + i] != src[offset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Verify if two sets have a symbol in common
+	 * @param r1 the first set
+	 * @param r2 the second set
+	 * @return true if the intersection is not empty
+	 */
+	boolean intersects(int r1, int r2) {
+		int a = r1 * words;
+		int b = r2 * words;
+		for (int i = 0; i < words; i++) {
+			if ((bits[a + i] & bits[b + i]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the number of symbols of a set
+	 * @param row the set
+	 * @return the number of symbols
+	 */
+	int count(int row) {
+		int c = 0;
+		for (int i = row * words, end = i + words; i < end; i++) {
+			c += Long.bitCount(bits[i]);
+		}
+		return c;
+	}
+
+	/**
+	 * Get the next symbol of a set
+	 * @param row the set
+	 * @param from the first symbol id to look at
+	 * @return the next symbol id, -1 if there is none
+	 */
+	int nextBit(int row, int from) {
+		if (from >= size) {
+			return -1;
+		}
+		int base = row * words;
+		int w = from >>> 6;
+		long word = bits[base + w] & (-1L << from);
+		while (true) {
+			if (word != 0) {
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			}
+			if (++w >= words) {
+				return -1;
+			}
+			word = bits[base + w];
+		}
+	}
+
+	/**
+	 * Get the symbol of a bit
+	 * @param bit the symbol id
+	 * @return the symbol
+	 */
+	String getSymbol(int bit) {
+		return ofTerminals ? symbols.getTerminal(bit) : symbols.getNonTerminal(bit);
+	}
+
+	/**
+	 * Get the id of a symbol
+	 * @param symbol the symbol
+	 * @return the symbol id, -1 if it is not in the universe
+	 */
+	int getBit(String symbol) {
+		return ofTerminals ? symbols.getTerminalId(symbol) : symbols.getNonTerminalId(symbol);
+	}
+
+	/**
+	 * Get a read only view of a set that decodes the ids into symbols
+	 * @param row the set
+	 * @return the set of symbols
+	 */
+	Set<String> view(int row) {
+		return new View(row);
+	}
+
+	/**
+	 * Read only Set<String> view over a row
+	 */
+	private class View extends AbstractSet<String> {
+		private int row; // the set it decodes
+
+		View(int row) {
+			this.row = row;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return o instanceof String && SymbolSets.this.contains(row, getBit((String) o));
+		}
+
+		@Override
+		public int size() {
+			return count(row);
+		}
+
+		@Override
+		public Iterator<String> iterator() {
+			return new Iterator<String>() {
+				private int next = nextBit(row, 0);
+
+				@Override
+				public boolean hasNext() {
+					return next >= 0;
+				}
+
+				@Override
+				public String next() {
+					if (next < 0) {
+						throw new NoSuchElementException();
+					}
+					String s = getSymbol(next);
+					next = nextBit(row, next + 1);
+					return s;
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,195 @@
+package ContextFreeLanguage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Dense int ids for the symbols of a CFG.
+ * Non terminals are numbered from 0, starting at the initial symbol.
+ * Terminals have their own numbering, where 0 is always
+ * the empty symbol & and 1 is the end of sentence $.
+ * When a symbol of a production has to be stored as a single int,
+ * a non terminal is stored as its id and a terminal as ~id (a negative number)
+ */
+public class SymbolTable {
+	public static final String EPSILON = "&"; // the empty sentence
+	public static final String END = "$"; // the end of the input
+	public static final int EPSILON_ID = 0; // terminal id of &
+	public static final int END_ID = 1; // terminal id of $
+
+	private ArrayList<String> nonTerminals; // non terminal by id
+	private ArrayList<String> terminals; // terminal by id
+	private HashMap<String, Integer> nonTerminalIds; // id by non terminal
+	private HashMap<String, Integer> terminalIds; // id by terminal
+
+	/**
+	 * Constructor
+	 * Numbers every symbol of vn and vt of the grammar
+	 * @param g the grammar
+	 */
+	public SymbolTable(ContextFreeGrammar g) {
+		nonTerminals = new ArrayList<>();
+		terminals = new ArrayList<>();
+		nonTerminalIds = new HashMap<>();
+		terminalIds = new HashMap<>();
+		addTerminal(EPSILON);
+		addTerminal(END);
+		if (g.getInitialSymbol() != null && g.getVn().contains(g.getInitialSymbol())) {
+			addNonTerminal(g.getInitialSymbol());
+		}
+		for (String nt : g.getVn()) {
+			addNonTerminal(nt);
+		}
+		for (String t : g.getVt()) {
+			addTerminal(t);
+		}
+	}
+
+	/**
+	 * Add a non terminal if it was not numbered yet
+	 * @param nt the non terminal
+	 * @return the id of the non terminal
+	 */
+	int addNonTerminal(String nt) {
+		Integer id = nonTerminalIds.get(nt);
+		if (id == null) {
+			id = nonTerminals.size();
+			nonTerminals.add(nt);
+			nonTerminalIds.put(nt, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Add a terminal if it was not numbered yet
+	 * @param t the terminal
+	 * @return the id of the terminal
+	 */
+	int addTerminal(String t) {
+		Integer id = terminalIds.get(t);
+		if (id == null) {
+			id = terminals.size();
+			terminals.add(t);
+			terminalIds.put(t, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Get the int code of a symbol of a production.
+	 * Symbols that were not numbered yet are numbered as new symbols:
+	 * a non terminal if it starts with an upper case letter,
+	 * as in isValidCFG, or a terminal otherwise
+	 * @param symbol the symbol
+	 * @return the id of a non terminal or ~id of a terminal
+	 */
+	int encode(String symbol) {
+		Integer id = nonTerminalIds.get(symbol);
+		if (id != null) {
+			return id;
+		}
+		id = terminalIds.get(symbol);
+		if (id != null) {
+			return ~id;
+		}
+		if (Character.isUpperCase(symbol.charAt(0))) {
+			return addNonTerminal(symbol);
+		}
+		return ~addTerminal(symbol);
+	}
+
+	/**
+	 * Transform a production in the form "a A B c"
+	 * into the int codes of its symbols
+	 * @param production the production
+	 * @return the code of every symbol of the production
+	 */
+	int[] encodeProduction(String production) {
+		String[] br = production.split("[\\s\\r]+");
+		int[] codes = new int[br.length];
+		int size = 0;
+		for (String str : br) {
+			if (!str.isEmpty()) {
+				codes[size++] = encode(str);
+			}
+		}
+		if (size == codes.length) {
+			return codes;
+		}
+		int[] trimmed = new int[size];
+		System.arraycopy(codes, 0, trimmed, 0, size);
+		return trimmed;
+	}
+
+	/**
+	 * Get the symbol of an int code
+	 * @param code the id of a non terminal or ~id of a terminal
+	 * @return the symbol
+	 */
+	public String decode(int code) {
+		return code < 0 ? terminals.get(~code) : nonTerminals.get(code);
+	}
+
+	/**
+	 * Verify if an int code is a terminal
+	 * @param code the code of a symbol
+	 * @return true if it is a terminal
+	 */
+	public static boolean isTerminal(int code) {
+		return code < 0;
+	}
+
+	/**
+	 * Get the number of non terminals
+	 * @return the number of non terminals
+	 */
+	public int getNonTerminalCount() {
+		return nonTerminals.size();
+	}
+
+	/**
+	 * Get the number of terminals, including & and $
+	 * @return the number of terminals
+	 */
+	public int getTerminalCount() {
+		return terminals.size();
+	}
+
+	/**
+	 * Get the id of a non terminal
+	 * @param nt the non terminal
+	 * @return the id, -1 if it is not a non terminal
+	 */
+	public int getNonTerminalId(String nt) {
+		Integer id = nonTerminalIds.get(nt);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Get the id of a terminal
+	 * @param t the terminal
+	 * @return the id, -1 if it is not a terminal
+	 */
+	public int getTerminalId(String t) {
+		Integer id = terminalIds.get(t);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Get the non terminal of an id
+	 * @param id the id
+	 * @return the non terminal
+	 */
+	public String getNonTerminal(int id) {
+		return nonTerminals.get(id);
+	}
+
+	/**
+	 * Get the terminal of an id
+	 * @param id the id
+	 * @return the terminal
+	 */
+	public String getTerminal(int id) {
+		return terminals.get(id);
+	}
+}
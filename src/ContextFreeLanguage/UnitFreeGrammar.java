@@ -0,0 +1,193 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * The form of a compiled grammar with no unit production A -> B.
+ * A non terminal gets the productions that are not units of every non
+ * terminal it derives through units. The graph of the units is split
+ * into strongly connected components, where every non terminal derives
+ * the same ones, and the sets are built one component at a time from
+ * the sets of the components it has units to, which come first in
+ * reverse topological order. So every set is built once from the
+ * sets below it, instead of closing the unit pairs in O(n^3).
+ * The & between the symbols of a production is left out, so A -> & B
+ * is a unit, and A -> & is kept as it is
+ */
+class UnitFreeGrammar {
+	private CompiledGrammar grammar; // the grammar it operates on
+	private int[] from; // the first symbol of every production, without &, plus the end
+	private int[] rhs; // the symbols of every production
+	private StronglyConnectedComponents scc; // the components of the units
+	private int[][] reach; // the productions that are not units every component derives
+	private boolean[] productive; // whether every non terminal derives some sentence
+
+	/**
+	 * Constructor
+	 * @param g the compiled grammar
+	 */
+	UnitFreeGrammar(CompiledGrammar g) {
+		this.grammar = g;
+		int n = g.getNonTerminalCount();
+		int count = g.getProductionCount();
+		from = new int[count + 1];
+		rhs = new int[g.getArena().length];
+		int size = 0;
+		for (int p = 0; p < count; p++) {
+			from[p] = size;
+			for (int i = g.getStart(p); i < g.getEnd(p); i++) {
+				if (g.getSymbol(i) != ~SymbolTable.EPSILON_ID) {
+					rhs[size++] = g.getSymbol(i);
+				}
+			}
+		}
+		from[count] = size;
+		productive = UsefulSymbols.closure(n, count, g.getLeftSides(), from, rhs, false);
+
+		IntGraph units = new IntGraph(n);
+		int[] ownStart = new int[n + 1]; // the productions of every non terminal that are not units
+		int[] own = new int[count];
+		size = 0;
+		for (int nt = 0; nt < n; nt++) {
+			ownStart[nt] = size;
+			for (int p = g.getFirstProduction(nt); p < g.getEndProduction(nt); p++) {
+				if (isUnit(p)) {
+					units.addEdge(nt, rhs[from[p]]);
+				} else {
+					own[size++] = p;
+				}
+			}
+		}
+		ownStart[n] = size;
+		int[][] adj = units.getAdjacency();
+		scc = new StronglyConnectedComponents(adj);
+		reach = closeUnits(scc, adj, ownStart, own, count);
+	}
+
+	/**
+	 * Collect the productions that are not units every strongly connected
+	 * component of the units derives: the ones of its non terminals and the
+	 * ones of the components it has units to, which come first in reverse
+	 * topological order. Every production is added once to a component
+	 * @param scc the components of the units
+	 * @param adj the non terminals every non terminal has units to
+	 * @param ownStart the first production of every non terminal in own, plus the end
+	 * @param own the productions that are not units, by left side
+	 * @param count the number of productions
+	 * @return the productions of every component
+	 */
+	static int[][] closeUnits(StronglyConnectedComponents scc, int[][] adj, int[] ownStart, int[] own, int count) {
+		int[][] members = scc.getMembers();
+		int[][] reach = new int[scc.getCount()][];
+		int[] seen = new int[count]; // the component + 1 a production was last added for
+		int[] list = new int[16];
+		for (int c = 0; c < scc.getCount(); c++) {
+			int length = 0;
+			for (int u : members[c]) {
+				for (int i = ownStart[u]; i < ownStart[u + 1]; i++) {
+					list = IntArrays.grow(list, length + 1);
+					list[length++] = own[i];
+					seen[own[i]] = c + 1;
+				}
+				for (int v : adj[u]) {
+					int other = scc.getComponent(v);
+					if (other == c) {
+						continue;
+					}
+					for (int p : reach[other]) {
+						if (seen[p] != c + 1) {
+							seen[p] = c + 1;
+							list = IntArrays.grow(list, length + 1);
+							list[length++] = p;
+						}
+					}
+				}
+			}
+			reach[c] = Arrays.copyOf(list, length);
+		}
+		return reach;
+	}
+
+	private boolean isUnit(int p) {
+		return from[p + 1] - from[p] == 1 && rhs[from[p]] >= 0;
+	}
+
+	private boolean isProductive(int p) {
+		for (int i = from[p]; i < from[p + 1]; i++) {
+			if (rhs[i] >= 0 && !productive[rhs[i]]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the productions a non terminal has once the units are replaced
+	 * @param nt the non terminal id
+	 * @return the indexes of the productions of the compiled grammar, none a unit
+	 */
+	int[] getProductions(int nt) {
+		return reach[scc.getComponent(nt)];
+	}
+
+	/**
+	 * Build the grammar with no unit production. Only the non terminals the
+	 * initial symbol still reaches are kept, since a non terminal that was
+	 * only on the right side of units is no longer used, and the productions
+	 * with a non terminal that derives no sentence are removed, as it may be
+	 * left with no production. Equal productions of the same non terminal are kept once
+	 * @return the grammar, with no id
+	 */
+	ContextFreeGrammar toGrammar() {
+		SymbolTable symbols = grammar.getSymbolTable();
+		int n = grammar.getNonTerminalCount();
+		String[] text = new String[grammar.getProductionCount()];
+		HashMap<String, HashSet<String>> productions = new HashMap<>();
+		ContextFreeGrammar g = new ContextFreeGrammar();
+		boolean[] reached = new boolean[n];
+		int[] work = new int[n];
+		int top = 0;
+		reached[grammar.getInitialSymbol()] = true;
+		work[top++] = grammar.getInitialSymbol();
+		while (top > 0) {
+			int nt = work[--top];
+			String left = symbols.getNonTerminal(nt);
+			HashSet<String> set = new HashSet<>();
+			productions.put(left, set);
+			g.addVn(left);
+			for (int p : getProductions(nt)) {
+				if (!isProductive(p)) {
+					continue;
+				}
+				if (text[p] == null) {
+					StringBuilder sb = new StringBuilder();
+					for (int i = from[p]; i < from[p + 1]; i++) {
+						if (sb.length() > 0) {
+							sb.append(' ');
+						}
+						sb.append(symbols.decode(rhs[i]));
+					}
+					text[p] = sb.length() > 0 ? sb.toString() : SymbolTable.EPSILON;
+				}
+				set.add(text[p]);
+				if (from[p] == from[p + 1]) {
+					g.addVt(SymbolTable.EPSILON);
+				}
+				for (int i = from[p]; i < from[p + 1]; i++) {
+					int symbol = rhs[i];
+					if (SymbolTable.isTerminal(symbol)) {
+						g.addVt(symbols.getTerminal(~symbol));
+					} else if (!reached[symbol]) {
+						reached[symbol] = true;
+						work[top++] = symbol;
+					}
+				}
+			}
+		}
+		g.setProductions(productions);
+		g.setInitialSymbol(symbols.getNonTerminal(grammar.getInitialSymbol()));
+		return g;
+	}
+}
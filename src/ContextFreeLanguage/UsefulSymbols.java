@@ -0,0 +1,218 @@
+package ContextFreeLanguage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * The useful symbols of a compiled grammar. A non terminal is productive
+ * when it derives some sentence, and a production is useful when all its
+ * non terminals are productive and the initial symbol reaches its left
+ * side through useful productions. Productive non terminals are found
+ * with a worklist that counts, for every production, the non terminals
+ * not known to be productive (see closure), and the reached ones with a
+ * search from the initial symbol, so both take time linear in the grammar
+ */
+class UsefulSymbols {
+	private CompiledGrammar grammar; // the grammar it operates on
+	private boolean[] productive; // whether every non terminal derives some sentence
+	private boolean[] reached; // whether the initial symbol reaches every non terminal
+	private boolean[] terminalReached; // whether the initial symbol reaches every terminal
+	private boolean[] useful; // whether every production is useful
+
+	/**
+	 * Constructor
+	 * @param g the compiled grammar
+	 */
+	UsefulSymbols(CompiledGrammar g) {
+		this.grammar = g;
+		int n = g.getNonTerminalCount();
+		int count = g.getProductionCount();
+		int[] arena = g.getArena();
+		int[] offsets = g.getProductionOffsets();
+		productive = closure(n, count, g.getLeftSides(), offsets, arena, false);
+
+		// Reached: search from the initial symbol through the productions with no unproductive symbol
+		reached = new boolean[n];
+		terminalReached = new boolean[g.getSymbolTable().getTerminalCount()];
+		useful = new boolean[count];
+		int initial = g.getInitialSymbol();
+		if (initial < 0 || !productive[initial]) {
+			return;
+		}
+		int[] work = new int[n];
+		int top = 0;
+		reached[initial] = true;
+		work[top++] = initial;
+		while (top > 0) {
+			int nt = work[--top];
+			for (int p = g.getFirstProduction(nt); p < g.getEndProduction(nt); p++) {
+				if (!isProductive(arena, offsets[p], offsets[p + 1])) {
+					continue;
+				}
+				useful[p] = true;
+				for (int i = offsets[p]; i < offsets[p + 1]; i++) {
+					int symbol = arena[i];
+					if (SymbolTable.isTerminal(symbol)) {
+						terminalReached[~symbol] = true;
+					} else if (!reached[symbol]) {
+						reached[symbol] = true;
+						work[top++] = symbol;
+					}
+				}
+			}
+		}
+	}
+
+	private boolean isProductive(int[] arena, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (arena[i] >= 0 && !productive[arena[i]]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Find the non terminals that derive & or some sentence, with a worklist:
+	 * a production marks its left side when the last of its non terminals
+	 * is marked, and for & when it has no terminal but &
+	 * @param n the number of non terminals
+	 * @param count the number of productions
+	 * @param lhs the left side of every production
+	 * @param offsets the first symbol of every production in the arena, plus the end
+	 * @param arena the symbols of every production, back to back
+	 * @param empty true for the ones that derive &, false for the ones that derive a sentence
+	 * @return whether every non terminal is marked
+	 */
+	static boolean[] closure(int n, int count, int[] lhs, int[] offsets, int[] arena, boolean empty) {
+		boolean[] marked = new boolean[n];
+		int[] missing = new int[count]; // symbols of every production not known to be marked
+		int[] occurStart = new int[n + 1];
+		for (int i = offsets[0]; i < offsets[count]; i++) {
+			if (arena[i] >= 0) {
+				occurStart[arena[i] + 1]++;
+			}
+		}
+		for (int nt = 0; nt < n; nt++) {
+			occurStart[nt + 1] += occurStart[nt];
+		}
+		int[] occur = new int[occurStart[n]]; // the productions every non terminal is on the right side of
+		int[] fill = Arrays.copyOf(occurStart, n);
+		int[] work = new int[n];
+		int top = 0;
+		for (int p = 0; p < count; p++) {
+			for (int i = offsets[p]; i < offsets[p + 1]; i++) {
+				if (arena[i] >= 0) {
+					occur[fill[arena[i]]++] = p;
+					missing[p]++;
+				} else if (empty && arena[i] != ~SymbolTable.EPSILON_ID) {
+					missing[p] = Integer.MIN_VALUE; // a terminal never derives &
+				}
+			}
+			if (missing[p] == 0 && !marked[lhs[p]]) {
+				marked[lhs[p]] = true;
+				work[top++] = lhs[p];
+			}
+		}
+		while (top > 0) {
+			int nt = work[--top];
+			for (int i = occurStart[nt]; i < occurStart[nt + 1]; i++) {
+				int p = occur[i];
+				if (--missing[p] == 0 && !marked[lhs[p]]) {
+					marked[lhs[p]] = true;
+					work[top++] = lhs[p];
+				}
+			}
+		}
+		return marked;
+	}
+
+	/**
+	 * Verify if a non terminal derives some sentence
+	 * @param nt the non terminal id
+	 * @return true if it is productive
+	 */
+	boolean isProductive(int nt) {
+		return productive[nt];
+	}
+
+	/**
+	 * Verify if the initial symbol derives a sentential form with a non
+	 * terminal, using only productive non terminals
+	 * @param nt the non terminal id
+	 * @return true if it is reached
+	 */
+	boolean isReached(int nt) {
+		return reached[nt];
+	}
+
+	/**
+	 * Verify if a production is useful
+	 * @param p the production index
+	 * @return true if it is used in some derivation of a sentence
+	 */
+	boolean isUseful(int p) {
+		return useful[p];
+	}
+
+	/**
+	 * Verify if every non terminal and terminal of the grammar is useful
+	 * @param g the grammar the compiled form was built from
+	 * @return true if the grammar has no useless symbol
+	 */
+	boolean isReduced(ContextFreeGrammar g) {
+		SymbolTable symbols = grammar.getSymbolTable();
+		for (int nt = 0; nt < reached.length; nt++) {
+			if (!reached[nt]) {
+				return false;
+			}
+		}
+		for (String t : g.getVt()) {
+			int id = symbols.getTerminalId(t);
+			if (id > SymbolTable.END_ID && !terminalReached[id]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Build the grammar with the useful productions, their symbols separated by one blank.
+	 * If the language is empty only the initial symbol is kept, with no production
+	 * @return the grammar, with no id
+	 */
+	ContextFreeGrammar toGrammar() {
+		SymbolTable symbols = grammar.getSymbolTable();
+		HashMap<String, HashSet<String>> productions = new HashMap<>();
+		ContextFreeGrammar g = new ContextFreeGrammar();
+		String initial = symbols.getNonTerminal(grammar.getInitialSymbol());
+		g.addVn(initial);
+		productions.put(initial, new HashSet<String>());
+		for (int nt = 0; nt < reached.length; nt++) {
+			if (!reached[nt]) {
+				continue;
+			}
+			String left = symbols.getNonTerminal(nt);
+			HashSet<String> set = productions.get(left);
+			if (set == null) {
+				set = new HashSet<>();
+				productions.put(left, set);
+				g.addVn(left);
+			}
+			for (int p = grammar.getFirstProduction(nt); p < grammar.getEndProduction(nt); p++) {
+				if (useful[p]) {
+					set.add(grammar.toString(p, 0));
+				}
+			}
+		}
+		for (int t = 0; t < terminalReached.length; t++) {
+			if (terminalReached[t]) {
+				g.addVt(symbols.getTerminal(t));
+			}
+		}
+		g.setProductions(productions);
+		g.setInitialSymbol(initial);
+		return g;
+	}
+}
@@ -194,7 +194,7 @@ public class OperationsFrame extends JFrame {
 			return false;
 		}
 		String warning = null;
-		CFGOperator op = new CFGOperator(cfg);
+		CFGOperator op = new CFGOperator(cfg, true);
 		if (operation.equals("Factor")) {
 			if (op.isFactored()) {
 				warning = cfg.getId() + " is factored.\n"
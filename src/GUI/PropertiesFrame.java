@@ -103,11 +103,11 @@ public class PropertiesFrame extends JFrame {
 		btnVerify.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
 				ContextFreeGrammar cfg = (ContextFreeGrammar) cbPropertiesCFG.getSelectedItem();
-				CFGOperator op = new CFGOperator(cfg);
 				String property = String.valueOf(cbPropertiesProp.getSelectedItem());
 				if (cfg == null) { 
 					return;
 				}
+				CFGOperator op = new CFGOperator(cfg, true); // only computes what is verified
 				String response = "";
 				if (property.equals("Has Left Recursion?")) {
 					if (op.hasLeftRecursion()) {
@@ -0,0 +1,117 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.CYKRecognizer;
+import ContextFreeLanguage.CompiledGrammar;
+import ContextFreeLanguage.ContextFreeGrammar;
+import ContextFreeLanguage.EarleyRecognizer;
+
+class CYKRecognizerTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[5];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"S -> A B C D E\n" +
+				"A -> a | &\n" +
+				"B -> b | &\n" +
+				"C -> c\n" +
+				"D -> d | &\n" +
+				"E -> e | &");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"E -> E + E | E * E | ( E ) | id");
+		grammar[2] = ContextFreeGrammar.isValidCFG(
+				"S -> a S a | b S b | a | b | &");
+		grammar[3] = ContextFreeGrammar.isValidCFG(
+				"S -> A & B\n" +
+				"A -> & | A a\n" +
+				"B -> C\n" +
+				"C -> B | b");
+		grammar[4] = ContextFreeGrammar.isValidCFG(
+				"S -> ( S ) S | &");
+	}
+
+	/**
+	 * Test grammars with nullable non terminals and unit cycles
+	 */
+	@Test
+	void testNullable() {
+		CYKRecognizer recognizer = new CYKRecognizer(grammar[0]);
+		assertTrue(recognizer.recognize(recognizer.encode("c")));
+		assertTrue(recognizer.recognize(recognizer.encode("a b c d e")));
+		assertTrue(recognizer.recognize(recognizer.encode("a c e")));
+		assertFalse(recognizer.recognize(recognizer.encode("")));
+		assertFalse(recognizer.recognize(recognizer.encode("e c")));
+		assertFalse(recognizer.recognize(recognizer.encode("a b d e")));
+
+		recognizer = new CYKRecognizer(grammar[3]);
+		assertTrue(recognizer.recognize(recognizer.encode("b")));
+		assertTrue(recognizer.recognize(recognizer.encode("a a b")));
+		assertFalse(recognizer.recognize(recognizer.encode("a a")));
+	}
+
+	/**
+	 * Test ambiguous grammars and the empty sentence
+	 */
+	@Test
+	void testAmbiguous() {
+		CYKRecognizer recognizer = new CYKRecognizer(grammar[1]);
+		assertTrue(recognizer.recognize(recognizer.encode("id")));
+		assertTrue(recognizer.recognize(recognizer.encode("id + id * id + id")));
+		assertTrue(recognizer.recognize(recognizer.encode("( id + id ) * ( id )")));
+		assertFalse(recognizer.recognize(recognizer.encode("id + * id")));
+		assertFalse(recognizer.recognize(recognizer.encode("( id")));
+		assertFalse(recognizer.recognize(recognizer.encode("id x")));
+
+		recognizer = new CYKRecognizer(grammar[2]);
+		assertTrue(recognizer.recognize(recognizer.encode("")));
+		assertTrue(recognizer.recognize(recognizer.encode("a b b a")));
+		assertTrue(recognizer.recognize(recognizer.encode("a b a b a")));
+		assertFalse(recognizer.recognize(recognizer.encode("a b")));
+		assertFalse(recognizer.recognize(recognizer.encode("a b b")));
+	}
+
+	/**
+	 * Test that filling the diagonals on a pool gives the same answers,
+	 * on sentences long enough to be split into tasks
+	 */
+	@Test
+	void testParallel() {
+		CompiledGrammar g = new CompiledGrammar(grammar[4]);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			CYKRecognizer sequential = new CYKRecognizer(g, null, 1);
+			CYKRecognizer parallel = new CYKRecognizer(g, pool, 4);
+			EarleyRecognizer earley = new EarleyRecognizer(g);
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < 60; i++) {
+				sb.append(i % 4 < 2 ? "( " : ") ");
+			}
+			int[] tokens = sequential.encode(sb.toString());
+			assertTrue(sequential.recognize(tokens));
+			assertTrue(parallel.recognize(tokens));
+			for (int from = 0; from < 8; from++) {
+				for (int to = tokens.length - 8; to <= tokens.length; to++) {
+					boolean expected = earley.recognize(tokens, from, to);
+					assertEquals(expected, sequential.recognize(tokens, from, to));
+					assertEquals(expected, parallel.recognize(tokens, from, to));
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
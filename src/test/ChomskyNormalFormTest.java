@@ -0,0 +1,138 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.GrammarAssertions.assertSameLanguage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.CFGOperator;
+import ContextFreeLanguage.ContextFreeGrammar;
+
+class ChomskyNormalFormTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[5];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"S -> A B C D E\n" +
+				"A -> a | &\n" +
+				"B -> b | &\n" +
+				"C -> c\n" +
+				"D -> d | &\n" +
+				"E -> e | &");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"E -> E + T | T\n" +
+				"T -> T * F | F\n" +
+				"F -> ( E ) | id");
+		grammar[2] = ContextFreeGrammar.isValidCFG(
+				"S -> a S b | &");
+		grammar[3] = ContextFreeGrammar.isValidCFG(
+				"S -> A & B | D\n" +
+				"A -> & | A a\n" +
+				"B -> C\n" +
+				"C -> B | b\n" +
+				"D -> d D");
+		grammar[4] = ContextFreeGrammar.isValidCFG(
+				"S -> a | S S S S S S");
+	}
+
+	/**
+	 * Verify that a grammar is in Chomsky normal form
+	 * @param g the grammar
+	 */
+	private void assertNormalForm(ContextFreeGrammar g) {
+		for (String vn : g.getVn()) {
+			for (String prod : g.getGrammarProductions(vn)) {
+				String[] symbols = prod.split(" ");
+				if (symbols.length == 2) {
+					assertTrue(g.getVn().contains(symbols[0]));
+					assertTrue(g.getVn().contains(symbols[1]));
+					assertFalse(symbols[0].equals(g.getInitialSymbol()));
+					assertFalse(symbols[1].equals(g.getInitialSymbol()));
+				} else {
+					assertEquals(1, symbols.length);
+					assertTrue(g.getVt().contains(prod));
+					assertTrue(!prod.equals("&") || vn.equals(g.getInitialSymbol()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test grammars with nullable non terminals
+	 */
+	@Test
+	void testNullable() {
+		ContextFreeGrammar cnf = new CFGOperator(grammar[0]).toChomskyNormalForm();
+		assertNormalForm(cnf);
+		assertFalse(cnf.getGrammarProductions(cnf.getInitialSymbol()).contains("&"));
+		assertSameLanguage(grammar[0], cnf, "c", "a c", "a b c d e", "b c e", "", "a b d e", "e c");
+		assertEquals(grammar[0].getId() + " [CNF]", cnf.getId());
+
+		cnf = new CFGOperator(grammar[2]).toChomskyNormalForm();
+		assertNormalForm(cnf);
+		assertTrue(cnf.getGrammarProductions(cnf.getInitialSymbol()).contains("&"));
+		assertSameLanguage(grammar[2], cnf, "", "a b", "a a b b", "a b b", "b a", "a a a b b b");
+	}
+
+	/**
+	 * Test grammars with unit productions and long right sides
+	 */
+	@Test
+	void testUnitAndBinary() {
+		ContextFreeGrammar cnf = new CFGOperator(grammar[1]).toChomskyNormalForm();
+		assertNormalForm(cnf);
+		assertTrue(cnf.getGrammarProductions(cnf.getInitialSymbol()).contains("id"));
+		assertSameLanguage(grammar[1], cnf, "id", "id + id * id", "( id + id ) * id", "( id", "id + * id", "");
+		// The original grammar is left as it was
+		assertEquals(2, grammar[1].getGrammarProductions("E").size());
+
+		cnf = new CFGOperator(grammar[4]).toChomskyNormalForm();
+		assertNormalForm(cnf);
+		assertSameLanguage(grammar[4], cnf, "a", "a a", "a a a a a a", "a a a a a a a a a a a", "a a a a a a a a a a a a");
+	}
+
+	/**
+	 * Test that the symbols that derive no sentence or are not reached are removed
+	 */
+	@Test
+	void testUseless() {
+		ContextFreeGrammar cnf = new CFGOperator(grammar[3]).toChomskyNormalForm();
+		assertNormalForm(cnf);
+		assertFalse(cnf.getVn().contains("D"));
+		assertFalse(cnf.getVt().contains("d"));
+		assertSameLanguage(grammar[3], cnf, "b", "a a b", "a a", "d", "");
+	}
+
+	/**
+	 * Test that a grammar with tens of thousands of productions is transformed
+	 */
+	@Test
+	void testLarge() {
+		ContextFreeGrammar g = new ContextFreeGrammar();
+		g.setInitialSymbol("S0");
+		int n = 2000;
+		for (int i = 0; i < n; i++) {
+			for (int k = 0; k < 10; k++) {
+				// A terminal followed by up to four non terminals
+				StringBuilder sb = new StringBuilder("t" + k);
+				for (int j = 1; j <= k % 5; j++) {
+					sb.append(" S" + ((i + j * k) % n));
+				}
+				g.addProduction("S" + i, sb.toString());
+			}
+		}
+		g.addProduction("S" + (n - 1), "&");
+		ContextFreeGrammar cnf = new CFGOperator(g).toChomskyNormalForm();
+		assertNormalForm(cnf);
+		assertSameLanguage(g, cnf, "t0", "t1", "t1 t2 t0", "t3 t0 t0 t0", "t9 t9", "");
+	}
+}
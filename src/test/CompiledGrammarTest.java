@@ -0,0 +1,81 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.CompiledGrammar;
+import ContextFreeLanguage.ContextFreeGrammar;
+import ContextFreeLanguage.SymbolTable;
+
+class CompiledGrammarTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[2];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"E -> T E1\n" +
+				"E1 -> + T E1 | &\n" +
+				"T -> F T1\n" +
+				"T1 -> * F T1 | &\n" +
+				"F -> id | ( E )");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"S -> A B\n" +
+				"A -> &\n" +
+				"B -> &");
+	}
+
+	/**
+	 * Test the layout of the compiled productions
+	 */
+	@Test
+	void testLayout() {
+		CompiledGrammar g = grammar[0].compile();
+		SymbolTable symbols = g.getSymbolTable();
+		assertEquals(5, g.getNonTerminalCount());
+		assertEquals(8, g.getProductionCount());
+		assertEquals(0, g.getInitialSymbol());
+		assertEquals("E", symbols.getNonTerminal(g.getInitialSymbol()));
+		assertEquals("&", symbols.getTerminal(SymbolTable.EPSILON_ID));
+		assertEquals("$", symbols.getTerminal(SymbolTable.END_ID));
+
+		int f = symbols.getNonTerminalId("F");
+		assertEquals(2, g.getEndProduction(f) - g.getFirstProduction(f));
+		for (int p = g.getFirstProduction(f); p < g.getEndProduction(f); p++) {
+			assertEquals(f, g.getLeftSide(p));
+			String prod = g.toString(p, 0);
+			assertTrue(prod.equals("id") || prod.equals("( E )"));
+			assertEquals(prod.equals("id") ? 1 : 3, g.getLength(p));
+			assertTrue(SymbolTable.isTerminal(g.getSymbol(g.getStart(p))));
+		}
+
+		// Every production is stored right after the previous one
+		for (int p = 1; p < g.getProductionCount(); p++) {
+			assertEquals(g.getEnd(p - 1), g.getStart(p));
+		}
+	}
+
+	/**
+	 * Test that the compiled form follows the changes of the grammar
+	 */
+	@Test
+	void testRecompile() {
+		CompiledGrammar g = grammar[1].compile();
+		assertTrue(g == grammar[1].compile()); // cached
+		assertEquals(3, g.getProductionCount());
+
+		grammar[1].addProduction("B", "b B");
+		CompiledGrammar g2 = grammar[1].compile();
+		assertTrue(g != g2);
+		assertEquals(4, g2.getProductionCount());
+		int b = g2.getSymbolTable().getNonTerminalId("B");
+		assertEquals(2, g2.getEndProduction(b) - g2.getFirstProduction(b));
+	}
+}
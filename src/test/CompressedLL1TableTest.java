@@ -0,0 +1,123 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.CompressedLL1Table;
+import ContextFreeLanguage.ContextFreeGrammar;
+import ContextFreeLanguage.LL1Recognizer;
+import ContextFreeLanguage.LL1Table;
+
+class CompressedLL1TableTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[6];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"E -> T E1\n" +
+				"E1 -> + T E1 | &\n" +
+				"T -> F T1\n" +
+				"T1 -> * F T1 | &\n" +
+				"F -> id | ( E )");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"S -> A B C D E\n" +
+				"A -> a | &\n" +
+				"B -> b | &\n" +
+				"C -> c\n" +
+				"D -> d | &\n" +
+				"E -> e | &");
+		// Statements with many keywords, most cells are empty
+		String statements = "S -> L\n" +
+				"L -> T L | &\n" +
+				"T -> if X then T | while X do T | print X ; | read v ; | begin L end | return X ; | break ; | continue ;\n" +
+				"X -> v Y | n Y | ( X ) Y\n" +
+				"Y -> + X | - X | * X | / X | &";
+		grammar[2] = ContextFreeGrammar.isValidCFG(statements);
+		// A long chain, every row has two cells
+		String chain = "S -> a0 A1 | &";
+		for (int i = 1; i < 30; i++) {
+			chain += "\nA" + i + " -> a" + i + " A" + (i + 1) + " | b" + i;
+		}
+		chain += "\nA30 -> a30";
+		grammar[3] = ContextFreeGrammar.isValidCFG(chain);
+		// & between other symbols
+		grammar[4] = ContextFreeGrammar.isValidCFG(
+				"S -> B & c\n" +
+				"B -> b | &");
+		// & between other symbols with conflicts, the cells are checked for loops
+		grammar[5] = ContextFreeGrammar.isValidCFG(
+				"S -> & S a | B & b\n" +
+				"B -> b | &");
+	}
+
+	/**
+	 * Test that every cell is the same as in the dense table
+	 */
+	@Test
+	void testCells() {
+		for (ContextFreeGrammar g : grammar) {
+			LL1Table dense = new LL1Table(g);
+			CompressedLL1Table compressed = new CompressedLL1Table(g);
+			assertEquals(dense.isLL1(), compressed.isLL1());
+			int[][] table = dense.getTable();
+			for (int nt = 0; nt < table.length; nt++) {
+				for (int t = 0; t < table[nt].length; t++) {
+					assertEquals(table[nt][t], compressed.get(nt, t));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test the recognizer on the compressed table
+	 */
+	@Test
+	void testRecognize() {
+		CompressedLL1Table table = new CompressedLL1Table(grammar[0]);
+		LL1Recognizer recognizer = new LL1Recognizer(table);
+		assertTrue(recognizer.recognize(table.encode("id + id * id")));
+		assertTrue(recognizer.recognize(table.encode("( id + id ) * ( ( id ) )")));
+		assertFalse(recognizer.recognize(table.encode("id +")));
+		assertFalse(recognizer.recognize(table.encode("id id")));
+
+		table = new CompressedLL1Table(grammar[2]);
+		recognizer = new LL1Recognizer(table);
+		assertTrue(recognizer.recognize(table.encode("")));
+		assertTrue(recognizer.recognize(table.encode("read v ; while v - n do begin print v * n ; break ; end")));
+		assertFalse(recognizer.recognize(table.encode("if v then")));
+		assertFalse(recognizer.recognize(table.encode("begin read v ;")));
+
+		table = new CompressedLL1Table(grammar[4]);
+		recognizer = new LL1Recognizer(table);
+		assertTrue(recognizer.recognize(table.encode("c")));
+		assertTrue(recognizer.recognize(table.encode("b c")));
+		assertFalse(recognizer.recognize(table.encode("b")));
+
+		table = new CompressedLL1Table(grammar[5]);
+		assertFalse(table.isLL1());
+	}
+
+	/**
+	 * Test the size of the compressed table
+	 */
+	@Test
+	void testCompression() {
+		CompressedLL1Table table = new CompressedLL1Table(grammar[3]);
+		assertTrue(table.isLL1());
+		assertTrue(table.getCompressedSize() < table.getDenseSize());
+		assertTrue(table.getCompressionRatio() > 4);
+
+		// then, do, ; and ) only end an expression, their columns are equal
+		table = new CompressedLL1Table(grammar[2]);
+		assertTrue(table.getColumnClassCount() < table.getSymbolTable().getTerminalCount());
+	}
+}
@@ -0,0 +1,109 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.ContextFreeGrammar;
+import ContextFreeLanguage.EarleyRecognizer;
+
+class EarleyRecognizerTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[6];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"S -> A B C D E\n" +
+				"A -> a | &\n" +
+				"B -> b | &\n" +
+				"C -> c\n" +
+				"D -> d | &\n" +
+				"E -> e | &");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"S -> A S B | d\n" +
+				"A -> a\n" +
+				"B -> A B |b | &");
+		grammar[2] = ContextFreeGrammar.isValidCFG(
+				"E -> E + E | E * E | ( E ) | id");
+		grammar[3] = ContextFreeGrammar.isValidCFG(
+				"S -> a S a | b S b | a | b | &");
+		grammar[4] = ContextFreeGrammar.isValidCFG(
+				"S -> a S | b S | &");
+		grammar[5] = ContextFreeGrammar.isValidCFG(
+				"S -> A & B\n" +
+				"A -> & | A a\n" +
+				"B -> C\n" +
+				"C -> B | b");
+	}
+
+	/**
+	 * Test grammars with nullable non terminals
+	 */
+	@Test
+	void testNullable() {
+		EarleyRecognizer recognizer = new EarleyRecognizer(grammar[0]);
+		assertTrue(recognizer.recognize(recognizer.encode("c")));
+		assertTrue(recognizer.recognize(recognizer.encode("a b c d e")));
+		assertTrue(recognizer.recognize(recognizer.encode("a c e")));
+		assertFalse(recognizer.recognize(recognizer.encode("")));
+		assertFalse(recognizer.recognize(recognizer.encode("e c")));
+		assertFalse(recognizer.recognize(recognizer.encode("a b d e")));
+
+		recognizer = new EarleyRecognizer(grammar[1]);
+		assertTrue(recognizer.recognize(recognizer.encode("d")));
+		assertTrue(recognizer.recognize(recognizer.encode("a d")));
+		assertTrue(recognizer.recognize(recognizer.encode("a a d b a b")));
+		assertFalse(recognizer.recognize(recognizer.encode("d a")));
+		assertFalse(recognizer.recognize(recognizer.encode("a b")));
+
+		// Cycles of unit productions and & between symbols
+		recognizer = new EarleyRecognizer(grammar[5]);
+		assertTrue(recognizer.recognize(recognizer.encode("b")));
+		assertTrue(recognizer.recognize(recognizer.encode("a a b")));
+		assertFalse(recognizer.recognize(recognizer.encode("a a")));
+	}
+
+	/**
+	 * Test ambiguous grammars that are not LR(1)
+	 */
+	@Test
+	void testAmbiguous() {
+		EarleyRecognizer recognizer = new EarleyRecognizer(grammar[2]);
+		assertTrue(recognizer.recognize(recognizer.encode("id + id * id + id")));
+		assertTrue(recognizer.recognize(recognizer.encode("( id + id ) * ( id )")));
+		assertFalse(recognizer.recognize(recognizer.encode("id + * id")));
+		assertFalse(recognizer.recognize(recognizer.encode("( id")));
+
+		recognizer = new EarleyRecognizer(grammar[3]);
+		assertTrue(recognizer.recognize(recognizer.encode("")));
+		assertTrue(recognizer.recognize(recognizer.encode("a b b a")));
+		assertTrue(recognizer.recognize(recognizer.encode("a b a b a")));
+		assertFalse(recognizer.recognize(recognizer.encode("a b")));
+		assertFalse(recognizer.recognize(recognizer.encode("a b b")));
+		assertFalse(recognizer.recognize(recognizer.encode("a x a")));
+	}
+
+	/**
+	 * Test that right recursion takes a bounded number of items per token
+	 */
+	@Test
+	void testRightRecursion() {
+		EarleyRecognizer recognizer = new EarleyRecognizer(grammar[4]);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			sb.append(i % 3 == 0 ? "b " : "a ");
+		}
+		int[] tokens = recognizer.encode(sb.toString());
+		assertTrue(recognizer.recognize(tokens));
+		assertTrue(recognizer.getItemCount() < 10 * tokens.length);
+		assertTrue(recognizer.recognize(tokens, 10, 20));
+		assertFalse(recognizer.recognize(recognizer.encode("a c")));
+	}
+}
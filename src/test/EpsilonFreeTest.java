@@ -0,0 +1,131 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.GrammarAssertions.assertSameLanguage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.CFGOperator;
+import ContextFreeLanguage.ContextFreeGrammar;
+
+class EpsilonFreeTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[5];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"S -> A B C D E\n" +
+				"A -> a | &\n" +
+				"B -> b | &\n" +
+				"C -> c\n" +
+				"D -> d | &\n" +
+				"E -> e | &");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"S -> ( S ) S | &");
+		grammar[2] = ContextFreeGrammar.isValidCFG(
+				"S -> A B\n" +
+				"A -> &\n" +
+				"B -> &");
+		grammar[3] = ContextFreeGrammar.isValidCFG(
+				"E -> T E1\n" +
+				"E1 -> + T E1 | &\n" +
+				"T -> F T1\n" +
+				"T1 -> * F T1 | &\n" +
+				"F -> id | ( E )");
+		grammar[4] = ContextFreeGrammar.isValidCFG(
+				"S -> A B A B A B c A B\n" +
+				"A -> a | &\n" +
+				"B -> b | &");
+	}
+
+	/**
+	 * Verify that only the initial symbol derives &, and that it is on no right side
+	 * @param g the grammar
+	 */
+	private void assertEpsilonFree(ContextFreeGrammar g) {
+		for (String vn : g.getVn()) {
+			for (String prod : g.getGrammarProductions(vn)) {
+				if (prod.equals("&")) {
+					assertEquals(g.getInitialSymbol(), vn);
+				} else {
+					for (String symbol : prod.split(" ")) {
+						assertFalse(symbol.equals("&"));
+						assertFalse(symbol.equals(g.getInitialSymbol()) && g.getGrammarProductions(symbol).contains("&"));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test the copies of the productions without their nullable symbols
+	 */
+	@Test
+	void testExpand() {
+		ContextFreeGrammar g = new CFGOperator(grammar[0]).eliminateEpsilonProductions();
+		assertEpsilonFree(g);
+		assertEquals(grammar[0].getId() + " [-&]", g.getId());
+		// Every subset of A B D E is left out
+		assertEquals(16, g.getGrammarProductions("S").size());
+		assertTrue(g.getGrammarProductions("S").contains("C"));
+		assertTrue(g.getGrammarProductions("S").contains("A C E"));
+		assertEquals(1, g.getGrammarProductions("A").size());
+		assertSameLanguage(grammar[0], g, "c", "a c", "a b c d e", "b c e", "", "a b d e", "e c");
+
+		g = new CFGOperator(grammar[3]).eliminateEpsilonProductions();
+		assertEpsilonFree(g);
+		assertEquals(grammar[3].getVn(), g.getVn());
+		assertSameLanguage(grammar[3], g, "id", "id + id * id", "( id + id ) * id", "( id", "id + * id", "");
+	}
+
+	/**
+	 * Test a nullable initial symbol, and non terminals that only derive &
+	 */
+	@Test
+	void testInitial() {
+		ContextFreeGrammar g = new CFGOperator(grammar[1]).eliminateEpsilonProductions();
+		assertEpsilonFree(g);
+		assertFalse(g.getInitialSymbol().equals("S"));
+		assertTrue(g.getGrammarProductions(g.getInitialSymbol()).contains("&"));
+		assertFalse(g.getGrammarProductions("S").contains("&"));
+		assertSameLanguage(grammar[1], g, "", "( )", "( ) ( )", "( ( ) ( ) )", ")", "( ) (");
+
+		g = new CFGOperator(grammar[2]).eliminateEpsilonProductions();
+		assertEquals("S", g.getInitialSymbol());
+		assertEquals(1, g.getVn().size());
+		assertEquals(1, g.getGrammarProductions("S").size());
+		assertTrue(g.getGrammarProductions("S").contains("&"));
+	}
+
+	/**
+	 * Test that the productions past the expansion limit are split with
+	 * new non terminals instead of being copied for every subset
+	 */
+	@Test
+	void testLimit() {
+		CFGOperator op = new CFGOperator(grammar[4]);
+		ContextFreeGrammar expanded = op.eliminateEpsilonProductions(8);
+		ContextFreeGrammar split = op.eliminateEpsilonProductions(2);
+		assertEpsilonFree(expanded);
+		assertEpsilonFree(split);
+		assertEquals(3, expanded.getVn().size());
+		assertTrue(expanded.getGrammarProductions("S").size() > 64);
+		assertTrue(split.getVn().size() > 3);
+		int productions = 0;
+		for (String vn : split.getVn()) {
+			productions += split.getGrammarProductions(vn).size();
+		}
+		assertTrue(productions < 40);
+		String[] sentences = { "c", "a b c", "a a a c b", "b b b c a b", "a b a b a b c a b", "a b a b a b a c", "a b", "" };
+		assertSameLanguage(grammar[4], expanded, sentences);
+		assertSameLanguage(grammar[4], split, sentences);
+	}
+}
@@ -3,6 +3,8 @@ package test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.GrammarAssertions.assertSameLanguage;
+import static test.GrammarAssertions.set;
 
 import java.util.ArrayList;
 
@@ -197,7 +199,54 @@ class FactoringTest {
 				"S2 -> a B b | d\n" + 
 				"", results.get(results.size()-1).getDefinition());
 	}
-	
-	
-	
+
+	/**
+	 * Test the longest common prefixes, factored in one pass
+	 */
+	@Test
+	void testLeftFactor() {
+		ContextFreeGrammar g = ContextFreeGrammar.isValidCFG(
+				"S -> a b c | a b d | a b | a e | f | &\n" +
+				"B -> b B | b\n" +
+				"D -> x & y | x y z");
+		g.setId("G1");
+		ContextFreeGrammar f = new CFGOperator(g).leftFactor();
+		assertEquals("G1 [F]", f.getId());
+		assertEquals(set("a S1", "f", "&"), f.getGrammarProductions("S"));
+		assertEquals(set("b S2", "e"), f.getGrammarProductions("S1"));
+		assertEquals(set("c", "d", "&"), f.getGrammarProductions("S2"));
+		assertEquals(set("b B1"), f.getGrammarProductions("B"));
+		assertEquals(set("B", "&"), f.getGrammarProductions("B1"));
+		// The & between symbols is left out
+		assertEquals(set("x y D1"), f.getGrammarProductions("D"));
+		assertEquals(set("z", "&"), f.getGrammarProductions("D1"));
+		assertSameLanguage(g, f, "a b c", "a b", "a e", "f", "", "a", "a b e", "b");
+
+		// A grammar that is only factored by replacing non terminals is left as it is
+		f = new CFGOperator(grammar[3]).leftFactor();
+		assertEquals(grammar[3].getVn(), f.getVn());
+		assertEquals(set("B b", "C d"), f.getGrammarProductions("S"));
+	}
+
+	/**
+	 * Test a non terminal with many alternatives, factored at once
+	 */
+	@Test
+	void testLeftFactorLarge() {
+		StringBuilder sb = new StringBuilder("S -> ");
+		int n = 300;
+		for (int i = 0; i < n; i++) {
+			if (i > 0) {
+				sb.append(" | ");
+			}
+			// Every alternative shares its first symbols with many others
+			sb.append((char) ('a' + i % 3)).append(' ').append((char) ('a' + i / 3 % 4));
+			sb.append(' ').append((char) ('a' + i / 12 % 5)).append(' ').append(i % 7 == 0 ? "&" : "c");
+		}
+		ContextFreeGrammar g = ContextFreeGrammar.isValidCFG(sb.toString());
+		ContextFreeGrammar f = new CFGOperator(g).leftFactor();
+		assertTrue(new CFGOperator(f).isFactored());
+		assertEquals(3, f.getGrammarProductions("S").size());
+		assertSameLanguage(g, f, "a a a c", "b a a", "c d e c", "a b", "a a a c c", "");
+	}
 }
@@ -4,6 +4,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -463,4 +464,20 @@ class FirstSetTest {
 		expectedFirst.clear();
 	}
 	
+	/**
+	 * Test that the parallel sets are the same as the sequential ones
+	 */
+	@Test
+	void testParallelFirst() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		for (ContextFreeGrammar g : grammar) {
+			CFGOperator op = new CFGOperator(g);
+			CFGOperator parallel = new CFGOperator(g, true);
+			parallel.setParallel(pool, 4);
+			assertTrue(op.getFirst().equals(parallel.getFirst()));
+			assertTrue(op.getFirstNT().equals(parallel.getFirstNT()));
+		}
+		pool.shutdown();
+	}
+	
 }
@@ -462,4 +462,18 @@ class FollowSetTest {
 		expectedFollow.clear();
 	}
 	
+	/**
+	 * Test that a lazy operator computes the same sets
+	 */
+	@Test
+	void testLazyFollow() {
+		for (ContextFreeGrammar g : grammar) {
+			CFGOperator op = new CFGOperator(g);
+			CFGOperator lazy = new CFGOperator(g, true);
+			assertTrue(op.getFollow().equals(lazy.getFollow()));
+			assertTrue(op.getFirst().equals(lazy.getFirst()));
+			assertTrue(op.getFirstNT().equals(lazy.getFirstNT()));
+		}
+	}
+	
 }
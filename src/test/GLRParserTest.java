@@ -0,0 +1,154 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.ContextFreeGrammar;
+import ContextFreeLanguage.GLRParser;
+import ContextFreeLanguage.LR0Automaton;
+import ContextFreeLanguage.SharedPackedForest;
+
+class GLRParserTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[5];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"E -> E + E | a");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"E -> E + E | E * E | ( E ) | id");
+		grammar[2] = ContextFreeGrammar.isValidCFG(
+				"S -> A B c\n" +
+				"A -> a | &\n" +
+				"B -> b | &");
+		grammar[3] = ContextFreeGrammar.isValidCFG(
+				"S -> A & B\n" +
+				"A -> & | A a\n" +
+				"B -> C\n" +
+				"C -> B | b");
+		grammar[4] = ContextFreeGrammar.isValidCFG(
+				"S -> S S | a | &");
+	}
+
+	/**
+	 * Test that every parse of an ambiguous sentence is in the forest,
+	 * with the LALR(1) lookaheads and with none
+	 */
+	@Test
+	void testAmbiguous() {
+		GLRParser[] parsers = { new GLRParser(grammar[0]), new GLRParser(new LR0Automaton(grammar[0])) };
+		for (GLRParser parser : parsers) {
+			// The trees of a + a + ... are the Catalan numbers
+			long[] catalan = { 1, 1, 2, 5, 14, 42, 132, 429, 1430, 4862 };
+			StringBuilder sb = new StringBuilder("a");
+			for (int n = 0; n < catalan.length; n++) {
+				SharedPackedForest forest = parser.parse(parser.encode(sb.toString()));
+				assertNotNull(forest);
+				assertEquals(BigInteger.valueOf(catalan[n]), forest.countTrees());
+				assertEquals("E", forest.getSymbolName(forest.getRoot()));
+				assertEquals(0, forest.getStart(forest.getRoot()));
+				assertEquals(2 * n + 1, forest.getEnd(forest.getRoot()));
+				sb.append(" + a");
+			}
+			assertNull(parser.parse(parser.encode("a + + a")));
+			assertNull(parser.parse(parser.encode("a +")));
+			assertNull(parser.parse(parser.encode("")));
+			assertNull(parser.parse(parser.encode("a b")));
+		}
+	}
+
+	/**
+	 * Test that the forest stays polynomial when the trees are exponential
+	 */
+	@Test
+	void testPolynomial() {
+		GLRParser parser = new GLRParser(grammar[0]);
+		StringBuilder sb = new StringBuilder("a");
+		for (int n = 1; n < 60; n++) {
+			sb.append(" + a");
+		}
+		int[] tokens = parser.encode(sb.toString());
+		SharedPackedForest forest = parser.parse(tokens);
+		assertNotNull(forest);
+		// Catalan(59) has 33 digits
+		assertEquals(33, forest.countTrees().toString().length());
+		assertTrue(forest.getNodeCount() < tokens.length * tokens.length);
+		assertTrue(forest.getPackedCount() < tokens.length * tokens.length * tokens.length);
+		assertTrue(parser.getStackNodeCount() < 4 * tokens.length);
+	}
+
+	/**
+	 * Test walking the derivations of a node
+	 */
+	@Test
+	void testWalk() {
+		GLRParser parser = new GLRParser(grammar[1]);
+		SharedPackedForest forest = parser.parse(parser.encode("id + id * id"));
+		int root = forest.getRoot();
+		assertTrue(forest.isAmbiguous(root));
+		Set<String> operators = new HashSet<>();
+		for (int packed = forest.getFirstPacked(root); packed >= 0; packed = forest.getNextPacked(packed)) {
+			assertEquals(3, forest.getChildCount(packed));
+			int operator = forest.getChild(packed, 1);
+			assertTrue(forest.isTerminal(operator));
+			assertEquals(forest.getEnd(forest.getChild(packed, 0)), forest.getStart(operator));
+			operators.add(forest.getSymbolName(operator));
+		}
+		assertEquals(2, operators.size());
+		assertTrue(operators.contains("+"));
+		assertTrue(operators.contains("*"));
+		assertEquals(BigInteger.valueOf(2), forest.countTrees());
+		assertEquals(BigInteger.ONE, parser.parse(parser.encode("( id + id ) * id")).countTrees());
+	}
+
+	/**
+	 * Test the derivations of &, shared by every position
+	 */
+	@Test
+	void testNullable() {
+		GLRParser parser = new GLRParser(grammar[2]);
+		SharedPackedForest forest = parser.parse(parser.encode("c"));
+		int packed = forest.getFirstPacked(forest.getRoot());
+		assertEquals(3, forest.getChildCount(packed));
+		assertEquals("A", forest.getSymbolName(forest.getChild(packed, 0)));
+		assertEquals(-1, forest.getStart(forest.getChild(packed, 0)));
+		assertEquals(-1, forest.getStart(forest.getChild(packed, 1)));
+		assertEquals(0, forest.getStart(forest.getChild(packed, 2)));
+		assertEquals(BigInteger.ONE, forest.countTrees());
+		assertEquals(BigInteger.ONE, parser.parse(parser.encode("a b c")).countTrees());
+		assertNull(parser.parse(parser.encode("b a c")));
+
+		parser = new GLRParser(grammar[3]);
+		assertNotNull(parser.parse(parser.encode("a a b")));
+		assertNull(parser.parse(parser.encode("a a")));
+	}
+
+	/**
+	 * Test that cycles are kept in the forest, as infinitely many trees
+	 */
+	@Test
+	void testCycles() {
+		GLRParser parser = new GLRParser(grammar[3]);
+		assertNull(parser.parse(parser.encode("b")).countTrees());
+
+		parser = new GLRParser(grammar[4]);
+		SharedPackedForest forest = parser.parse(parser.encode(""));
+		assertEquals(-1, forest.getStart(forest.getRoot()));
+		assertNull(forest.countTrees());
+		assertNull(parser.parse(parser.encode("a a")).countTrees());
+	}
+}
@@ -0,0 +1,45 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import ContextFreeLanguage.ContextFreeGrammar;
+import ContextFreeLanguage.EarleyRecognizer;
+
+/**
+ * Assertions for the tests of the grammar transformations
+ */
+final class GrammarAssertions {
+	private GrammarAssertions() {
+	}
+
+	/**
+	 * Build a set of productions or symbols
+	 * @param elements the elements
+	 * @return the set
+	 */
+	static Set<String> set(String... elements) {
+		Set<String> s = new HashSet<>();
+		for (String e : elements) {
+			s.add(e);
+		}
+		return s;
+	}
+
+	/**
+	 * Verify that a grammar and its transformed form recognize the same
+	 * sentences, among some, with the Earley recognizer
+	 * @param g the grammar
+	 * @param transformed the transformed grammar
+	 * @param sentences the sentences, symbols separated by spaces
+	 */
+	static void assertSameLanguage(ContextFreeGrammar g, ContextFreeGrammar transformed, String... sentences) {
+		EarleyRecognizer expected = new EarleyRecognizer(g);
+		EarleyRecognizer actual = new EarleyRecognizer(transformed);
+		for (String sentence : sentences) {
+			assertEquals(expected.recognize(expected.encode(sentence)), actual.recognize(actual.encode(sentence)), sentence);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.ContextFreeGrammar;
+import ContextFreeLanguage.GrammarSnapshot;
+
+class GrammarSnapshotTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[2];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"E -> T E1\n" +
+				"E1 -> + T E1 | &\n" +
+				"T -> F T1\n" +
+				"T1 -> * F T1 | &\n" +
+				"F -> id | ( E )");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"S -> a S b | a b | c");
+	}
+
+	/**
+	 * Test that a copy is independent of the grammar it was copied from
+	 */
+	@Test
+	void testCopy() {
+		String definition = grammar[0].getDefinition();
+		ContextFreeGrammar copy = new ContextFreeGrammar(grammar[0]);
+		assertEquals(definition, copy.getDefinition());
+		assertEquals(grammar[0].getInitialSymbol(), copy.getInitialSymbol());
+
+		copy.addProduction("F", "num");
+		copy.removeProductions("T1");
+		assertEquals(definition, grammar[0].getDefinition());
+		assertFalse(grammar[0].getGrammarProductions("F").contains("num"));
+
+		grammar[0].addProduction("E", "x");
+		assertFalse(copy.getGrammarProductions("E").contains("x"));
+		assertTrue(copy.getVn().contains("F"));
+		assertFalse(copy.getVn().contains("T1"));
+	}
+
+	/**
+	 * Test that snapshots share the productions that were not changed
+	 */
+	@Test
+	void testSharing() {
+		GrammarSnapshot s1 = grammar[0].snapshot();
+		ContextFreeGrammar g = new ContextFreeGrammar(s1);
+		g.addProduction("F", "num");
+		GrammarSnapshot s2 = g.snapshot();
+
+		assertEquals(3, s2.getGrammarProductions("F").size());
+		assertEquals(2, s1.getGrammarProductions("F").size());
+		assertEquals(s1.getVn(), s2.getVn());
+		assertEquals(s1.getGrammarProductions("E"), s2.getGrammarProductions("E"));
+
+		// A grammar rebuilt from a snapshot iterates as the copied grammar
+		assertEquals(g.getDefinition(), new ContextFreeGrammar(s2).getDefinition());
+	}
+
+	/**
+	 * Test that removed productions and non terminals are not in newer snapshots
+	 */
+	@Test
+	void testRemove() {
+		GrammarSnapshot s1 = grammar[1].snapshot();
+		ContextFreeGrammar g = new ContextFreeGrammar(s1);
+		for (String prod : s1.getGrammarProductions("S")) {
+			if (prod.trim().equals("c")) {
+				g.removeProduction("S", prod);
+			}
+		}
+		g.addProduction("A", "d");
+		GrammarSnapshot s2 = g.snapshot();
+		assertEquals(3, s1.getGrammarProductions("S").size());
+		assertEquals(2, s2.getGrammarProductions("S").size());
+		assertTrue(s2.getVn().contains("A"));
+
+		g.removeProductions("A");
+		GrammarSnapshot s3 = g.snapshot();
+		assertFalse(s3.getVn().contains("A"));
+		assertTrue(s3.getGrammarProductions("A").isEmpty());
+		assertEquals(1, s2.getGrammarProductions("A").size());
+	}
+}
@@ -0,0 +1,122 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.GrammarAssertions.assertSameLanguage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.CFGOperator;
+import ContextFreeLanguage.ContextFreeGrammar;
+
+class GreibachNormalFormTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[3];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"E -> E + T | T\n" +
+				"T -> T * F | F\n" +
+				"F -> ( E ) | id");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"S -> A a | b\n" +
+				"A -> S c | A d | &");
+		grammar[2] = ContextFreeGrammar.isValidCFG(
+				"S -> ( S ) S | &");
+	}
+
+	/**
+	 * Verify that every production is a terminal followed by non terminals,
+	 * and that only the initial symbol derives &, and then it is on no right side
+	 * @param g the grammar
+	 */
+	private void assertNormalForm(ContextFreeGrammar g) {
+		boolean empty = g.getGrammarProductions(g.getInitialSymbol()).contains("&");
+		for (String vn : g.getVn()) {
+			for (String prod : g.getGrammarProductions(vn)) {
+				if (prod.equals("&")) {
+					assertEquals(g.getInitialSymbol(), vn);
+					continue;
+				}
+				String[] symbols = prod.split(" ");
+				assertTrue(g.getVt().contains(symbols[0]));
+				assertFalse(symbols[0].equals("&"));
+				for (int i = 1; i < symbols.length; i++) {
+					assertTrue(g.getVn().contains(symbols[i]));
+					assertFalse(empty && symbols[i].equals(g.getInitialSymbol()));
+				}
+			}
+		}
+	}
+
+	private int size(ContextFreeGrammar g) {
+		int productions = 0;
+		for (String vn : g.getVn()) {
+			productions += g.getGrammarProductions(vn).size();
+		}
+		return productions;
+	}
+
+	/**
+	 * Test direct left recursion
+	 */
+	@Test
+	void testDirect() {
+		ContextFreeGrammar g = new CFGOperator(grammar[0]).toGreibachNormalForm();
+		assertNormalForm(g);
+		assertEquals(grammar[0].getId() + " [GNF]", g.getId());
+		assertSameLanguage(grammar[0], g, "id", "id + id * id", "( id + id ) * id", "( ( id ) )",
+				"( id", "id + * id", "id id", "");
+		// The original grammar is left as it was
+		assertEquals(2, grammar[0].getGrammarProductions("E").size());
+	}
+
+	/**
+	 * Test indirect left recursion through a nullable non terminal,
+	 * and a nullable initial symbol on a right side
+	 */
+	@Test
+	void testIndirect() {
+		ContextFreeGrammar g = new CFGOperator(grammar[1]).toGreibachNormalForm();
+		assertNormalForm(g);
+		assertSameLanguage(grammar[1], g, "a", "b", "b c a", "d d a", "b c d a c a", "a c a", "c a", "b a", "");
+
+		g = new CFGOperator(grammar[2]).toGreibachNormalForm();
+		assertNormalForm(g);
+		assertTrue(g.getGrammarProductions(g.getInitialSymbol()).contains("&"));
+		assertSameLanguage(grammar[2], g, "", "( )", "( ) ( )", "( ( ) ( ) )", ")", "( ) (");
+	}
+
+	/**
+	 * Test a chain where substituting the first symbols in order doubles the
+	 * productions at every step, and the left corner transform keeps it linear
+	 */
+	@Test
+	void testChain() {
+		ContextFreeGrammar g = new ContextFreeGrammar();
+		g.setInitialSymbol("A0");
+		int n = 30;
+		for (int i = 0; i < n; i++) {
+			g.addProduction("A" + i, "A" + (i + 1) + " a");
+			g.addProduction("A" + i, "A" + (i + 1) + " b");
+		}
+		g.addProduction("A" + n, "c");
+		g.addProduction("A" + n, "A0 c");
+		ContextFreeGrammar gnf = new CFGOperator(g).toGreibachNormalForm();
+		assertNormalForm(gnf);
+		assertTrue(size(gnf) < 10 * size(g));
+		StringBuilder sentence = new StringBuilder("c");
+		for (int i = 0; i < n; i++) {
+			sentence.append(i % 2 == 0 ? " a" : " b");
+		}
+		String once = sentence.toString();
+		assertSameLanguage(g, gnf, once, "c " + once, once.substring(0, once.length() - 2), "c");
+	}
+}
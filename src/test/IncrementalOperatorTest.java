@@ -0,0 +1,142 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.CFGOperator;
+import ContextFreeLanguage.ContextFreeGrammar;
+
+class IncrementalOperatorTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[3];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"E -> T E1\n" +
+				"E1 -> + T E1 | &\n" +
+				"T -> F T1\n" +
+				"T1 -> * F T1 | &\n" +
+				"F -> id | ( E )");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"S -> A B C D E\n" +
+				"A -> a | &\n" +
+				"B -> b | &\n" +
+				"C -> c\n" +
+				"D -> d | &\n" +
+				"E -> e | &");
+		grammar[2] = ContextFreeGrammar.isValidCFG(
+				"S -> A b | B d\n" +
+				"A -> a A | B\n" +
+				"B -> c");
+	}
+
+	/**
+	 * Verify that the sets of an incremental operator
+	 * are the same as the sets computed from scratch
+	 * @param op the incremental operator
+	 * @param g the grammar it listens to
+	 */
+	private void assertSameSets(CFGOperator op, ContextFreeGrammar g) {
+		CFGOperator fresh = new CFGOperator(g);
+		assertEquals(fresh.getFirst(), op.getFirst());
+		assertEquals(fresh.getFirstNT(), op.getFirstNT());
+		assertEquals(fresh.getFollow(), op.getFollow());
+		assertEquals(fresh.isFactored(), op.isFactored());
+		assertEquals(fresh.hasLeftRecursion(), op.hasLeftRecursion());
+	}
+
+	/**
+	 * Get a production as it is stored in the grammar, blanks included
+	 * @param g the grammar
+	 * @param nt the non terminal
+	 * @param prod the production without extra blanks
+	 * @return the production of the grammar
+	 */
+	private String getProduction(ContextFreeGrammar g, String nt, String prod) {
+		for (String p : g.getGrammarProductions(nt)) {
+			if (p.trim().equals(prod)) {
+				return p;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Test added productions
+	 */
+	@Test
+	void testAddProduction() {
+		CFGOperator op = new CFGOperator(grammar[0], true);
+		op.setIncremental(true);
+		assertTrue(op.isIncremental());
+		assertFalse(op.getFirst("F").contains("num"));
+
+		grammar[0].addProduction("F", "num");
+		assertTrue(op.getFirst("E").contains("num"));
+		assertSameSets(op, grammar[0]);
+
+		grammar[0].addProduction("T", "&");
+		assertTrue(op.getFirst("E").contains("+"));
+		assertTrue(op.getFollow("E1").contains("$"));
+		assertSameSets(op, grammar[0]);
+
+		grammar[0].addProduction("G", "E - G");
+		grammar[0].addProduction("F", "G");
+		assertTrue(op.hasLeftRecursion());
+		assertSameSets(op, grammar[0]);
+	}
+
+	/**
+	 * Test removed productions
+	 */
+	@Test
+	void testRemoveProduction() {
+		CFGOperator op = new CFGOperator(grammar[1], true);
+		op.setIncremental(true);
+		assertTrue(op.getFirst("S").contains("a"));
+
+		grammar[1].removeProduction("A", getProduction(grammar[1], "A", "a"));
+		assertFalse(op.getFirst("S").contains("a"));
+		assertSameSets(op, grammar[1]);
+
+		grammar[1].removeProduction("E", getProduction(grammar[1], "E", "&"));
+		assertFalse(op.getFollow("D").contains("$"));
+		assertSameSets(op, grammar[1]);
+
+		grammar[1].removeProductions("C");
+		assertSameSets(op, grammar[1]);
+	}
+
+	/**
+	 * Test a sequence of mixed changes
+	 */
+	@Test
+	void testMixedChanges() {
+		CFGOperator op = new CFGOperator(grammar[2]);
+		op.setIncremental(true);
+		grammar[2].addProduction("B", "&");
+		assertSameSets(op, grammar[2]);
+		grammar[2].addProduction("A", "S c");
+		assertSameSets(op, grammar[2]);
+		grammar[2].removeProduction("A", getProduction(grammar[2], "A", "B"));
+		assertSameSets(op, grammar[2]);
+		grammar[2].setInitialSymbol("A");
+		assertSameSets(op, grammar[2]);
+		grammar[2].removeProduction("B", getProduction(grammar[2], "B", "&"));
+		assertSameSets(op, grammar[2]);
+
+		// Once it stops listening, the sets are no longer updated
+		op.setIncremental(false);
+		grammar[2].addProduction("B", "e");
+		assertFalse(op.getFirst("B").contains("e"));
+	}
+}
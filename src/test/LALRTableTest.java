@@ -0,0 +1,120 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.ContextFreeGrammar;
+import ContextFreeLanguage.LALRTable;
+import ContextFreeLanguage.LR0Automaton;
+import ContextFreeLanguage.LRConflict;
+import ContextFreeLanguage.LRRecognizer;
+import ContextFreeLanguage.SLRTable;
+
+class LALRTableTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[5];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"S -> L = R | R\n" +
+				"L -> * R | id\n" +
+				"R -> L");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"S -> a A d | b B d | a B e | b A e\n" +
+				"A -> c\n" +
+				"B -> c");
+		grammar[2] = ContextFreeGrammar.isValidCFG(
+				"S -> A B c\n" +
+				"A -> a | &\n" +
+				"B -> b | &");
+		grammar[3] = ContextFreeGrammar.isValidCFG(
+				"S -> A a | B a\n" +
+				"A -> x &\n" +
+				"B -> x");
+		grammar[4] = ContextFreeGrammar.isValidCFG(
+				"E -> E + T | T\n" +
+				"T -> T * F | F\n" +
+				"F -> ( E ) | id");
+	}
+
+	/**
+	 * Test grammars that are LALR(1) but not SLR(1)
+	 */
+	@Test
+	void testStrongerThanSLR() {
+		LR0Automaton automaton = new LR0Automaton(grammar[0]);
+		assertFalse(new SLRTable(grammar[0]).isConflictFree());
+		LALRTable table = new LALRTable(automaton);
+		assertTrue(table.isConflictFree());
+		assertEquals(automaton.getStateCount(), table.getStateCount());
+		LRRecognizer recognizer = new LRRecognizer(table);
+		assertTrue(recognizer.recognize(table.encode("id")));
+		assertTrue(recognizer.recognize(table.encode("* id = id")));
+		assertTrue(recognizer.recognize(table.encode("* * id = * id")));
+		assertFalse(recognizer.recognize(table.encode("id =")));
+		assertFalse(recognizer.recognize(table.encode("id = id = id")));
+	}
+
+	/**
+	 * Test the lookaheads read through nullable non terminals
+	 */
+	@Test
+	void testNullable() {
+		LALRTable table = new LALRTable(grammar[2]);
+		assertTrue(table.isConflictFree());
+		LRRecognizer recognizer = new LRRecognizer(table);
+		assertTrue(recognizer.recognize(table.encode("c")));
+		assertTrue(recognizer.recognize(table.encode("a c")));
+		assertTrue(recognizer.recognize(table.encode("b c")));
+		assertTrue(recognizer.recognize(table.encode("a b c")));
+		assertFalse(recognizer.recognize(table.encode("b a c")));
+		assertFalse(recognizer.recognize(table.encode("a b")));
+
+		table = new LALRTable(grammar[4]);
+		assertTrue(table.isConflictFree());
+		recognizer = new LRRecognizer(table);
+		assertTrue(recognizer.recognize(table.encode("( id + id ) * id")));
+		assertFalse(recognizer.recognize(table.encode("( id + ) * id")));
+	}
+
+	/**
+	 * Test the conflicts, described with the productions of the grammar
+	 */
+	@Test
+	void testConflicts() {
+		// LR(1), but its two states that reduce c have the same core
+		LALRTable table = new LALRTable(grammar[1]);
+		assertFalse(table.isConflictFree());
+		List<LRConflict> conflicts = table.getLRConflicts();
+		assertEquals(2, conflicts.size());
+		for (LRConflict conflict : conflicts) {
+			assertEquals(LRConflict.Kind.REDUCE_REDUCE, conflict.getKind());
+			assertEquals(-1, conflict.getShiftTarget());
+			assertEquals(Arrays.asList("A -> c", "B -> c"), conflict.getProductions());
+		}
+		assertEquals("d", conflicts.get(0).getLookahead());
+		assertEquals("e", conflicts.get(1).getLookahead());
+		assertEquals(conflicts.get(0).toString(), table.getConflicts().get(0));
+		assertTrue(table.getConflicts().get(0).endsWith(", d: reduce A -> c | reduce B -> c"));
+
+		table = new LALRTable(grammar[3]);
+		assertEquals(1, table.getLRConflicts().size());
+		assertEquals(Arrays.asList("A -> x &", "B -> x"), table.getLRConflicts().get(0).getProductions());
+
+		table = new LALRTable(ContextFreeGrammar.isValidCFG("S -> S S | a"));
+		assertEquals(LRConflict.Kind.SHIFT_REDUCE, table.getLRConflicts().get(0).getKind());
+		assertTrue(table.getLRConflicts().get(0).getShiftTarget() > 0);
+	}
+}
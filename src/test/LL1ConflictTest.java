@@ -0,0 +1,146 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.CFGOperator;
+import ContextFreeLanguage.ContextFreeGrammar;
+import ContextFreeLanguage.LL1Conflict;
+import ContextFreeLanguage.LL1Table;
+
+class LL1ConflictTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[7];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"E -> T E1\n" +
+				"E1 -> + T E1 | &\n" +
+				"T -> F T1\n" +
+				"T1 -> * F T1 | &\n" +
+				"F -> id | ( E )");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"S -> a S | a b | a c");
+		grammar[2] = ContextFreeGrammar.isValidCFG(
+				"S -> A a | b\n" +
+				"A -> a | &");
+		grammar[3] = ContextFreeGrammar.isValidCFG(
+				"S -> A b\n" +
+				"A -> B | C\n" +
+				"B -> b | &\n" +
+				"C -> c | &");
+		grammar[4] = ContextFreeGrammar.isValidCFG(
+				"S -> S + a | a | b S | b");
+		grammar[5] = ContextFreeGrammar.isValidCFG(
+				"S -> A & b | b\n" +
+				"A -> a | &");
+		// C has no productions
+		grammar[6] = ContextFreeGrammar.isValidCFG(
+				"S -> A y\n" +
+				"A -> x B\n" +
+				"B -> C | y | &");
+		grammar[6].addVn("C");
+	}
+
+	/**
+	 * Test a grammar without conflicts
+	 */
+	@Test
+	void testNoConflicts() {
+		assertTrue(new CFGOperator(grammar[0]).getLL1Conflicts().isEmpty());
+	}
+
+	/**
+	 * Test FIRST/FIRST conflicts
+	 */
+	@Test
+	void testFirstFirst() {
+		List<LL1Conflict> conflicts = new CFGOperator(grammar[1]).getLL1Conflicts();
+		assertEquals(1, conflicts.size());
+		LL1Conflict c = conflicts.get(0);
+		assertEquals("S", c.getNonTerminal());
+		assertEquals("a", c.getLookahead());
+		assertEquals(LL1Conflict.Kind.FIRST_FIRST, c.getKind());
+		// all the competing productions of the cell
+		assertEquals(3, c.getProductions().size());
+		assertTrue(c.getProductions().containsAll(Arrays.asList("a S", "a b", "a c")));
+
+		// Left recursion, every lookahead of S conflicts
+		conflicts = new CFGOperator(grammar[4]).getLL1Conflicts();
+		assertEquals(2, conflicts.size());
+		for (LL1Conflict conflict : conflicts) {
+			assertEquals(LL1Conflict.Kind.FIRST_FIRST, conflict.getKind());
+		}
+	}
+
+	/**
+	 * Test FIRST/FOLLOW conflicts
+	 */
+	@Test
+	void testFirstFollow() {
+		List<LL1Conflict> conflicts = new CFGOperator(grammar[2]).getLL1Conflicts();
+		assertEquals(1, conflicts.size());
+		LL1Conflict c = conflicts.get(0);
+		assertEquals("A", c.getNonTerminal());
+		assertEquals("a", c.getLookahead());
+		assertEquals(LL1Conflict.Kind.FIRST_FOLLOW, c.getKind());
+		assertTrue(c.toString().startsWith("A, a: FIRST/FOLLOW A -> "));
+		assertTrue(c.getProductions().containsAll(Arrays.asList("a", "&")));
+
+		// B and C both derive &, on b it also conflicts with Follow(B)
+		conflicts = new CFGOperator(grammar[3]).getLL1Conflicts();
+		assertEquals(2, conflicts.size());
+		assertEquals("A", conflicts.get(0).getNonTerminal());
+		assertEquals(LL1Conflict.Kind.FIRST_FIRST, conflicts.get(0).getKind());
+		assertEquals("B", conflicts.get(1).getNonTerminal());
+		assertEquals(LL1Conflict.Kind.FIRST_FOLLOW, conflicts.get(1).getKind());
+	}
+
+	/**
+	 * Test & between other symbols, which is skipped,
+	 * and a non terminal without productions
+	 */
+	@Test
+	void testEpsilonBetweenSymbols() {
+		// First(A & b) has a and b
+		List<LL1Conflict> conflicts = new CFGOperator(grammar[5]).getLL1Conflicts();
+		assertEquals(1, conflicts.size());
+		assertEquals("S", conflicts.get(0).getNonTerminal());
+		assertEquals("b", conflicts.get(0).getLookahead());
+		assertEquals(LL1Conflict.Kind.FIRST_FIRST, conflicts.get(0).getKind());
+
+		// Follow(B) is Follow(A), which has y
+		conflicts = new CFGOperator(grammar[6]).getLL1Conflicts();
+		assertEquals(1, conflicts.size());
+		assertEquals("B", conflicts.get(0).getNonTerminal());
+		assertEquals("y", conflicts.get(0).getLookahead());
+		assertEquals(LL1Conflict.Kind.FIRST_FOLLOW, conflicts.get(0).getKind());
+	}
+
+	/**
+	 * Test that the conflicts are the conflicting cells of the table
+	 */
+	@Test
+	void testSameCellsAsTable() {
+		for (ContextFreeGrammar g : grammar) {
+			LL1Table table = new LL1Table(g);
+			List<LL1Conflict> conflicts = new CFGOperator(g).getLL1Conflicts();
+			assertEquals(table.isLL1(), conflicts.isEmpty());
+			for (LL1Conflict c : conflicts) {
+				int p = table.get(c.getNonTerminalId(), c.getLookaheadId());
+				assertEquals(c.getProductionIndexes()[0], p);
+			}
+		}
+	}
+}
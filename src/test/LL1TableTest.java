@@ -0,0 +1,141 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.ContextFreeGrammar;
+import ContextFreeLanguage.EarleyRecognizer;
+import ContextFreeLanguage.LL1Recognizer;
+import ContextFreeLanguage.LL1Table;
+import ContextFreeLanguage.SymbolTable;
+
+class LL1TableTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[8];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"E -> T E1\n" +
+				"E1 -> + T E1 | &\n" +
+				"T -> F T1\n" +
+				"T1 -> * F T1 | &\n" +
+				"F -> id | ( E )");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"S -> A B C D E\n" +
+				"A -> a | &\n" +
+				"B -> b | &\n" +
+				"C -> c\n" +
+				"D -> d | &\n" +
+				"E -> e | &");
+		grammar[2] = ContextFreeGrammar.isValidCFG(
+				"S -> a S | a b");
+		grammar[3] = ContextFreeGrammar.isValidCFG(
+				"S -> A a | b\n" +
+				"A -> a | &");
+		grammar[4] = ContextFreeGrammar.isValidCFG(
+				"S -> & S | a");
+		grammar[5] = ContextFreeGrammar.isValidCFG(
+				"S -> & c | a a c B\n" +
+				"B -> b");
+		grammar[6] = ContextFreeGrammar.isValidCFG(
+				"S -> B & c\n" +
+				"B -> b | &");
+		// C has no productions, so B -> C derives no sentence
+		grammar[7] = ContextFreeGrammar.isValidCFG(
+				"S -> A y\n" +
+				"A -> x B\n" +
+				"B -> C | &");
+		grammar[7].addVn("C");
+	}
+
+	/**
+	 * Test the cells of the table
+	 */
+	@Test
+	void testTable() {
+		LL1Table table = new LL1Table(grammar[0]);
+		assertTrue(table.isLL1());
+		SymbolTable symbols = table.getSymbolTable();
+		int e1 = symbols.getNonTerminalId("E1");
+		int p = table.get(e1, symbols.getTerminalId("+"));
+		assertEquals("+ T E1", table.getCompiledGrammar().toString(p, 0));
+		p = table.get(e1, symbols.getTerminalId(")"));
+		assertEquals("&", table.getCompiledGrammar().toString(p, 0));
+		p = table.get(e1, SymbolTable.END_ID);
+		assertEquals("&", table.getCompiledGrammar().toString(p, 0));
+		assertEquals(LL1Table.ERROR, table.get(e1, symbols.getTerminalId("id")));
+	}
+
+	/**
+	 * Test the recognizer
+	 */
+	@Test
+	void testRecognize() {
+		LL1Table table = new LL1Table(grammar[0]);
+		LL1Recognizer recognizer = new LL1Recognizer(table);
+		assertTrue(recognizer.recognize(table.encode("id")));
+		assertTrue(recognizer.recognize(table.encode("id + id * id")));
+		assertTrue(recognizer.recognize(table.encode("( id + id ) * ( ( id ) )")));
+		assertFalse(recognizer.recognize(table.encode("")));
+		assertFalse(recognizer.recognize(table.encode("id +")));
+		assertFalse(recognizer.recognize(table.encode("( id")));
+		assertFalse(recognizer.recognize(table.encode("id id")));
+		assertFalse(recognizer.recognize(table.encode("id - id")));
+
+		table = new LL1Table(grammar[1]);
+		recognizer = new LL1Recognizer(table);
+		assertTrue(recognizer.recognize(table.encode("c")));
+		assertTrue(recognizer.recognize(table.encode("a b c d e")));
+		assertTrue(recognizer.recognize(table.encode("a c e")));
+		assertFalse(recognizer.recognize(table.encode("a b d e")));
+		assertFalse(recognizer.recognize(table.encode("c b")));
+	}
+
+	/**
+	 * Test the conflicts
+	 */
+	@Test
+	void testConflicts() {
+		LL1Table table = new LL1Table(grammar[2]);
+		assertFalse(table.isLL1());
+		assertEquals(1, table.getConflicts().size());
+		assertTrue(table.getConflicts().get(0).startsWith("S, a:"));
+
+		// First(A a) and Follow(A) both have a
+		table = new LL1Table(grammar[3]);
+		assertFalse(table.isLL1());
+		assertTrue(table.getConflicts().get(0).startsWith("A, a:"));
+
+		// The & is skipped, so First(& S) is First(S)
+		table = new LL1Table(grammar[4]);
+		assertFalse(table.isLL1());
+		assertTrue(table.getConflicts().get(0).startsWith("S, a:"));
+	}
+
+	/**
+	 * Test & between other symbols, which is skipped,
+	 * and a non terminal without productions
+	 */
+	@Test
+	void testEpsilonBetweenSymbols() {
+		String[] sentences = { "c", "a a c b", "b c", "x y", "x", "y", "a c b", "c c", "" };
+		for (int i = 5; i < 8; i++) {
+			LL1Table table = new LL1Table(grammar[i]);
+			assertTrue(table.isLL1());
+			LL1Recognizer recognizer = new LL1Recognizer(table);
+			EarleyRecognizer earley = new EarleyRecognizer(grammar[i]);
+			for (String sentence : sentences) {
+				assertEquals(earley.recognize(earley.encode(sentence)), recognizer.recognize(table.encode(sentence)), sentence);
+			}
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.CompiledGrammar;
+import ContextFreeLanguage.ContextFreeGrammar;
+import ContextFreeLanguage.LALRTable;
+import ContextFreeLanguage.LRConflict;
+import ContextFreeLanguage.LRRecognizer;
+import ContextFreeLanguage.LRTable;
+import ContextFreeLanguage.MinimalLR1Table;
+
+class MinimalLR1TableTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[4];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"S -> a A d | b B d | a B e | b A e\n" +
+				"A -> c\n" +
+				"B -> c");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"E -> E + T | T\n" +
+				"T -> T * F | F\n" +
+				"F -> ( E ) | id");
+		grammar[2] = ContextFreeGrammar.isValidCFG(
+				"S -> L = R | R\n" +
+				"L -> * R | id\n" +
+				"R -> L");
+		grammar[3] = ContextFreeGrammar.isValidCFG(
+				"S -> x S y | A B\n" +
+				"A -> a A | &\n" +
+				"B -> b | &");
+	}
+
+	/**
+	 * Test a grammar that is LR(1) but not LALR(1)
+	 */
+	@Test
+	void testStrongerThanLALR() {
+		LALRTable lalr = new LALRTable(grammar[0]);
+		assertFalse(lalr.isConflictFree());
+		MinimalLR1Table table = new MinimalLR1Table(grammar[0]);
+		assertTrue(table.isConflictFree());
+		// The state that reduces c is split in two
+		assertEquals(lalr.getStateCount() + 1, table.getStateCount());
+		LRRecognizer recognizer = new LRRecognizer(table);
+		assertTrue(recognizer.recognize(table.encode("a c d")));
+		assertTrue(recognizer.recognize(table.encode("a c e")));
+		assertTrue(recognizer.recognize(table.encode("b c d")));
+		assertTrue(recognizer.recognize(table.encode("b c e")));
+		assertFalse(recognizer.recognize(table.encode("a c")));
+		assertFalse(recognizer.recognize(table.encode("c d")));
+	}
+
+	/**
+	 * Test that the states of LALR(1) grammars are not split
+	 */
+	@Test
+	void testLALRStates() {
+		for (int i = 1; i < grammar.length; i++) {
+			LALRTable lalr = new LALRTable(grammar[i]);
+			MinimalLR1Table table = new MinimalLR1Table(grammar[i]);
+			assertTrue(table.isConflictFree());
+			assertEquals(lalr.getStateCount(), table.getStateCount());
+		}
+		MinimalLR1Table table = new MinimalLR1Table(grammar[3]);
+		LRRecognizer recognizer = new LRRecognizer(table);
+		assertTrue(recognizer.recognize(table.encode("")));
+		assertTrue(recognizer.recognize(table.encode("x x a a b y y")));
+		assertTrue(recognizer.recognize(table.encode("x y")));
+		assertFalse(recognizer.recognize(table.encode("x b a y")));
+		assertEquals("S' -> . S", table.itemToString(table.getKernel(0)[0]));
+	}
+
+	/**
+	 * Test that the table does not depend on the parallelism
+	 */
+	@Test
+	void testParallel() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (ContextFreeGrammar g : grammar) {
+				CompiledGrammar compiled = new CompiledGrammar(g);
+				LRTable sequential = new MinimalLR1Table(compiled, null, 1);
+				LRTable parallel = new MinimalLR1Table(compiled, pool, 4);
+				assertEquals(sequential.getStateCount(), parallel.getStateCount());
+				assertEquals(sequential.getConflicts(), parallel.getConflicts());
+				int terminals = compiled.getSymbolTable().getTerminalCount();
+				for (int s = 0; s < sequential.getStateCount(); s++) {
+					for (int t = 0; t < terminals; t++) {
+						assertEquals(sequential.getAction(s, t), parallel.getAction(s, t));
+					}
+					for (int nt = 0; nt < compiled.getNonTerminalCount(); nt++) {
+						assertEquals(sequential.getGoto(s, nt), parallel.getGoto(s, nt));
+					}
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Test the conflicts of an ambiguous grammar
+	 */
+	@Test
+	void testConflicts() {
+		MinimalLR1Table table = new MinimalLR1Table(ContextFreeGrammar.isValidCFG("E -> E + E | id"));
+		assertFalse(table.isConflictFree());
+		LRConflict conflict = table.getLRConflicts().get(0);
+		assertEquals(LRConflict.Kind.SHIFT_REDUCE, conflict.getKind());
+		assertEquals("+", conflict.getLookahead());
+		assertEquals("E -> E + E", conflict.getProductions().get(0));
+	}
+}
@@ -0,0 +1,112 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.ContextFreeGrammar;
+import ContextFreeLanguage.GeneratedParser;
+import ContextFreeLanguage.HotSwapParser;
+import ContextFreeLanguage.LoadedParser;
+import ContextFreeLanguage.ParserCompiler;
+
+class ParserCompilerTest {
+	private ContextFreeGrammar grammar[];
+	private ParserCompiler compiler;
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[2];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"E -> T E1\n" +
+				"E1 -> + T E1 | &\n" +
+				"T -> F T1\n" +
+				"T1 -> * F T1 | &\n" +
+				"F -> id | ( E )");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"S -> a S | a b");
+		compiler = new ParserCompiler();
+	}
+
+	/**
+	 * Close the compiler
+	 * @throws Exception
+	 */
+	@AfterEach
+	void tearDown() throws Exception {
+		compiler.close();
+	}
+
+	/**
+	 * Test a compiled parser
+	 */
+	@Test
+	void testCompile() {
+		LoadedParser loaded = compiler.compile(grammar[0]);
+		GeneratedParser parser = loaded.newParser();
+		assertTrue(parser.parse(loaded.encode("id")));
+		assertTrue(parser.parse(loaded.encode("id + id * id")));
+		assertTrue(parser.parse(loaded.encode("( id + id ) * ( ( id ) )")));
+		assertFalse(parser.parse(loaded.encode("")));
+		assertFalse(parser.parse(loaded.encode("id +")));
+		assertFalse(parser.parse(loaded.encode("id id")));
+		assertFalse(parser.parse(loaded.encode("id - id")));
+		int[] tokens = loaded.encode("( id + id * id )");
+		assertTrue(parser.parse(tokens, 1, 6));
+
+		assertThrows(IllegalArgumentException.class, () -> compiler.compile(grammar[1]));
+	}
+
+	/**
+	 * Test that a closed compiler compiles no more parsers,
+	 * and the ones it compiled still work
+	 * @throws Exception
+	 */
+	@Test
+	void testClose() throws Exception {
+		LoadedParser loaded = compiler.compile(grammar[0]);
+		compiler.close();
+		compiler.close();
+		assertTrue(loaded.newParser().parse(loaded.encode("id * id")));
+		assertThrows(IllegalStateException.class, () -> compiler.compile(grammar[0]));
+	}
+
+	/**
+	 * Test that an edited grammar gets a new parser
+	 */
+	@Test
+	void testHotSwap() {
+		HotSwapParser hot = new HotSwapParser(grammar[0], compiler);
+		LoadedParser first = hot.get();
+		assertFalse(hot.isStale());
+		assertFalse(first.newParser().parse(first.encode("id * num")));
+
+		grammar[0].addProduction("F", "num");
+		assertTrue(hot.isStale());
+		LoadedParser second = hot.get();
+		assertNotEquals(first.getParserClass(), second.getParserClass());
+		assertNotEquals(first.getParserClass().getClassLoader(), second.getParserClass().getClassLoader());
+		assertTrue(second.newParser().parse(second.encode("id * num")));
+
+		// the & is skipped, T1 -> & / F T1 is predicted on /
+		grammar[0].addProduction("T1", "& / F T1");
+		LoadedParser third = hot.get();
+		assertTrue(third.newParser().parse(third.encode("id / num * id")));
+		assertFalse(third.newParser().parse(third.encode("id /")));
+
+		// F -> id | id num is not LL(1), the last parser is kept
+		grammar[0].addProduction("F", "id num");
+		assertThrows(IllegalArgumentException.class, () -> hot.get());
+		assertTrue(hot.isStale());
+		hot.close();
+	}
+}
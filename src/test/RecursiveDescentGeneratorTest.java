@@ -0,0 +1,114 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.ContextFreeGrammar;
+import ContextFreeLanguage.EarleyRecognizer;
+import ContextFreeLanguage.GeneratedParser;
+import ContextFreeLanguage.LoadedParser;
+import ContextFreeLanguage.ParserCompiler;
+import ContextFreeLanguage.RecursiveDescentGenerator;
+
+class RecursiveDescentGeneratorTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[6];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"E -> T E1\n" +
+				"E1 -> + T E1 | &\n" +
+				"T -> F T1\n" +
+				"T1 -> * F T1 | &\n" +
+				"F -> id | ( E )");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"S -> a S | a b");
+		grammar[2] = ContextFreeGrammar.isValidCFG(
+				"S -> A B\n" +
+				"A -> a A b | c\n" +
+				"B -> d | &");
+		grammar[3] = ContextFreeGrammar.isValidCFG(
+				"S -> & c | a a c B\n" +
+				"B -> b");
+		grammar[4] = ContextFreeGrammar.isValidCFG(
+				"S -> B & c\n" +
+				"B -> & b B & | &");
+		// C has no productions
+		grammar[5] = ContextFreeGrammar.isValidCFG(
+				"S -> A y\n" +
+				"A -> x B\n" +
+				"B -> C | &");
+		grammar[5].addVn("C");
+	}
+
+	/**
+	 * Test the generated source
+	 * @throws IOException
+	 */
+	@Test
+	void testGenerate() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		new RecursiveDescentGenerator(grammar[0]).generate("parsers", "ExpressionParser", sb);
+		String source = sb.toString();
+		assertTrue(source.startsWith("package parsers;"));
+		assertTrue(source.contains("public final class ExpressionParser {"));
+		assertTrue(source.contains("public boolean parse(int[] tokens, int from, int to)"));
+		// one method per non terminal
+		assertEquals(5, source.split("private boolean parse").length - 1);
+		// E1 and T1 call themselves last, they loop instead
+		assertEquals(2, source.split("while \\(true\\)").length - 1);
+		assertFalse(source.contains("import "));
+
+		sb = new StringBuilder();
+		new RecursiveDescentGenerator(grammar[2]).generate("", "P", sb);
+		source = sb.toString();
+		assertTrue(source.startsWith("/**"));
+		assertFalse(source.contains("while (true)"));
+	}
+
+	/**
+	 * Test that the compiled recognizers accept the same sentences as
+	 * the Earley recognizer, with & between the symbols of a production
+	 * @throws IOException
+	 */
+	@Test
+	void testSameAsEarley() throws IOException {
+		String[] sentences = { "", "c", "a a c b", "a a c", "b c", "b b c", "b b b c", "x y", "x", "y", "c c" };
+		try (ParserCompiler compiler = new ParserCompiler()) {
+			for (ContextFreeGrammar g : grammar) {
+				if (g == grammar[1]) {
+					continue; // not LL(1)
+				}
+				LoadedParser loaded = compiler.compile(g);
+				GeneratedParser parser = loaded.newParser();
+				EarleyRecognizer earley = new EarleyRecognizer(g);
+				for (String sentence : sentences) {
+					assertEquals(earley.recognize(earley.encode(sentence)), parser.parse(loaded.encode(sentence)), sentence);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test invalid input
+	 */
+	@Test
+	void testInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> new RecursiveDescentGenerator(grammar[1]));
+		RecursiveDescentGenerator generator = new RecursiveDescentGenerator(grammar[0]);
+		assertThrows(IllegalArgumentException.class, () -> generator.generate("", "1Parser", new StringBuilder()));
+		assertThrows(IllegalArgumentException.class, () -> generator.generate("a..b", "Parser", new StringBuilder()));
+	}
+}
@@ -0,0 +1,105 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.ContextFreeGrammar;
+import ContextFreeLanguage.LR0Automaton;
+import ContextFreeLanguage.LRRecognizer;
+import ContextFreeLanguage.LRTable;
+import ContextFreeLanguage.SLRTable;
+import ContextFreeLanguage.SymbolTable;
+
+class SLRTableTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[4];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"E -> E + T | T\n" +
+				"T -> T * F | F\n" +
+				"F -> ( E ) | id");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"S -> L = R | R\n" +
+				"L -> * R | id\n" +
+				"R -> L");
+		grammar[2] = ContextFreeGrammar.isValidCFG(
+				"S -> A S b | &\n" +
+				"A -> a | &");
+		grammar[3] = ContextFreeGrammar.isValidCFG(
+				"S -> L\n" +
+				"L -> L , a | a | &");
+	}
+
+	/**
+	 * Test the LR(0) automaton
+	 */
+	@Test
+	void testAutomaton() {
+		LR0Automaton automaton = new LR0Automaton(grammar[0]);
+		// The canonical collection of the expression grammar has 12 states
+		assertEquals(12, automaton.getStateCount());
+		SymbolTable symbols = automaton.getSymbolTable();
+		int e = automaton.getTransition(0, symbols.getNonTerminalId("E"));
+		assertTrue(e > 0);
+		int plus = automaton.getTransition(e, ~symbols.getTerminalId("+"));
+		assertTrue(plus > 0);
+		assertEquals(-1, automaton.getTransition(e, ~symbols.getTerminalId("id")));
+		int[] kernel = automaton.getKernel(plus);
+		assertEquals(1, kernel.length);
+		assertEquals("E -> E + . T", automaton.itemToString(kernel[0]));
+	}
+
+	/**
+	 * Test the recognizer on left recursive grammars
+	 */
+	@Test
+	void testRecognize() {
+		SLRTable table = new SLRTable(grammar[0]);
+		assertTrue(table.isConflictFree());
+		LRRecognizer recognizer = new LRRecognizer(table);
+		assertTrue(recognizer.recognize(table.encode("id")));
+		assertTrue(recognizer.recognize(table.encode("id + id * id")));
+		assertTrue(recognizer.recognize(table.encode("( id + id ) * ( ( id ) )")));
+		assertFalse(recognizer.recognize(table.encode("")));
+		assertFalse(recognizer.recognize(table.encode("id +")));
+		assertFalse(recognizer.recognize(table.encode("( id")));
+		assertFalse(recognizer.recognize(table.encode("id id")));
+		assertFalse(recognizer.recognize(table.encode("id - id")));
+
+		table = new SLRTable(grammar[3]);
+		assertTrue(table.isConflictFree());
+		recognizer = new LRRecognizer(table);
+		assertTrue(recognizer.recognize(table.encode("")));
+		assertTrue(recognizer.recognize(table.encode("a , a , a")));
+		assertFalse(recognizer.recognize(table.encode("a ,")));
+	}
+
+	/**
+	 * Test the conflicts
+	 */
+	@Test
+	void testConflicts() {
+		// The classic grammar that is LALR(1) but not SLR(1)
+		SLRTable table = new SLRTable(grammar[1]);
+		assertFalse(table.isConflictFree());
+		assertEquals(1, table.getConflicts().size());
+		assertTrue(table.getConflicts().get(0).contains("=: shift"));
+		assertTrue(table.getConflicts().get(0).endsWith("reduce R -> L"));
+		assertThrows(IllegalArgumentException.class, () -> new LRRecognizer(table));
+
+		// A derives & before S, and S -> & too
+		LRTable other = new SLRTable(grammar[2]);
+		assertFalse(other.isConflictFree());
+	}
+}
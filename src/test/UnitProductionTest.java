@@ -0,0 +1,104 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.GrammarAssertions.assertSameLanguage;
+import static test.GrammarAssertions.set;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.CFGOperator;
+import ContextFreeLanguage.ContextFreeGrammar;
+
+class UnitProductionTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[4];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"E -> E + T | T\n" +
+				"T -> T * F | F\n" +
+				"F -> ( E ) | id");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"S -> A | a S\n" +
+				"A -> B | b\n" +
+				"B -> S | C c\n" +
+				"C -> c | S");
+		grammar[2] = ContextFreeGrammar.isValidCFG(
+				"S -> A & | &\n" +
+				"A -> a A | S");
+		grammar[3] = ContextFreeGrammar.isValidCFG(
+				"S -> A B | a B a | b\n" +
+				"A -> a");
+	}
+
+	/**
+	 * Verify that a grammar has no unit production
+	 * @param g the grammar
+	 */
+	private void assertUnitFree(ContextFreeGrammar g) {
+		for (String vn : g.getVn()) {
+			for (String prod : g.getGrammarProductions(vn)) {
+				assertFalse(g.getVn().contains(prod));
+			}
+		}
+	}
+
+	/**
+	 * Test a chain of units
+	 */
+	@Test
+	void testChain() {
+		ContextFreeGrammar g = new CFGOperator(grammar[0]).eliminateUnitProductions();
+		assertUnitFree(g);
+		assertEquals(grammar[0].getId() + " [-UP]", g.getId());
+		assertEquals(set("E + T", "T * F", "( E )", "id"), g.getGrammarProductions("E"));
+		assertEquals(set("T * F", "( E )", "id"), g.getGrammarProductions("T"));
+		assertEquals(set("( E )", "id"), g.getGrammarProductions("F"));
+		assertSameLanguage(grammar[0], g, "id", "id + id * id", "( id + id ) * id", "( id", "id + * id", "");
+		// The original grammar is left as it was
+		assertEquals(2, grammar[0].getGrammarProductions("E").size());
+	}
+
+	/**
+	 * Test cycles of units, where every non terminal of a cycle gets the same productions
+	 */
+	@Test
+	void testCycles() {
+		ContextFreeGrammar g = new CFGOperator(grammar[1]).eliminateUnitProductions();
+		assertUnitFree(g);
+		Set<String> cycle = set("a S", "b", "C c");
+		assertEquals(cycle, g.getGrammarProductions("S"));
+		assertEquals(set("a S", "b", "C c", "c"), g.getGrammarProductions("C"));
+		// A and B are only on the right side of units
+		assertEquals(set("S", "C"), g.getVn());
+		assertSameLanguage(grammar[1], g, "a b", "c c", "a a c", "b c", "a", "");
+
+		// S -> A & is a unit, and & is kept
+		g = new CFGOperator(grammar[2]).eliminateUnitProductions();
+		assertUnitFree(g);
+		assertEquals(set("a A", "&"), g.getGrammarProductions("S"));
+		assertEquals(set("a A", "&"), g.getGrammarProductions("A"));
+		assertSameLanguage(grammar[2], g, "", "a", "a a a", "b");
+	}
+
+	/**
+	 * Test a grammar with no unit production and a non terminal with no production
+	 */
+	@Test
+	void testNoUnits() {
+		ContextFreeGrammar g = new CFGOperator(grammar[3]).eliminateUnitProductions();
+		// B has no production, so only S -> b derives a sentence
+		assertEquals(set("S"), g.getVn());
+		assertEquals(set("b"), g.getGrammarProductions("S"));
+	}
+}
@@ -0,0 +1,96 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.GrammarAssertions.set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ContextFreeLanguage.CFGOperator;
+import ContextFreeLanguage.ContextFreeGrammar;
+
+class UselessSymbolsTest {
+	private ContextFreeGrammar grammar[];
+
+	/**
+	 * Set up grammars
+	 * @throws Exception
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		grammar = new ContextFreeGrammar[5];
+		grammar[0] = ContextFreeGrammar.isValidCFG(
+				"S -> a A | b | &\n" +
+				"A -> A a\n" +
+				"B -> b");
+		grammar[1] = ContextFreeGrammar.isValidCFG(
+				"S -> A B | a\n" +
+				"A -> a\n" +
+				"B -> B b");
+		grammar[2] = ContextFreeGrammar.isValidCFG(
+				"S -> S a");
+		grammar[3] = ContextFreeGrammar.isValidCFG(
+				"E -> T E1\n" +
+				"E1 -> + T E1 | &\n" +
+				"T -> F T1\n" +
+				"T1 -> * F T1 | &\n" +
+				"F -> id | ( E )");
+		grammar[4] = ContextFreeGrammar.isValidCFG(
+				"S -> A c | B d\n" +
+				"A -> a A | C\n" +
+				"B -> b\n" +
+				"C -> c C | D\n" +
+				"D -> d D | &\n" +
+				"F -> f F");
+	}
+
+	/**
+	 * Test the unproductive and the unreached symbols
+	 */
+	@Test
+	void testRemove() {
+		CFGOperator op = new CFGOperator(grammar[0]);
+		assertTrue(op.hasUselessSymbols());
+		ContextFreeGrammar g = op.removeUselessSymbols();
+		assertEquals(set("S"), g.getVn());
+		assertEquals(set("b", "&"), g.getVt());
+		assertEquals(set("b", "&"), g.getGrammarProductions("S"));
+		assertEquals(grammar[0].getId() + " [-US]", g.getId());
+		assertFalse(new CFGOperator(g).hasUselessSymbols());
+		// The original grammar is left as it was
+		assertEquals(3, grammar[0].getVn().size());
+
+		// A is only reached through B, which derives no sentence
+		g = new CFGOperator(grammar[1]).removeUselessSymbols();
+		assertEquals(set("S"), g.getVn());
+		assertEquals(set("a"), g.getGrammarProductions("S"));
+
+		g = new CFGOperator(grammar[4]).removeUselessSymbols();
+		assertEquals(set("S", "A", "B", "C", "D"), g.getVn());
+		assertFalse(g.getVt().contains("f"));
+		assertEquals(set("a A", "C"), g.getGrammarProductions("A"));
+	}
+
+	/**
+	 * Test grammars with no useless symbol and an empty language
+	 */
+	@Test
+	void testReduced() {
+		CFGOperator op = new CFGOperator(grammar[3]);
+		assertFalse(op.hasUselessSymbols());
+		ContextFreeGrammar g = op.removeUselessSymbols();
+		assertEquals(grammar[3].getVn(), g.getVn());
+		for (String nt : grammar[3].getVn()) {
+			assertEquals(grammar[3].getGrammarProductions(nt).size(), g.getGrammarProductions(nt).size());
+		}
+
+		op = new CFGOperator(grammar[2]);
+		assertTrue(op.hasUselessSymbols());
+		g = op.removeUselessSymbols();
+		assertEquals("S", g.getInitialSymbol());
+		assertEquals(set("S"), g.getVn());
+		assertTrue(g.getGrammarProductions("S").isEmpty());
+	}
+}